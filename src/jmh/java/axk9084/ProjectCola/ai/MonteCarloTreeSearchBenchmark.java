@@ -0,0 +1,67 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Playout rate of the Monte Carlo tree search from the opening position.
+ *
+ * Each invocation runs a fixed number of iterations on a fresh tree and reports, through its playouts counter, the
+ * playouts per second.  The target is 100k playouts per second per core on the default board.
+ *
+ * Created by antkwan on 7/12/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class MonteCarloTreeSearchBenchmark {
+
+  private static final int ITERATIONS = 10000;
+
+  // Enough nodes that the tree never fills up
+  private static final int MAX_NODES = ITERATIONS * 64;
+
+  // Long enough that the iteration limit, not the clock, ends each search
+  private static final long UNLIMITED_MILLIS = 60000;
+
+  @Param( { "6", "16" } )
+  public int size;
+
+  @Param( { "6", "20" } )
+  public int playoutTurns;
+
+  private MonteCarloTreeSearch search;
+
+  /**
+   * Playouts run, reported by JMH as a rate.  Each public field is a counter, reset for each iteration.
+   */
+  @State( Scope.Thread )
+  @AuxCounters
+  public static class Counters {
+    public long playouts;
+
+    @Setup( Level.Iteration )
+    public void reset() {
+      playouts = 0;
+    }
+  }
+
+  @Setup( Level.Trial )
+  public void setup() {
+    ProjectColaEngine engine = new ProjectColaEngine( size, size );
+    search = new MonteCarloTreeSearch( engine, MAX_NODES, 1, new MaterialEvaluator(), 1.4, playoutTurns );
+  }
+
+  @Benchmark
+  public long playoutsPerSecond( Counters counters ) {
+    search.clear();
+    long action = search.findBestAction( UNLIMITED_MILLIS, ITERATIONS );
+    counters.playouts += search.getPlayouts();
+    return action;
+  }
+}
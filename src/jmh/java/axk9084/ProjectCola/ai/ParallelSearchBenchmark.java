@@ -0,0 +1,82 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of the Lazy SMP search with the number of threads.
+ *
+ * timeToDepth measures how long it takes to finish a fixed depth from the opening position with an empty table.
+ * nodesPerSecond runs the same searches and reports, through its nodes counter, the nodes per second visited by all
+ * threads together.
+ *
+ * Created by antkwan on 7/10/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ParallelSearchBenchmark {
+
+  // Long enough that the depth limit, not the clock, ends each search
+  private static final long UNLIMITED_MILLIS = 60000;
+
+  @Param( { "1", "2", "4", "8", "16" } )
+  public int threads;
+
+  @Param( { "11" } )
+  public int depth;
+
+  private ProjectColaEngine engine;
+  private TranspositionTable table;
+  private ParallelSearch search;
+
+  /**
+   * Nodes visited, reported by JMH as a rate.  Each public field is a counter, reset for each iteration.
+   */
+  @State( Scope.Thread )
+  @AuxCounters
+  public static class Counters {
+    public long nodes;
+
+    @Setup( Level.Iteration )
+    public void reset() {
+      nodes = 0;
+    }
+  }
+
+  @Setup( Level.Trial )
+  public void setup() {
+    engine = new ProjectColaEngine();
+    table = new TranspositionTable( 1 << 20 );
+    search = new ParallelSearch( threads, new MaterialEvaluator(), table );
+  }
+
+  @Setup( Level.Invocation )
+  public void clearTable() {
+    table.clear();
+  }
+
+  @TearDown( Level.Trial )
+  public void tearDown() {
+    search.shutdown();
+  }
+
+  @Benchmark
+  public long timeToDepth() {
+    return search.findBestAction( engine, UNLIMITED_MILLIS, depth );
+  }
+
+  @Benchmark
+  @BenchmarkMode( Mode.Throughput )
+  @OutputTimeUnit( TimeUnit.SECONDS )
+  public long nodesPerSecond( Counters counters ) {
+    long action = search.findBestAction( engine, UNLIMITED_MILLIS, depth );
+    counters.nodes += search.getNodes();
+    return action;
+  }
+}
@@ -0,0 +1,69 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.Chara;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cast scheduler in a steady state: each turn schedules a batch of casts with delays of 1 to 8 turns
+ * and resolves the casts that are due, so about four and a half batches are pending at any time.  Also measures
+ * cancelling a batch by its caster dying.  Scores are per cast.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CastSchedulerBenchmark {
+
+  private static final int BATCH = 1024;
+
+  // Casters are the charas of the default game
+  private static final int CASTERS = 8;
+
+  private static final Cast NO_OP = new Cast() {
+    public void resolve( ProjectColaEngine engine, Chara caster ) {
+    }
+
+    public Cast copy() {
+      return this;
+    }
+  };
+
+  private final ProjectColaEngine engine = new ProjectColaEngine();
+  private final CastScheduler scheduler = new CastScheduler();
+  private final int[] delays = new int[ BATCH ];
+  private int turn = 1;
+
+  @Setup
+  public void setup() {
+    Random random = new Random( 42 );
+    for ( int i = 0; i < BATCH; i++ ) {
+      delays[ i ] = 1 + random.nextInt( 8 );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( BATCH )
+  public void scheduleAndResolve() {
+    for ( int i = 0; i < BATCH; i++ ) {
+      scheduler.schedule( NO_OP, i % CASTERS, turn, turn + delays[ i ] );
+    }
+    scheduler.resolveDue( turn, engine );
+    turn++;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( BATCH )
+  public int scheduleAndCancelCaster() {
+    for ( int i = 0; i < BATCH; i++ ) {
+      scheduler.schedule( NO_OP, 0, turn, turn + delays[ i ] );
+    }
+    return scheduler.cancelCaster( 0 );
+  }
+}
@@ -0,0 +1,99 @@
+package axk9084.ProjectCola.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rejecting bad commands through the throwing moveCharacter and attackCharacter with tryMove and tryAttack.
+ * Each call takes the next of a fixed set of random probes that the default board rejects, with a mix of reasons
+ * like the bad input and probes seen under load.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CommandValidationBenchmark {
+
+  private static final int PROBES = 1024;
+
+  private ProjectColaEngine engine;
+
+  // Probe tiles: from x, from y, to x, to y
+  private final int[][] moves = new int[ PROBES ][];
+  private final int[][] attacks = new int[ PROBES ][];
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine();
+    Random random = new Random( 1 );
+
+    for ( int i = 0; i < PROBES; i++ ) {
+      moves[ i ] = randomProbe( random, true );
+      attacks[ i ] = randomProbe( random, false );
+    }
+  }
+
+  /**
+   * Helper method to find a random probe, near the board, that is rejected.
+   */
+  private int[] randomProbe( Random random, boolean move ) {
+    while ( true ) {
+      int[] probe = new int[] { random.nextInt( 8 ) - 1, random.nextInt( 8 ) - 1,
+          random.nextInt( 8 ) - 1, random.nextInt( 8 ) - 1 };
+      ProjectColaEngine copy = new ProjectColaEngine( engine );
+      ActionResult result = move
+          ? copy.tryMove( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] )
+          : copy.tryAttack( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] );
+      if ( !result.isAccepted() ) {
+        return probe;
+      }
+    }
+  }
+
+  private int[] nextProbe( int[][] probes ) {
+    return probes[ next++ & ( PROBES - 1 ) ];
+  }
+
+  @Benchmark
+  public Object throwingMove() {
+    int[] probe = nextProbe( moves );
+    try {
+      engine.moveCharacter( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] );
+      return null;
+    }
+    catch ( Exception e ) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public int tryMove() {
+    int[] probe = nextProbe( moves );
+    return engine.tryMove( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] ).getCode();
+  }
+
+  @Benchmark
+  public Object throwingAttack() {
+    int[] probe = nextProbe( attacks );
+    try {
+      engine.attackCharacter( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] );
+      return null;
+    }
+    catch ( Exception e ) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public int tryAttack() {
+    int[] probe = nextProbe( attacks );
+    return engine.tryAttack( probe[ 0 ], probe[ 1 ], probe[ 2 ], probe[ 3 ] ).getCode();
+  }
+}
@@ -0,0 +1,81 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.controller.metrics.EngineMetrics;
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.CharaKinds;
+import axk9084.ProjectCola.model.chara.CharaStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the accepted paths of the engine commands players send: a move, an attack and ending the turn.
+ *
+ * The board holds a player 1 rogue that steps back and forth, a player 1 knight next to a player 2 knight it
+ * attacks, and a player 2 priest.  The mover's actions and the target's health are reset after each command so
+ * every call is accepted and nothing dies.  The commands are run with metrics off and on, see {@link EngineMetrics}.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class EngineCommandBenchmark {
+
+  @Param( { "6", "32", "128" } )
+  public int size;
+
+  @Param( { "false", "true" } )
+  public boolean metrics;
+
+  private ProjectColaEngine engine;
+  private Chara rogue;
+  private Chara knight;
+  private Chara target;
+  private boolean movedOut = false;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine( size, size, 1, 4 );
+    engine.setMetrics( metrics ? new EngineMetrics() : null );
+    rogue = place( CharaKinds.ROGUE, 1, 3, 3 );
+    knight = place( CharaKinds.KNIGHT, 1, 1, 1 );
+    target = place( CharaKinds.KNIGHT, 2, 1, 2 );
+    place( CharaKinds.PRIEST, 2, size - 1, size - 1 );
+  }
+
+  private Chara place( int kind, int player, int x, int y ) {
+    CharaStore store = engine.getCharaStore();
+    Chara chara = store.getChara( store.add( kind, player ) );
+    engine.restoreCharacter( chara, engine.getBoard().getIndex( x, y ) );
+    return chara;
+  }
+
+  @Benchmark
+  public void moveCharacter() throws Exception {
+    if ( movedOut ) {
+      engine.moveCharacter( 4, 3, 3, 3 );
+    }
+    else {
+      engine.moveCharacter( 3, 3, 4, 3 );
+    }
+    movedOut = !movedOut;
+    rogue.setActionsRemaining( rogue.getActions() );
+  }
+
+  @Benchmark
+  public void attackCharacter() throws Exception {
+    engine.attackCharacter( 1, 1, 1, 2 );
+    target.setHealth( target.getMaxHealth() );
+    knight.setActionsRemaining( knight.getActions() );
+  }
+
+  @Benchmark
+  public int endPlayerTurn() {
+    engine.endPlayerTurn();
+    return engine.getTurnPlayer();
+  }
+}
@@ -0,0 +1,40 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.CharaStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures copying a game: the whole engine, and the character store on its own.
+ *
+ * Created by antkwan on 7/14/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class EngineCopyBenchmark {
+
+  @Param( { "6", "32" } )
+  public int size;
+
+  private ProjectColaEngine engine;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine( size, size );
+  }
+
+  @Benchmark
+  public ProjectColaEngine copyEngine() {
+    return new ProjectColaEngine( engine );
+  }
+
+  @Benchmark
+  public CharaStore copyCharaStore() {
+    return new CharaStore( engine.getCharaStore() );
+  }
+}
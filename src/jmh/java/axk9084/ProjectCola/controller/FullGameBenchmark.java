@@ -0,0 +1,54 @@
+package axk9084.ProjectCola.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures playing a whole random game to a win: a new engine, then random legal actions, taking an attack when one
+ * is offered most of the time so games end.  Each call plays the next game of a fixed seed sequence.  A game that
+ * reaches the turn limit is forfeited, which only happens on the large boards.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class FullGameBenchmark {
+
+  private static final int MAX_TURNS = 400;
+  private static final int ATTACK_PREFERENCE_PERCENT = 70;
+
+  @Param( { "6", "12", "24" } )
+  public int size;
+
+  private final long[] actions = new long[ 4096 ];
+  private final Random random = new Random();
+  private long game = 0;
+
+  @Benchmark
+  public int playRandomGame() {
+    random.setSeed( game++ );
+    ProjectColaEngine engine = new ProjectColaEngine( size, size );
+
+    while ( engine.getGameWinner() == null ) {
+      if ( engine.getTurn() > MAX_TURNS ) {
+        engine.playerForfeit();
+        break;
+      }
+
+      int count = Math.min( engine.generateLegalActions( engine.getTurnPlayer(), actions ), actions.length );
+      long action = actions[ random.nextInt( count ) ];
+      if ( Action.getType( actions[ 0 ] ) == Action.ATTACK && random.nextInt( 100 ) < ATTACK_PREFERENCE_PERCENT ) {
+        action = actions[ 0 ];
+      }
+      engine.play( action );
+    }
+
+    return engine.getGameWinner();
+  }
+}
@@ -0,0 +1,64 @@
+package axk9084.ProjectCola.controller;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving a game into a snapshot and restoring an engine from it, on the default and a large board, part
+ * way through a game so some characters are hurt or dead.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class GameSnapshotBenchmark {
+
+  @Param( { "6", "32" } )
+  public int size;
+
+  private ProjectColaEngine engine;
+  private ByteBuffer snapshotBuffer;
+  private ByteBuffer restoreBuffer;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine( size, size );
+
+    // Play random actions, preferring attacks, until both sides have been hurt
+    Random random = new Random( 1 );
+    long[] actions = new long[ 1024 ];
+    for ( int i = 0; i < 200 && engine.getGameWinner() == null; i++ ) {
+      int count = Math.min( engine.generateLegalActions( engine.getTurnPlayer(), actions ), actions.length );
+      long action = actions[ random.nextInt( count ) ];
+      if ( Action.getType( actions[ 0 ] ) == Action.ATTACK ) {
+        action = actions[ 0 ];
+      }
+      engine.apply( action );
+    }
+
+    snapshotBuffer = ByteBuffer.allocateDirect( GameSnapshot.maxSize( engine ) );
+    restoreBuffer = ByteBuffer.allocateDirect( GameSnapshot.maxSize( engine ) );
+    GameSnapshot.write( engine, restoreBuffer );
+    restoreBuffer.flip();
+  }
+
+  @Benchmark
+  public ByteBuffer snapshot() {
+    snapshotBuffer.clear();
+    GameSnapshot.write( engine, snapshotBuffer );
+    return snapshotBuffer;
+  }
+
+  @Benchmark
+  public ProjectColaEngine restore() {
+    restoreBuffer.rewind();
+    return GameSnapshot.read( restoreBuffer );
+  }
+}
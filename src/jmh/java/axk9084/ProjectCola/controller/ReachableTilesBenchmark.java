@@ -0,0 +1,38 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.Chara;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ProjectColaEngine.getReachableTiles for the default characters on the default and a large board.
+ *
+ * Created by antkwan on 7/3/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ReachableTilesBenchmark {
+
+  @Param( { "6", "128" } )
+  public int size;
+
+  private ProjectColaEngine engine;
+  private Chara knight;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine( size, size );
+    knight = engine.getCharacters( 1 ).get( 0 );
+  }
+
+  @Benchmark
+  public BitSet getReachableTiles() {
+    return engine.getReachableTiles( knight );
+  }
+}
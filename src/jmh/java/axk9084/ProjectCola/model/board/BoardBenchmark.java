@@ -0,0 +1,121 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.exceptions.TileDoesNotExistException;
+import axk9084.ProjectCola.model.chara.Knight;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares tile lookup throughput of the flat array Board against the original nested TreeMap layout.
+ * Each invocation walks a fixed pseudo random sequence of tiles so both layouts see the same access pattern.
+ *
+ * Created by antkwan on 6/25/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BoardBenchmark {
+
+  private static final int LOOKUPS = 1024;
+
+  @Param( { "6", "26" } )
+  public int size;
+
+  private Board board;
+  private TreeMapBoard treeMapBoard;
+
+  private char[] columns;
+  private int[] rows;
+  private int[] indexes;
+  private int[] xs;
+  private int[] ys;
+
+  @Setup
+  public void setup() throws TileDoesNotExistException {
+    board = new Board( size, size );
+    treeMapBoard = new TreeMapBoard( size, size );
+
+    columns = new char[ LOOKUPS ];
+    rows = new int[ LOOKUPS ];
+    indexes = new int[ LOOKUPS ];
+    xs = new int[ LOOKUPS ];
+    ys = new int[ LOOKUPS ];
+
+    Random random = new Random( 42 );
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      columns[ i ] = (char) ( 'a' + random.nextInt( size ) );
+      rows[ i ] = random.nextInt( size ) + 1;
+      indexes[ i ] = board.getIndex( columns[ i ], rows[ i ] );
+      xs[ i ] = board.getX( indexes[ i ] );
+      ys[ i ] = board.getY( indexes[ i ] );
+    }
+
+    // Scatter some entities so lookups do not only see empty tiles
+    for ( int i = 0; i < size; i++ ) {
+      board.setEntityAt( columns[ i ], rows[ i ], new Knight( 1 ) );
+      treeMapBoard.setEntityAt( columns[ i ], rows[ i ], new Knight( 1 ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void treeMapGetEntityAt( Blackhole blackhole ) throws TileDoesNotExistException {
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      blackhole.consume( treeMapBoard.getEntityAt( columns[ i ], rows[ i ] ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void arrayGetEntityAt( Blackhole blackhole ) throws TileDoesNotExistException {
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      blackhole.consume( board.getEntityAt( columns[ i ], rows[ i ] ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void arrayGetEntityAtXY( Blackhole blackhole ) throws TileDoesNotExistException {
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      blackhole.consume( board.getEntityAt( xs[ i ], ys[ i ] ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void arrayGetEntityAtIndex( Blackhole blackhole ) {
+    for ( int i = 0; i < LOOKUPS; i++ ) {
+      blackhole.consume( board.getEntityAt( indexes[ i ] ) );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void treeMapMoveEntity() throws TileDoesNotExistException {
+    for ( int i = 1; i < LOOKUPS; i++ ) {
+      treeMapBoard.moveEntity( columns[ i - 1 ], rows[ i - 1 ], columns[ i ], rows[ i ] );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void arrayMoveEntity() throws TileDoesNotExistException {
+    for ( int i = 1; i < LOOKUPS; i++ ) {
+      board.moveEntity( xs[ i - 1 ], ys[ i - 1 ], xs[ i ], ys[ i ] );
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation( LOOKUPS )
+  public void arrayMoveEntityAtIndex() {
+    for ( int i = 1; i < LOOKUPS; i++ ) {
+      board.moveEntity( indexes[ i - 1 ], indexes[ i ] );
+    }
+  }
+}
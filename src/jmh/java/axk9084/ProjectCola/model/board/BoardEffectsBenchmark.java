@@ -0,0 +1,60 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.effect.Tornado;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ending a turn with tornados travelling over the board, against only finding the effects by scanning every
+ * tile.  The cost of running the effects should follow their number, not the board size.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BoardEffectsBenchmark {
+
+  @Param( { "64", "512" } )
+  public int size;
+
+  @Param( { "16", "1024" } )
+  public int effects;
+
+  private Board board;
+
+  @Setup
+  public void setup() {
+    board = new Board( size, size );
+
+    Random random = new Random( 42 );
+    for ( int i = 0; i < effects; i++ ) {
+      board.addEffect( random.nextInt( board.getTileCount() ),
+          new Tornado( random.nextInt( 3 ) - 1, random.nextInt( 3 ) - 1, Integer.MAX_VALUE ) );
+    }
+  }
+
+  @Benchmark
+  public void runEndTurnEffects() {
+    board.runEndTurnEffects();
+  }
+
+  @Benchmark
+  public int scanEveryTile() {
+    int found = 0;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      List< Effect > tileEffects = board.getEffects( index );
+      if ( !tileEffects.isEmpty() ) {
+        found += tileEffects.size();
+      }
+    }
+    return found;
+  }
+}
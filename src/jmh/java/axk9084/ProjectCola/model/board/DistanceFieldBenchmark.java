@@ -0,0 +1,102 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.board.terrain.Forest;
+import axk9084.ProjectCola.model.board.terrain.Mountain;
+import axk9084.ProjectCola.model.board.terrain.Swamp;
+import axk9084.ProjectCola.model.chara.Knight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares asking the distance field cache for a mover's reachable tiles with searching them every time, on boards
+ * with terrain.  A tenth of the tiles hold blocking entities and a quarter have forest, swamp or mountain terrain.
+ *
+ * cachedField asks again with nothing changed.  farChange and nearChange first move an entity on and off a tile, out
+ * of and within the mover's range, so the field stays valid or is searched again.  search is the uncached search.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class DistanceFieldBenchmark {
+
+  @Param( { "6", "128" } )
+  public int size;
+
+  @Param( { "4", "16" } )
+  public int moveSpeed;
+
+  private Board board;
+  private DistanceFieldCache fields;
+  private ReachabilitySearch search;
+  private int startIndex;
+  private int farIndex;
+  private int nearIndex;
+  private Knight blocker;
+
+  @Setup
+  public void setup() {
+    board = new Board( size, size );
+    fields = board.getDistanceFields();
+    search = new ReachabilitySearch( board );
+    blocker = new Knight( 1 );
+
+    startIndex = board.getIndex( size / 2, size / 2 );
+    nearIndex = board.getIndex( size / 2, size / 2 - 1 );
+    farIndex = moveSpeed < size ? board.getIndex( 0, 0 ) : -1;
+
+    Random random = new Random( 42 );
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      if ( index == startIndex || index == nearIndex || index == farIndex ) {
+        continue;
+      }
+      int roll = random.nextInt( 40 );
+      if ( roll < 4 ) {
+        board.setEntityAt( index, new Knight( 1 ) );
+      }
+      else if ( roll < 8 ) {
+        board.setTerrain( index, new Forest() );
+      }
+      else if ( roll < 11 ) {
+        board.setTerrain( index, new Swamp() );
+      }
+      else if ( roll < 14 ) {
+        board.setTerrain( index, new Mountain() );
+      }
+    }
+  }
+
+  @Benchmark
+  public BitSet cachedField() {
+    return fields.getReachableTiles( 0, startIndex, moveSpeed );
+  }
+
+  @Benchmark
+  public BitSet farChange() {
+    // On the default board every tile is within range, so there is nothing far to change
+    if ( farIndex >= 0 ) {
+      board.setEntityAt( farIndex, blocker );
+      board.setEntityAt( farIndex, null );
+    }
+    return fields.getReachableTiles( 0, startIndex, moveSpeed );
+  }
+
+  @Benchmark
+  public BitSet nearChange() {
+    board.setEntityAt( nearIndex, blocker );
+    board.setEntityAt( nearIndex, null );
+    return fields.getReachableTiles( 0, startIndex, moveSpeed );
+  }
+
+  @Benchmark
+  public BitSet search() {
+    return search.search( startIndex, moveSpeed );
+  }
+}
@@ -0,0 +1,116 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.Knight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the enemies in attack range of a character with the occupancy bitboards, against checking the
+ * distance to each enemy in a list and against testing every tile of the board.  Boards of up to 8x8 use single word
+ * bitboards and precomputed range masks, larger ones multi-word bitboards.
+ *
+ * Each call takes the next of a fixed set of random queries with attack ranges like the characters', on a board with
+ * one tile in eight occupied.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class OccupancyBitboardsBenchmark {
+
+  private static final int QUERIES = 256;
+
+  @Param( { "6", "8", "32", "128" } )
+  public int size;
+
+  private Board board;
+  private OccupancyBitboards occupancy;
+
+  // Each player's characters, indexed by player
+  private final List< List< Chara > > playerCharas = new ArrayList< List< Chara > >();
+
+  // Queries: tile index, enemy player, min range and max range
+  private final int[][] queries = new int[ QUERIES ][];
+  private int next = 0;
+
+  private final int[] out = new int[ 256 ];
+
+  @Setup
+  public void setup() {
+    board = new Board( size, size );
+    occupancy = board.getOccupancy();
+    playerCharas.add( null );
+    playerCharas.add( new ArrayList< Chara >() );
+    playerCharas.add( new ArrayList< Chara >() );
+
+    Random random = new Random( 42 );
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      if ( random.nextInt( 8 ) == 0 ) {
+        Chara chara = new Knight( 1 + random.nextInt( 2 ) );
+        chara.setTileIndex( index );
+        board.setEntityAt( index, chara );
+        playerCharas.get( chara.getPlayer() ).add( chara );
+      }
+    }
+
+    for ( int i = 0; i < QUERIES; i++ ) {
+      int minRange = 1 + random.nextInt( 2 );
+      queries[ i ] = new int[] { random.nextInt( board.getTileCount() ), 1 + random.nextInt( 2 ), minRange,
+          minRange + random.nextInt( 3 ) };
+    }
+  }
+
+  private int[] nextQuery() {
+    return queries[ next++ & ( QUERIES - 1 ) ];
+  }
+
+  @Benchmark
+  public int bitboards() {
+    int[] query = nextQuery();
+    return occupancy.findInRange( query[ 1 ], query[ 0 ], query[ 2 ], query[ 3 ], out );
+  }
+
+  @Benchmark
+  public int enemyListChecks() {
+    int[] query = nextQuery();
+    int fromX = board.getX( query[ 0 ] );
+    int fromY = board.getY( query[ 0 ] );
+    List< Chara > enemies = playerCharas.get( query[ 1 ] );
+
+    int count = 0;
+    for ( int i = 0; i < enemies.size(); i++ ) {
+      int toIndex = enemies.get( i ).getTileIndex();
+      int distance = Math.abs( board.getX( toIndex ) - fromX ) + Math.abs( board.getY( toIndex ) - fromY );
+      if ( distance >= query[ 2 ] && distance <= query[ 3 ] ) {
+        out[ count++ & 255 ] = toIndex;
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int everyTileChecks() {
+    int[] query = nextQuery();
+    int fromX = board.getX( query[ 0 ] );
+    int fromY = board.getY( query[ 0 ] );
+
+    int count = 0;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      int distance = Math.abs( board.getX( index ) - fromX ) + Math.abs( board.getY( index ) - fromY );
+      if ( distance >= query[ 2 ] && distance <= query[ 3 ] && board.getEntityAt( index ) instanceof Chara
+          && ( (Chara) board.getEntityAt( index ) ).getPlayer() == query[ 1 ] ) {
+        out[ count++ & 255 ] = index;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,53 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.chara.Knight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the move point search behind ProjectColaEngine.getReachableTiles on small and large boards.
+ * A tenth of the tiles are filled with blocking entities so the search has to route around them.
+ *
+ * Created by antkwan on 7/3/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ReachabilityBenchmark {
+
+  @Param( { "6", "128" } )
+  public int size;
+
+  @Param( { "1", "4", "16" } )
+  public int moveSpeed;
+
+  private ReachabilitySearch search;
+  private int startIndex;
+
+  @Setup
+  public void setup() {
+    Board board = new Board( size, size );
+    search = new ReachabilitySearch( board );
+
+    startIndex = board.getIndex( size / 2, size / 2 );
+
+    Random random = new Random( 42 );
+    for ( int i = 0; i < board.getTileCount() / 10; i++ ) {
+      int index = random.nextInt( board.getTileCount() );
+      if ( index != startIndex ) {
+        board.setEntityAt( index, new Knight( 1 ) );
+      }
+    }
+  }
+
+  @Benchmark
+  public BitSet search() {
+    return search.search( startIndex, moveSpeed );
+  }
+}
@@ -0,0 +1,73 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.chara.Knight;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the characters in an ability's area with the board's spatial queries, against scanning every
+ * tile for those within range.  The cost of the queries should follow the size of the area, not the board.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SpatialQueryBenchmark {
+
+  @Param( { "64", "512" } )
+  public int size;
+
+  @Param( { "2", "8" } )
+  public int radius;
+
+  private Board board;
+  private int center;
+  private final int[] out = new int[ 256 ];
+
+  @Setup
+  public void setup() {
+    board = new Board( size, size );
+
+    // One tile in eight occupied
+    Random random = new Random( 42 );
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      if ( random.nextInt( 8 ) == 0 ) {
+        board.setEntityAt( index, new Knight( 1 + random.nextInt( 2 ) ) );
+      }
+    }
+    center = board.getIndex( size / 2, size / 2 );
+  }
+
+  @Benchmark
+  public int diamond() {
+    return board.findEntitiesInDiamond( center, radius, out );
+  }
+
+  @Benchmark
+  public int cone() {
+    return board.findEntitiesInCone( center, 0, 1, radius, out );
+  }
+
+  @Benchmark
+  public int scanEveryTile() {
+    int centerX = board.getX( center );
+    int centerY = board.getY( center );
+    int count = 0;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      if ( board.getEntityAt( index ) != null
+          && Math.abs( board.getX( index ) - centerX ) + Math.abs( board.getY( index ) - centerY ) <= radius ) {
+        if ( count < out.length ) {
+          out[ count ] = index;
+        }
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,70 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.exceptions.TileDoesNotExistException;
+import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.board.tile.PlainTile;
+import axk9084.ProjectCola.model.board.tile.Tile;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The original nested TreeMap board layout, kept only as a baseline for {@link BoardBenchmark}.
+ *
+ * Created by antkwan on 6/25/2016.
+ */
+public class TreeMapBoard {
+
+  private final static int ASCII_a = (int) 'a';
+
+  private SortedMap< Character, SortedMap< Integer, Tile > > tiles;
+
+  public TreeMapBoard( int rows, int columns ) {
+    tiles = new TreeMap< Character, SortedMap< Integer, Tile > >();
+
+    for ( int column = 0; column < columns; column++ ) {
+      char columnKey = (char) (ASCII_a + column);
+
+      tiles.put( columnKey, new TreeMap< Integer, Tile >() );
+
+      for ( int row = 1; row < rows + 1; row++ ) {
+        tiles.get( columnKey ).put( row, new PlainTile() );
+      }
+    }
+  }
+
+  private Tile getTile( char column, int row )
+      throws TileDoesNotExistException {
+
+    SortedMap< Integer, Tile > columnMap = tiles.get( column );
+
+    if ( columnMap != null ) {
+      Tile tile = columnMap.get( row );
+
+      if ( tile != null ) {
+        return tile;
+      }
+    }
+
+    throw new TileDoesNotExistException( column, row );
+  }
+
+  public Entity getEntityAt( char column, int row )
+      throws TileDoesNotExistException {
+
+    return getTile( column, row ).getOccupyingEntity();
+  }
+
+  public void setEntityAt( char column, int row, Entity entity )
+      throws TileDoesNotExistException {
+
+    getTile( column, row ).setOccupyingEntity( entity );
+  }
+
+  public void moveEntity( char fromColumn, int fromRow, char toColumn, int toRow )
+      throws TileDoesNotExistException {
+
+    setEntityAt( toColumn, toRow, getEntityAt( fromColumn, fromRow ) );
+    setEntityAt( fromColumn, fromRow, null );
+  }
+}
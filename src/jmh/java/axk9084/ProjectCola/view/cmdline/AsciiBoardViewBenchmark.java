@@ -0,0 +1,78 @@
+package axk9084.ProjectCola.view.cmdline;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.chara.Chara;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures drawing the board to a stream that discards it: the plain view redrawing everything, and the incremental
+ * view drawing one move.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class AsciiBoardViewBenchmark {
+
+  private static final OutputStream NULL_STREAM = new OutputStream() {
+    @Override
+    public void write( int b ) {
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) {
+    }
+  };
+
+  @Param( { "6", "26", "64" } )
+  public int size;
+
+  private ProjectColaEngine engine;
+  private AsciiBoardView plainView;
+  private AsciiBoardView incrementalView;
+  private PrintStream nullPrintStream;
+
+  // The rogue steps between two tiles, one move per call
+  private Chara rogue;
+  private long stepOut;
+  private long stepBack;
+  private boolean movedOut = false;
+
+  @Setup
+  public void setup() {
+    engine = new ProjectColaEngine( size, size );
+    nullPrintStream = new PrintStream( NULL_STREAM );
+    plainView = new AsciiBoardView( engine );
+    incrementalView = new AsciiBoardView( engine, NULL_STREAM );
+    incrementalView.printBoardView();
+
+    // Player 1's rogue steps up from its home row, onto the empty row in front of it
+    rogue = engine.getCharacters( 1 ).get( 1 );
+    int from = rogue.getTileIndex();
+    int to = from + 1;
+    stepOut = Action.move( from, to );
+    stepBack = Action.move( to, from );
+  }
+
+  @Benchmark
+  public void printPlain() {
+    plainView.printBoardView( nullPrintStream );
+  }
+
+  @Benchmark
+  public void printIncrementalMove() {
+    engine.play( movedOut ? stepBack : stepOut );
+    movedOut = !movedOut;
+    rogue.setActionsRemaining( rogue.getActions() );
+    incrementalView.printBoardView();
+  }
+}
@@ -0,0 +1,243 @@
+package axk9084.ProjectCola.server;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.controller.metrics.EngineMetrics;
+import axk9084.ProjectCola.controller.metrics.LatencyHistogram;
+import axk9084.ProjectCola.model.board.Board;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives many simulated matches through a MatchServer at once and reports the command latency.
+ *
+ * Every match is played by a simulated client that keeps one command in flight: when a result comes back it waits a
+ * think time and sends the next command, so all matches are active for the whole run.  Clients pick random legal
+ * actions from a private mirror of their match and check that the server's state hash matches the mirror after every
+ * command, which catches any command that ran out of order or was lost.  Clients run on their own scheduler thread,
+ * apart from the server's pool.  Latency is measured from submitting a command to its callback.
+ *
+ * With no think time every match always has a command queued, which measures the server saturated rather than its
+ * latency at a given load.
+ *
+ * Usage: MatchServerLoadTest [--matches N] [--threads T] [--think-millis W] [--max-turns M] [--seed S]
+ *                           [--replay-dir D] [--metrics true]
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public class MatchServerLoadTest {
+
+  // Percentage of actions that take an attack when one is available, so games finish
+  private static final int ATTACK_PREFERENCE_PERCENT = 70;
+
+  public static void main( String[] args ) throws InterruptedException {
+    int matches = 10000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int maxTurns = 100;
+    long thinkMillis = 50;
+    long seed = 1;
+    File replayDirectory = null;
+    boolean metrics = false;
+
+    for ( int i = 0; i + 1 < args.length; i += 2 ) {
+      if ( args[ i ].equals( "--matches" ) ) {
+        matches = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--threads" ) ) {
+        threads = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--think-millis" ) ) {
+        thinkMillis = Long.parseLong( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--max-turns" ) ) {
+        maxTurns = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--seed" ) ) {
+        seed = Long.parseLong( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--replay-dir" ) ) {
+        replayDirectory = new File( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--metrics" ) ) {
+        metrics = Boolean.parseBoolean( args[ i + 1 ] );
+      }
+      else {
+        System.err.println( "Unknown option " + args[ i ] );
+        System.exit( 1 );
+      }
+    }
+
+    MatchServer server = new MatchServer( threads );
+    server.setReplayDirectory( replayDirectory );
+    server.setMetrics( metrics ? new EngineMetrics() : null );
+    LatencyHistogram latency = new LatencyHistogram();
+    CountDownLatch finished = new CountDownLatch( matches );
+    AtomicLong failures = new AtomicLong();
+    ScheduledExecutorService clientThread = Executors.newSingleThreadScheduledExecutor();
+
+    final SimulatedClient[] clients = new SimulatedClient[ matches ];
+    for ( int i = 0; i < matches; i++ ) {
+      clients[ i ] = new SimulatedClient( server, server.createMatch(), seed + i, maxTurns, thinkMillis,
+          clientThread, latency, finished, failures );
+    }
+
+    System.out.println( "Playing " + matches + " matches on " + threads + " threads with " + thinkMillis
+        + " ms think time..." );
+    long start = System.nanoTime();
+    clientThread.execute( new Runnable() {
+      public void run() {
+        for ( SimulatedClient client : clients ) {
+          client.sendNext();
+        }
+      }
+    } );
+    finished.await();
+    double seconds = ( System.nanoTime() - start ) / 1e9;
+    clientThread.shutdown();
+    server.shutdown( 1000 );
+
+    long commands = latency.getCount();
+    System.out.println( String.format( Locale.ROOT, "%d commands in %.2f s, %.0f commands per second",
+        commands, seconds, commands / seconds ) );
+    System.out.println( String.format( Locale.ROOT, "Latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+        latency.getValueAtPercentile( 50 ) / 1e3, latency.getValueAtPercentile( 99 ) / 1e3,
+        latency.getValueAtPercentile( 99.9 ) / 1e3, latency.getMax() / 1e3 ) );
+    System.out.println( "State mismatches or rejected commands: " + failures.get() );
+    if ( server.getMetrics() != null ) {
+      System.out.print( server.getMetrics().dump() );
+    }
+  }
+
+  /**
+   * Plays one match with random legal actions, sending each command once the previous one has completed.
+   */
+  private static class SimulatedClient implements CommandCallback, Runnable {
+
+    private final MatchServer server;
+    private final long matchId;
+    private final int maxTurns;
+    private final long thinkMillis;
+    private final ScheduledExecutorService clientThread;
+    private final LatencyHistogram latency;
+    private final CountDownLatch finished;
+    private final AtomicLong failures;
+
+    // Private copy of the match used to pick legal actions and check the server's state
+    private final ProjectColaEngine mirror = new ProjectColaEngine();
+    private final Random random;
+    private final long[] actions = new long[ 256 ];
+
+    // Handed between the client thread and the server's pool with each command, never used by both at once
+    private long pendingAction;
+    private long sentNanos;
+    private CommandResult result;
+    private int turns;
+
+    SimulatedClient( MatchServer server, long matchId, long seed, int maxTurns, long thinkMillis,
+                     ScheduledExecutorService clientThread, LatencyHistogram latency, CountDownLatch finished,
+                     AtomicLong failures ) {
+      this.server = server;
+      this.matchId = matchId;
+      this.maxTurns = maxTurns;
+      this.thinkMillis = thinkMillis;
+      this.clientThread = clientThread;
+      this.latency = latency;
+      this.finished = finished;
+      this.failures = failures;
+      this.random = new Random( seed );
+    }
+
+    void sendNext() {
+      int player = mirror.getTurnPlayer();
+      Command command;
+
+      if ( turns >= maxTurns ) {
+        pendingAction = 0;
+        command = Command.forfeit( player );
+      }
+      else {
+        pendingAction = pickAction( player );
+        command = toCommand( player, pendingAction );
+      }
+
+      sentNanos = System.nanoTime();
+      server.submit( matchId, command, this );
+    }
+
+    /**
+     * Called on the server's pool, hands the result back to the client thread.
+     */
+    public void completed( CommandResult result ) {
+      latency.record( System.nanoTime() - sentNanos );
+      this.result = result;
+      clientThread.schedule( this, thinkMillis, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Handle the result of the last command on the client thread and send the next one.
+     */
+    public void run() {
+      if ( pendingAction == 0 ) {
+        mirror.playerForfeit();
+      }
+      else {
+        mirror.play( pendingAction );
+        if ( Action.getType( pendingAction ) == Action.END_TURN ) {
+          turns++;
+        }
+      }
+
+      if ( !result.isAccepted() || result.getStateHash() != mirror.stateHash() ) {
+        failures.incrementAndGet();
+        finish();
+        return;
+      }
+
+      if ( result.getWinner() != 0 ) {
+        finish();
+      }
+      else {
+        sendNext();
+      }
+    }
+
+    private void finish() {
+      server.closeMatch( matchId );
+      finished.countDown();
+    }
+
+    private long pickAction( int player ) {
+      int count = Math.min( mirror.generateLegalActions( player, actions ), actions.length );
+      if ( random.nextInt( 100 ) < ATTACK_PREFERENCE_PERCENT ) {
+        for ( int i = 0; i < count; i++ ) {
+          if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+            return actions[ i ];
+          }
+        }
+      }
+      return actions[ random.nextInt( count ) ];
+    }
+
+    private Command toCommand( int player, long action ) {
+      Board board = mirror.getBoard();
+      int from = Action.getFromIndex( action );
+      int to = Action.getToIndex( action );
+
+      switch ( Action.getType( action ) ) {
+        case Action.MOVE:
+          return Command.move( player, board.getX( from ), board.getY( from ), board.getX( to ), board.getY( to ) );
+        case Action.ATTACK:
+          return Command.attack( player, board.getX( from ), board.getY( from ), board.getX( to ), board.getY( to ) );
+        default:
+          return Command.endTurn( player );
+      }
+    }
+  }
+}
@@ -0,0 +1,378 @@
+package axk9084.ProjectCola.server;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.controller.metrics.LatencyHistogram;
+import axk9084.ProjectCola.model.board.Board;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Plays many matches against a NetworkServer over TCP and reports the command rate and latency.
+ *
+ * Every match uses two connections, one per player, all served by a single selector thread.  The player whose turn
+ * it is sends a random legal action, picked from a private mirror of the match, and sends the next one when the
+ * UPDATE of the last one arrives, so each match keeps one command in flight.  The state hash of every UPDATE is
+ * checked against the mirror.  Latency is measured from sending a command to receiving its UPDATE or ERR.
+ *
+ * Without --port an embedded server is started on a free loopback port.
+ *
+ * Usage: NetworkLoadClient [--host H] [--port P] [--threads T] [--matches N] [--max-turns M] [--seed S]
+ *
+ * Created by antkwan on 7/16/2016.
+ */
+public class NetworkLoadClient {
+
+  private static final Charset ASCII = Charset.forName( "US-ASCII" );
+
+  // Percentage of actions that take an attack when one is available, so games finish
+  private static final int ATTACK_PREFERENCE_PERCENT = 70;
+
+  private final Selector selector;
+  private final int matchCount;
+  private final int maxTurns;
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private long updatesReceived = 0;
+  private long failures = 0;
+  private int matchesFinished = 0;
+
+  public NetworkLoadClient( int matchCount, int maxTurns ) throws IOException {
+    this.selector = Selector.open();
+    this.matchCount = matchCount;
+    this.maxTurns = maxTurns;
+  }
+
+  /**
+   * Connect every match, play them all to the end and return.
+   *
+   * @param address  the address of the server
+   * @param seed  seed of the random actions
+   * @throws IOException on connection failure
+   */
+  public void run( InetSocketAddress address, long seed ) throws IOException {
+    ClientMatch[] matches = new ClientMatch[ matchCount ];
+    for ( int i = 0; i < matchCount; i++ ) {
+      matches[ i ] = new ClientMatch( seed + i );
+      matches[ i ].connections[ 1 ] = connect( address, matches[ i ], 1 );
+      matches[ i ].connections[ 2 ] = connect( address, matches[ i ], 2 );
+    }
+
+    for ( ClientMatch match : matches ) {
+      match.connections[ 1 ].send( "NEW" );
+    }
+
+    while ( matchesFinished < matchCount ) {
+      selector.select();
+      Iterator< SelectionKey > keys = selector.selectedKeys().iterator();
+      while ( keys.hasNext() ) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        if ( !key.isValid() ) {
+          continue;
+        }
+
+        ClientConnection connection = (ClientConnection) key.attachment();
+        if ( key.isReadable() ) {
+          connection.read();
+        }
+        if ( key.isValid() && key.isWritable() ) {
+          connection.flush();
+        }
+      }
+    }
+
+    selector.close();
+  }
+
+  private ClientConnection connect( InetSocketAddress address, ClientMatch match, int player ) throws IOException {
+    SocketChannel channel = SocketChannel.open( address );
+    channel.configureBlocking( false );
+    channel.socket().setTcpNoDelay( true );
+    ClientConnection connection = new ClientConnection( channel, match, player );
+    connection.key = channel.register( selector, SelectionKey.OP_READ, connection );
+    return connection;
+  }
+
+  /**
+   * A connection playing one side of a match.
+   */
+  private class ClientConnection {
+
+    final SocketChannel channel;
+    final ClientMatch match;
+    final int player;
+    SelectionKey key;
+
+    final ByteBuffer in = ByteBuffer.allocate( 4096 );
+    final LinkedList< ByteBuffer > outbox = new LinkedList< ByteBuffer >();
+
+    ClientConnection( SocketChannel channel, ClientMatch match, int player ) {
+      this.channel = channel;
+      this.match = match;
+      this.player = player;
+    }
+
+    void send( String line ) {
+      outbox.add( ByteBuffer.wrap( ( line + "\n" ).getBytes( ASCII ) ) );
+      flush();
+    }
+
+    void flush() {
+      try {
+        while ( !outbox.isEmpty() ) {
+          ByteBuffer out = outbox.getFirst();
+          channel.write( out );
+          if ( out.hasRemaining() ) {
+            key.interestOps( SelectionKey.OP_READ | SelectionKey.OP_WRITE );
+            return;
+          }
+          outbox.removeFirst();
+        }
+        key.interestOps( SelectionKey.OP_READ );
+      }
+      catch ( IOException e ) {
+        match.fail();
+      }
+    }
+
+    void read() {
+      try {
+        if ( channel.read( in ) < 0 ) {
+          match.fail();
+          return;
+        }
+      }
+      catch ( IOException e ) {
+        match.fail();
+        return;
+      }
+
+      in.flip();
+      byte[] bytes = in.array();
+      int lineStart = 0;
+      for ( int i = 0; i < in.limit(); i++ ) {
+        if ( bytes[ i ] == '\n' ) {
+          match.handleLine( this, new String( bytes, lineStart, i - lineStart, ASCII ) );
+          lineStart = i + 1;
+        }
+      }
+      in.position( lineStart );
+      in.compact();
+    }
+
+    void close() {
+      key.cancel();
+      try {
+        channel.close();
+      }
+      catch ( IOException e ) {
+        // Closing anyway
+      }
+    }
+  }
+
+  /**
+   * The client side of one match: both connections and the mirror used to pick actions.
+   */
+  private class ClientMatch {
+
+    final ClientConnection[] connections = new ClientConnection[ 3 ];
+    final ProjectColaEngine mirror = new ProjectColaEngine();
+    final Random random;
+    final long[] actions = new long[ 256 ];
+
+    // The player whose command is in flight, the action it stands for (0 for a forfeit) and when it was sent
+    int awaitingPlayer = 0;
+    long pendingAction;
+    long sentNanos;
+
+    int turns = 0;
+    boolean finished = false;
+
+    ClientMatch( long seed ) {
+      random = new Random( seed );
+    }
+
+    void handleLine( ClientConnection connection, String line ) {
+      if ( finished ) {
+        return;
+      }
+      String[] fields = line.split( " " );
+
+      if ( fields[ 0 ].equals( "MATCH" ) ) {
+        if ( connection.player == 1 ) {
+          connections[ 2 ].send( "JOIN " + fields[ 1 ] );
+        }
+        else {
+          sendNext();
+        }
+      }
+      else if ( fields[ 0 ].equals( "UPDATE" ) ) {
+        updatesReceived++;
+        int player = Integer.parseInt( fields[ 4 ] );
+        if ( connection.player != awaitingPlayer || player != awaitingPlayer || fields[ 5 ].equals( "JOIN" ) ) {
+          return;
+        }
+
+        latency.record( System.nanoTime() - sentNanos );
+        if ( pendingAction == 0 ) {
+          mirror.playerForfeit();
+        }
+        else {
+          mirror.play( pendingAction );
+          if ( Action.getType( pendingAction ) == Action.END_TURN ) {
+            turns++;
+          }
+        }
+
+        if ( !fields[ 3 ].equals( Long.toHexString( mirror.stateHash() ) ) ) {
+          fail();
+        }
+        else if ( !fields[ 2 ].equals( "0" ) ) {
+          finish();
+        }
+        else {
+          sendNext();
+        }
+      }
+      else if ( fields[ 0 ].equals( "ERR" ) ) {
+        latency.record( System.nanoTime() - sentNanos );
+        fail();
+      }
+    }
+
+    void sendNext() {
+      int player = mirror.getTurnPlayer();
+      String line;
+      if ( turns >= maxTurns ) {
+        pendingAction = 0;
+        line = "FORFEIT";
+      }
+      else {
+        pendingAction = pickAction( player );
+        line = toLine( pendingAction );
+      }
+
+      awaitingPlayer = player;
+      sentNanos = System.nanoTime();
+      connections[ player ].send( line );
+    }
+
+    private long pickAction( int player ) {
+      int count = Math.min( mirror.generateLegalActions( player, actions ), actions.length );
+      if ( random.nextInt( 100 ) < ATTACK_PREFERENCE_PERCENT ) {
+        for ( int i = 0; i < count; i++ ) {
+          if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+            return actions[ i ];
+          }
+        }
+      }
+      return actions[ random.nextInt( count ) ];
+    }
+
+    private String toLine( long action ) {
+      Board board = mirror.getBoard();
+      int from = Action.getFromIndex( action );
+      int to = Action.getToIndex( action );
+      String tiles = board.getX( from ) + " " + board.getY( from ) + " " + board.getX( to ) + " " + board.getY( to );
+
+      switch ( Action.getType( action ) ) {
+        case Action.MOVE:
+          return "MOVE " + tiles;
+        case Action.ATTACK:
+          return "ATTACK " + tiles;
+        default:
+          return "END";
+      }
+    }
+
+    void fail() {
+      if ( !finished ) {
+        failures++;
+        finish();
+      }
+    }
+
+    void finish() {
+      finished = true;
+      connections[ 1 ].close();
+      connections[ 2 ].close();
+      matchesFinished++;
+    }
+  }
+
+  public static void main( String[] args ) throws IOException {
+    String host = "127.0.0.1";
+    int port = -1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int matches = 1000;
+    int maxTurns = 100;
+    long seed = 1;
+
+    for ( int i = 0; i + 1 < args.length; i += 2 ) {
+      if ( args[ i ].equals( "--host" ) ) {
+        host = args[ i + 1 ];
+      }
+      else if ( args[ i ].equals( "--port" ) ) {
+        port = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--threads" ) ) {
+        threads = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--matches" ) ) {
+        matches = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--max-turns" ) ) {
+        maxTurns = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--seed" ) ) {
+        seed = Long.parseLong( args[ i + 1 ] );
+      }
+      else {
+        System.err.println( "Unknown option " + args[ i ] );
+        System.exit( 1 );
+      }
+    }
+
+    NetworkServer embedded = null;
+    MatchServer matchServer = null;
+    if ( port < 0 ) {
+      matchServer = new MatchServer( threads );
+      embedded = new NetworkServer( matchServer, 0 );
+      embedded.start();
+      port = embedded.getPort();
+      System.out.println( "Started embedded server on port " + port );
+    }
+
+    NetworkLoadClient client = new NetworkLoadClient( matches, maxTurns );
+    System.out.println( "Playing " + matches + " matches against " + host + ":" + port + "..." );
+    long start = System.nanoTime();
+    client.run( new InetSocketAddress( host, port ), seed );
+    double seconds = ( System.nanoTime() - start ) / 1e9;
+
+    if ( embedded != null ) {
+      embedded.close();
+      matchServer.shutdown( 1000 );
+    }
+
+    LatencyHistogram latency = client.latency;
+    long commands = latency.getCount();
+    System.out.println( String.format( Locale.ROOT, "%d commands in %.2f s, %.0f commands per second",
+        commands, seconds, commands / seconds ) );
+    System.out.println( String.format( Locale.ROOT, "Latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+        latency.getValueAtPercentile( 50 ) / 1e3, latency.getValueAtPercentile( 99 ) / 1e3,
+        latency.getValueAtPercentile( 99.9 ) / 1e3, latency.getMax() / 1e3 ) );
+    System.out.println( "Updates received: " + client.updatesReceived + ", failed matches: " + client.failures );
+  }
+}
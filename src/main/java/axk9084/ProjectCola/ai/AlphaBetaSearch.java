@@ -0,0 +1,371 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.chara.Chara;
+
+/**
+ * Picks an action for the current player with an iterative deepening alpha-beta search over the engine's legal
+ * actions.
+ *
+ * A player keeps acting until they end their turn, so each action is one ply of depth and the score only changes
+ * sides when an end turn action passes play to the other player.  The search runs on the given engine in place with
+ * apply and undo, and leaves it unchanged when done.  Deeper searches are started until the time budget runs out,
+ * and the best action of the deepest completed search is returned.
+ *
+ * Actions are tried in the order: the best action stored in the transposition table, attacks on the weakest enemies,
+ * moves and finally ending the turn.
+ *
+ * Created by antkwan on 7/8/2016.
+ */
+public class AlphaBetaSearch {
+
+  // Score of a won game.  Wins found sooner score higher
+  public static final int WIN_SCORE = 1000000;
+
+  private static final int INFINITY = WIN_SCORE + 1;
+  private static final int MAX_PLY = 64;
+
+  // Number of nodes between checks of the clock
+  private static final int TIME_CHECK_INTERVAL = 1024;
+
+  private final ProjectColaEngine engine;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+
+  // Per ply buffers of legal actions and their ordering scores, reused between searches
+  private final long[][] actions = new long[ MAX_PLY ][ 64 ];
+  private final int[][] orderScores = new int[ MAX_PLY ][ 64 ];
+
+  private long deadline;
+  private boolean aborted;
+
+  // Set from another thread to end the current search early
+  private volatile boolean stopRequested;
+
+  // Depth the iterative deepening starts at
+  private int startDepth = 1;
+
+  // Statistics of the last search
+  private long nodes;
+  private long elapsedNanos;
+  private int completedDepth;
+  private int bestScore;
+
+  public AlphaBetaSearch( ProjectColaEngine engine, Evaluator evaluator, TranspositionTable table ) {
+    this.engine = engine;
+    this.evaluator = evaluator;
+    this.table = table;
+  }
+
+  /**
+   * Search for the best action of the current player.
+   *
+   * @param timeBudgetMillis  the time the search may take
+   * @param maxDepth  the deepest search to run, in actions
+   * @return the encoded best action, else 0 if the player has no legal action
+   */
+  public long findBestAction( long timeBudgetMillis, int maxDepth ) {
+    long start = System.nanoTime();
+    deadline = start + timeBudgetMillis * 1000000L;
+    aborted = false;
+    nodes = 0;
+    completedDepth = 0;
+    bestScore = 0;
+
+    long bestAction = 0;
+    maxDepth = Math.min( maxDepth, MAX_PLY - 1 );
+
+    for ( int depth = Math.min( startDepth, maxDepth ); depth <= maxDepth; depth++ ) {
+      long action = searchRoot( depth );
+      if ( aborted ) {
+        break;
+      }
+
+      bestAction = action;
+      completedDepth = depth;
+
+      // No need to look deeper once a forced result is known
+      if ( Math.abs( bestScore ) >= WIN_SCORE - MAX_PLY ) {
+        break;
+      }
+    }
+
+    // Fall back to the first legal action if not even the first depth finished
+    if ( bestAction == 0 && engine.generateLegalActions( engine.getTurnPlayer(), actions[ 0 ] ) > 0 ) {
+      bestAction = actions[ 0 ][ 0 ];
+    }
+
+    stopRequested = false;
+    elapsedNanos = System.nanoTime() - start;
+    return bestAction;
+  }
+
+  /**
+   * Helper method to search the root actions to a depth.
+   *
+   * @param depth  the depth to search to
+   * @return the best action at this depth
+   */
+  private long searchRoot( int depth ) {
+    int count = generateOrderedActions( 0, table.probeAction( engine.stateHash() ) );
+    int alpha = -INFINITY;
+    long best = 0;
+
+    for ( int i = 0; i < count; i++ ) {
+      long action = actions[ 0 ][ i ];
+      int score = searchChild( action, depth, alpha, INFINITY, 0 );
+      if ( aborted ) {
+        return best;
+      }
+
+      if ( score > alpha ) {
+        alpha = score;
+        best = action;
+      }
+    }
+
+    bestScore = alpha;
+    table.store( engine.stateHash(), alpha, depth, TranspositionTable.EXACT, best );
+    return best;
+  }
+
+  /**
+   * Helper method to apply an action, search the resulting state and undo the action.
+   * The score is flipped when the action passed the turn to the other player.
+   *
+   * @return the score of the action for the player who made it
+   */
+  private int searchChild( long action, int depth, int alpha, int beta, int ply ) {
+    int player = engine.getTurnPlayer();
+    engine.apply( action );
+
+    int score;
+    if ( engine.getTurnPlayer() == player ) {
+      score = search( depth - 1, alpha, beta, ply + 1 );
+    }
+    else {
+      score = -search( depth - 1, -beta, -alpha, ply + 1 );
+    }
+
+    engine.undo();
+    return score;
+  }
+
+  /**
+   * Alpha-beta search of the current state from the point of view of the turn player.
+   *
+   * @param depth  remaining depth
+   * @param alpha  lower bound of the score
+   * @param beta  upper bound of the score
+   * @param ply  distance from the root
+   * @return the score
+   */
+  private int search( int depth, int alpha, int beta, int ply ) {
+    nodes++;
+    if ( nodes % TIME_CHECK_INTERVAL == 0 && ( stopRequested || System.nanoTime() > deadline ) ) {
+      aborted = true;
+    }
+    if ( aborted ) {
+      return 0;
+    }
+
+    Integer winner = engine.getGameWinner();
+    if ( winner != null ) {
+      return winner == engine.getTurnPlayer() ? WIN_SCORE - ply : -WIN_SCORE + ply;
+    }
+
+    if ( depth <= 0 || ply >= MAX_PLY - 1 ) {
+      return evaluator.evaluate( engine, engine.getTurnPlayer() );
+    }
+
+    // Use a stored result if it was searched at least as deep
+    long key = engine.stateHash();
+    long entry = table.probe( key );
+    if ( entry != 0 && TranspositionTable.getDepth( entry ) >= depth ) {
+      int stored = fromTableScore( TranspositionTable.getScore( entry ), ply );
+      int bound = TranspositionTable.getBound( entry );
+      if ( bound == TranspositionTable.EXACT
+          || ( bound == TranspositionTable.LOWER_BOUND && stored >= beta )
+          || ( bound == TranspositionTable.UPPER_BOUND && stored <= alpha ) ) {
+        return stored;
+      }
+    }
+
+    int count = generateOrderedActions( ply, table.probeAction( key ) );
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    long bestAction = 0;
+
+    for ( int i = 0; i < count; i++ ) {
+      long action = actions[ ply ][ i ];
+      int score = searchChild( action, depth, alpha, beta, ply );
+      if ( aborted ) {
+        return 0;
+      }
+
+      if ( score > best ) {
+        best = score;
+        bestAction = action;
+      }
+      if ( score > alpha ) {
+        alpha = score;
+      }
+      if ( alpha >= beta ) {
+        break;
+      }
+    }
+
+    int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+        : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    table.store( key, toTableScore( best, ply ), depth, bound, bestAction );
+
+    return best;
+  }
+
+  /**
+   * Helper method to fill the action buffer of a ply with the legal actions, best first.
+   *
+   * @param ply  the ply to fill the buffer of
+   * @param tableAction  the best action from the transposition table, 0 if none
+   * @return the number of actions
+   */
+  private int generateOrderedActions( int ply, long tableAction ) {
+    int player = engine.getTurnPlayer();
+    int count = engine.generateLegalActions( player, actions[ ply ] );
+    if ( count > actions[ ply ].length ) {
+      actions[ ply ] = new long[ count * 2 ];
+      orderScores[ ply ] = new int[ count * 2 ];
+      count = engine.generateLegalActions( player, actions[ ply ] );
+    }
+
+    long[] list = actions[ ply ];
+    int[] scores = orderScores[ ply ];
+
+    for ( int i = 0; i < count; i++ ) {
+      scores[ i ] = getOrderScore( list[ i ], tableAction );
+    }
+
+    // Insertion sort, the lists are short and mostly in order already
+    for ( int i = 1; i < count; i++ ) {
+      long action = list[ i ];
+      int score = scores[ i ];
+      int j = i - 1;
+      while ( j >= 0 && scores[ j ] < score ) {
+        list[ j + 1 ] = list[ j ];
+        scores[ j + 1 ] = scores[ j ];
+        j--;
+      }
+      list[ j + 1 ] = action;
+      scores[ j + 1 ] = score;
+    }
+
+    return count;
+  }
+
+  /**
+   * Helper method to score an action for ordering.  Higher scores are tried first.
+   */
+  private int getOrderScore( long action, long tableAction ) {
+    if ( action == tableAction ) {
+      return Integer.MAX_VALUE;
+    }
+
+    switch ( Action.getType( action ) ) {
+      case Action.ATTACK:
+        // Prefer attacking the weakest target, and most of all a target the attack would kill
+        Chara attacker = (Chara) engine.getBoard().getEntityAt( Action.getFromIndex( action ) );
+        Chara target = (Chara) engine.getBoard().getEntityAt( Action.getToIndex( action ) );
+        int remaining = target.getHealth() - attacker.getAttackPower();
+        return remaining < 1 ? 3000 : 2000 - remaining;
+      case Action.MOVE:
+        return 1000;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Win scores are stored relative to the stored state rather than the root so they stay correct when the state is
+   * reached at a different ply.
+   */
+  private static int toTableScore( int score, int ply ) {
+    if ( score >= WIN_SCORE - MAX_PLY ) {
+      return score + ply;
+    }
+    if ( score <= -WIN_SCORE + MAX_PLY ) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTableScore( int score, int ply ) {
+    if ( score >= WIN_SCORE - MAX_PLY ) {
+      return score - ply;
+    }
+    if ( score <= -WIN_SCORE + MAX_PLY ) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * Ask a running search to stop.  The search finishes as if its time budget had run out.  A stop requested before
+   * a search starts applies to that search.  Safe to call from any thread.
+   */
+  public void stop() {
+    stopRequested = true;
+  }
+
+  /**
+   * Withdraw a stop request that has not been acted on yet.
+   */
+  void clearStop() {
+    stopRequested = false;
+  }
+
+  /**
+   * Set the depth iterative deepening starts at, 1 by default.  Parallel helper searches start deeper so they do not
+   * all repeat the same work.
+   *
+   * @param startDepth  the first depth to search
+   */
+  public void setStartDepth( int startDepth ) {
+    this.startDepth = Math.max( 1, startDepth );
+  }
+
+  /**
+   * Get the number of states visited by the last search.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the time taken by the last search in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the number of states visited per second by the last search.
+   */
+  public long getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+  }
+
+  /**
+   * Get the deepest search that completed in the last search.
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Get the score of the best action of the deepest completed search.
+   */
+  public int getBestScore() {
+    return bestScore;
+  }
+}
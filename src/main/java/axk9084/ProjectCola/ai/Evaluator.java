@@ -0,0 +1,24 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+
+/**
+ * Scores a game state for the search.  Higher scores are better for the given player.
+ *
+ * Evaluators are called at every leaf of the search, so they should be fast and must not change the engine.
+ *
+ * Created by antkwan on 7/8/2016.
+ */
+public interface Evaluator {
+
+  /**
+   * Score the current state of the engine from the point of view of a player.
+   * Scores must stay well within +/- AlphaBetaSearch.WIN_SCORE, which is reserved for won and lost games.
+   *
+   * @param engine  the engine to evaluate
+   * @param player  the player to score for
+   * @return the score, positive when the player is ahead
+   */
+  public int evaluate( ProjectColaEngine engine, int player );
+
+}
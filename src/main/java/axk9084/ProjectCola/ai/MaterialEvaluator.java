@@ -0,0 +1,60 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.chara.Chara;
+
+import java.util.List;
+
+/**
+ * Evaluates a game state by comparing the value of each player's remaining characters.
+ * A character's value is a flat amount for being alive plus weighted health, attack power and maximum attack range.
+ *
+ * Created by antkwan on 7/8/2016.
+ */
+public class MaterialEvaluator implements Evaluator {
+
+  // Default weights
+  private static final int DEFAULT_ALIVE_WEIGHT = 100;
+  private static final int DEFAULT_HEALTH_WEIGHT = 4;
+  private static final int DEFAULT_ATTACK_WEIGHT = 6;
+  private static final int DEFAULT_RANGE_WEIGHT = 10;
+
+  private final int aliveWeight;
+  private final int healthWeight;
+  private final int attackWeight;
+  private final int rangeWeight;
+
+  public MaterialEvaluator() {
+    this( DEFAULT_ALIVE_WEIGHT, DEFAULT_HEALTH_WEIGHT, DEFAULT_ATTACK_WEIGHT, DEFAULT_RANGE_WEIGHT );
+  }
+
+  public MaterialEvaluator( int aliveWeight, int healthWeight, int attackWeight, int rangeWeight ) {
+    this.aliveWeight = aliveWeight;
+    this.healthWeight = healthWeight;
+    this.attackWeight = attackWeight;
+    this.rangeWeight = rangeWeight;
+  }
+
+  public int evaluate( ProjectColaEngine engine, int player ) {
+    int enemy = player == 1 ? 2 : 1;
+    return getValue( engine.getCharacters( player ) ) - getValue( engine.getCharacters( enemy ) );
+  }
+
+  /**
+   * Helper method to sum the value of a list of characters.
+   *
+   * @param charas  the characters to value
+   * @return the total value
+   */
+  private int getValue( List< Chara > charas ) {
+    int value = 0;
+    for ( int i = 0; i < charas.size(); i++ ) {
+      Chara chara = charas.get( i );
+      value += aliveWeight
+          + chara.getHealth() * healthWeight
+          + chara.getAttackPower() * attackWeight
+          + chara.getMaxAttackRange() * rangeWeight;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,491 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+
+/**
+ * Picks an action for the current player with Monte Carlo tree search.
+ *
+ * Each iteration walks down the tree choosing children by UCT, adds the children of the node it reaches, plays a
+ * random game from there and records the result along the path.  Playouts end when a player wins or after a number
+ * of turns, in which case the optional evaluator decides who is ahead.  Playouts are lightly guided: an attack is
+ * preferred over other actions some of the time, which makes random games end far more often.
+ *
+ * The tree lives in a pool of primitive arrays with a fixed number of nodes, so the search never allocates once
+ * created.  When the pool is full the tree stops growing and iterations only run playouts.  After each real action
+ * the tree can be advanced to the matching child with {@link #advance(long)}, which keeps the statistics of that
+ * subtree for the next search and frees the rest of the pool.
+ *
+ * Like AlphaBetaSearch the search runs in place on the engine with apply and undo and leaves it unchanged.
+ *
+ * Created by antkwan on 7/12/2016.
+ */
+public class MonteCarloTreeSearch {
+
+  // Approximate memory used by one node in each of the two pools
+  public static final int BYTES_PER_NODE = 34;
+
+  private static final double DEFAULT_EXPLORATION = 1.4;
+  private static final int DEFAULT_PLAYOUT_TURNS = 6;
+
+  // Percentage of playout actions that take an attack when one is available
+  private static final int ATTACK_PREFERENCE_PERCENT = 50;
+
+  // First child marker of a node whose children have not been added yet
+  private static final int UNEXPANDED = -1;
+
+  // Number of iterations between checks of the clock
+  private static final int TIME_CHECK_INTERVAL = 64;
+
+  private final ProjectColaEngine engine;
+  private final Evaluator evaluator;
+  private final double exploration;
+  private final int playoutTurns;
+
+  // Node pool.  Children of a node are stored next to each other starting at firstChild.  visitScale is
+  // 1 / sqrt( visits ), kept with the visits so picking a child takes no square root per child
+  private final int capacity;
+  private long[] action;
+  private int[] parent;
+  private int[] firstChild;
+  private int[] childCount;
+  private int[] visits;
+  private float[] wins;
+  private float[] visitScale;
+  private byte[] mover;
+  private int size;
+  private int root;
+
+  // Spare pool the tree is compacted into when advancing
+  private long[] spareAction;
+  private int[] spareParent;
+  private int[] spareFirstChild;
+  private int[] spareChildCount;
+  private int[] spareVisits;
+  private float[] spareWins;
+  private float[] spareVisitScale;
+  private byte[] spareMover;
+
+  // State hash of the position the root stands for
+  private long rootHash;
+
+  // Buffer for legal actions during expansion and playouts
+  private long[] actionBuffer = new long[ 256 ];
+
+  // Xorshift random state
+  private long random;
+
+  // Statistics of the last search
+  private long playouts;
+  private long elapsedNanos;
+
+  /**
+   * Create a search with default settings and the material evaluator for unfinished playouts.
+   *
+   * @param engine  the engine to search
+   * @param maxNodes  the number of nodes the tree may hold
+   * @param seed  seed of the playout randomness
+   */
+  public MonteCarloTreeSearch( ProjectColaEngine engine, int maxNodes, long seed ) {
+    this( engine, maxNodes, seed, new MaterialEvaluator(), DEFAULT_EXPLORATION, DEFAULT_PLAYOUT_TURNS );
+  }
+
+  /**
+   * @param engine  the engine to search
+   * @param maxNodes  the number of nodes the tree may hold
+   * @param seed  seed of the playout randomness
+   * @param evaluator  decides the result of playouts that reach the turn limit, null to count them as draws
+   * @param exploration  the UCT exploration constant
+   * @param playoutTurns  the number of turns a playout may last
+   */
+  public MonteCarloTreeSearch( ProjectColaEngine engine, int maxNodes, long seed, Evaluator evaluator,
+                               double exploration, int playoutTurns ) {
+    this.engine = engine;
+    this.evaluator = evaluator;
+    this.exploration = exploration;
+    this.playoutTurns = playoutTurns;
+    this.random = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+
+    capacity = Math.max( 2, maxNodes );
+    action = new long[ capacity ];
+    parent = new int[ capacity ];
+    firstChild = new int[ capacity ];
+    childCount = new int[ capacity ];
+    visits = new int[ capacity ];
+    wins = new float[ capacity ];
+    visitScale = new float[ capacity ];
+    mover = new byte[ capacity ];
+
+    spareAction = new long[ capacity ];
+    spareParent = new int[ capacity ];
+    spareFirstChild = new int[ capacity ];
+    spareChildCount = new int[ capacity ];
+    spareVisits = new int[ capacity ];
+    spareWins = new float[ capacity ];
+    spareVisitScale = new float[ capacity ];
+    spareMover = new byte[ capacity ];
+
+    resetTree();
+  }
+
+  /**
+   * Get the number of nodes that fit in the given memory budget.
+   *
+   * @param bytes  the memory budget
+   * @return the number of nodes to create the search with
+   */
+  public static int nodesForMemory( long bytes ) {
+    return (int) Math.min( Integer.MAX_VALUE, bytes / ( 2 * BYTES_PER_NODE ) );
+  }
+
+  /**
+   * Discard the tree and start over from the engine's current position.
+   */
+  public void clear() {
+    resetTree();
+  }
+
+  /**
+   * Search for the best action of the current player until the time budget or the iteration limit runs out.
+   * If the engine is not in the position the tree was built for, the tree is started over.
+   *
+   * @param timeBudgetMillis  the time the search may take
+   * @param maxIterations  the most iterations to run
+   * @return the encoded action with the most visits, else 0 if the player has no legal action
+   */
+  public long findBestAction( long timeBudgetMillis, long maxIterations ) {
+    long start = System.nanoTime();
+    long deadline = start + timeBudgetMillis * 1000000L;
+    playouts = 0;
+
+    if ( engine.stateHash() != rootHash ) {
+      resetTree();
+    }
+
+    for ( long i = 0; i < maxIterations; i++ ) {
+      if ( i % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline ) {
+        break;
+      }
+      iterate();
+    }
+
+    elapsedNanos = System.nanoTime() - start;
+    return getMostVisitedAction();
+  }
+
+  /**
+   * Move the root of the tree to the child reached by an action played in the real game, keeping its statistics.
+   * The rest of the tree is discarded.  Call this after every action applied to the engine, including the
+   * opponent's, so the next search can reuse the tree.
+   *
+   * @param playedAction  the encoded action that was played
+   */
+  public void advance( long playedAction ) {
+    int child = -1;
+    if ( firstChild[ root ] >= 0 ) {
+      for ( int i = 0; i < childCount[ root ]; i++ ) {
+        if ( action[ firstChild[ root ] + i ] == playedAction ) {
+          child = firstChild[ root ] + i;
+          break;
+        }
+      }
+    }
+
+    if ( child < 0 ) {
+      resetTree();
+      return;
+    }
+
+    compactFrom( child );
+    rootHash = engine.stateHash();
+  }
+
+  /**
+   * Helper method to run one selection, expansion, playout and backpropagation.
+   */
+  private void iterate() {
+    int node = root;
+    int applied = 0;
+
+    // Selection
+    while ( firstChild[ node ] >= 0 && childCount[ node ] > 0 ) {
+      node = selectChild( node );
+      engine.apply( action[ node ] );
+      applied++;
+    }
+
+    // Expansion
+    if ( engine.getGameWinner() == null && firstChild[ node ] == UNEXPANDED && expand( node ) ) {
+      node = firstChild[ node ] + nextInt( childCount[ node ] );
+      engine.apply( action[ node ] );
+      applied++;
+    }
+
+    int winner = engine.getGameWinner() != null ? engine.getGameWinner() : playout();
+    playouts++;
+
+    // Backpropagation
+    while ( true ) {
+      visits[ node ]++;
+      visitScale[ node ] = (float) ( 1 / Math.sqrt( visits[ node ] ) );
+      if ( winner == 0 ) {
+        wins[ node ] += 0.5f;
+      }
+      else if ( winner == mover[ node ] ) {
+        wins[ node ] += 1f;
+      }
+      if ( node == root ) {
+        break;
+      }
+      node = parent[ node ];
+    }
+
+    for ( int i = 0; i < applied; i++ ) {
+      engine.undo();
+    }
+  }
+
+  /**
+   * Helper method to pick the child with the highest UCT value.  Unvisited children are picked first.
+   */
+  private int selectChild( int node ) {
+    int first = firstChild[ node ];
+    int end = first + childCount[ node ];
+    double explorationScale = exploration * Math.sqrt( Math.log( visits[ node ] ) );
+
+    int best = first;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for ( int child = first; child < end; child++ ) {
+      if ( visits[ child ] == 0 ) {
+        return child;
+      }
+      double value = wins[ child ] / visits[ child ] + explorationScale * visitScale[ child ];
+      if ( value > bestValue ) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Helper method to add the children of a node, one for each legal action.
+   *
+   * @return true if children were added, false if the node has no actions or the pool is full
+   */
+  private boolean expand( int node ) {
+    int player = engine.getTurnPlayer();
+    int count = generateActions( player );
+
+    if ( count == 0 ) {
+      firstChild[ node ] = size;
+      childCount[ node ] = 0;
+      return false;
+    }
+    if ( size + count > capacity ) {
+      return false;
+    }
+
+    firstChild[ node ] = size;
+    childCount[ node ] = count;
+    for ( int i = 0; i < count; i++ ) {
+      initNode( size++, actionBuffer[ i ], node, player );
+    }
+    return true;
+  }
+
+  /**
+   * Helper method to play random actions until a player wins or the turn limit is reached, then undo them.
+   *
+   * @return the winning player, 0 for a draw
+   */
+  private int playout() {
+    int applied = 0;
+    int turns = 0;
+
+    while ( engine.getGameWinner() == null && turns < playoutTurns ) {
+      int count = generateActions( engine.getTurnPlayer() );
+      if ( count == 0 ) {
+        break;
+      }
+
+      long chosen = actionBuffer[ nextInt( count ) ];
+
+      // Lightly guided: take an attack when there is one, some of the time
+      if ( Action.getType( chosen ) != Action.ATTACK && nextInt( 100 ) < ATTACK_PREFERENCE_PERCENT ) {
+        for ( int i = 0; i < count; i++ ) {
+          if ( Action.getType( actionBuffer[ i ] ) == Action.ATTACK ) {
+            chosen = actionBuffer[ i ];
+            break;
+          }
+        }
+      }
+
+      engine.apply( chosen );
+      applied++;
+      if ( Action.getType( chosen ) == Action.END_TURN ) {
+        turns++;
+      }
+    }
+
+    int winner;
+    if ( engine.getGameWinner() != null ) {
+      winner = engine.getGameWinner();
+    }
+    else if ( evaluator != null ) {
+      int score = evaluator.evaluate( engine, 1 );
+      winner = score > 0 ? 1 : score < 0 ? 2 : 0;
+    }
+    else {
+      winner = 0;
+    }
+
+    for ( int i = 0; i < applied; i++ ) {
+      engine.undo();
+    }
+    return winner;
+  }
+
+  /**
+   * Helper method to fill the action buffer with the legal actions, growing it if needed.
+   */
+  private int generateActions( int player ) {
+    int count = engine.generateLegalActions( player, actionBuffer );
+    if ( count > actionBuffer.length ) {
+      actionBuffer = new long[ count * 2 ];
+      count = engine.generateLegalActions( player, actionBuffer );
+    }
+    return count;
+  }
+
+  private long getMostVisitedAction() {
+    if ( firstChild[ root ] < 0 || childCount[ root ] == 0 ) {
+      return generateActions( engine.getTurnPlayer() ) > 0 ? actionBuffer[ 0 ] : 0;
+    }
+
+    int best = firstChild[ root ];
+    for ( int child = best + 1; child < firstChild[ root ] + childCount[ root ]; child++ ) {
+      if ( visits[ child ] > visits[ best ] ) {
+        best = child;
+      }
+    }
+    return action[ best ];
+  }
+
+  private void initNode( int node, long nodeAction, int nodeParent, int nodeMover ) {
+    action[ node ] = nodeAction;
+    parent[ node ] = nodeParent;
+    firstChild[ node ] = UNEXPANDED;
+    childCount[ node ] = 0;
+    visits[ node ] = 0;
+    wins[ node ] = 0;
+    visitScale[ node ] = 0;
+    mover[ node ] = (byte) nodeMover;
+  }
+
+  private void resetTree() {
+    size = 0;
+    root = 0;
+    initNode( size++, 0, -1, 0 );
+    rootHash = engine.stateHash();
+  }
+
+  /**
+   * Helper method to copy the subtree under a node into the spare pool, breadth first so each node's children stay
+   * next to each other, and make the copy the current pool with the node as root.
+   */
+  private void compactFrom( int newRoot ) {
+    int newSize = 0;
+    copyNode( newRoot, newSize++, -1 );
+
+    // The spare pool doubles as the queue: each copied node is visited once to copy its children
+    for ( int next = 0; next < newSize; next++ ) {
+      int oldFirst = spareFirstChild[ next ];
+      if ( oldFirst < 0 ) {
+        continue;
+      }
+      int count = spareChildCount[ next ];
+      spareFirstChild[ next ] = newSize;
+      for ( int i = 0; i < count; i++ ) {
+        copyNode( oldFirst + i, newSize++, next );
+      }
+    }
+
+    long[] swapAction = action;
+    action = spareAction;
+    spareAction = swapAction;
+    int[] swapInts = parent;
+    parent = spareParent;
+    spareParent = swapInts;
+    swapInts = firstChild;
+    firstChild = spareFirstChild;
+    spareFirstChild = swapInts;
+    swapInts = childCount;
+    childCount = spareChildCount;
+    spareChildCount = swapInts;
+    swapInts = visits;
+    visits = spareVisits;
+    spareVisits = swapInts;
+    float[] swapFloats = wins;
+    wins = spareWins;
+    spareWins = swapFloats;
+    swapFloats = visitScale;
+    visitScale = spareVisitScale;
+    spareVisitScale = swapFloats;
+    byte[] swapMover = mover;
+    mover = spareMover;
+    spareMover = swapMover;
+
+    root = 0;
+    size = newSize;
+  }
+
+  private void copyNode( int from, int to, int newParent ) {
+    spareAction[ to ] = action[ from ];
+    spareParent[ to ] = newParent;
+    spareFirstChild[ to ] = firstChild[ from ];
+    spareChildCount[ to ] = childCount[ from ];
+    spareVisits[ to ] = visits[ from ];
+    spareWins[ to ] = wins[ from ];
+    spareVisitScale[ to ] = visitScale[ from ];
+    spareMover[ to ] = mover[ from ];
+  }
+
+  /**
+   * Xorshift random number in [0, bound).
+   */
+  private int nextInt( int bound ) {
+    random ^= random << 13;
+    random ^= random >>> 7;
+    random ^= random << 17;
+    return (int) ( ( random >>> 33 ) % bound );
+  }
+
+  /**
+   * Get the number of nodes in the tree.
+   */
+  public int getTreeSize() {
+    return size;
+  }
+
+  /**
+   * Get the number of playouts run by the last search.
+   */
+  public long getPlayouts() {
+    return playouts;
+  }
+
+  /**
+   * Get the time taken by the last search in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the number of playouts per second of the last search.
+   */
+  public long getPlayoutsPerSecond() {
+    return elapsedNanos == 0 ? 0 : playouts * 1000000000L / elapsedNanos;
+  }
+}
@@ -0,0 +1,146 @@
+package axk9084.ProjectCola.ai;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs several AlphaBetaSearch workers on the same position at once, Lazy SMP style.
+ *
+ * Every worker searches its own copy of the engine and all of them share one lock-free TranspositionTable.  Workers
+ * do not coordinate beyond the table: results found by one worker cut off and order the search of the others.
+ * Helper workers start their iterative deepening at staggered depths so they spread out over the tree.  The answer is
+ * taken from the main worker, which runs on the calling thread, and the helpers are stopped when it finishes.
+ *
+ * The evaluator is shared by all workers and must be safe to call from several threads.
+ *
+ * Created by antkwan on 7/10/2016.
+ */
+public class ParallelSearch {
+
+  private final int threads;
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+
+  // Pool running the helper workers, one thread per helper
+  private final ExecutorService helperPool;
+
+  // Statistics of the last search
+  private long nodes;
+  private long elapsedNanos;
+  private int completedDepth;
+
+  public ParallelSearch( int threads, Evaluator evaluator, TranspositionTable table ) {
+    this.threads = Math.max( 1, threads );
+    this.evaluator = evaluator;
+    this.table = table;
+
+    helperPool = this.threads > 1 ? Executors.newFixedThreadPool( this.threads - 1, new ThreadFactory() {
+      public Thread newThread( Runnable runnable ) {
+        Thread thread = new Thread( runnable, "ProjectCola-search-helper" );
+        thread.setDaemon( true );
+        return thread;
+      }
+    } ) : null;
+  }
+
+  /**
+   * Search for the best action of the current player of the given engine.  The engine itself is not searched or
+   * changed, each worker gets a copy of it.
+   *
+   * @param engine  the engine with the position to search
+   * @param timeBudgetMillis  the time the search may take
+   * @param maxDepth  the deepest search to run, in actions
+   * @return the encoded best action, else 0 if the player has no legal action
+   */
+  public long findBestAction( ProjectColaEngine engine, final long timeBudgetMillis, final int maxDepth ) {
+    long start = System.nanoTime();
+
+    // Start the helpers, each on its own copy of the engine
+    final List< AlphaBetaSearch > helpers = new ArrayList< AlphaBetaSearch >( threads - 1 );
+    List< Future< Long > > futures = new ArrayList< Future< Long > >( threads - 1 );
+    for ( int i = 1; i < threads; i++ ) {
+      final AlphaBetaSearch helper = new AlphaBetaSearch( new ProjectColaEngine( engine ), evaluator, table );
+      helper.setStartDepth( 1 + i % 2 + i / 4 );
+      helper.clearStop();
+      helpers.add( helper );
+      futures.add( helperPool.submit( new Callable< Long >() {
+        public Long call() {
+          return helper.findBestAction( timeBudgetMillis, maxDepth );
+        }
+      } ) );
+    }
+
+    AlphaBetaSearch main = new AlphaBetaSearch( new ProjectColaEngine( engine ), evaluator, table );
+    long bestAction = main.findBestAction( timeBudgetMillis, maxDepth );
+
+    // Stop the helpers and wait for them so their engines are no longer in use
+    for ( AlphaBetaSearch helper : helpers ) {
+      helper.stop();
+    }
+
+    nodes = main.getNodes();
+    for ( int i = 0; i < futures.size(); i++ ) {
+      try {
+        futures.get( i ).get();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      } catch ( ExecutionException e ) {
+        throw new IllegalStateException( "Search helper failed", e.getCause() );
+      }
+      nodes += helpers.get( i ).getNodes();
+    }
+
+    completedDepth = main.getCompletedDepth();
+    elapsedNanos = System.nanoTime() - start;
+    return bestAction;
+  }
+
+  /**
+   * Stop the helper threads.  The search can not be used afterwards.
+   */
+  public void shutdown() {
+    if ( helperPool != null ) {
+      helperPool.shutdownNow();
+    }
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Get the number of states visited by all workers in the last search.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Get the time taken by the last search in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Get the number of states visited per second by all workers in the last search.
+   */
+  public long getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1000000000L / elapsedNanos;
+  }
+
+  /**
+   * Get the deepest search the main worker completed in the last search.
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+}
@@ -0,0 +1,120 @@
+package axk9084.ProjectCola.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size hash table of search results keyed by ProjectColaEngine.stateHash().
+ *
+ * Each entry stores the score, the depth it was searched to, whether the score is exact or a bound, and the best
+ * action found.  The table never grows: its size is rounded down to a power of two at creation and a new result
+ * replaces the old one in its slot unless the old one was searched deeper for the same state.
+ *
+ * The table can be shared by several search threads without locks.  Each slot stores the state hash XORed with the
+ * entry and its action, so a slot read while another thread was half way through writing it fails the key check and
+ * is treated as a miss instead of returning a mix of two entries.
+ *
+ * Created by antkwan on 7/8/2016.
+ */
+public class TranspositionTable {
+
+  // Kinds of stored scores
+  public static final int EXACT = 1;
+  public static final int LOWER_BOUND = 2;
+  public static final int UPPER_BOUND = 3;
+
+  // State hash XOR data XOR action of each slot
+  private final long[] keys;
+  private final long[] data;
+  private final long[] actions;
+  private final int mask;
+
+  /**
+   * Create a table with room for at most the given number of entries.
+   *
+   * @param maxEntries  the maximum number of entries, rounded down to a power of two
+   */
+  public TranspositionTable( int maxEntries ) {
+    int size = Integer.highestOneBit( Math.max( 1, maxEntries ) );
+    keys = new long[ size ];
+    data = new long[ size ];
+    actions = new long[ size ];
+    mask = size - 1;
+  }
+
+  public int getSize() {
+    return keys.length;
+  }
+
+  /**
+   * Look up the entry for a state.
+   *
+   * @param key  the state hash
+   * @return the packed entry, read with getScore, getDepth and getBound, else 0 if the state is not stored
+   */
+  public long probe( long key ) {
+    int slot = (int) key & mask;
+    long entry = data[ slot ];
+    return ( keys[ slot ] ^ entry ^ actions[ slot ] ) == key ? entry : 0;
+  }
+
+  /**
+   * Look up the best action stored for a state.
+   *
+   * @param key  the state hash
+   * @return the encoded best action, else 0 if the state is not stored
+   */
+  public long probeAction( long key ) {
+    int slot = (int) key & mask;
+    long action = actions[ slot ];
+    return ( keys[ slot ] ^ data[ slot ] ^ action ) == key ? action : 0;
+  }
+
+  /**
+   * Store a search result.
+   *
+   * @param key  the state hash
+   * @param score  the score
+   * @param depth  the depth the state was searched to
+   * @param bound  one of EXACT, LOWER_BOUND or UPPER_BOUND
+   * @param action  the encoded best action, 0 if none
+   */
+  public void store( long key, int score, int depth, int bound, long action ) {
+    int slot = (int) key & mask;
+
+    // Keep a deeper result for the same state
+    long oldEntry = data[ slot ];
+    if ( ( keys[ slot ] ^ oldEntry ^ actions[ slot ] ) == key && getDepth( oldEntry ) > depth ) {
+      return;
+    }
+
+    long entry = pack( score, depth, bound );
+    keys[ slot ] = key ^ entry ^ action;
+    data[ slot ] = entry;
+    actions[ slot ] = action;
+  }
+
+  /**
+   * Empty the table.
+   */
+  public void clear() {
+    Arrays.fill( keys, 0 );
+    Arrays.fill( data, 0 );
+    Arrays.fill( actions, 0 );
+  }
+
+  private static long pack( int score, int depth, int bound ) {
+    return ( (long) score << 32 ) | ( ( depth & 0xFFFF ) << 8 ) | ( bound & 0xFF );
+  }
+
+  public static int getScore( long entry ) {
+    return (int) ( entry >> 32 );
+  }
+
+  public static int getDepth( long entry ) {
+    return (int) ( entry >>> 8 ) & 0xFFFF;
+  }
+
+  public static int getBound( long entry ) {
+    return (int) entry & 0xFF;
+  }
+}
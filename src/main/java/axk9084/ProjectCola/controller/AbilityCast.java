@@ -0,0 +1,50 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.Chara;
+
+/**
+ * The cast of an ability with a casting time, which deals its damage or healing when it resolves.  The ability is
+ * named by its slot in the caster's abilities, so the cast can be saved in snapshots, see {@link GameSnapshot}.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+final class AbilityCast implements Cast {
+
+  private final int slot;
+  private final int fromIndex;
+  private final int toIndex;
+
+  /**
+   * @param slot  the index of the ability in the caster's abilities
+   * @param fromIndex  the tile index the caster used it from
+   * @param toIndex  the tile index of its target
+   */
+  AbilityCast( int slot, int fromIndex, int toIndex ) {
+    this.slot = slot;
+    this.fromIndex = fromIndex;
+    this.toIndex = toIndex;
+  }
+
+  int getSlot() {
+    return slot;
+  }
+
+  int getFromIndex() {
+    return fromIndex;
+  }
+
+  int getToIndex() {
+    return toIndex;
+  }
+
+  public void resolve( ProjectColaEngine engine, Chara caster ) {
+    engine.resolveAbility( caster, caster.getAbilities().get( slot ), fromIndex, toIndex );
+  }
+
+  /**
+   * Everything the cast holds is final, so copies of the game can share it.
+   */
+  public Cast copy() {
+    return this;
+  }
+}
@@ -0,0 +1,104 @@
+package axk9084.ProjectCola.controller;
+
+/**
+ * Encodes a game action into a single long so lists of actions can be kept in primitive arrays.
+ *
+ * The layout of an encoded action is:
+ *   bits 0-27   tile index the action targets
+ *   bits 28-55  tile index of the character performing the action
+ *   bits 60-61  action type
+ *
+ * Tile indexes are board tile indexes, see Board.getIndex.  An end turn action has no tiles.
+ *
+ * Created by antkwan on 7/4/2016.
+ */
+public final class Action {
+
+  // Action types
+  public static final int MOVE = 1;
+  public static final int ATTACK = 2;
+  public static final int END_TURN = 3;
+
+  // The single encoded end turn action
+  public static final long END_TURN_ACTION = (long) END_TURN << 60;
+
+  private static final int TILE_BITS = 28;
+  private static final long TILE_MASK = ( 1L << TILE_BITS ) - 1;
+
+  private Action() {}
+
+  /**
+   * Encode a move action.
+   *
+   * @param fromIndex  the tile index of the character that is moving
+   * @param toIndex  the tile index the character is moving to
+   * @return the encoded action
+   */
+  public static long move( int fromIndex, int toIndex ) {
+    return encode( MOVE, fromIndex, toIndex );
+  }
+
+  /**
+   * Encode an attack action.
+   *
+   * @param fromIndex  the tile index of the attacking character
+   * @param toIndex  the tile index of the target character
+   * @return the encoded action
+   */
+  public static long attack( int fromIndex, int toIndex ) {
+    return encode( ATTACK, fromIndex, toIndex );
+  }
+
+  private static long encode( int type, int fromIndex, int toIndex ) {
+    return ( (long) type << 60 ) | ( ( fromIndex & TILE_MASK ) << TILE_BITS ) | ( toIndex & TILE_MASK );
+  }
+
+  /**
+   * Get the type of an encoded action.
+   *
+   * @param action  the encoded action
+   * @return one of MOVE, ATTACK or END_TURN
+   */
+  public static int getType( long action ) {
+    return (int) ( action >>> 60 ) & 0x3;
+  }
+
+  /**
+   * Get the tile index of the character performing an encoded action.
+   *
+   * @param action  the encoded action
+   * @return the tile index
+   */
+  public static int getFromIndex( long action ) {
+    return (int) ( ( action >>> TILE_BITS ) & TILE_MASK );
+  }
+
+  /**
+   * Get the tile index an encoded action targets.
+   *
+   * @param action  the encoded action
+   * @return the tile index
+   */
+  public static int getToIndex( long action ) {
+    return (int) ( action & TILE_MASK );
+  }
+
+  /**
+   * Describe an encoded action, for example "move 8 -> 9".  Intended for logging and debugging.
+   *
+   * @param action  the encoded action
+   * @return a description of the action
+   */
+  public static String toString( long action ) {
+    switch ( getType( action ) ) {
+      case MOVE:
+        return "move " + getFromIndex( action ) + " -> " + getToIndex( action );
+      case ATTACK:
+        return "attack " + getFromIndex( action ) + " -> " + getToIndex( action );
+      case END_TURN:
+        return "end turn";
+      default:
+        return "unknown " + action;
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.board.Coordinate;
+
+/**
+ * The outcome of {@link ProjectColaEngine#tryMove(int, int, int, int)} and
+ * {@link ProjectColaEngine#tryAttack(int, int, int, int)} and
+ * {@link ProjectColaEngine#tryAbility(int, int, int, int, int)}: a result code and the details the matching exception in
+ * axk9084.ProjectCola.exceptions would carry, without creating one.
+ *
+ * Each engine has a single result that every try call fills in and returns, so a result is only valid until the
+ * next call on the same engine.  Which details are set depends on the code, as for the exceptions:
+ *   SAME_TILE, TILE_DOES_NOT_EXIST, MISSING_CHARACTER, NO_ENEMY   x and y
+ *   CHARACTER_NOT_OWNED      character name, x, y, owning player and turn player
+ *   NO_ACTIONS_REMAINING     character name, x and y
+ *   TILE_OCCUPIED            character name, x and y
+ *   OUT_OF_MOVE_RANGE        character name, x, y and the move range as the max range
+ *   OUT_OF_ATTACK_RANGE      character name, x, y and the min and max range
+ *   NO_SUCH_ABILITY          character name, x, y and the ability slot
+ *   ABILITY_NOT_READY        character name, x, y, the ability name and the turns remaining
+ *   OUT_OF_ABILITY_RANGE     character name, x, y and the min and max range
+ *   INVALID_TARGET           x and y
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class ActionResult {
+
+  // Result codes
+  public static final int ACCEPTED = 0;
+  public static final int SAME_TILE = 1;
+  public static final int TILE_DOES_NOT_EXIST = 2;
+  public static final int MISSING_CHARACTER = 3;
+  public static final int CHARACTER_NOT_OWNED = 4;
+  public static final int NO_ACTIONS_REMAINING = 5;
+  public static final int OUT_OF_MOVE_RANGE = 6;
+  public static final int TILE_OCCUPIED = 7;
+  public static final int OUT_OF_ATTACK_RANGE = 8;
+  public static final int NO_ENEMY = 9;
+  public static final int NO_SUCH_ABILITY = 10;
+  public static final int ABILITY_NOT_READY = 11;
+  public static final int OUT_OF_ABILITY_RANGE = 12;
+  public static final int INVALID_TARGET = 13;
+
+  // Number of result codes, accepted included
+  public static final int CODE_COUNT = 14;
+
+  // Name of each rejection, the simple name of the exception the throwing API uses for it
+  private static final String[] REJECTION_NAMES = {
+      null,
+      "SameTileException",
+      "TileDoesNotExistException",
+      "MissingCharacterException",
+      "CharacterNotOwnedException",
+      "NoActionsRemainingException",
+      "OutOfMoveRangeException",
+      "TileOccupiedException",
+      "OutOfAttackRangeException",
+      "NoEnemyException",
+      "NoSuchAbilityException",
+      "AbilityNotReadyException",
+      "OutOfAbilityRangeException",
+      "InvalidTargetException"
+  };
+
+  private int code;
+  private String characterName;
+  private int x;
+  private int y;
+  private int ownedByPlayer;
+  private int turnPlayer;
+  private int minRange;
+  private int maxRange;
+  private int slot;
+  private String abilityName;
+  private int turnsRemaining;
+
+  ActionResult() {}
+
+  /**
+   * Helper method for the engine to reset the result for a new call.
+   *
+   * @return this result, accepted
+   */
+  ActionResult accept() {
+    code = ACCEPTED;
+    characterName = null;
+    abilityName = null;
+    return this;
+  }
+
+  /**
+   * Helper method for the engine to reject with a tile.
+   *
+   * @return this result
+   */
+  ActionResult reject( int rejectionCode, String name, int tileX, int tileY ) {
+    code = rejectionCode;
+    characterName = name;
+    x = tileX;
+    y = tileY;
+    return this;
+  }
+
+  /**
+   * Helper method for the engine to reject with a range.
+   *
+   * @return this result
+   */
+  ActionResult reject( int rejectionCode, String name, int tileX, int tileY, int min, int max ) {
+    minRange = min;
+    maxRange = max;
+    return reject( rejectionCode, name, tileX, tileY );
+  }
+
+  /**
+   * Helper method for the engine to reject a character of the wrong player.
+   *
+   * @return this result
+   */
+  ActionResult rejectNotOwned( String name, int tileX, int tileY, int owner, int player ) {
+    ownedByPlayer = owner;
+    turnPlayer = player;
+    return reject( CHARACTER_NOT_OWNED, name, tileX, tileY );
+  }
+
+  /**
+   * Helper method for the engine to reject the use of an ability slot.
+   *
+   * @return this result
+   */
+  ActionResult rejectAbility( int rejectionCode, String name, int tileX, int tileY, int abilitySlot,
+                              String ability, int turns ) {
+    slot = abilitySlot;
+    abilityName = ability;
+    turnsRemaining = turns;
+    return reject( rejectionCode, name, tileX, tileY );
+  }
+
+  public int getCode() {
+    return code;
+  }
+
+  public boolean isAccepted() {
+    return code == ACCEPTED;
+  }
+
+  /**
+   * Get the name of the rejection, which is the simple name of the exception the throwing API would throw.
+   *
+   * @return the name, or null if the action was accepted
+   */
+  public String getRejection() {
+    return getRejectionName( code );
+  }
+
+  /**
+   * Get the name of a rejection code.
+   *
+   * @param code  the result code
+   * @return the simple name of the exception the throwing API uses for it, or null for ACCEPTED
+   */
+  public static String getRejectionName( int code ) {
+    return REJECTION_NAMES[ code ];
+  }
+
+  public String getCharacterName() {
+    return characterName;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public char getColumnKey() {
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRowKey() {
+    return Coordinate.toRowKey( y );
+  }
+
+  public int getOwnedByPlayer() {
+    return ownedByPlayer;
+  }
+
+  public int getTurnPlayer() {
+    return turnPlayer;
+  }
+
+  public int getMinRange() {
+    return minRange;
+  }
+
+  public int getMaxRange() {
+    return maxRange;
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+
+  public String getAbilityName() {
+    return abilityName;
+  }
+
+  public int getTurnsRemaining() {
+    return turnsRemaining;
+  }
+
+  @Override
+  public String toString() {
+    return isAccepted() ? "Accepted" : getRejection() + " at " + Coordinate.format( x, y );
+  }
+}
@@ -0,0 +1,28 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.Chara;
+
+/**
+ * Something a character set in motion that takes hold some turns later, such as a spell with a casting time.  Casts
+ * are scheduled with {@link ProjectColaEngine#scheduleCast(Chara, int, Cast)}.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public interface Cast {
+
+  /**
+   * Carry out the cast.  Called at the end of the turn the cast is due, only if its caster is still alive.
+   *
+   * @param engine  the engine of the game
+   * @param caster  the character that cast it
+   */
+  public void resolve( ProjectColaEngine engine, Chara caster );
+
+  /**
+   * Get the cast to schedule on a copy of the game: a new cast in the same state, or this one if it can not change.
+   *
+   * @return the copy
+   */
+  public Cast copy();
+
+}
@@ -0,0 +1,331 @@
+package axk9084.ProjectCola.controller;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The pending casts of a game, kept on a timing wheel keyed by the turn each is due.
+ *
+ * The wheel has a slot per turn, as many as the longest pending delay needs, rounded up to a power of two, so a slot
+ * only ever holds casts due on one turn.  Ending a turn takes the casts of its slot from the front, each in constant
+ * time, in the order they were scheduled.  Every cast is also on a list of its caster's casts, so the casts of a
+ * character that died are cancelled in constant time each, without looking at the rest.
+ *
+ * Casts are entries of a pool of parallel arrays linked by index, and freed entries are reused, so scheduling does
+ * not allocate once the pool and the wheel have grown to the game's needs.  An entry is identified to callers by a
+ * handle that also holds the entry's generation, so a handle of a cast that has resolved or been cancelled stays
+ * invalid when its entry is reused.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+class CastScheduler {
+
+  private static final int NONE = -1;
+
+  // First and last cast of each slot of the wheel, the wheel size is mask + 1
+  private int[] slotHeads;
+  private int[] slotTails;
+  private int mask;
+
+  // The entries: the cast, its due turn and caster id, its links in its slot and in its caster's list, and the
+  // generation of the entry, bumped each time it is freed.  Free entries are linked through slotNext
+  private Cast[] casts = new Cast[ 0 ];
+  private int[] dueTurns = new int[ 0 ];
+  private int[] casterIds = new int[ 0 ];
+  private int[] slotNext = new int[ 0 ];
+  private int[] slotPrevious = new int[ 0 ];
+  private int[] casterNext = new int[ 0 ];
+  private int[] casterPrevious = new int[ 0 ];
+  private int[] generations = new int[ 0 ];
+
+  private int freeHead = NONE;
+  private int entryCount = 0;
+  private int pending = 0;
+
+  // First cast of each caster, by chara id
+  private int[] casterHeads = new int[ 0 ];
+
+  CastScheduler() {
+    slotHeads = new int[ 1 ];
+    slotTails = new int[ 1 ];
+    Arrays.fill( slotHeads, NONE );
+    Arrays.fill( slotTails, NONE );
+    mask = 0;
+  }
+
+  /**
+   * Replace the pending casts with a copy of another scheduler's, see {@link Cast#copy()}.  Entries keep their
+   * places and generations, so a handle of a cast of the other scheduler is a handle of its copy here.
+   *
+   * @param other  the scheduler to copy
+   */
+  void copy( CastScheduler other ) {
+    slotHeads = other.slotHeads.clone();
+    slotTails = other.slotTails.clone();
+    mask = other.mask;
+
+    casts = new Cast[ other.casts.length ];
+    for ( int entry = 0; entry < other.entryCount; entry++ ) {
+      casts[ entry ] = other.casts[ entry ] == null ? null : other.casts[ entry ].copy();
+    }
+    dueTurns = other.dueTurns.clone();
+    casterIds = other.casterIds.clone();
+    slotNext = other.slotNext.clone();
+    slotPrevious = other.slotPrevious.clone();
+    casterNext = other.casterNext.clone();
+    casterPrevious = other.casterPrevious.clone();
+    generations = other.generations.clone();
+
+    freeHead = other.freeHead;
+    entryCount = other.entryCount;
+    pending = other.pending;
+    casterHeads = other.casterHeads.clone();
+  }
+
+  /**
+   * Schedule a cast.
+   *
+   * @param cast  the cast
+   * @param casterId  the chara id of its caster
+   * @param turn  the current turn
+   * @param dueTurn  the turn at whose end it resolves, not before the current turn
+   * @return the handle of the cast
+   */
+  long schedule( Cast cast, int casterId, int turn, int dueTurn ) {
+    if ( dueTurn - turn > mask ) {
+      growWheel( dueTurn - turn );
+    }
+
+    int entry = allocate();
+    casts[ entry ] = cast;
+    dueTurns[ entry ] = dueTurn;
+    casterIds[ entry ] = casterId;
+
+    // Append to the slot, so casts due on the same turn resolve in the order they were scheduled
+    appendToSlot( entry, dueTurn & mask );
+
+    // Push onto the caster's list
+    if ( casterId >= casterHeads.length ) {
+      int length = casterHeads.length;
+      casterHeads = Arrays.copyOf( casterHeads, Math.max( casterId + 1, length * 2 ) );
+      Arrays.fill( casterHeads, length, casterHeads.length, NONE );
+    }
+    int head = casterHeads[ casterId ];
+    casterPrevious[ entry ] = NONE;
+    casterNext[ entry ] = head;
+    if ( head != NONE ) {
+      casterPrevious[ head ] = entry;
+    }
+    casterHeads[ casterId ] = entry;
+
+    pending++;
+    return ( (long) generations[ entry ] << 32 ) | entry;
+  }
+
+  /**
+   * Cancel a pending cast.
+   *
+   * @param handle  the handle schedule returned
+   * @return true if the cast was pending, false if it already resolved or was cancelled
+   */
+  boolean cancel( long handle ) {
+    int entry = (int) handle;
+    if ( entry < 0 || entry >= entryCount || generations[ entry ] != (int) ( handle >>> 32 ) || casts[ entry ] == null ) {
+      return false;
+    }
+    release( entry );
+    return true;
+  }
+
+  /**
+   * Cancel every pending cast of a caster.
+   *
+   * @param casterId  the chara id of the caster
+   * @return the number of casts cancelled
+   */
+  int cancelCaster( int casterId ) {
+    if ( casterId >= casterHeads.length ) {
+      return 0;
+    }
+
+    int cancelled = 0;
+    while ( casterHeads[ casterId ] != NONE ) {
+      release( casterHeads[ casterId ] );
+      cancelled++;
+    }
+    return cancelled;
+  }
+
+  /**
+   * Resolve the casts due at the end of a turn, in the order they were scheduled.  Casts that the resolving casts
+   * schedule for this turn, or cancel, are resolved or skipped in the same pass.
+   *
+   * @param turn  the turn that is ending
+   * @param engine  the engine the casts resolve in
+   */
+  void resolveDue( int turn, ProjectColaEngine engine ) {
+    int slot = turn & mask;
+
+    // The wheel covers every pending delay, so the slot only holds casts of this turn, or of an earlier one that
+    // was not resolved because its turn ended through apply
+    while ( slotHeads[ slot ] != NONE && dueTurns[ slotHeads[ slot ] ] <= turn ) {
+      int entry = slotHeads[ slot ];
+      Cast cast = casts[ entry ];
+      int casterId = casterIds[ entry ];
+      release( entry );
+      cast.resolve( engine, engine.getCharaStore().getChara( casterId ) );
+    }
+  }
+
+  int getPendingCount() {
+    return pending;
+  }
+
+  /**
+   * Get the entries of the pending casts in the order they resolve: by due turn, and in the order they were
+   * scheduled within a turn.
+   *
+   * @return the entries, for getCast, getDueTurn and getCasterId
+   */
+  int[] getPendingEntries() {
+    Integer[] entries = new Integer[ pending ];
+    int count = 0;
+    for ( int slot = 0; slot <= mask; slot++ ) {
+      for ( int entry = slotHeads[ slot ]; entry != NONE; entry = slotNext[ entry ] ) {
+        entries[ count++ ] = entry;
+      }
+    }
+
+    // The sort is stable, so casts due on the same turn keep the order of their slot
+    Arrays.sort( entries, new Comparator< Integer >() {
+      public int compare( Integer a, Integer b ) {
+        return dueTurns[ a ] < dueTurns[ b ] ? -1 : ( dueTurns[ a ] == dueTurns[ b ] ? 0 : 1 );
+      }
+    } );
+
+    int[] ordered = new int[ count ];
+    for ( int i = 0; i < count; i++ ) {
+      ordered[ i ] = entries[ i ];
+    }
+    return ordered;
+  }
+
+  Cast getCast( int entry ) {
+    return casts[ entry ];
+  }
+
+  int getDueTurn( int entry ) {
+    return dueTurns[ entry ];
+  }
+
+  int getCasterId( int entry ) {
+    return casterIds[ entry ];
+  }
+
+  /**
+   * Get the number of turns the wheel covers before it has to grow.
+   */
+  int getWheelSize() {
+    return mask + 1;
+  }
+
+  /**
+   * Helper method to take a free entry, growing the pool if there is none.
+   */
+  private int allocate() {
+    if ( freeHead != NONE ) {
+      int entry = freeHead;
+      freeHead = slotNext[ entry ];
+      return entry;
+    }
+
+    if ( entryCount == casts.length ) {
+      int capacity = Math.max( 16, entryCount * 2 );
+      casts = Arrays.copyOf( casts, capacity );
+      dueTurns = Arrays.copyOf( dueTurns, capacity );
+      casterIds = Arrays.copyOf( casterIds, capacity );
+      slotNext = Arrays.copyOf( slotNext, capacity );
+      slotPrevious = Arrays.copyOf( slotPrevious, capacity );
+      casterNext = Arrays.copyOf( casterNext, capacity );
+      casterPrevious = Arrays.copyOf( casterPrevious, capacity );
+      generations = Arrays.copyOf( generations, capacity );
+    }
+    return entryCount++;
+  }
+
+  /**
+   * Helper method to unlink a pending cast from its slot and its caster's list and free its entry.
+   */
+  private void release( int entry ) {
+    int slot = dueTurns[ entry ] & mask;
+    int next = slotNext[ entry ];
+    int previous = slotPrevious[ entry ];
+    if ( previous == NONE ) {
+      slotHeads[ slot ] = next;
+    }
+    else {
+      slotNext[ previous ] = next;
+    }
+    if ( next == NONE ) {
+      slotTails[ slot ] = previous;
+    }
+    else {
+      slotPrevious[ next ] = previous;
+    }
+
+    next = casterNext[ entry ];
+    previous = casterPrevious[ entry ];
+    if ( previous == NONE ) {
+      casterHeads[ casterIds[ entry ] ] = next;
+    }
+    else {
+      casterNext[ previous ] = next;
+    }
+    if ( next != NONE ) {
+      casterPrevious[ next ] = previous;
+    }
+
+    casts[ entry ] = null;
+    generations[ entry ]++;
+    slotNext[ entry ] = freeHead;
+    freeHead = entry;
+    pending--;
+  }
+
+  private void appendToSlot( int entry, int slot ) {
+    int tail = slotTails[ slot ];
+    slotPrevious[ entry ] = tail;
+    slotNext[ entry ] = NONE;
+    if ( tail == NONE ) {
+      slotHeads[ slot ] = entry;
+    }
+    else {
+      slotNext[ tail ] = entry;
+    }
+    slotTails[ slot ] = entry;
+  }
+
+  /**
+   * Helper method to grow the wheel to cover a delay.  The new size is a multiple of the old one, so the casts of
+   * each new slot come from a single old slot and keep their order.
+   */
+  private void growWheel( int delay ) {
+    int size = Integer.highestOneBit( delay ) << 1;
+    int[] oldHeads = slotHeads;
+
+    slotHeads = new int[ size ];
+    slotTails = new int[ size ];
+    Arrays.fill( slotHeads, NONE );
+    Arrays.fill( slotTails, NONE );
+    mask = size - 1;
+
+    for ( int oldHead : oldHeads ) {
+      int entry = oldHead;
+      while ( entry != NONE ) {
+        int next = slotNext[ entry ];
+        appendToSlot( entry, dueTurns[ entry ] & mask );
+        entry = next;
+      }
+    }
+  }
+}
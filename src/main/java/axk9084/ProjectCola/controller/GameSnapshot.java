@@ -0,0 +1,372 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.io.Varint;
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.effect.Tornado;
+import axk9084.ProjectCola.model.board.terrain.TerrainEffect;
+import axk9084.ProjectCola.model.board.terrain.TerrainKinds;
+import axk9084.ProjectCola.model.chara.CharaKinds;
+import axk9084.ProjectCola.model.chara.CharaStore;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Saves the full state of a game into a compact, versioned binary form and restores engines from it.
+ *
+ * A snapshot starts with the format version byte, followed by the board size, the turn, the winner and one row per
+ * character that has been in the game, dead ones included so ids stay the same: the character's kind and player,
+ * its health, remaining actions and tile, and the turn each of its abilities is ready on.  The terrain follows the
+ * rows: the number of tiles with terrain, then for each the gap since the last such tile and the kinds of its terrain
+ * effects.  Then come the effects placed on the board, in the order they were placed, each as its kind, tile and state,
+ * and the pending casts, in the order they resolve, each as its caster, the ability's slot, the tiles it was used from
+ * and on and the turn it is due.  Every number after the version is a varint, so the default game takes 73 bytes at
+ * its start.  The other stats of a character follow from its kind, so this is the whole state of the game.  Only
+ * tornadoes and ability casts can be saved, a game holding other effects or casts is rejected rather than saved in
+ * part.
+ * Version 1 snapshots, without ability cooldowns, restore with every ability ready.  Version 1 and 2 snapshots,
+ * without terrain, restore on plain tiles, and snapshots before version 4 restore without effects or pending casts.
+ *
+ * Restoring reads the fields straight out of the buffer, which may be a direct or memory mapped one, into the new
+ * engine's character store without copying the snapshot or creating characters to copy from.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class GameSnapshot {
+
+  // Version of the format written.  Older versions are read as long as they are listed in read
+  public static final byte FORMAT_VERSION = 4;
+
+  // Bytes of the fields before the rows: version, rows, columns, turn, winner and the row count
+  private static final int HEADER_BYTES = 1 + 5 * Varint.MAX_BYTES;
+
+  // Bytes of a row: kind, player, health, remaining actions, tile, the ability count and the abilities' ready turns
+  private static final int ROW_BYTES = ( 6 + CharaStore.MAX_ABILITIES ) * Varint.MAX_BYTES;
+
+  // Bytes of a tile with terrain before the kinds of its effects: the gap and the effect count
+  private static final int TERRAIN_TILE_BYTES = 2 * Varint.MAX_BYTES;
+
+  // Bytes of an effect: kind, tile, the steps along x and y and the turns remaining
+  private static final int EFFECT_BYTES = 5 * Varint.MAX_BYTES;
+
+  // Bytes of a cast: caster, slot, the tiles it was used from and on and the due turn
+  private static final int CAST_BYTES = 5 * Varint.MAX_BYTES;
+
+  // Kinds of the effects that can be saved
+  private static final int TORNADO = 1;
+
+  private GameSnapshot() {}
+
+  /**
+   * Get the most bytes a snapshot of an engine can take.
+   *
+   * @param engine  the engine
+   * @return the number of bytes to allow for
+   */
+  public static int maxSize( ProjectColaEngine engine ) {
+    Board board = engine.getBoard();
+    int terrainBytes = Varint.MAX_BYTES;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      int effects = board.getTerrainEffects( index ).size();
+      terrainBytes += effects == 0 ? 0 : TERRAIN_TILE_BYTES + effects * Varint.MAX_BYTES;
+    }
+    return HEADER_BYTES + engine.getCharaStore().size() * ROW_BYTES + terrainBytes
+        + Varint.MAX_BYTES + board.getEffectCount() * EFFECT_BYTES
+        + Varint.MAX_BYTES + engine.getPendingCastCount() * CAST_BYTES;
+  }
+
+  /**
+   * Write a snapshot of an engine's game.
+   *
+   * @param engine  the engine to save
+   * @param out  the buffer to write to, with at least {@link #maxSize(ProjectColaEngine)} bytes remaining
+   * @throws IllegalStateException if the game holds a character, terrain, effect or cast that can not be saved.
+   *                               Nothing is written then
+   */
+  public static void write( ProjectColaEngine engine, ByteBuffer out ) {
+    checkSavable( engine );
+    Integer winner = engine.getGameWinner();
+    CharaStore store = engine.getCharaStore();
+
+    out.put( FORMAT_VERSION );
+    Varint.writeUnsigned( out, engine.getBoard().getRows() );
+    Varint.writeUnsigned( out, engine.getBoard().getColumns() );
+    Varint.writeUnsigned( out, engine.getTurn() );
+    Varint.writeUnsigned( out, winner == null ? 0 : winner );
+    Varint.writeUnsigned( out, store.size() );
+
+    for ( int id = 0; id < store.size(); id++ ) {
+      Varint.writeUnsigned( out, CharaKinds.kindOf( store.getChara( id ) ) );
+      Varint.writeUnsigned( out, store.getPlayer( id ) );
+      Varint.writeSigned( out, store.getHealth( id ) );
+      Varint.writeUnsigned( out, store.getActionsRemaining( id ) );
+
+      // Tiles are stored one up so dead characters, with no tile, store 0
+      Varint.writeUnsigned( out, store.getTileIndex( id ) + 1 );
+
+      int abilities = store.getChara( id ).getAbilities().size();
+      Varint.writeUnsigned( out, abilities );
+      for ( int slot = 0; slot < abilities; slot++ ) {
+        Varint.writeUnsigned( out, store.getAbilityReadyTurn( id, slot ) );
+      }
+    }
+
+    writeTerrain( engine.getBoard(), out );
+    writeEffects( engine.getBoard(), out );
+    writeCasts( engine.getCastScheduler(), out );
+  }
+
+  /**
+   * Helper method to check every part of a game has a saved form before any of it is written.
+   *
+   * @throws IllegalStateException if a part does not
+   */
+  private static void checkSavable( ProjectColaEngine engine ) {
+    CharaStore store = engine.getCharaStore();
+    Board board = engine.getBoard();
+    try {
+      for ( int id = 0; id < store.size(); id++ ) {
+        CharaKinds.kindOf( store.getChara( id ) );
+      }
+      for ( int index = 0; index < board.getTileCount(); index++ ) {
+        List< Effect > terrain = board.getTerrainEffects( index );
+        for ( int i = 0; i < terrain.size(); i++ ) {
+          TerrainKinds.kindOf( terrain.get( i ) );
+        }
+      }
+    }
+    catch ( IllegalArgumentException e ) {
+      throw new IllegalStateException( "Can not save the game: " + e.getMessage(), e );
+    }
+
+    for ( int position = 0; position < board.getEffectCount(); position++ ) {
+      Effect effect = board.getEffect( position );
+      if ( !( effect instanceof Tornado ) ) {
+        throw new IllegalStateException( "Can not save the game: no kind for effect " + effect.getClass().getName() );
+      }
+    }
+
+    CastScheduler casts = engine.getCastScheduler();
+    int[] entries = casts.getPendingEntries();
+    for ( int i = 0; i < entries.length; i++ ) {
+      Cast cast = casts.getCast( entries[ i ] );
+      if ( !( cast instanceof AbilityCast ) ) {
+        throw new IllegalStateException( "Can not save the game: cast " + cast.getClass().getName()
+            + " is not of an ability" );
+      }
+    }
+  }
+
+  /**
+   * Helper method to write the terrain of every tile that has any.
+   *
+   * @throws IllegalArgumentException if a terrain effect's class has no kind
+   */
+  private static void writeTerrain( Board board, ByteBuffer out ) {
+    int count = 0;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      count += board.getTerrainEffects( index ).isEmpty() ? 0 : 1;
+    }
+    Varint.writeUnsigned( out, count );
+
+    int last = -1;
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      List< Effect > terrain = board.getTerrainEffects( index );
+      if ( terrain.isEmpty() ) {
+        continue;
+      }
+      Varint.writeUnsigned( out, index - last - 1 );
+      Varint.writeUnsigned( out, terrain.size() );
+      for ( int i = 0; i < terrain.size(); i++ ) {
+        Varint.writeUnsigned( out, TerrainKinds.kindOf( terrain.get( i ) ) );
+      }
+      last = index;
+    }
+  }
+
+  /**
+   * Helper method to write the effects placed on the board, which checkSavable found to be tornadoes.
+   */
+  private static void writeEffects( Board board, ByteBuffer out ) {
+    int count = board.getEffectCount();
+    Varint.writeUnsigned( out, count );
+    for ( int position = 0; position < count; position++ ) {
+      Tornado tornado = (Tornado) board.getEffect( position );
+      Varint.writeUnsigned( out, TORNADO );
+      Varint.writeUnsigned( out, board.getEffectTileIndex( position ) );
+      Varint.writeSigned( out, tornado.getStepX() );
+      Varint.writeSigned( out, tornado.getStepY() );
+      Varint.writeSigned( out, tornado.getTurnsRemaining() );
+    }
+  }
+
+  /**
+   * Helper method to write the pending casts in the order they resolve, which checkSavable found to be ability casts.
+   */
+  private static void writeCasts( CastScheduler casts, ByteBuffer out ) {
+    int[] entries = casts.getPendingEntries();
+    Varint.writeUnsigned( out, entries.length );
+    for ( int i = 0; i < entries.length; i++ ) {
+      AbilityCast cast = (AbilityCast) casts.getCast( entries[ i ] );
+      Varint.writeUnsigned( out, casts.getCasterId( entries[ i ] ) );
+      Varint.writeUnsigned( out, cast.getSlot() );
+      Varint.writeUnsigned( out, cast.getFromIndex() );
+      Varint.writeUnsigned( out, cast.getToIndex() );
+      Varint.writeUnsigned( out, casts.getDueTurn( entries[ i ] ) );
+    }
+  }
+
+  /**
+   * Save an engine's game into a new array.
+   *
+   * @param engine  the engine to save
+   * @return the snapshot
+   */
+  public static byte[] toBytes( ProjectColaEngine engine ) {
+    ByteBuffer out = ByteBuffer.allocate( maxSize( engine ) );
+    write( engine, out );
+    byte[] bytes = new byte[ out.position() ];
+    out.flip();
+    out.get( bytes );
+    return bytes;
+  }
+
+  /**
+   * Create an engine from a snapshot.  The engine has the saved game and nothing to undo.
+   *
+   * @param in  the buffer to read from, positioned at the start of the snapshot.  It is left after the snapshot
+   * @return the restored engine
+   * @throws IllegalArgumentException if the snapshot is malformed or of an unknown version
+   * @throws java.nio.BufferUnderflowException if the snapshot is cut short
+   */
+  public static ProjectColaEngine read( ByteBuffer in ) {
+    byte version = in.get();
+    if ( version < 1 || version > FORMAT_VERSION ) {
+      throw new IllegalArgumentException( "Unsupported snapshot version " + version );
+    }
+
+    int rows = Varint.readUnsigned( in );
+    int columns = Varint.readUnsigned( in );
+    int turn = Varint.readUnsigned( in );
+    int winner = Varint.readUnsigned( in );
+    int count = Varint.readUnsigned( in );
+
+    if ( rows < 1 || columns < 1 || turn < 1 || winner > 2 || count < 0 ) {
+      throw new IllegalArgumentException( "Malformed snapshot header" );
+    }
+
+    ProjectColaEngine engine = new ProjectColaEngine( rows, columns, turn, count );
+    CharaStore store = engine.getCharaStore();
+    for ( int row = 0; row < count; row++ ) {
+      int kind = Varint.readUnsigned( in );
+      int player = Varint.readUnsigned( in );
+      int health = Varint.readSigned( in );
+      int actionsRemaining = Varint.readUnsigned( in );
+      int tileIndex = Varint.readUnsigned( in ) - 1;
+
+      if ( tileIndex >= rows * columns || ( tileIndex >= 0 && engine.getBoard().getEntityAt( tileIndex ) != null ) ) {
+        throw new IllegalArgumentException( "Malformed snapshot row " + row );
+      }
+
+      int id = store.add( kind, player );
+      store.setHealth( id, health );
+      store.setActionsRemaining( id, actionsRemaining );
+
+      if ( version >= 2 ) {
+        int abilities = Varint.readUnsigned( in );
+        if ( abilities > store.getChara( id ).getAbilities().size() ) {
+          throw new IllegalArgumentException( "Malformed snapshot row " + row );
+        }
+        for ( int slot = 0; slot < abilities; slot++ ) {
+          store.setAbilityReadyTurn( id, slot, Varint.readUnsigned( in ) );
+        }
+      }
+      engine.restoreCharacter( store.getChara( id ), tileIndex );
+    }
+    engine.restoreWinner( winner );
+
+    if ( version >= 3 ) {
+      readTerrain( engine.getBoard(), in );
+    }
+    if ( version >= 4 ) {
+      readEffects( engine.getBoard(), in );
+      readCasts( engine, in );
+    }
+    return engine;
+  }
+
+  /**
+   * Helper method to read the terrain written by writeTerrain onto a board of plain tiles.
+   */
+  private static void readTerrain( Board board, ByteBuffer in ) {
+    int count = Varint.readUnsigned( in );
+    int index = -1;
+    for ( int tile = 0; tile < count; tile++ ) {
+      index += Varint.readUnsigned( in ) + 1;
+      int effects = Varint.readUnsigned( in );
+      if ( index < 0 || index >= board.getTileCount() || effects < 1 || effects > in.remaining() ) {
+        throw new IllegalArgumentException( "Malformed snapshot terrain " + tile );
+      }
+
+      TerrainEffect[] terrain = new TerrainEffect[ effects ];
+      for ( int i = 0; i < effects; i++ ) {
+        terrain[ i ] = TerrainKinds.create( Varint.readUnsigned( in ) );
+      }
+      board.setTerrain( index, terrain );
+    }
+  }
+
+  /**
+   * Create an engine from a snapshot held in an array.
+   *
+   * @param bytes  the snapshot
+   * @return the restored engine
+   */
+  public static ProjectColaEngine fromBytes( byte[] bytes ) {
+    return read( ByteBuffer.wrap( bytes ) );
+  }
+
+  /**
+   * Helper method to read the effects written by writeEffects and place them in order.
+   */
+  private static void readEffects( Board board, ByteBuffer in ) {
+    int count = Varint.readUnsigned( in );
+    for ( int effect = 0; effect < count; effect++ ) {
+      int kind = Varint.readUnsigned( in );
+      int tileIndex = Varint.readUnsigned( in );
+      int stepX = Varint.readSigned( in );
+      int stepY = Varint.readSigned( in );
+      int turnsRemaining = Varint.readSigned( in );
+
+      if ( kind != TORNADO || tileIndex < 0 || tileIndex >= board.getTileCount() || Math.abs( stepX ) > 1
+          || Math.abs( stepY ) > 1 ) {
+        throw new IllegalArgumentException( "Malformed snapshot effect " + effect );
+      }
+      board.addEffect( tileIndex, new Tornado( stepX, stepY, turnsRemaining ) );
+    }
+  }
+
+  /**
+   * Helper method to read the casts written by writeCasts and schedule them in order, so they resolve in it.
+   */
+  private static void readCasts( ProjectColaEngine engine, ByteBuffer in ) {
+    CharaStore store = engine.getCharaStore();
+    int tiles = engine.getBoard().getTileCount();
+    int count = Varint.readUnsigned( in );
+    for ( int cast = 0; cast < count; cast++ ) {
+      int casterId = Varint.readUnsigned( in );
+      int slot = Varint.readUnsigned( in );
+      int fromIndex = Varint.readUnsigned( in );
+      int toIndex = Varint.readUnsigned( in );
+      int dueTurn = Varint.readUnsigned( in );
+
+      if ( casterId < 0 || casterId >= store.size() || store.getTileIndex( casterId ) < 0 || slot < 0
+          || slot >= store.getChara( casterId ).getAbilities().size() || fromIndex < 0 || fromIndex >= tiles
+          || toIndex < 0 || toIndex >= tiles ) {
+        throw new IllegalArgumentException( "Malformed snapshot cast " + cast );
+      }
+      engine.restoreCast( casterId, dueTurn, new AbilityCast( slot, fromIndex, toIndex ) );
+    }
+  }
+}
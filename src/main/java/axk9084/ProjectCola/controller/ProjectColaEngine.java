@@ -1,12 +1,21 @@
 package axk9084.ProjectCola.controller;
 
 
+import axk9084.ProjectCola.controller.event.GameEventBuffer;
+import axk9084.ProjectCola.controller.event.GameEventListener;
+import axk9084.ProjectCola.controller.metrics.EngineMetrics;
 import axk9084.ProjectCola.exceptions.*;
 import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.StateHash;
 import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.Coordinate;
+import axk9084.ProjectCola.model.board.DistanceFieldCache;
+import axk9084.ProjectCola.model.board.OccupancyBitboards;
+import axk9084.ProjectCola.model.board.ReachabilitySearch;
 import axk9084.ProjectCola.model.chara.*;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,8 +30,53 @@ public class ProjectColaEngine {
 
   private Board board;
 
-  // Mapping of a player to their characters
-  private Map< Integer, List< Chara > > playerCharacters;
+  // Record of actions performed through apply, used by undo
+  private final UndoStack undoStack = new UndoStack();
+
+  // Incrementally updated hash of the board, the charas and the turn player
+  private final StateHash stateHash = new StateHash();
+
+  // Events of the game for listeners, see addEventListener
+  private final GameEventBuffer events = new GameEventBuffer( EVENT_CAPACITY );
+
+  // Greater than 0 while apply or undo run, whose changes are not game events
+  private int eventsMuted = 0;
+
+  // Casts waiting for the turn they resolve on, see scheduleCast
+  private final CastScheduler casts = new CastScheduler();
+
+  // The result returned by every tryMove, tryAttack and tryAbility
+  private final ActionResult actionResult = new ActionResult();
+
+  // Tile indexes of the area of the ability being resolved, grown to the largest area used
+  private int[] areaTiles = new int[ 16 ];
+
+  // Tile indexes of the enemies in range of a chara, grown to the number of enemies
+  private int[] targetTiles = new int[ 8 ];
+
+  // Metrics the commands are recorded in, null when they are not collected
+  private EngineMetrics metrics = null;
+
+  // System.nanoTime of the first recorded command, and whether the end of the game has been recorded
+  private long metricsGameStart;
+  private boolean metricsGameStarted = false;
+  private boolean metricsGameEnded = false;
+
+  // Stats and state of every chara that has been in the game, indexed by chara id
+  private CharaStore charaStore;
+
+  // Each player's living characters, indexed by player number.  Index 0 is unused
+  private List< List< Chara > > playerCharacters;
+
+  // Default board size
+  private static final int DEFAULT_ROWS = 6;
+  private static final int DEFAULT_COLUMNS = 6;
+
+  // Number of events kept for readers of the event buffer
+  private static final int EVENT_CAPACITY = 1024;
+
+  // Key toggled into the state hash while it is player 2's turn
+  private static final long TURN_KEY = StateHash.key( StateHash.TURN, 2, 0 );
 
   // Turn counter
   private int turn = 1;
@@ -31,36 +85,110 @@ public class ProjectColaEngine {
   private Integer gameWinner = null;
 
   public ProjectColaEngine() {
-    setupDefaultBoard();
+    this( DEFAULT_ROWS, DEFAULT_COLUMNS );
+  }
+
+  /**
+   * Create an engine with the default piece placings on a board of the given size.
+   * The board must be at least 2 columns wide and 4 rows tall to fit both players' characters.
+   *
+   * @param rows  number of rows of the board
+   * @param columns  number of columns of the board
+   */
+  public ProjectColaEngine( int rows, int columns ) {
+    setupDefaultBoard( rows, columns );
     turn = 1;
   }
 
+  /**
+   * Create an independent copy of another engine's game: the board, every character and the turn and winner.
+   * The copy shares no mutable state with the original, so it can be searched on another thread.
+   * Actions applied on the original are not carried over and can not be undone on the copy.  The terrain, the
+   * effects on the board and the pending casts are copied, each in its current state, so they act on the copy as on
+   * the original, and handles of the original's casts cancel the copy's.
+   *
+   * @param other  the engine to copy
+   */
+  public ProjectColaEngine( ProjectColaEngine other ) {
+    board = new Board( other.board.getRows(), other.board.getColumns() );
+    board.copyTerrain( other.board );
+    board.copyEffects( other.board );
+    board.setStateHash( stateHash );
+
+    // The store copy carries every chara's state over, only the board and the player lists need the new views
+    charaStore = new CharaStore( other.charaStore );
+    charaStore.setStateHash( stateHash );
+
+    playerCharacters = createPlayerLists();
+    for ( int player = 1; player < other.playerCharacters.size(); player++ ) {
+      List< Chara > otherCharas = other.playerCharacters.get( player );
+      List< Chara > charas = playerCharacters.get( player );
+      for ( int i = 0; i < otherCharas.size(); i++ ) {
+        Chara copy = charaStore.getChara( otherCharas.get( i ).getId() );
+        board.setEntityAt( copy.getTileIndex(), copy );
+        charas.add( copy );
+      }
+    }
+
+    casts.copy( other.casts );
+
+    turn = other.turn;
+    gameWinner = other.gameWinner;
+    if ( getTurnPlayer() == 2 ) {
+      stateHash.toggle( TURN_KEY );
+    }
+  }
+
+  /**
+   * Create an engine with an empty board for a saved game to be restored into, see {@link GameSnapshot}.  The
+   * characters are added with {@link #restoreCharacter(Chara, int)} in id order.
+   *
+   * @param rows  number of rows of the board
+   * @param columns  number of columns of the board
+   * @param turn  the turn of the saved game
+   * @param charaCount  the number of characters of the saved game
+   */
+  ProjectColaEngine( int rows, int columns, int turn, int charaCount ) {
+    board = new Board( rows, columns );
+    board.setStateHash( stateHash );
+    charaStore = new CharaStore( charaCount );
+    playerCharacters = createPlayerLists();
+
+    this.turn = turn;
+    if ( getTurnPlayer() == 2 ) {
+      stateHash.toggle( TURN_KEY );
+    }
+  }
 
   /**
-   * This call sets up a default board with default size and piece placings.
+   * This call sets up a board of the given size with the default piece placings.  Each player's characters are
+   * placed in the two middle columns of their two home rows.
    * This should be replaced in the future with the capability to customize boards.
    * Customized boards should enforce size restrictions
    */
-  private void setupDefaultBoard() {
-    board = new Board( 6, 6 );
+  private void setupDefaultBoard( int rows, int columns ) {
+    board = new Board( rows, columns );
+    board.setStateHash( stateHash );
+
+    int left = columns / 2 - 1;
+    int right = columns / 2;
 
     try {
 
-      playerCharacters = new HashMap<Integer, List<Chara>>();
+      charaStore = new CharaStore();
+      playerCharacters = createPlayerLists();
 
       // Player 1 characters
-      playerCharacters.put( 1, new ArrayList< Chara >() );
-      addCharacterToBoard( 'c', 2, new Knight( 1 ) );
-      addCharacterToBoard( 'd', 2, new Rogue( 1 ) );
-      addCharacterToBoard( 'c', 1, new Priest( 1 ) );
-      addCharacterToBoard( 'd', 1, new Mage( 1 ) );
+      addCharacterToBoard( left, 1, CharaKinds.KNIGHT, 1 );
+      addCharacterToBoard( right, 1, CharaKinds.ROGUE, 1 );
+      addCharacterToBoard( left, 0, CharaKinds.PRIEST, 1 );
+      addCharacterToBoard( right, 0, CharaKinds.MAGE, 1 );
 
       // Player 2 characters
-      playerCharacters.put( 2, new ArrayList< Chara >() );
-      addCharacterToBoard( 'c', 5, new Knight( 2 ) );
-      addCharacterToBoard( 'd', 5, new Rogue( 2 ) );
-      addCharacterToBoard( 'c', 6, new Priest( 2 ) );
-      addCharacterToBoard( 'd', 6, new Mage( 2 ) );
+      addCharacterToBoard( left, rows - 2, CharaKinds.KNIGHT, 2 );
+      addCharacterToBoard( right, rows - 2, CharaKinds.ROGUE, 2 );
+      addCharacterToBoard( left, rows - 1, CharaKinds.PRIEST, 2 );
+      addCharacterToBoard( right, rows - 1, CharaKinds.MAGE, 2 );
 
     } catch ( TileDoesNotExistException e ) {
       // This error should not occur with hardcoded value.
@@ -71,18 +199,62 @@ public class ProjectColaEngine {
   }
 
   /**
-   * Helper method to add a character to the playerCharacters collection as well as the board
+   * Helper method to create the empty character lists of both players.
+   */
+  private static List< List< Chara > > createPlayerLists() {
+    List< List< Chara > > lists = new ArrayList< List< Chara > >( 3 );
+    lists.add( new ArrayList< Chara >() );
+    lists.add( new ArrayList< Chara >() );
+    lists.add( new ArrayList< Chara >() );
+    return lists;
+  }
+
+  /**
+   * Helper method to add a new character to the playerCharacters collection as well as the board.  Its row is
+   * written straight into the engine's store, see {@link CharaStore#add(int, int)}.
    *
-   * @param column  column location of the chara
-   * @param row     row location of the chara
-   * @param chara   the chara to be added
-   * @throws TileDoesNotExistException  if the given column and row do not correspond to a valid tile
+   * @param x  x location of the chara
+   * @param y  y location of the chara
+   * @param kind  the kind of the chara, see {@link CharaKinds}
+   * @param player  the player the chara belongs to
+   * @throws TileDoesNotExistException  if the given x and y do not correspond to a valid tile
    */
-  private void addCharacterToBoard( char column, int row, Chara chara )
+  private void addCharacterToBoard( int x, int y, int kind, int player )
       throws TileDoesNotExistException {
 
+    Chara chara = charaStore.getChara( charaStore.add( kind, player ) );
+    chara.attachStateHash( stateHash );
+
     playerCharacters.get( chara.getPlayer() ).add( chara );
-    board.setEntityAt( column, row, chara );
+    board.setEntityAt( x, y, chara );
+    chara.setTileIndex( board.getIndex( x, y ) );
+  }
+
+  /**
+   * Helper method for restoring a saved game to add the next character, which gets the next id.  A living character
+   * is placed on its tile and added to its player's characters, a dead one only keeps its row in the store.
+   *
+   * @param chara  the character, with its saved health and remaining actions.  It may already have its row in the
+   *               engine's store, see {@link CharaStore#add(int, int)}
+   * @param tileIndex  the tile index of the character, or -1 if it is dead
+   */
+  void restoreCharacter( Chara chara, int tileIndex ) {
+    charaStore.add( chara );
+    if ( tileIndex >= 0 ) {
+      chara.attachStateHash( stateHash );
+      playerCharacters.get( chara.getPlayer() ).add( chara );
+      board.setEntityAt( tileIndex, chara );
+      chara.setTileIndex( tileIndex );
+    }
+  }
+
+  /**
+   * Helper method for restoring a saved game to set the winner.
+   *
+   * @param winner  the winner, 0 for none
+   */
+  void restoreWinner( int winner ) {
+    gameWinner = winner == 0 ? null : winner;
   }
 
   /**
@@ -103,60 +275,84 @@ public class ProjectColaEngine {
   }
 
   /**
-   * Helper method to get a character at a given column and row.
-   * This contains null checks and type checks for the Chara super class.
+   * Get the turn counter, which starts at 1 and counts every ended turn of either player.
    *
-   * @param column  column of the chara to get
-   * @param row     row of the chara to get
-   * @return  the chara of the given column and row
-   * @throws MissingCharacterException  if there is no character at the given tile
-   * @throws TileDoesNotExistException  if the given column and row do not correspond to a valid tile
+   * @return the turn
    */
-  private Chara getCharacterAt( char column, int row )
-      throws MissingCharacterException, TileDoesNotExistException {
+  public int getTurn() {
+    return turn;
+  }
 
-    Entity entity = board.getEntityAt( column, row  );
+  /**
+   * Helper method to get a character at a given x and y for a try call.
+   * This contains bounds checks and type checks for the Chara super class.
+   *
+   * @param x  x of the chara to get
+   * @param y  y of the chara to get
+   * @param result  the result of the call, rejected if there is no character
+   * @return  the chara of the given x and y, else null
+   */
+  private Chara getCharacterAt( int x, int y, ActionResult result ) {
+    int index = board.getIndex( x, y );
+    if ( index < 0 ) {
+      result.reject( ActionResult.TILE_DOES_NOT_EXIST, null, x, y );
+      return null;
+    }
 
-    if ( entity != null && entity instanceof Chara ) {
+    Entity entity = board.getEntityAt( index );
+    if ( entity instanceof Chara ) {
       return (Chara) entity;
     }
-    else {
-      throw new MissingCharacterException( column, row );
-    }
+    result.reject( ActionResult.MISSING_CHARACTER, null, x, y );
+    return null;
   }
 
   /**
-   * Checks if a given chara's player matches the player of the current turn
+   * Helper method for try calls to check that a chara can act: that it belongs to the player of the current turn and
+   * has an action left.
    *
-   * @param chara  the chara to check the turn validity of
-   * @throws CharacterNotOwnedException when the chara's player does not match the current turn's player
-   * @throws NullPointerException when null chara is given as a parameter
+   * @param chara  the chara to check
+   * @param x  x of the chara
+   * @param y  y of the chara
+   * @param result  the result of the call, rejected if the chara can not act
+   * @return true if the chara can act
    */
-  private void checkTurnValidity( Chara chara )
-      throws CharacterNotOwnedException {
-
-    if ( chara == null ) {
-      throw new NullPointerException();
+  private boolean canAct( Chara chara, int x, int y, ActionResult result ) {
+    if ( chara.getPlayer() != getTurnPlayer() ) {
+      result.rejectNotOwned( chara.getName(), x, y, chara.getPlayer(), getTurnPlayer() );
+      return false;
     }
-
-    // Check that the chara exists and that the owning player matches the current player's turn
-    if( chara.getPlayer() != getTurnPlayer() ) {
-      throw new CharacterNotOwnedException( chara.getName(), chara.getPlayer(), getTurnPlayer() );
+    if ( chara.getActionsRemaining() < 1 ) {
+      result.reject( ActionResult.NO_ACTIONS_REMAINING, chara.getName(), x, y );
+      return false;
     }
+    return true;
   }
 
   /**
-   * Helper method to check if a tile is empty.
+   * Helper method for the throwing commands to throw the exception of a rejection that moves and attacks share.
    *
-   * @param column  column of the tile to check
-   * @param row     row of the tile to check
-   * @return true if tile is empty, false if not
-   * @throws TileDoesNotExistException  if the given column and row do not correspond to a valid tile
+   * @param result  the rejected result
    */
-  private boolean isTileEmpty( char column, int row )
-      throws TileDoesNotExistException {
+  private static void throwRejection( ActionResult result )
+      throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
+      TileDoesNotExistException, SameTileException {
 
-    return board.getEntityAt( column, row ) == null;
+    switch ( result.getCode() ) {
+      case ActionResult.SAME_TILE:
+        throw new SameTileException( result.getX(), result.getY() );
+      case ActionResult.TILE_DOES_NOT_EXIST:
+        throw new TileDoesNotExistException( result.getX(), result.getY() );
+      case ActionResult.MISSING_CHARACTER:
+        throw new MissingCharacterException( result.getX(), result.getY() );
+      case ActionResult.CHARACTER_NOT_OWNED:
+        throw new CharacterNotOwnedException( result.getCharacterName(), result.getOwnedByPlayer(),
+            result.getTurnPlayer() );
+      case ActionResult.NO_ACTIONS_REMAINING:
+        throw new NoActionsRemainingException( result.getCharacterName() );
+      default:
+        throw new IllegalStateException( "Unexpected result " + result );
+    }
   }
 
   /**
@@ -178,61 +374,166 @@ public class ProjectColaEngine {
       throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
       TileOccupiedException, TileDoesNotExistException, SameTileException, OutOfMoveRangeException {
 
-    // Check if the tile we're moving from is different from the one we're moving to
-    if ( fromColumn == toColumn && fromRow == toRow ) {
-      throw new SameTileException( fromColumn, fromRow );
+    moveCharacter( Coordinate.toX( fromColumn ), Coordinate.toY( fromRow ),
+        Coordinate.toX( toColumn ), Coordinate.toY( toRow ) );
+  }
+
+  /**
+   * Moves a character from one tile to another.
+   *
+   * @param fromX  the x of the tile of the character that is moving
+   * @param fromY  the y of the tile of the character that is moving
+   * @param toX  the x of the tile that the character is moving to
+   * @param toY  the y of the tile that the character is moving to
+   * @throws MissingCharacterException  if character does not exist on the tile with the given fromX and fromY
+   * @throws CharacterNotOwnedException  if the character attempting to move does not belong to the current player
+   * @throws NoActionsRemainingException  if the character attempting to move does not have any actions remaining
+   * @throws TileOccupiedException  if the tile the character is attempting to move to is occupied by another entity
+   * @throws TileDoesNotExistException  if the tile the character is attempting to move to does not exist
+   * @throws SameTileException  if the tile the character is attempting to move to is the same one it is on
+   * @throws OutOfMoveRangeException  if the tile the character is attempting to move to is out of its movement range
+   */
+  public void moveCharacter( int fromX, int fromY, int toX, int toY )
+      throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
+      TileOccupiedException, TileDoesNotExistException, SameTileException, OutOfMoveRangeException {
+
+    ActionResult result = tryMove( fromX, fromY, toX, toY );
+    switch ( result.getCode() ) {
+      case ActionResult.ACCEPTED:
+        return;
+      case ActionResult.TILE_OCCUPIED:
+        throw new TileOccupiedException( result.getCharacterName(), result.getX(), result.getY() );
+      case ActionResult.OUT_OF_MOVE_RANGE:
+        throw new OutOfMoveRangeException( result.getCharacterName(), result.getX(), result.getY(),
+            result.getMaxRange() );
+      default:
+        throwRejection( result );
+    }
+  }
+
+  /**
+   * Moves a character from one tile to another, reporting a rule violation as a result code instead of an exception.
+   * The checks and their order are those of {@link #moveCharacter(int, int, int, int)}.
+   *
+   * @param fromX  the x of the tile of the character that is moving
+   * @param fromY  the y of the tile of the character that is moving
+   * @param toX  the x of the tile that the character is moving to
+   * @param toY  the y of the tile that the character is moving to
+   * @return the engine's result, valid until the next try call
+   */
+  public ActionResult tryMove( int fromX, int fromY, int toX, int toY ) {
+    if ( metrics == null ) {
+      return validateAndMove( fromX, fromY, toX, toY );
     }
 
-    // Get the chara and check that the chara is owned by this player
-    Chara chara = getCharacterAt( fromColumn, fromRow  );
-    checkTurnValidity( chara );
+    long start = System.nanoTime();
+    ActionResult result = validateAndMove( fromX, fromY, toX, toY );
+    recordCommand( EngineMetrics.MOVE, result.getCode(), start );
+    return result;
+  }
 
-    // Check if the chara has an action left
-    if ( chara.getActionsRemaining() < 1 ) {
-      throw new NoActionsRemainingException( chara.getName() );
+  /**
+   * Helper method with the checks and the move of tryMove.
+   */
+  private ActionResult validateAndMove( int fromX, int fromY, int toX, int toY ) {
+    ActionResult result = actionResult.accept();
+
+    // Check if the tile we're moving from is different from the one we're moving to
+    if ( fromX == toX && fromY == toY ) {
+      return result.reject( ActionResult.SAME_TILE, null, fromX, fromY );
+    }
+
+    // Get the chara and check that it is owned by this player and has an action left
+    Chara chara = getCharacterAt( fromX, fromY, result );
+    if ( chara == null || !canAct( chara, fromX, fromY, result ) ) {
+      return result;
     }
 
     // Check if the chara can move that far
-    if ( !isWithinMoveRange( fromColumn, fromRow, toColumn, toRow, chara.getMoveSpeed() ) ) {
-      throw new OutOfMoveRangeException( chara.getName(), toColumn, toRow, chara.getMoveSpeed() );
+    if ( !isWithinMoveRange( fromX, fromY, toX, toY, chara.getMoveSpeed() ) ) {
+      return result.reject( ActionResult.OUT_OF_MOVE_RANGE, chara.getName(), toX, toY, 0, chara.getMoveSpeed() );
     }
 
-    // Check if the target row and column is empty or occupied
-    if ( !isTileEmpty( toColumn, toRow ) ) {
-      throw new TileOccupiedException( chara.getName(), toColumn, toRow );
+    // Check if the target tile is empty or occupied
+    int toIndex = board.getIndex( toX, toY );
+    if ( toIndex < 0 ) {
+      return result.reject( ActionResult.TILE_DOES_NOT_EXIST, null, toX, toY );
+    }
+    if ( board.getEntityAt( toIndex ) != null ) {
+      return result.reject( ActionResult.TILE_OCCUPIED, chara.getName(), toX, toY );
+    }
+
+    // Check that the chara has a path to the tile it can afford, around occupied tiles and across the terrain
+    if ( !getReachableTiles( chara ).get( toIndex ) ) {
+      return result.reject( ActionResult.OUT_OF_MOVE_RANGE, chara.getName(), toX, toY, 0, chara.getMoveSpeed() );
     }
 
     // Move the chara and decrement action if successful
-    board.moveEntity( fromColumn, fromRow, toColumn, toRow );
+    performMove( chara, board.getIndex( fromX, fromY ), toIndex );
+    events.dispatch();
+    return result;
+  }
+
+  /**
+   * Helper method to move a chara and use up one of its actions once the move has been validated.
+   *
+   * @param chara  the chara that is moving
+   * @param fromIndex  the tile index the chara is on
+   * @param toIndex  the tile index the chara is moving to
+   */
+  private void performMove( Chara chara, int fromIndex, int toIndex ) {
+    board.moveEntity( fromIndex, toIndex );
+    chara.setTileIndex( toIndex );
     chara.decrementActionsRemaining();
+    publish( GameEventBuffer.CHARA_MOVED, chara.getId(), fromIndex, toIndex, 0 );
   }
 
   /**
-   * Helper method to get the distance from one tile to another tile with the given column and row keys of each tile.
+   * Get every tile a character can move to this turn.  The search spends the character's move speed in move points
+   * from its tile, each step costing the move cost of the tile's terrain, and can not pass through occupied or
+   * impassable tiles or leave the board, see {@link ReachabilitySearch}.  The character's remaining actions are not
+   * considered.
    *
-   * @param fromColumn  1st column
-   * @param fromRow  1st row
-   * @param toColumn  2nd column
-   * @param toRow  2nd row
+   * The tiles are cached per character by the board, see {@link DistanceFieldCache}, so asking again before anything
+   * near the character changes does not search again.
+   *
+   * The returned BitSet is indexed by board tile index (see {@link Board#getIndex(int, int)}).  It changes when the
+   * board does, so copy it if it needs to be kept.
+   *
+   * @param chara  the chara to find the reachable tiles of
+   * @return the set of tile indexes the chara can move to, empty if the chara is not on the board
+   */
+  public BitSet getReachableTiles( Chara chara ) {
+    return board.getDistanceFields().getReachableTiles( chara.getId(), chara.getTileIndex(), chara.getMoveSpeed() );
+  }
+
+  /**
+   * Helper method to get the distance from one tile to another tile with the given x and y of each tile.
+   *
+   * @param fromX  1st x
+   * @param fromY  1st y
+   * @param toX  2nd x
+   * @param toY  2nd y
    * @return  the int distance between the two tiles
    */
-  private int getDistance( char fromColumn, int fromRow, char toColumn, int toRow ) {
-    return Math.abs( fromColumn - toColumn ) + Math.abs( fromRow - toRow );
+  private int getDistance( int fromX, int fromY, int toX, int toY ) {
+    return Math.abs( fromX - toX ) + Math.abs( fromY - toY );
   }
 
 
   /**
-   * Helper method to check if two tiles are in range of each other given a movement range .
+   * Helper method to check if two tiles are in range of each other given a movement range, ignoring terrain.  Every
+   * step costs at least 1, so a tile out of this range is out of reach without searching.
    *
-   * @param fromColumn  1st column
-   * @param fromRow  1st row
-   * @param toColumn  2nd column
-   * @param toRow  2nd row
+   * @param fromX  1st x
+   * @param fromY  1st y
+   * @param toX  2nd x
+   * @param toY  2nd y
    * @param moveRange  the movement range
    * @return true if within range, false if not
    */
-  private boolean isWithinMoveRange( char fromColumn, int fromRow, char toColumn, int toRow, int moveRange ) {
-    return moveRange >= getDistance( fromColumn, fromRow, toColumn, toRow );
+  private boolean isWithinMoveRange( int fromX, int fromY, int toX, int toY, int moveRange ) {
+    return moveRange >= getDistance( fromX, fromY, toX, toY );
   }
 
   /**
@@ -254,58 +555,149 @@ public class ProjectColaEngine {
       throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
        TileDoesNotExistException, SameTileException, OutOfAttackRangeException, NoEnemyException {
 
-    // Check if the tile we're attacking from is different from the one we're attacking
-    if ( fromColumn == toColumn && fromRow == toRow ) {
-      throw new SameTileException( fromColumn, fromRow );
+    attackCharacter( Coordinate.toX( fromColumn ), Coordinate.toY( fromRow ),
+        Coordinate.toX( toColumn ), Coordinate.toY( toRow ) );
+  }
+
+  /**
+   * Attack with a character.
+   *
+   * @param fromX  x of the attacking character
+   * @param fromY  y of the attacking character
+   * @param toX  x of the target character
+   * @param toY  y of the target character
+   * @throws MissingCharacterException  if character does not exist on the tile with the given fromX and fromY
+   * @throws CharacterNotOwnedException  if the character attempting to attack does not belong to the current player
+   * @throws NoActionsRemainingException  if the character attempting to attack does not have any actions remaining
+   * @throws TileDoesNotExistException  if the tile the character is attempting to attack to does not exist
+   * @throws SameTileException  if the tile the character is attempting to attack to is the same one it is on
+   * @throws OutOfAttackRangeException  if the tile the character is attempting to attack is out of attack range
+   * @throws NoEnemyException  if the tile the character is attempting to attack contains no enemy character
+   */
+  public void attackCharacter( int fromX, int fromY, int toX, int toY )
+      throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
+       TileDoesNotExistException, SameTileException, OutOfAttackRangeException, NoEnemyException {
+
+    ActionResult result = tryAttack( fromX, fromY, toX, toY );
+    switch ( result.getCode() ) {
+      case ActionResult.ACCEPTED:
+        return;
+      case ActionResult.OUT_OF_ATTACK_RANGE:
+        throw new OutOfAttackRangeException( result.getCharacterName(), result.getX(), result.getY(),
+            result.getMinRange(), result.getMaxRange() );
+      case ActionResult.NO_ENEMY:
+        throw new NoEnemyException( result.getX(), result.getY() );
+      default:
+        throwRejection( result );
     }
+  }
 
-    // Get the chara and check that the chara is owned by this player
-    Chara chara = getCharacterAt( fromColumn, fromRow  );
-    checkTurnValidity( chara );
+  /**
+   * Attack with a character, reporting a rule violation as a result code instead of an exception.  The checks and
+   * their order are those of {@link #attackCharacter(int, int, int, int)}.
+   *
+   * @param fromX  x of the attacking character
+   * @param fromY  y of the attacking character
+   * @param toX  x of the target character
+   * @param toY  y of the target character
+   * @return the engine's result, valid until the next try call
+   */
+  public ActionResult tryAttack( int fromX, int fromY, int toX, int toY ) {
+    if ( metrics == null ) {
+      return validateAndAttack( fromX, fromY, toX, toY );
+    }
 
-    // Check if the chara has an action left
-    if ( chara.getActionsRemaining() < 1 ) {
-      throw new NoActionsRemainingException( chara.getName() );
+    long start = System.nanoTime();
+    ActionResult result = validateAndAttack( fromX, fromY, toX, toY );
+    recordCommand( EngineMetrics.ATTACK, result.getCode(), start );
+    return result;
+  }
+
+  /**
+   * Helper method with the checks and the attack of tryAttack.
+   */
+  private ActionResult validateAndAttack( int fromX, int fromY, int toX, int toY ) {
+    ActionResult result = actionResult.accept();
+
+    // Check if the tile we're attacking from is different from the one we're attacking
+    if ( fromX == toX && fromY == toY ) {
+      return result.reject( ActionResult.SAME_TILE, null, fromX, fromY );
     }
 
-    // Check if the chara can move that far
-    if ( !isWithinAttackRange( fromColumn, fromRow, toColumn, toRow, chara.getMinAttackRange(), chara.getMaxAttackRange() ) ) {
-      throw new OutOfAttackRangeException( chara.getName(), toColumn, toRow, chara.getMinAttackRange(), chara.getMaxAttackRange() );
+    // Get the chara and check that it is owned by this player and has an action left
+    Chara chara = getCharacterAt( fromX, fromY, result );
+    if ( chara == null || !canAct( chara, fromX, fromY, result ) ) {
+      return result;
     }
 
-    // Check if the target row and column has an occupying enemy character
-    Chara enemyChara = getCharacterAt( toColumn, toRow );
-    if ( enemyChara == null || enemyChara.getPlayer() == getTurnPlayer() ) {
-      throw new NoEnemyException( toColumn, toRow );
+    // Check if the target is within attack range
+    if ( !isWithinAttackRange( fromX, fromY, toX, toY, chara.getMinAttackRange(), chara.getMaxAttackRange() ) ) {
+      return result.reject( ActionResult.OUT_OF_ATTACK_RANGE, chara.getName(), toX, toY,
+          chara.getMinAttackRange(), chara.getMaxAttackRange() );
+    }
+
+    // Check if the target tile has an occupying enemy character
+    Chara enemyChara = getCharacterAt( toX, toY, result );
+    if ( enemyChara == null ) {
+      return result;
+    }
+    if ( enemyChara.getPlayer() == getTurnPlayer() ) {
+      return result.reject( ActionResult.NO_ENEMY, null, toX, toY );
     }
 
     // Attack the chara and decrement action if successful
-    //// TODO: 6/27/2016 Could use some trigger (observer pattern) to tell view an attack occurred
-    enemyChara.takeDamage( chara.getAttackPower() );
+    performAttack( chara, enemyChara );
+    events.dispatch();
+    return result;
+  }
+
+  /**
+   * Helper method to deal an attack and use up one of the attacker's actions once the attack has been validated.
+   *
+   * @param chara  the attacking chara
+   * @param enemyChara  the chara being attacked
+   * @return the index the enemy chara had in its player's character list if it died, else -1
+   */
+  private int performAttack( Chara chara, Chara enemyChara ) {
     chara.decrementActionsRemaining();
+    return dealDamage( chara, enemyChara, chara.getAttackPower() );
+  }
+
+  /**
+   * Helper method to damage a chara, removing it from the game if it dies.
+   *
+   * @param chara  the chara dealing the damage
+   * @param enemyChara  the chara taking it
+   * @param damage  the damage
+   * @return the index the enemy chara had in its player's character list if it died, else -1
+   */
+  private int dealDamage( Chara chara, Chara enemyChara, int damage ) {
+    enemyChara.takeDamage( damage );
+    publish( GameEventBuffer.CHARA_DAMAGED, enemyChara.getId(), chara.getId(), damage, enemyChara.getHealth() );
 
     // Check for chara death
     if ( enemyChara.isDead() ) {
-      characterDeath( toColumn, toRow, enemyChara );
+      return characterDeath( enemyChara );
     }
+    return -1;
   }
 
   /**
-   * Helper method to determine when given column and row keys of two tiles if the tiles are within attack range
+   * Helper method to determine when given x and y of two tiles if the tiles are within attack range
    * with given min/max attack ranges
    *
-   * @param fromColumn  1st column
-   * @param fromRow  1st row
-   * @param toColumn  2nd column
-   * @param toRow  2nd row
+   * @param fromX  1st x
+   * @param fromY  1st y
+   * @param toX  2nd x
+   * @param toY  2nd y
    * @param minAttackRange  minimum attack range
    * @param maxAttackRange  maximum attack range
    * @return true if within attack range, false if not
    */
-  private boolean isWithinAttackRange( char fromColumn, int fromRow, char toColumn, int toRow,
+  private boolean isWithinAttackRange( int fromX, int fromY, int toX, int toY,
                                        int minAttackRange, int maxAttackRange ) {
 
-    int distance = getDistance( fromColumn, fromRow, toColumn, toRow );
+    int distance = getDistance( fromX, fromY, toX, toY );
     return distance >= minAttackRange && distance <= maxAttackRange;
   }
 
@@ -314,48 +706,634 @@ public class ProjectColaEngine {
    * Remove the character from the playerCharacters collection and the board.
    * Check for a winner.
    *
-   * @param column  column of where the character died
-   * @param row  row of where the character died
    * @param chara  the character that died
-   * @throws TileDoesNotExistException if the given column and row do not correspond to a valid tile
+   * @return the index the character had in its player's character list
    */
-  private void characterDeath( char column, int row, Chara chara )
-      throws TileDoesNotExistException {
-    board.setEntityAt( column, row, null );
-    playerCharacters.get( chara.getPlayer() ).remove( chara );
+  private int characterDeath( Chara chara ) {
+    int tileIndex = chara.getTileIndex();
+    board.setEntityAt( tileIndex, null );
+    chara.setTileIndex( -1 );
+    chara.detachStateHash();
+    publish( GameEventBuffer.CHARA_DIED, chara.getId(), tileIndex, 0, 0 );
+
+    // A dead character's casts fizzle.  Deaths during apply are undone, so the casts are kept for then
+    if ( eventsMuted == 0 ) {
+      casts.cancelCaster( chara.getId() );
+    }
+
+    List< Chara > charas = playerCharacters.get( chara.getPlayer() );
+    int listIndex = charas.indexOf( chara );
+    charas.remove( listIndex );
+
     checkForWin();
+    return listIndex;
   }
 
   /**
    * Helper method that checks for a winner by checking if a player's characters have all been killed.
    */
   private void checkForWin() {
-    for ( Map.Entry<Integer, List<Chara>> entry : playerCharacters.entrySet() ) {
-      if ( entry.getValue().isEmpty() ) {
-        gameWinner = entry.getKey() == 1 ? 2 : 1;
+    for ( int player = 1; player < playerCharacters.size(); player++ ) {
+      if ( playerCharacters.get( player ).isEmpty() && gameWinner == null ) {
+        gameWinner = player == 1 ? 2 : 1;
+        publish( GameEventBuffer.GAME_WON, gameWinner, 0, 0, 0 );
+      }
+    }
+  }
+
+  /**
+   * List every legal action of a player without performing them: each move and attack that moveCharacter and
+   * attackCharacter would accept, followed by ending the turn.  Actions are encoded with {@link Action} and written
+   * into the given buffer, attacks first and then moves, so no exceptions are created or thrown.
+   *
+   * Nothing is legal for a player whose turn it is not or once the game has a winner.
+   *
+   * @param player  the player to list the actions of
+   * @param buffer  the buffer to write the encoded actions into
+   * @return the number of legal actions.  If this is larger than the buffer only the first buffer.length actions
+   *         were written
+   */
+  public int generateLegalActions( int player, long[] buffer ) {
+    if ( player != getTurnPlayer() || gameWinner != null ) {
+      return 0;
+    }
+
+    List< Chara > charas = playerCharacters.get( player );
+    int enemy = player == 1 ? 2 : 1;
+    OccupancyBitboards occupancy = board.getOccupancy();
+    int count = 0;
+
+    // Every enemy may be in range of a chara
+    if ( targetTiles.length < playerCharacters.get( enemy ).size() ) {
+      targetTiles = new int[ playerCharacters.get( enemy ).size() ];
+    }
+
+    for ( int i = 0; i < charas.size(); i++ ) {
+      Chara chara = charas.get( i );
+      if ( chara.getActionsRemaining() < 1 ) {
+        continue;
+      }
+
+      int fromIndex = chara.getTileIndex();
+
+      // On boards small enough for one word, the attacks and the moves are read off bitboards: the enemies within
+      // attack range and the reachable tiles
+      if ( occupancy.isSingleWord() ) {
+        long targets = occupancy.getOccupancy( enemy )
+            & occupancy.getRangeMask( fromIndex, chara.getMinAttackRange(), chara.getMaxAttackRange() );
+        while ( targets != 0 ) {
+          count = addAction( buffer, count, Action.attack( fromIndex, Long.numberOfTrailingZeros( targets ) ) );
+          targets &= targets - 1;
+        }
+
+        long reachable = board.getDistanceFields().getReachableMask( chara.getId(), fromIndex, chara.getMoveSpeed() );
+        while ( reachable != 0 ) {
+          count = addAction( buffer, count, Action.move( fromIndex, Long.numberOfTrailingZeros( reachable ) ) );
+          reachable &= reachable - 1;
+        }
+        continue;
+      }
+
+      // Attacks against every enemy within attack range, read off the enemy's occupancy bitboard
+      int targets = occupancy.findInRange( enemy, fromIndex, chara.getMinAttackRange(), chara.getMaxAttackRange(),
+          targetTiles );
+      for ( int j = 0; j < targets; j++ ) {
+        count = addAction( buffer, count, Action.attack( fromIndex, targetTiles[ j ] ) );
+      }
+
+      // Moves to every reachable tile
+      BitSet reachable = getReachableTiles( chara );
+      for ( int toIndex = reachable.nextSetBit( 0 ); toIndex >= 0; toIndex = reachable.nextSetBit( toIndex + 1 ) ) {
+        count = addAction( buffer, count, Action.move( fromIndex, toIndex ) );
       }
     }
+
+    return addAction( buffer, count, Action.END_TURN_ACTION );
+  }
+
+  /**
+   * Helper method to write an action into a buffer if there is room left.
+   *
+   * @param buffer  the buffer to write into
+   * @param count  the number of actions found so far
+   * @param action  the encoded action
+   * @return the new number of actions found
+   */
+  private static int addAction( long[] buffer, int count, long action ) {
+    if ( count < buffer.length ) {
+      buffer[ count ] = action;
+    }
+    return count + 1;
   }
 
-  public void useCharacterAbility() {
-    //// TODO: 6/27/2016 Implement ability usage 
+  /**
+   * Schedule a cast to resolve at the end of a later turn, or of this one.  The cast is cancelled if its caster dies
+   * first.  Pending casts are copied with the engine.  Snapshots only save the casts of abilities, a game with other
+   * casts pending can not be saved.
+   *
+   * @param caster  the living character casting it
+   * @param delay  the number of turns until the cast resolves, 0 for the end of this turn
+   * @param cast  the cast
+   * @return a handle for {@link #cancelCast(long)}
+   * @throws IllegalArgumentException if the delay is negative or the caster is not alive in this game
+   */
+  public long scheduleCast( Chara caster, int delay, Cast cast ) {
+    if ( delay < 0 ) {
+      throw new IllegalArgumentException( "Negative cast delay " + delay );
+    }
+    if ( caster.getTileIndex() < 0 || board.getEntityAt( caster.getTileIndex() ) != caster ) {
+      throw new IllegalArgumentException( caster.getName() + " can not cast, it is not on the board" );
+    }
+    return casts.schedule( cast, caster.getId(), turn, turn + delay );
   }
 
   /**
-   * End a player's turn.  Currently only resets the actions of the characters and increments the turn.
+   * Cancel a pending cast.
+   *
+   * @param handle  the handle scheduleCast returned
+   * @return true if the cast was pending, false if it has resolved or was cancelled already
    */
-  public void endPlayerTurn() {
+  public boolean cancelCast( long handle ) {
+    return casts.cancel( handle );
+  }
 
-    // Check casts
-    //// TODO: 6/25/2016 Check casts at end of turn
+  /**
+   * Get the number of casts waiting to resolve.
+   */
+  public int getPendingCastCount() {
+    return casts.getPendingCount();
+  }
+
+  /**
+   * Get the pending casts, for saving them in a snapshot.
+   */
+  CastScheduler getCastScheduler() {
+    return casts;
+  }
+
+  /**
+   * Helper method for restoring a saved game to schedule a pending cast, after its caster has been restored.
+   *
+   * @param casterId  the chara id of the caster
+   * @param dueTurn  the turn at whose end it resolves
+   * @param cast  the cast
+   * @throws IllegalArgumentException if the caster is not alive in this game
+   */
+  void restoreCast( int casterId, int dueTurn, Cast cast ) {
+    if ( casterId >= charaStore.size() || charaStore.getTileIndex( casterId ) < 0 ) {
+      throw new IllegalArgumentException( "Chara " + casterId + " can not cast, it is not on the board" );
+    }
+    casts.schedule( cast, casterId, turn, dueTurn );
+  }
+
+  /**
+   * Use an ability of a character, see {@link Ability}.
+   *
+   * @param fromColumn  column of the character using the ability
+   * @param fromRow  row of the character using the ability
+   * @param slot  the index of the ability in the character's abilities
+   * @param toColumn  column of the target tile
+   * @param toRow  row of the target tile
+   * @throws MissingCharacterException  if character does not exist on the tile with the given fromColumn and fromRow,
+   *                                    or a single target ability is used on an empty tile
+   * @throws CharacterNotOwnedException  if the character does not belong to the current player
+   * @throws NoActionsRemainingException  if the character does not have any actions remaining
+   * @throws TileDoesNotExistException  if the target tile does not exist
+   * @throws NoSuchAbilityException  if the character has no ability in the slot
+   * @throws AbilityNotReadyException  if the ability is on cooldown
+   * @throws OutOfAbilityRangeException  if the target tile is out of the ability's range
+   * @throws InvalidTargetException  if a heal targets an enemy, or a line or cone targets a tile not straight up,
+   *                                 down, left or right of the character
+   * @throws NoEnemyException  if a single target damage ability targets an ally
+   */
+  public void useCharacterAbility( char fromColumn, int fromRow, int slot, char toColumn, int toRow )
+      throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
+      TileDoesNotExistException, NoSuchAbilityException, AbilityNotReadyException, OutOfAbilityRangeException,
+      InvalidTargetException, NoEnemyException {
+
+    useCharacterAbility( Coordinate.toX( fromColumn ), Coordinate.toY( fromRow ), slot,
+        Coordinate.toX( toColumn ), Coordinate.toY( toRow ) );
+  }
+
+  /**
+   * Use an ability of a character, see {@link Ability}.
+   *
+   * @param fromX  x of the character using the ability
+   * @param fromY  y of the character using the ability
+   * @param slot  the index of the ability in the character's abilities
+   * @param toX  x of the target tile
+   * @param toY  y of the target tile
+   * @throws MissingCharacterException  if character does not exist on the tile with the given fromX and fromY, or a
+   *                                    single target ability is used on an empty tile
+   * @throws CharacterNotOwnedException  if the character does not belong to the current player
+   * @throws NoActionsRemainingException  if the character does not have any actions remaining
+   * @throws TileDoesNotExistException  if the target tile does not exist
+   * @throws NoSuchAbilityException  if the character has no ability in the slot
+   * @throws AbilityNotReadyException  if the ability is on cooldown
+   * @throws OutOfAbilityRangeException  if the target tile is out of the ability's range
+   * @throws InvalidTargetException  if a heal targets an enemy, or a line or cone targets a tile not straight up,
+   *                                 down, left or right of the character
+   * @throws NoEnemyException  if a single target damage ability targets an ally
+   */
+  public void useCharacterAbility( int fromX, int fromY, int slot, int toX, int toY )
+      throws MissingCharacterException, CharacterNotOwnedException, NoActionsRemainingException,
+      TileDoesNotExistException, NoSuchAbilityException, AbilityNotReadyException, OutOfAbilityRangeException,
+      InvalidTargetException, NoEnemyException {
+
+    ActionResult result = tryAbility( fromX, fromY, slot, toX, toY );
+    switch ( result.getCode() ) {
+      case ActionResult.ACCEPTED:
+        return;
+      case ActionResult.NO_SUCH_ABILITY:
+        throw new NoSuchAbilityException( result.getCharacterName(), result.getX(), result.getY(), result.getSlot() );
+      case ActionResult.ABILITY_NOT_READY:
+        throw new AbilityNotReadyException( result.getCharacterName(), result.getX(), result.getY(),
+            result.getAbilityName(), result.getTurnsRemaining() );
+      case ActionResult.OUT_OF_ABILITY_RANGE:
+        throw new OutOfAbilityRangeException( result.getCharacterName(), result.getX(), result.getY(),
+            result.getMinRange(), result.getMaxRange() );
+      case ActionResult.INVALID_TARGET:
+        throw new InvalidTargetException( result.getX(), result.getY() );
+      case ActionResult.NO_ENEMY:
+        throw new NoEnemyException( result.getX(), result.getY() );
+      default:
+        try {
+          throwRejection( result );
+        }
+        catch ( SameTileException e ) {
+          // Abilities may target the character's own tile, so tryAbility never rejects with it
+          throw new IllegalStateException( "Unexpected result " + result, e );
+        }
+    }
+  }
+
+  /**
+   * Use an ability of a character, reporting a rule violation as a result code instead of an exception.  The checks
+   * and their order are those of {@link #useCharacterAbility(int, int, int, int, int)}.
+   *
+   * Abilities are commands, like moves and attacks through moveCharacter and attackCharacter: they are not
+   * {@link Action}s, so they are not generated, applied or undone.  The turn each ability is ready on is part of the
+   * state hash, so games that differ only in cooldowns hash differently.
+   *
+   * @param fromX  x of the character using the ability
+   * @param fromY  y of the character using the ability
+   * @param slot  the index of the ability in the character's abilities
+   * @param toX  x of the target tile
+   * @param toY  y of the target tile
+   * @return the engine's result, valid until the next try call
+   */
+  public ActionResult tryAbility( int fromX, int fromY, int slot, int toX, int toY ) {
+    if ( metrics == null ) {
+      return validateAndUseAbility( fromX, fromY, slot, toX, toY );
+    }
+
+    long start = System.nanoTime();
+    ActionResult result = validateAndUseAbility( fromX, fromY, slot, toX, toY );
+    recordCommand( EngineMetrics.ABILITY, result.getCode(), start );
+    return result;
+  }
+
+  /**
+   * Helper method with the checks and the use of tryAbility.
+   */
+  private ActionResult validateAndUseAbility( int fromX, int fromY, int slot, int toX, int toY ) {
+    ActionResult result = actionResult.accept();
+
+    // Get the chara and check that it is owned by this player and has an action left
+    Chara chara = getCharacterAt( fromX, fromY, result );
+    if ( chara == null || !canAct( chara, fromX, fromY, result ) ) {
+      return result;
+    }
+
+    // Check that the chara has the ability and that it is off cooldown
+    List< Ability > abilities = chara.getAbilities();
+    if ( slot < 0 || slot >= abilities.size() ) {
+      return result.rejectAbility( ActionResult.NO_SUCH_ABILITY, chara.getName(), fromX, fromY, slot, null, 0 );
+    }
+    Ability ability = abilities.get( slot );
+    int turnsRemaining = chara.getAbilityTurnsRemaining( slot, turn );
+    if ( turnsRemaining > 0 ) {
+      return result.rejectAbility( ActionResult.ABILITY_NOT_READY, chara.getName(), fromX, fromY, slot,
+          ability.getName(), turnsRemaining );
+    }
+
+    // Check the target tile exists and is within range
+    int toIndex = board.getIndex( toX, toY );
+    if ( toIndex < 0 ) {
+      return result.reject( ActionResult.TILE_DOES_NOT_EXIST, null, toX, toY );
+    }
+    if ( !isWithinAttackRange( fromX, fromY, toX, toY, ability.getMinRange(), ability.getMaxRange() ) ) {
+      return result.reject( ActionResult.OUT_OF_ABILITY_RANGE, chara.getName(), toX, toY,
+          ability.getMinRange(), ability.getMaxRange() );
+    }
+
+    // Check the target fits the shape: lines and cones need a direction, single targets a character to act on
+    switch ( ability.getShape() ) {
+      case Ability.LINE:
+      case Ability.CONE:
+        if ( ( fromX != toX ) == ( fromY != toY ) ) {
+          return result.reject( ActionResult.INVALID_TARGET, null, toX, toY );
+        }
+        break;
+
+      case Ability.SINGLE:
+        Chara target = getCharacterAt( toX, toY, result );
+        if ( target == null ) {
+          return result;
+        }
+        if ( ability.isHeal() && target.getPlayer() != getTurnPlayer() ) {
+          return result.reject( ActionResult.INVALID_TARGET, null, toX, toY );
+        }
+        if ( !ability.isHeal() && target.getPlayer() == getTurnPlayer() ) {
+          return result.reject( ActionResult.NO_ENEMY, null, toX, toY );
+        }
+        break;
+    }
+
+    // Use the ability and decrement action if successful
+    performAbility( chara, slot, ability, board.getIndex( fromX, fromY ), toIndex );
+    events.dispatch();
+    return result;
+  }
 
-    // Check effects
-    //// TODO: 6/25/2016 Check effects at end of turn
+  /**
+   * Helper method to use an ability once it has been validated: use up an action, start the cooldown and act now or
+   * schedule the ability's cast.
+   *
+   * @param chara  the chara using the ability
+   * @param slot  the index of the ability in the chara's abilities
+   * @param ability  the ability
+   * @param fromIndex  the tile index of the chara
+   * @param toIndex  the tile index of the target
+   */
+  private void performAbility( Chara chara, int slot, Ability ability, int fromIndex, int toIndex ) {
+    chara.decrementActionsRemaining();
+
+    // Cooldowns count the chara's own turns, which are every other turn
+    chara.setAbilityReadyTurn( slot, turn + 2 * ability.getCooldown() );
+
+    if ( ability.getCastDelay() > 0 ) {
+      scheduleCast( chara, ability.getCastDelay(), new AbilityCast( slot, fromIndex, toIndex ) );
+    }
+    else {
+      resolveAbility( chara, ability, fromIndex, toIndex );
+    }
+  }
+
+  /**
+   * Helper method to deal an ability's damage to the enemies in its area, or its healing to the allies.  The area is
+   * found with the board's spatial queries, so only the tiles of the area are visited.
+   *
+   * @param chara  the chara that used the ability
+   * @param ability  the ability
+   * @param fromIndex  the tile index the chara used it from
+   * @param toIndex  the tile index of its target
+   */
+  void resolveAbility( Chara chara, Ability ability, int fromIndex, int toIndex ) {
+    if ( areaTiles.length < ability.getAreaTiles() ) {
+      areaTiles = new int[ ability.getAreaTiles() ];
+    }
+
+    int stepX = Integer.signum( board.getX( toIndex ) - board.getX( fromIndex ) );
+    int stepY = Integer.signum( board.getY( toIndex ) - board.getY( fromIndex ) );
+    int count;
+    switch ( ability.getShape() ) {
+      case Ability.DIAMOND:
+        count = board.findEntitiesInDiamond( toIndex, ability.getSize(), areaTiles );
+        break;
+      case Ability.LINE:
+        count = board.findEntitiesInLine( fromIndex, stepX, stepY, ability.getSize(), areaTiles );
+        break;
+      case Ability.CONE:
+        count = board.findEntitiesInCone( fromIndex, stepX, stepY, ability.getSize(), areaTiles );
+        break;
+      default:
+        areaTiles[ 0 ] = toIndex;
+        count = 1;
+    }
+
+    // Characters that die are taken off their tiles, the tiles after them in the area are not affected
+    for ( int i = 0; i < count; i++ ) {
+      Entity entity = board.getEntityAt( areaTiles[ i ] );
+      if ( !( entity instanceof Chara ) ) {
+        continue;
+      }
+
+      Chara target = (Chara) entity;
+      if ( ability.isHeal() && target.getPlayer() == chara.getPlayer() ) {
+        // Heals do not raise health above the maximum, and are published as negative damage
+        int healed = Math.min( ability.getPower(), target.getMaxHealth() - target.getHealth() );
+        if ( healed > 0 ) {
+          target.setHealth( target.getHealth() + healed );
+          publish( GameEventBuffer.CHARA_DAMAGED, target.getId(), chara.getId(), -healed, target.getHealth() );
+        }
+      }
+      else if ( !ability.isHeal() && target.getPlayer() != chara.getPlayer() ) {
+        dealDamage( chara, target, ability.getPower() );
+      }
+    }
+  }
+
+  /**
+   * End a player's turn: resolve the casts due this turn, run the end of turn actions of the effects on the board,
+   * reset the actions of the characters and increment the turn.  Turns ended through apply, such as during a search,
+   * do not resolve casts or run effects.
+   */
+  public void endPlayerTurn() {
+    long start = metrics == null ? 0 : System.nanoTime();
+
+    // Resolve the casts due this turn and run the board's effects.  Neither is recorded for undo, so only played
+    // turns run them
+    if ( eventsMuted == 0 ) {
+      casts.resolveDue( turn, this );
+      board.runEndTurnEffects();
+    }
 
     // Reset character action points
     resetCharacterActions();
 
+    int player = getTurnPlayer();
     turn++;
+    stateHash.toggle( TURN_KEY );
+    publish( GameEventBuffer.TURN_ENDED, player, turn, 0, 0 );
+    events.dispatch();
+
+    // Turns ended through apply are part of a search, not commands
+    if ( metrics != null && eventsMuted == 0 ) {
+      recordCommand( EngineMetrics.END_TURN, ActionResult.ACCEPTED, start );
+    }
+  }
+
+  /**
+   * Get the hash of the current game state: which chara is on which tile, each chara's health, remaining actions and
+   * ability ready turns, and the turn player.  The hash is kept up to date as the state changes so this is a plain
+   * read, intended for transposition tables and repetition checks.
+   *
+   * @return the 64 bit state hash
+   */
+  public long stateHash() {
+    return stateHash.getValue();
+  }
+
+  /**
+   * Compute the state hash from scratch by walking the board and every chara.  This always equals
+   * {@link #stateHash()} and exists to verify the incremental updates.
+   *
+   * @return the 64 bit state hash
+   */
+  public long recomputeStateHash() {
+    long hash = 0;
+
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      hash ^= StateHash.occupancyKey( index, board.getEntityAt( index ) );
+    }
+
+    for ( int player = 1; player < playerCharacters.size(); player++ ) {
+      List< Chara > charas = playerCharacters.get( player );
+      for ( int i = 0; i < charas.size(); i++ ) {
+        hash ^= charas.get( i ).getStateKey();
+      }
+    }
+
+    if ( getTurnPlayer() == 2 ) {
+      hash ^= TURN_KEY;
+    }
+
+    return hash;
+  }
+
+  /**
+   * Perform an encoded action (see {@link Action}) and record what it changed so it can be reverted with
+   * {@link #undo()}.  The action is not validated, it must come from {@link #generateLegalActions(int, long[])} for
+   * the current state.  This lets a search walk the game tree on a single engine without copying it.
+   *
+   * Only actions performed through apply are recorded, the other commands can not be undone.
+   *
+   * @param action  the encoded action to perform
+   */
+  public void apply( long action ) {
+    eventsMuted++;
+    try {
+      applyRecorded( action );
+    }
+    finally {
+      eventsMuted--;
+    }
+  }
+
+  /**
+   * Helper method for apply to perform an action and push its undo frame.
+   */
+  private void applyRecorded( long action ) {
+    int fromIndex = Action.getFromIndex( action );
+    int toIndex = Action.getToIndex( action );
+
+    // Every frame records the winner before the action, 0 for no winner
+    undoStack.pushInt( gameWinner == null ? 0 : gameWinner );
+
+    switch ( Action.getType( action ) ) {
+      case Action.MOVE:
+        performMove( (Chara) board.getEntityAt( fromIndex ), fromIndex, toIndex );
+        undoStack.pushInt( fromIndex );
+        undoStack.pushInt( toIndex );
+        break;
+
+      case Action.ATTACK:
+        Chara chara = (Chara) board.getEntityAt( fromIndex );
+        Chara enemyChara = (Chara) board.getEntityAt( toIndex );
+        int health = enemyChara.getHealth();
+        int listIndex = performAttack( chara, enemyChara );
+        undoStack.pushChara( chara );
+        undoStack.pushChara( enemyChara );
+        undoStack.pushInt( toIndex );
+        undoStack.pushInt( health );
+        undoStack.pushInt( listIndex );
+        break;
+
+      case Action.END_TURN:
+        // Ending the turn resets the ending player's actions, record them before they are reset
+        List< Chara > charas = playerCharacters.get( getTurnPlayer() );
+        for ( int i = 0; i < charas.size(); i++ ) {
+          undoStack.pushInt( charas.get( i ).getActionsRemaining() );
+        }
+        undoStack.pushInt( charas.size() );
+        endPlayerTurn();
+        break;
+
+      default:
+        undoStack.popInt();
+        throw new IllegalArgumentException( "Unknown action " + action );
+    }
+
+    undoStack.pushInt( Action.getType( action ) );
+    undoStack.endFrame();
+  }
+
+  /**
+   * Revert the most recent action performed through {@link #apply(long)}.
+   *
+   * @throws IllegalStateException  if there are no applied actions left to undo
+   */
+  public void undo() {
+    if ( undoStack.getFrames() == 0 ) {
+      throw new IllegalStateException( "No actions to undo" );
+    }
+
+    // Undo only restores state through setters, which publish no events
+    switch ( undoStack.popInt() ) {
+      case Action.MOVE: {
+        int toIndex = undoStack.popInt();
+        int fromIndex = undoStack.popInt();
+        Chara chara = (Chara) board.getEntityAt( toIndex );
+        board.moveEntity( toIndex, fromIndex );
+        chara.setTileIndex( fromIndex );
+        chara.setActionsRemaining( chara.getActionsRemaining() + 1 );
+        break;
+      }
+
+      case Action.ATTACK: {
+        int listIndex = undoStack.popInt();
+        int health = undoStack.popInt();
+        int toIndex = undoStack.popInt();
+        Chara enemyChara = undoStack.popChara();
+        Chara chara = undoStack.popChara();
+
+        // Bring the enemy back if the attack killed it
+        if ( listIndex >= 0 ) {
+          playerCharacters.get( enemyChara.getPlayer() ).add( listIndex, enemyChara );
+          board.setEntityAt( toIndex, enemyChara );
+          enemyChara.setTileIndex( toIndex );
+          enemyChara.attachStateHash( stateHash );
+        }
+        enemyChara.setHealth( health );
+        chara.setActionsRemaining( chara.getActionsRemaining() + 1 );
+        break;
+      }
+
+      case Action.END_TURN: {
+        turn--;
+        stateHash.toggle( TURN_KEY );
+        List< Chara > charas = playerCharacters.get( getTurnPlayer() );
+        int count = undoStack.popInt();
+        for ( int i = count - 1; i >= 0; i-- ) {
+          charas.get( i ).setActionsRemaining( undoStack.popInt() );
+        }
+        break;
+      }
+    }
+
+    int winner = undoStack.popInt();
+    gameWinner = winner == 0 ? null : winner;
+    undoStack.popFrame();
+  }
+
+  /**
+   * Get the number of applied actions that can be undone.
+   *
+   * @return the number of actions recorded by apply
+   */
+  public int getUndoDepth() {
+    return undoStack.getFrames();
   }
 
   /**
@@ -363,7 +1341,82 @@ public class ProjectColaEngine {
    * Flags the opposite player as the winner.
    */
   public void playerForfeit() {
+    long start = metrics == null ? 0 : System.nanoTime();
     gameWinner = getTurnPlayer() == 1 ? 2 : 1;
+    publish( GameEventBuffer.GAME_WON, gameWinner, 0, 0, 0 );
+    events.dispatch();
+
+    if ( metrics != null ) {
+      recordCommand( EngineMetrics.FORFEIT, ActionResult.ACCEPTED, start );
+    }
+  }
+
+  /**
+   * Perform an encoded action (see {@link Action}) as a played move: unlike {@link #apply(long)} it publishes game
+   * events and is not recorded for undo.  The action is not validated, it must come from
+   * {@link #generateLegalActions(int, long[])} for the current state.  Intended for computer players, which pick
+   * encoded actions.
+   *
+   * @param action  the encoded action to perform
+   */
+  public void play( long action ) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    int fromIndex = Action.getFromIndex( action );
+    int toIndex = Action.getToIndex( action );
+
+    switch ( Action.getType( action ) ) {
+      case Action.MOVE:
+        performMove( (Chara) board.getEntityAt( fromIndex ), fromIndex, toIndex );
+        break;
+      case Action.ATTACK:
+        performAttack( (Chara) board.getEntityAt( fromIndex ), (Chara) board.getEntityAt( toIndex ) );
+        break;
+      case Action.END_TURN:
+        endPlayerTurn();
+        break;
+      default:
+        throw new IllegalArgumentException( "Unknown action " + action );
+    }
+    events.dispatch();
+
+    // Ending the turn records itself
+    if ( metrics != null && Action.getType( action ) != Action.END_TURN ) {
+      recordCommand( Action.getType( action ) == Action.MOVE ? EngineMetrics.MOVE : EngineMetrics.ATTACK,
+          ActionResult.ACCEPTED, start );
+    }
+  }
+
+  /**
+   * Register a listener for the game's events.  Listeners are called on the thread that ran the command, after the
+   * command has finished changing the game.  Actions performed by apply and undo, such as during a search, are not
+   * game events.
+   *
+   * @param listener  the listener
+   */
+  public void addEventListener( GameEventListener listener ) {
+    events.addListener( listener );
+  }
+
+  public void removeEventListener( GameEventListener listener ) {
+    events.removeListener( listener );
+  }
+
+  /**
+   * Get the buffer of the game's recent events, for readers that keep their own position in it.
+   *
+   * @return the event buffer
+   */
+  public GameEventBuffer getEvents() {
+    return events;
+  }
+
+  /**
+   * Helper method to publish a game event unless the change is part of apply or undo.
+   */
+  private void publish( int type, int a, int b, int c, int d ) {
+    if ( eventsMuted == 0 ) {
+      events.publish( type, a, b, c, d );
+    }
   }
 
   /**
@@ -376,21 +1429,79 @@ public class ProjectColaEngine {
   }
 
   /**
-   * Get the mapping of players to their characters
+   * Get the mapping of players to their characters.  The map is built on each call, use
+   * {@link #getCharacters(int)} where it is called often.
    *
    * @return  Map of player to character mappings
    */
   public Map<Integer, List<Chara>> getPlayerCharacters() {
     //// TODO: 6/27/2016 Perform deep copy to avoid abuse from views
-    return playerCharacters;
+    Map< Integer, List< Chara > > map = new HashMap< Integer, List< Chara > >();
+    for ( int player = 1; player < playerCharacters.size(); player++ ) {
+      map.put( player, playerCharacters.get( player ) );
+    }
+    return map;
+  }
+
+  /**
+   * Get a player's living characters.
+   *
+   * @param player  the player
+   * @return the player's characters
+   */
+  public List< Chara > getCharacters( int player ) {
+    return playerCharacters.get( player );
+  }
+
+  /**
+   * Get the store holding the state of every character that has been in the game, including dead ones.
+   *
+   * @return the character store
+   */
+  public CharaStore getCharaStore() {
+    return charaStore;
+  }
+
+  /**
+   * Collect metrics of this engine's commands: moves, attacks and abilities, accepted or not, ended turns and
+   * forfeits, and the game's length once it is won.  Actions performed by apply and undo are not recorded.  Copies
+   * of the engine do not collect metrics.
+   *
+   * @param metrics  the metrics to record into, which may be shared with other engines, or null to stop collecting
+   */
+  public void setMetrics( EngineMetrics metrics ) {
+    this.metrics = metrics;
+  }
+
+  public EngineMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Helper method to record a command that started at the given System.nanoTime, and the end of the game if the
+   * command won it.
+   */
+  private void recordCommand( int command, int code, long start ) {
+    long now = System.nanoTime();
+    metrics.recordCommand( command, code, now - start );
+
+    if ( !metricsGameStarted ) {
+      metricsGameStart = start;
+      metricsGameStarted = true;
+    }
+    if ( gameWinner != null && !metricsGameEnded ) {
+      metricsGameEnded = true;
+      metrics.recordGameEnd( turn, now - metricsGameStart );
+    }
   }
 
   /**
    * Helper method to reset the character action points of the current player
    */
   private void resetCharacterActions() {
-    for ( Chara chara : playerCharacters.get( getTurnPlayer() ) ) {
-      chara.resetActionsRemaining();
+    List< Chara > charas = playerCharacters.get( getTurnPlayer() );
+    for ( int i = 0; i < charas.size(); i++ ) {
+      charas.get( i ).resetActionsRemaining();
     }
   }
 
@@ -0,0 +1,61 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.chara.Chara;
+
+import java.util.Arrays;
+
+/**
+ * The record of applied actions that ProjectColaEngine uses to undo them.  Each applied action pushes a small frame
+ * of ints, and the charas it touched, which undo pops in reverse order.
+ *
+ * The backing arrays only grow, so once a search has reached its deepest line no further allocation happens.
+ *
+ * Created by antkwan on 7/5/2016.
+ */
+class UndoStack {
+
+  private int[] ints = new int[ 256 ];
+  private int intCount = 0;
+
+  private Chara[] charas = new Chara[ 64 ];
+  private int charaCount = 0;
+
+  // Number of frames on the stack
+  private int frames = 0;
+
+  void pushInt( int value ) {
+    if ( intCount == ints.length ) {
+      ints = Arrays.copyOf( ints, ints.length * 2 );
+    }
+    ints[ intCount++ ] = value;
+  }
+
+  int popInt() {
+    return ints[ --intCount ];
+  }
+
+  void pushChara( Chara chara ) {
+    if ( charaCount == charas.length ) {
+      charas = Arrays.copyOf( charas, charas.length * 2 );
+    }
+    charas[ charaCount++ ] = chara;
+  }
+
+  Chara popChara() {
+    Chara chara = charas[ --charaCount ];
+    charas[ charaCount ] = null;
+    return chara;
+  }
+
+  void endFrame() {
+    frames++;
+  }
+
+  void popFrame() {
+    frames--;
+  }
+
+  int getFrames() {
+    return frames;
+  }
+}
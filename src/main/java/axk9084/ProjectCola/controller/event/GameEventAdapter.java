@@ -0,0 +1,19 @@
+package axk9084.ProjectCola.controller.event;
+
+/**
+ * A GameEventListener that ignores every event, to extend when only some events are of interest.
+ *
+ * Created by antkwan on 7/17/2016.
+ */
+public abstract class GameEventAdapter implements GameEventListener {
+
+  public void charaMoved( int charaId, int fromIndex, int toIndex ) {}
+
+  public void charaDamaged( int charaId, int attackerId, int damage, int health ) {}
+
+  public void charaDied( int charaId, int tileIndex ) {}
+
+  public void turnEnded( int player, int turn ) {}
+
+  public void gameWon( int winner ) {}
+}
@@ -0,0 +1,164 @@
+package axk9084.ProjectCola.controller.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ring buffer of the events of a game.  Events are written into preallocated primitive arrays, so publishing one
+ * never allocates, and each event gets a sequence number counting up from 0.
+ *
+ * Registered listeners are handed every event in order by {@link #dispatch()}, which the engine calls at the end of
+ * each command.  Readers that keep their own position, such as a replay logger, can instead {@link #read} from a
+ * sequence number as long as they stay within the capacity of the buffer.
+ *
+ * Only the engine's thread may publish, dispatch or read.
+ *
+ * Created by antkwan on 7/17/2016.
+ */
+public class GameEventBuffer {
+
+  // Event types
+  public static final int CHARA_MOVED = 1;
+  public static final int CHARA_DAMAGED = 2;
+  public static final int CHARA_DIED = 3;
+  public static final int TURN_ENDED = 4;
+  public static final int GAME_WON = 5;
+
+  private final int mask;
+
+  // Event columns.  The meaning of each argument depends on the type, in the order of the listener parameters.
+  // They are allocated by the first publish, as most engines, such as search copies, never publish
+  private int[] types;
+  private int[] first;
+  private int[] second;
+  private int[] third;
+  private int[] fourth;
+
+  // Sequence number of the next event to be published, and of the next event to be dispatched
+  private long published = 0;
+  private long dispatched = 0;
+
+  private final List< GameEventListener > listeners = new ArrayList< GameEventListener >();
+
+  /**
+   * @param capacity  the number of events kept, rounded up to a power of two
+   */
+  public GameEventBuffer( int capacity ) {
+    int size = Integer.highestOneBit( Math.max( 2, capacity ) - 1 ) << 1;
+    mask = size - 1;
+  }
+
+  public void addListener( GameEventListener listener ) {
+    listeners.add( listener );
+  }
+
+  public void removeListener( GameEventListener listener ) {
+    listeners.remove( listener );
+  }
+
+  /**
+   * Check if any listener is registered.
+   */
+  public boolean hasListeners() {
+    return !listeners.isEmpty();
+  }
+
+  /**
+   * Write an event into the buffer.  It reaches the listeners on the next dispatch.
+   *
+   * @param type  the event type
+   */
+  public void publish( int type, int a, int b, int c, int d ) {
+    if ( types == null ) {
+      allocate();
+    }
+
+    int slot = (int) ( published & mask );
+    types[ slot ] = type;
+    first[ slot ] = a;
+    second[ slot ] = b;
+    third[ slot ] = c;
+    fourth[ slot ] = d;
+    published++;
+  }
+
+  private void allocate() {
+    int size = mask + 1;
+    types = new int[ size ];
+    first = new int[ size ];
+    second = new int[ size ];
+    third = new int[ size ];
+    fourth = new int[ size ];
+  }
+
+  /**
+   * Hand every event published since the last dispatch to the listeners.  If more events than the capacity were
+   * published in between, only the most recent ones are still there to hand out.
+   */
+  public void dispatch() {
+    if ( listeners.isEmpty() ) {
+      dispatched = published;
+      return;
+    }
+
+    dispatched = Math.max( dispatched, published - getCapacity() );
+    while ( dispatched < published ) {
+      long sequence = dispatched++;
+      for ( int i = 0; i < listeners.size(); i++ ) {
+        deliver( sequence, listeners.get( i ) );
+      }
+    }
+  }
+
+  /**
+   * Hand the events from a sequence number up to the latest to a listener.
+   *
+   * @param sequence  the sequence number of the first event to read
+   * @param listener  the listener to hand the events to
+   * @return the sequence number to read from next time
+   * @throws IllegalStateException if the event at the sequence number has already been overwritten
+   */
+  public long read( long sequence, GameEventListener listener ) {
+    if ( sequence < published - getCapacity() ) {
+      throw new IllegalStateException( "Events from " + sequence + " have been overwritten, the oldest kept is "
+          + ( published - getCapacity() ) );
+    }
+
+    for ( ; sequence < published; sequence++ ) {
+      deliver( sequence, listener );
+    }
+    return sequence;
+  }
+
+  /**
+   * Get the sequence number the next event will be published with, which is the number of events published so far.
+   */
+  public long getSequence() {
+    return published;
+  }
+
+  public int getCapacity() {
+    return mask + 1;
+  }
+
+  private void deliver( long sequence, GameEventListener listener ) {
+    int slot = (int) ( sequence & mask );
+    switch ( types[ slot ] ) {
+      case CHARA_MOVED:
+        listener.charaMoved( first[ slot ], second[ slot ], third[ slot ] );
+        break;
+      case CHARA_DAMAGED:
+        listener.charaDamaged( first[ slot ], second[ slot ], third[ slot ], fourth[ slot ] );
+        break;
+      case CHARA_DIED:
+        listener.charaDied( first[ slot ], second[ slot ] );
+        break;
+      case TURN_ENDED:
+        listener.turnEnded( first[ slot ], second[ slot ] );
+        break;
+      case GAME_WON:
+        listener.gameWon( first[ slot ] );
+        break;
+    }
+  }
+}
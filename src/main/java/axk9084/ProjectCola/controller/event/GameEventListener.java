@@ -0,0 +1,43 @@
+package axk9084.ProjectCola.controller.event;
+
+/**
+ * Receives the changes made to a game as they happen.  Characters are given by id, see
+ * ProjectColaEngine.getCharaStore, and tiles by board index, see Board.getIndex.
+ *
+ * Created by antkwan on 7/17/2016.
+ */
+public interface GameEventListener {
+
+  /**
+   * A character moved from one tile to another.
+   */
+  void charaMoved( int charaId, int fromIndex, int toIndex );
+
+  /**
+   * A character was attacked, hit by an ability or healed.
+   *
+   * @param charaId  the character that was attacked
+   * @param attackerId  the character that attacked
+   * @param damage  the damage dealt, negative for the health restored by a heal
+   * @param health  the health the character has left, below 1 if it died
+   */
+  void charaDamaged( int charaId, int attackerId, int damage, int health );
+
+  /**
+   * A character died and was removed from the tile it was on.
+   */
+  void charaDied( int charaId, int tileIndex );
+
+  /**
+   * A player ended their turn.
+   *
+   * @param player  the player that ended their turn
+   * @param turn  the number of the turn that starts
+   */
+  void turnEnded( int player, int turn );
+
+  /**
+   * A player won the game.
+   */
+  void gameWon( int winner );
+}
@@ -0,0 +1,115 @@
+package axk9084.ProjectCola.controller.metrics;
+
+import axk9084.ProjectCola.controller.ActionResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts and latency of one kind of engine command, such as moves.  Commands are counted by their
+ * {@link ActionResult} code, so rejections are counted by reason.  Engines on any number of threads can record into
+ * the same instance without locking.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class CommandMetrics implements CommandMetricsMBean {
+
+  private final String name;
+
+  // Commands by result code
+  private final AtomicLongArray results = new AtomicLongArray( ActionResult.CODE_COUNT );
+
+  // Time the engine spent on each command, in nanoseconds
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  CommandMetrics( String name ) {
+    this.name = name;
+  }
+
+  /**
+   * Record a command.
+   *
+   * @param code  the command's result code, see {@link ActionResult}
+   * @param nanos  the time the command took
+   */
+  public void record( int code, long nanos ) {
+    results.incrementAndGet( code );
+    latency.record( nanos );
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getAccepted() {
+    return results.get( ActionResult.ACCEPTED );
+  }
+
+  public long getRejected() {
+    long rejected = 0;
+    for ( int code = ActionResult.ACCEPTED + 1; code < ActionResult.CODE_COUNT; code++ ) {
+      rejected += results.get( code );
+    }
+    return rejected;
+  }
+
+  /**
+   * Get the number of commands with a result code.
+   *
+   * @param code  the result code, see {@link ActionResult}
+   */
+  public long getCount( int code ) {
+    return results.get( code );
+  }
+
+  public String[] getRejections() {
+    List< String > rejections = new ArrayList< String >();
+    for ( int code = ActionResult.ACCEPTED + 1; code < ActionResult.CODE_COUNT; code++ ) {
+      long count = results.get( code );
+      if ( count > 0 ) {
+        rejections.add( ActionResult.getRejectionName( code ) + " " + count );
+      }
+    }
+    return rejections.toArray( new String[ rejections.size() ] );
+  }
+
+  public long getRejectionCount( String rejection ) {
+    for ( int code = ActionResult.ACCEPTED + 1; code < ActionResult.CODE_COUNT; code++ ) {
+      if ( ActionResult.getRejectionName( code ).equals( rejection ) ) {
+        return results.get( code );
+      }
+    }
+    return 0;
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public long getLatencyMedianNanos() {
+    return latency.getValueAtPercentile( 50 );
+  }
+
+  public long getLatency99thPercentileNanos() {
+    return latency.getValueAtPercentile( 99 );
+  }
+
+  public long getLatency999thPercentileNanos() {
+    return latency.getValueAtPercentile( 99.9 );
+  }
+
+  public long getLatencyMaxNanos() {
+    return latency.getMax();
+  }
+
+  /**
+   * Clear the counts and latencies.
+   */
+  void reset() {
+    for ( int code = 0; code < ActionResult.CODE_COUNT; code++ ) {
+      results.set( code, 0 );
+    }
+    latency.reset();
+  }
+}
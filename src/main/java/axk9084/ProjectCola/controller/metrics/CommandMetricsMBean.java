@@ -0,0 +1,33 @@
+package axk9084.ProjectCola.controller.metrics;
+
+/**
+ * Management interface of {@link CommandMetrics}, the counts and latency of one kind of engine command.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public interface CommandMetricsMBean {
+
+  long getAccepted();
+
+  long getRejected();
+
+  /**
+   * Get each reason commands were rejected for, with its count, such as "TileOccupiedException 12".
+   */
+  String[] getRejections();
+
+  /**
+   * Get the number of commands rejected for a reason.
+   *
+   * @param rejection  the simple name of the exception the throwing API uses for the reason
+   */
+  long getRejectionCount( String rejection );
+
+  long getLatencyMedianNanos();
+
+  long getLatency99thPercentileNanos();
+
+  long getLatency999thPercentileNanos();
+
+  long getLatencyMaxNanos();
+}
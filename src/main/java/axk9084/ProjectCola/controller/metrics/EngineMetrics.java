@@ -0,0 +1,223 @@
+package axk9084.ProjectCola.controller.metrics;
+
+import axk9084.ProjectCola.controller.ActionResult;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Counters and latency histograms of the commands engines run, and the length of the games they finish.
+ *
+ * Metrics are off unless an instance is given to an engine with
+ * {@link axk9084.ProjectCola.controller.ProjectColaEngine#setMetrics(EngineMetrics)}, and an engine without one
+ * pays a null check per command.  Many engines, on any number of threads, can share one instance: each record is a
+ * few atomic increments and nothing locks.  Actions applied and undone by searches are not commands and are not
+ * recorded.
+ *
+ * The metrics can be read through the getters, as text with {@link #dump()} or over JMX once
+ * {@link #registerMBeans(String)} was called.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+
+  // Kinds of command
+  public static final int MOVE = 0;
+  public static final int ATTACK = 1;
+  public static final int END_TURN = 2;
+  public static final int FORFEIT = 3;
+  public static final int ABILITY = 4;
+
+  public static final String[] COMMAND_NAMES = { "move", "attack", "endTurn", "forfeit", "ability" };
+
+  // JMX domain the MBeans are registered under
+  public static final String DOMAIN = "axk9084.ProjectCola";
+
+  private final CommandMetrics[] commands = new CommandMetrics[ COMMAND_NAMES.length ];
+
+  private final LatencyHistogram turnsPerGame = new LatencyHistogram();
+
+  // Time from a game's first command to its win, in nanoseconds
+  private final LatencyHistogram gameDurations = new LatencyHistogram();
+
+  // Names the MBeans were registered under, empty while they are not
+  private final List< ObjectName > registeredNames = new ArrayList< ObjectName >();
+
+  public EngineMetrics() {
+    for ( int command = 0; command < commands.length; command++ ) {
+      commands[ command ] = new CommandMetrics( COMMAND_NAMES[ command ] );
+    }
+  }
+
+  /**
+   * Record a command an engine ran.
+   *
+   * @param command  the kind of command, such as MOVE
+   * @param code  the command's result code, see {@link ActionResult}
+   * @param nanos  the time the command took
+   */
+  public void recordCommand( int command, int code, long nanos ) {
+    commands[ command ].record( code, nanos );
+  }
+
+  /**
+   * Record a game that has been won.
+   *
+   * @param turns  the turn the game ended on
+   * @param nanos  the time from the game's first command to its last
+   */
+  public void recordGameEnd( int turns, long nanos ) {
+    turnsPerGame.record( turns );
+    gameDurations.record( nanos );
+  }
+
+  /**
+   * Get the metrics of one kind of command.
+   *
+   * @param command  the kind of command, such as MOVE
+   */
+  public CommandMetrics getCommand( int command ) {
+    return commands[ command ];
+  }
+
+  public long getCommands() {
+    long total = 0;
+    for ( CommandMetrics command : commands ) {
+      total += command.getAccepted() + command.getRejected();
+    }
+    return total;
+  }
+
+  public long getRejected() {
+    long total = 0;
+    for ( CommandMetrics command : commands ) {
+      total += command.getRejected();
+    }
+    return total;
+  }
+
+  public long getGamesFinished() {
+    return turnsPerGame.getCount();
+  }
+
+  public LatencyHistogram getTurnsPerGame() {
+    return turnsPerGame;
+  }
+
+  public long getTurnsPerGameMedian() {
+    return turnsPerGame.getValueAtPercentile( 50 );
+  }
+
+  public long getTurnsPerGame99thPercentile() {
+    return turnsPerGame.getValueAtPercentile( 99 );
+  }
+
+  public long getTurnsPerGameMax() {
+    return turnsPerGame.getMax();
+  }
+
+  /**
+   * Get the histogram of game durations, in nanoseconds.
+   */
+  public LatencyHistogram getGameDurations() {
+    return gameDurations;
+  }
+
+  public long getGameDurationMedianMillis() {
+    return gameDurations.getValueAtPercentile( 50 ) / 1000000;
+  }
+
+  public long getGameDuration99thPercentileMillis() {
+    return gameDurations.getValueAtPercentile( 99 ) / 1000000;
+  }
+
+  public long getGameDurationMaxMillis() {
+    return gameDurations.getMax() / 1000000;
+  }
+
+  public String dump() {
+    StringBuilder builder = new StringBuilder();
+    builder.append( String.format( Locale.ROOT, "%-10s %12s %12s %10s %10s %10s %10s%n",
+        "command", "accepted", "rejected", "p50 us", "p99 us", "p99.9 us", "max us" ) );
+
+    for ( CommandMetrics command : commands ) {
+      builder.append( String.format( Locale.ROOT, "%-10s %12d %12d %10.1f %10.1f %10.1f %10.1f%n",
+          command.getName(), command.getAccepted(), command.getRejected(),
+          command.getLatencyMedianNanos() / 1e3, command.getLatency99thPercentileNanos() / 1e3,
+          command.getLatency999thPercentileNanos() / 1e3, command.getLatencyMaxNanos() / 1e3 ) );
+      for ( String rejection : command.getRejections() ) {
+        builder.append( String.format( Locale.ROOT, "  %s%n", rejection ) );
+      }
+    }
+
+    builder.append( String.format( Locale.ROOT,
+        "%d games finished, turns p50 %d, p99 %d, max %d, duration p50 %d ms, p99 %d ms, max %d ms%n",
+        getGamesFinished(), getTurnsPerGameMedian(), getTurnsPerGame99thPercentile(), getTurnsPerGameMax(),
+        getGameDurationMedianMillis(), getGameDuration99thPercentileMillis(), getGameDurationMaxMillis() ) );
+    return builder.toString();
+  }
+
+  /**
+   * Clear every metric.  Commands recorded while this runs may be partly kept.
+   */
+  public void reset() {
+    for ( CommandMetrics command : commands ) {
+      command.reset();
+    }
+    turnsPerGame.reset();
+    gameDurations.reset();
+  }
+
+  /**
+   * Register the metrics with the platform MBean server: this instance as
+   * axk9084.ProjectCola:type=EngineMetrics,name=NAME and each kind of command as
+   * axk9084.ProjectCola:type=EngineMetrics,name=NAME,command=COMMAND.
+   *
+   * @param name  the name telling this instance apart from others in the JVM
+   * @throws JMException if the name is taken or not valid in an object name
+   */
+  public synchronized void registerMBeans( String name ) throws JMException {
+    if ( !registeredNames.isEmpty() ) {
+      throw new IllegalStateException( "The metrics are already registered" );
+    }
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String prefix = DOMAIN + ":type=EngineMetrics,name=" + name;
+    try {
+      register( server, this, new ObjectName( prefix ) );
+      for ( CommandMetrics command : commands ) {
+        register( server, command, new ObjectName( prefix + ",command=" + command.getName() ) );
+      }
+    }
+    catch ( JMException e ) {
+      unregisterMBeans();
+      throw e;
+    }
+  }
+
+  private void register( MBeanServer server, Object mbean, ObjectName objectName ) throws JMException {
+    server.registerMBean( mbean, objectName );
+    registeredNames.add( objectName );
+  }
+
+  /**
+   * Remove the metrics from the platform MBean server, if they are registered.
+   */
+  public synchronized void unregisterMBeans() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for ( ObjectName objectName : registeredNames ) {
+      try {
+        server.unregisterMBean( objectName );
+      }
+      catch ( JMException e ) {
+        // Already gone
+      }
+    }
+    registeredNames.clear();
+  }
+}
@@ -0,0 +1,38 @@
+package axk9084.ProjectCola.controller.metrics;
+
+/**
+ * Management interface of {@link EngineMetrics}: totals over every command and the length of finished games.  The
+ * details of each kind of command are in its own {@link CommandMetricsMBean}.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public interface EngineMetricsMBean {
+
+  long getCommands();
+
+  long getRejected();
+
+  long getGamesFinished();
+
+  long getTurnsPerGameMedian();
+
+  long getTurnsPerGame99thPercentile();
+
+  long getTurnsPerGameMax();
+
+  long getGameDurationMedianMillis();
+
+  long getGameDuration99thPercentileMillis();
+
+  long getGameDurationMaxMillis();
+
+  /**
+   * Get every metric as text, one command per line.
+   */
+  String dump();
+
+  /**
+   * Clear every metric.
+   */
+  void reset();
+}
@@ -0,0 +1,112 @@
+package axk9084.ProjectCola.controller.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies that many threads can record into at once without locking.
+ *
+ * Values are counted in buckets that split each power of two into 32 steps, so any percentile read back is within
+ * about 3% of the recorded value.  Recording is one atomic increment.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = ( 64 - SUB_BUCKET_BITS + 1 ) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray( BUCKET_COUNT );
+
+  /**
+   * Record a value.  Negative values are counted as 0.
+   *
+   * @param value  the value, such as a latency in nanoseconds
+   */
+  public void record( long value ) {
+    counts.incrementAndGet( getBucket( Math.max( 0, value ) ) );
+  }
+
+  /**
+   * Get the number of recorded values.
+   */
+  public long getCount() {
+    long total = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      total += counts.get( i );
+    }
+    return total;
+  }
+
+  /**
+   * Get the value below which a percentage of the recorded values fall.  Values recorded while this runs may or may
+   * not be included.
+   *
+   * @param percentile  the percentile, for example 99.9
+   * @return the highest value of the bucket the percentile falls in, 0 if nothing was recorded
+   */
+  public long getValueAtPercentile( double percentile ) {
+    long[] snapshot = new long[ BUCKET_COUNT ];
+    long total = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      snapshot[ i ] = counts.get( i );
+      total += snapshot[ i ];
+    }
+    if ( total == 0 ) {
+      return 0;
+    }
+
+    long rank = Math.max( 1, (long) Math.ceil( total * Math.min( 100.0, percentile ) / 100.0 ) );
+    long seen = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      seen += snapshot[ i ];
+      if ( seen >= rank ) {
+        return getBucketMax( i );
+      }
+    }
+    return getBucketMax( BUCKET_COUNT - 1 );
+  }
+
+  /**
+   * Get the highest recorded value, to within the bucket precision.
+   */
+  public long getMax() {
+    for ( int i = BUCKET_COUNT - 1; i >= 0; i-- ) {
+      if ( counts.get( i ) > 0 ) {
+        return getBucketMax( i );
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Clear all recorded values.
+   */
+  public void reset() {
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      counts.set( i, 0 );
+    }
+  }
+
+  /**
+   * Helper method to find the bucket of a value: values below SUB_BUCKETS have a bucket each, larger values are
+   * bucketed by their highest bit and the SUB_BUCKET_BITS bits below it.
+   */
+  private static int getBucket( long value ) {
+    if ( value < SUB_BUCKETS ) {
+      return (int) value;
+    }
+    int highestBit = 63 - Long.numberOfLeadingZeros( value );
+    int shift = highestBit - SUB_BUCKET_BITS;
+    return ( shift + 1 ) * SUB_BUCKETS + (int) ( ( value >>> shift ) & ( SUB_BUCKETS - 1 ) );
+  }
+
+  private static long getBucketMax( int bucket ) {
+    if ( bucket < SUB_BUCKETS ) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    return ( ( SUB_BUCKETS + subBucket + 1 ) << shift ) - 1;
+  }
+}
@@ -0,0 +1,61 @@
+package axk9084.ProjectCola.exceptions;
+
+import axk9084.ProjectCola.model.board.Coordinate;
+
+/**
+ * AbilityNotReadyException is thrown when a character attempts to use an ability that is still on cooldown.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class AbilityNotReadyException extends Exception {
+
+  private String characterName;
+  private int x;
+  private int y;
+  private String abilityName;
+  private int turnsRemaining;
+
+  public AbilityNotReadyException( String characterName, int x, int y, String abilityName, int turnsRemaining ) {
+    this.characterName = characterName;
+    this.x = x;
+    this.y = y;
+    this.abilityName = abilityName;
+    this.turnsRemaining = turnsRemaining;
+  }
+
+  public AbilityNotReadyException( String characterName, char columnKey, int rowKey, String abilityName,
+                                   int turnsRemaining ) {
+    this( characterName, Coordinate.toX( columnKey ), Coordinate.toY( rowKey ), abilityName, turnsRemaining );
+  }
+
+  public String getCharacterName() {
+    return characterName;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public char getColumnKey() {
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRowKey() {
+    return Coordinate.toRowKey( y );
+  }
+
+  public String getAbilityName() {
+    return abilityName;
+  }
+
+  /**
+   * Get the number of the player's turns until the ability can be used again.
+   */
+  public int getTurnsRemaining() {
+    return turnsRemaining;
+  }
+}
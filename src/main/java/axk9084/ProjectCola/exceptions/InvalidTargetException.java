@@ -0,0 +1,40 @@
+package axk9084.ProjectCola.exceptions;
+
+import axk9084.ProjectCola.model.board.Coordinate;
+
+/**
+ * InvalidTargetException is thrown when an ability is aimed at a tile it can not target, such as a heal at an
+ * enemy or a line that is not straight.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class InvalidTargetException extends Exception {
+
+  private int x;
+  private int y;
+
+  public InvalidTargetException( int x, int y ) {
+    this.x = x;
+    this.y = y;
+  }
+
+  public InvalidTargetException( char columnKey, int rowKey ) {
+    this( Coordinate.toX( columnKey ), Coordinate.toY( rowKey ) );
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public char getColumnKey() {
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRowKey() {
+    return Coordinate.toRowKey( y );
+  }
+}
@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * MissingCharacterException is thrown when an attempted action expects a Chara on a tile but
  * the tile does not contain one.
@@ -8,20 +10,32 @@ package axk9084.ProjectCola.exceptions;
  */
 public class MissingCharacterException extends Exception {
 
-  // Row and column of the tile of the missing character
-  private int row;
-  private char column;
+  // x and y of the tile of the missing character
+  private int x;
+  private int y;
+
+  public MissingCharacterException( int x, int y ) {
+    this.x = x;
+    this.y = y;
+  }
 
   public MissingCharacterException( char column, int row ) {
-    this.row = row;
-    this.column = column;
+    this( Coordinate.toX( column ), Coordinate.toY( row ) );
   }
 
-  public int getRow() {
-    return row;
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
   }
 
   public char getColumn() {
-    return column;
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRow() {
+    return Coordinate.toRowKey( y );
   }
 }
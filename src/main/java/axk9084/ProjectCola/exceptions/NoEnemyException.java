@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * NoEnemyException is thrown when an attacking character attempts to attack a tile that has no occupying enemy.
  *
@@ -7,19 +9,31 @@ package axk9084.ProjectCola.exceptions;
  */
 public class NoEnemyException extends Exception {
 
-  private char columnKey;
-  private int rowKey;
+  private int x;
+  private int y;
+
+  public NoEnemyException( int x, int y ) {
+    this.x = x;
+    this.y = y;
+  }
 
   public NoEnemyException( char columnKey, int rowKey ) {
-    this.columnKey = columnKey;
-    this.rowKey = rowKey;
+    this( Coordinate.toX( columnKey ), Coordinate.toY( rowKey ) );
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
   }
 
   public char getColumnKey() {
-    return columnKey;
+    return Coordinate.toColumnKey( x );
   }
 
   public int getRowKey() {
-    return rowKey;
+    return Coordinate.toRowKey( y );
   }
 }
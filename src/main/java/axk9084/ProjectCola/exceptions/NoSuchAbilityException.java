@@ -0,0 +1,51 @@
+package axk9084.ProjectCola.exceptions;
+
+import axk9084.ProjectCola.model.board.Coordinate;
+
+/**
+ * NoSuchAbilityException is thrown when a character attempts to use an ability slot it has no ability in.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class NoSuchAbilityException extends Exception {
+
+  private String characterName;
+  private int x;
+  private int y;
+  private int slot;
+
+  public NoSuchAbilityException( String characterName, int x, int y, int slot ) {
+    this.characterName = characterName;
+    this.x = x;
+    this.y = y;
+    this.slot = slot;
+  }
+
+  public NoSuchAbilityException( String characterName, char columnKey, int rowKey, int slot ) {
+    this( characterName, Coordinate.toX( columnKey ), Coordinate.toY( rowKey ), slot );
+  }
+
+  public String getCharacterName() {
+    return characterName;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public char getColumnKey() {
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRowKey() {
+    return Coordinate.toRowKey( y );
+  }
+
+  public int getSlot() {
+    return slot;
+  }
+}
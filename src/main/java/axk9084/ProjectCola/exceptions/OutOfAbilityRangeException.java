@@ -0,0 +1,57 @@
+package axk9084.ProjectCola.exceptions;
+
+import axk9084.ProjectCola.model.board.Coordinate;
+
+/**
+ * OutOfAbilityRangeException is thrown when a character attempts to target a tile out of an ability's range.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class OutOfAbilityRangeException extends Exception {
+
+  private String characterName;
+  private int x;
+  private int y;
+  private int minRange;
+  private int maxRange;
+
+  public OutOfAbilityRangeException( String characterName, int x, int y, int minRange, int maxRange ) {
+    this.characterName = characterName;
+    this.x = x;
+    this.y = y;
+    this.minRange = minRange;
+    this.maxRange = maxRange;
+  }
+
+  public OutOfAbilityRangeException( String characterName, char columnKey, int rowKey, int minRange, int maxRange ) {
+    this( characterName, Coordinate.toX( columnKey ), Coordinate.toY( rowKey ), minRange, maxRange );
+  }
+
+  public String getCharacterName() {
+    return characterName;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public char getColumnKey() {
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRowKey() {
+    return Coordinate.toRowKey( y );
+  }
+
+  public int getMinRange() {
+    return minRange;
+  }
+
+  public int getMaxRange() {
+    return maxRange;
+  }
+}
@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * OutOfAttackRangeException is thrown when a character attempts to attack another tile out of it's attack range.
  *
@@ -8,29 +10,41 @@ package axk9084.ProjectCola.exceptions;
 public class OutOfAttackRangeException extends Exception {
 
   private String characterName;
-  private char columnKey;
-  private int rowKey;
+  private int x;
+  private int y;
   private int minAttackRange;
   private int maxAttackRange;
 
-  public OutOfAttackRangeException( String characterName, char columnKey, int rowKey, int minAttackRange, int maxAttackRange ) {
+  public OutOfAttackRangeException( String characterName, int x, int y, int minAttackRange, int maxAttackRange ) {
     this.characterName = characterName;
-    this.columnKey = columnKey;
-    this.rowKey = rowKey;
+    this.x = x;
+    this.y = y;
     this.minAttackRange = minAttackRange;
     this.maxAttackRange = maxAttackRange;
   }
 
+  public OutOfAttackRangeException( String characterName, char columnKey, int rowKey, int minAttackRange, int maxAttackRange ) {
+    this( characterName, Coordinate.toX( columnKey ), Coordinate.toY( rowKey ), minAttackRange, maxAttackRange );
+  }
+
   public String getCharacterName() {
     return characterName;
   }
 
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
   public char getColumnKey() {
-    return columnKey;
+    return Coordinate.toColumnKey( x );
   }
 
   public int getRowKey() {
-    return rowKey;
+    return Coordinate.toRowKey( y );
   }
 
   public int getMinAttackRange() {
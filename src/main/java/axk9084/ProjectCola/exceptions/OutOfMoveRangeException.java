@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * OutOfMoveRangeException is thrown when a character attempts to move outside of it's move range.
  *
@@ -8,27 +10,39 @@ package axk9084.ProjectCola.exceptions;
 public class OutOfMoveRangeException extends Exception {
 
   private String characterName;
-  private char columnKey;
-  private int rowKey;
+  private int x;
+  private int y;
   private int moveRange;
 
-  public OutOfMoveRangeException( String characterName, char columnKey, int rowKey, int moveRange ) {
+  public OutOfMoveRangeException( String characterName, int x, int y, int moveRange ) {
     this.characterName = characterName;
-    this.columnKey = columnKey;
-    this.rowKey = rowKey;
+    this.x = x;
+    this.y = y;
     this.moveRange = moveRange;
   }
 
+  public OutOfMoveRangeException( String characterName, char columnKey, int rowKey, int moveRange ) {
+    this( characterName, Coordinate.toX( columnKey ), Coordinate.toY( rowKey ), moveRange );
+  }
+
   public String getCharacterName() {
     return characterName;
   }
 
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
   public char getColumnKey() {
-    return columnKey;
+    return Coordinate.toColumnKey( x );
   }
 
   public int getRowKey() {
-    return rowKey;
+    return Coordinate.toRowKey( y );
   }
 
   public int getMoveRange() {
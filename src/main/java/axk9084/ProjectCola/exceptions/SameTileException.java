@@ -1,24 +1,38 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * SameTileException is thrown when a player attempts to move a character from and to the same tile.
  *
  * Created by antkwan on 6/26/2016.
  */
 public class SameTileException extends Exception {
-  private char columnKey;
-  private int rowkey;
+  private int x;
+  private int y;
+
+  public SameTileException( int x, int y ) {
+    this.x = x;
+    this.y = y;
+  }
 
   public SameTileException( char columnKey, int rowkey ) {
-    this.columnKey = columnKey;
-    this.rowkey = rowkey;
+    this( Coordinate.toX( columnKey ), Coordinate.toY( rowkey ) );
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
   }
 
   public char getColumnKey() {
-    return columnKey;
+    return Coordinate.toColumnKey( x );
   }
 
   public int getRowkey() {
-    return rowkey;
+    return Coordinate.toRowKey( y );
   }
 }
@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.exceptions;
 
+import axk9084.ProjectCola.model.board.Coordinate;
+
 /**
  * TileOccupiedException is thrown when a character is attempting to move to an occupied tile.
  *
@@ -8,24 +10,36 @@ package axk9084.ProjectCola.exceptions;
 public class TileOccupiedException extends Exception {
 
   private String characterName;
-  private int row;
-  private char column;
+  private int x;
+  private int y;
 
-  public TileOccupiedException( String characterName, char column, int row ) {
+  public TileOccupiedException( String characterName, int x, int y ) {
     this.characterName = characterName;
-    this.row = row;
-    this.column = column;
+    this.x = x;
+    this.y = y;
+  }
+
+  public TileOccupiedException( String characterName, char column, int row ) {
+    this( characterName, Coordinate.toX( column ), Coordinate.toY( row ) );
   }
 
   public String getCharacterName() {
     return characterName;
   }
 
-  public int getRow() {
-    return row;
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
   }
 
   public char getColumn() {
-    return column;
+    return Coordinate.toColumnKey( x );
+  }
+
+  public int getRow() {
+    return Coordinate.toRowKey( y );
   }
 }
@@ -0,0 +1,90 @@
+package axk9084.ProjectCola.io;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes ints as variable length integers: 7 bits per byte, least significant first, with the high bit of
+ * each byte set when more bytes follow.  Small values take one byte, and any int at most five.
+ *
+ * Signed values are zigzag encoded first so small negative values are small too.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class Varint {
+
+  // Most bytes an encoded int takes
+  public static final int MAX_BYTES = 5;
+
+  private Varint() {}
+
+  /**
+   * Write an int as an unsigned varint.  Negative values take the full five bytes.
+   *
+   * @param out  the buffer to write to
+   * @param value  the value
+   */
+  public static void writeUnsigned( ByteBuffer out, int value ) {
+    while ( ( value & ~0x7F ) != 0 ) {
+      out.put( (byte) ( ( value & 0x7F ) | 0x80 ) );
+      value >>>= 7;
+    }
+    out.put( (byte) value );
+  }
+
+  /**
+   * Read an unsigned varint.
+   *
+   * @param in  the buffer to read from
+   * @return the value
+   * @throws BufferUnderflowException if the buffer ends within the varint
+   * @throws IllegalArgumentException if the varint is longer than five bytes
+   */
+  public static int readUnsigned( ByteBuffer in ) {
+    int value = 0;
+    for ( int shift = 0; shift < 35; shift += 7 ) {
+      byte b = in.get();
+      value |= ( b & 0x7F ) << shift;
+      if ( b >= 0 ) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException( "Varint is longer than " + MAX_BYTES + " bytes" );
+  }
+
+  /**
+   * Write an int as a zigzag encoded varint.
+   *
+   * @param out  the buffer to write to
+   * @param value  the value
+   */
+  public static void writeSigned( ByteBuffer out, int value ) {
+    writeUnsigned( out, ( value << 1 ) ^ ( value >> 31 ) );
+  }
+
+  /**
+   * Read a zigzag encoded varint.
+   *
+   * @param in  the buffer to read from
+   * @return the value
+   */
+  public static int readSigned( ByteBuffer in ) {
+    int encoded = readUnsigned( in );
+    return ( encoded >>> 1 ) ^ -( encoded & 1 );
+  }
+
+  /**
+   * Get the number of bytes an unsigned varint takes.
+   *
+   * @param value  the value
+   * @return the number of bytes
+   */
+  public static int sizeOfUnsigned( int value ) {
+    int size = 1;
+    while ( ( value & ~0x7F ) != 0 ) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+}
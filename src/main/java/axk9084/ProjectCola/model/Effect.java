@@ -1,5 +1,7 @@
 package axk9084.ProjectCola.model;
 
+import axk9084.ProjectCola.model.board.Board;
+
 /**
  * Represents a effect on a tile, magical or otherwise, that influences entities on the same tile.
  * In addition, effects may endTurnAction at the end of every turn.
@@ -9,10 +11,26 @@ package axk9084.ProjectCola.model;
  */
 public interface Effect {
 
+  // Returned by endTurnAction to remove the effect from the board.  Board.getIndex returns the same for tiles off
+  // the board, so an effect moving off the board is removed
+  public static final int EXPIRED = -1;
+
   /**
    * An action taken by the effect at the end of a turn.  Effects are not required to make actions and can
-   * immediately return.
+   * immediately return the tile they are on.
+   *
+   * @param board  the board the effect is on
+   * @param tileIndex  the index of the tile the effect is on
+   * @return the index of the tile the effect is on from now on: tileIndex to stay, another tile to move there, or
+   *         EXPIRED to be removed from the board
+   */
+  public int endTurnAction( Board board, int tileIndex );
+
+  /**
+   * Get the effect to place on a copy of the board: a new effect in the same state, or this one if it can not change.
+   *
+   * @return the copy
    */
-  public void endTurnAction();
+  public Effect copy();
 
 }
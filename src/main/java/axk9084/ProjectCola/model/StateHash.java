@@ -0,0 +1,91 @@
+package axk9084.ProjectCola.model;
+
+import axk9084.ProjectCola.model.chara.Chara;
+
+/**
+ * A Zobrist hash of the game state, used to recognize positions that have been seen before.
+ *
+ * Every piece of state (a chara on a tile, a chara's health, a chara's remaining actions, the turn each of a chara's
+ * abilities is ready on, the turn player) has a 64 bit key and the hash is the XOR of the keys of the current state.
+ * The board and the charas toggle keys in and out as they change, so the hash is kept up to date incrementally
+ * instead of being recomputed.
+ *
+ * Keys are derived from the state with the splitmix64 mixer rather than stored in random tables, so they are the same
+ * in every engine and need no sizing for large boards or health values.
+ *
+ * Created by antkwan on 7/6/2016.
+ */
+public class StateHash {
+
+  // Kinds of keys
+  public static final int OCCUPANCY = 1;
+  public static final int HEALTH = 2;
+  public static final int ACTIONS = 3;
+  public static final int TURN = 4;
+  public static final int ABILITY = 5;
+
+  // Id used for the occupancy key of entities that are not charas
+  private static final int NON_CHARA_ID = -1;
+
+  // The first round of mixing of each kind of key, which only depends on the kind
+  private static final long[] KIND_SEEDS = new long[ ABILITY + 1 ];
+
+  static {
+    for ( int kind = 0; kind < KIND_SEEDS.length; kind++ ) {
+      KIND_SEEDS[ kind ] = mix( kind * 0x9E3779B97F4A7C15L );
+    }
+  }
+
+  private long value = 0;
+
+  public long getValue() {
+    return value;
+  }
+
+  /**
+   * Toggle a key in or out of the hash.
+   *
+   * @param key  the key to toggle
+   */
+  public void toggle( long key ) {
+    value ^= key;
+  }
+
+  /**
+   * Get the key of an entity standing on a tile.
+   *
+   * @param index  the tile index
+   * @param entity  the entity on the tile, null for an empty tile
+   * @return the key, 0 for an empty tile
+   */
+  public static long occupancyKey( int index, Entity entity ) {
+    if ( entity == null ) {
+      return 0;
+    }
+    int id = entity instanceof Chara ? ( (Chara) entity ).getId() : NON_CHARA_ID;
+    return key( OCCUPANCY, index, id );
+  }
+
+  /**
+   * Get the key for a kind of state.
+   *
+   * @param kind  the kind of key
+   * @param a  first value identifying the state, such as a chara id
+   * @param b  second value identifying the state, such as a health value
+   * @return the key
+   */
+  public static long key( int kind, int a, int b ) {
+    long h = kind < KIND_SEEDS.length ? KIND_SEEDS[ kind ] : mix( kind * 0x9E3779B97F4A7C15L );
+    h = mix( h + a * 0xBF58476D1CE4E5B9L );
+    return mix( h + b * 0x94D049BB133111EBL );
+  }
+
+  /**
+   * The splitmix64 finalizer.
+   */
+  private static long mix( long z ) {
+    z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+    z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+    return z ^ ( z >>> 31 );
+  }
+}
@@ -1,48 +1,66 @@
 package axk9084.ProjectCola.model.board;
 
 import axk9084.ProjectCola.exceptions.TileDoesNotExistException;
+import axk9084.ProjectCola.model.Effect;
 import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.StateHash;
+import axk9084.ProjectCola.model.board.terrain.TerrainEffect;
 import axk9084.ProjectCola.model.board.tile.PlainTile;
+import axk9084.ProjectCola.model.board.tile.TerrainTile;
 import axk9084.ProjectCola.model.board.tile.Tile;
 
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Created by antkwan on 6/25/2016.
  */
 public class Board {
 
-  private final static int ASCII_a = (int) 'a';
-
-  // The map represents the game board.
-  // The outer map contains mappings of column key to row map.
-  // The inner row maps contain mapping of row key to a Tile
-  // The column keys are alphabetical characters starting from 'a'
-  // The row keys are incrementing integers beginning at 1.
-  private SortedMap< Character, SortedMap< Integer, Tile > > tiles;
+  // The array represents the game board.
+  // Tiles are stored in a single flat array, one column after another.
+  // The tile at x and y is stored at index x * rows + y, which for column key c and row key r is
+  // index (c - 'a') * rows + (r - 1).  See Coordinate for the conversions between the two forms.
+  private final Tile[] tiles;
 
   final private int rows;
   final private int columns;
 
+  // The state hash that tracks which entity is on which tile, null if the board is not hashed
+  private StateHash stateHash = null;
+
+  // The effects on the board, placed and removed through addEffect and removeEffect
+  private final EffectIndex effects;
+
+  // Bitboards of the tiles of each player's characters
+  private final OccupancyBitboards occupancy;
+
+  // The move cost of each tile, see Tile.getMoveCost, kept in step with the tiles by setTerrain
+  private final int[] moveCosts;
+
+  // The number of tiles that cost more than 1 to step onto or are impassable
+  private int terrainTileCount = 0;
+
+  // The cached reachable tiles of each mover, told of every change to occupancy and terrain
+  private final DistanceFieldCache distanceFields;
+
   public Board( int rows, int columns ) {
     this.rows = rows;
     this.columns = columns;
 
-    tiles = new TreeMap< Character, SortedMap< Integer, Tile > >();
-    
-    // Board generation
-    for ( int column = 0; column < columns; column++ ) {
-      char columnKey = (char) (ASCII_a + column);
-
-      tiles.put( columnKey, new TreeMap< Integer, Tile >() );
+    tiles = new Tile[ rows * columns ];
 
-      for ( int row = 1; row < rows + 1; row++ ) {
-        tiles.get( columnKey ).put( row, new PlainTile() );
-      }
+    // Board generation
+    for ( int index = 0; index < tiles.length; index++ ) {
+      tiles[ index ] = new PlainTile();
     }
 
+    effects = new EffectIndex( this, tiles );
+    occupancy = new OccupancyBitboards( rows, columns );
+
+    moveCosts = new int[ tiles.length ];
+    Arrays.fill( moveCosts, 1 );
+    distanceFields = new DistanceFieldCache( this );
   }
 
   public int getRows() {
@@ -53,20 +71,131 @@ public class Board {
     return columns;
   }
 
-  private Tile getTile( char column, int row )
-      throws TileDoesNotExistException {
+  /**
+   * Attach a state hash that is kept up to date with the board occupancy.  Entities already on the board are added
+   * to the hash.
+   *
+   * @param stateHash  the state hash to attach
+   */
+  public void setStateHash( StateHash stateHash ) {
+    this.stateHash = stateHash;
+    for ( int index = 0; index < tiles.length; index++ ) {
+      stateHash.toggle( StateHash.occupancyKey( index, tiles[ index ].getOccupyingEntity() ) );
+    }
+  }
 
-    SortedMap< Integer, Tile > columnMap = tiles.get( column );
+  /**
+   * Get the number of tiles on the board.  Valid tile indexes range from 0 to this value exclusive.
+   *
+   * @return the number of tiles
+   */
+  public int getTileCount() {
+    return tiles.length;
+  }
 
-    if ( columnMap != null ) {
-      Tile tile = columnMap.get( row );
+  /**
+   * Get the flat index of the tile at the given x and y.
+   *
+   * @param x  the zero based column of the Board
+   * @param y  the zero based row of the Board
+   * @return the index of the tile, else -1 if there is no Tile at the given x and y
+   */
+  public int getIndex( int x, int y ) {
+    if ( x < 0 || x >= columns || y < 0 || y >= rows ) {
+      return -1;
+    }
 
-      if ( tile != null ) {
-        return tile;
-      }
+    return x * rows + y;
+  }
+
+  /**
+   * Get the flat index of the tile with the given column and row keys.
+   *
+   * @param column  the column key of the Board
+   * @param row  the row key of the Board
+   * @return the index of the tile, else -1 if the column and row pairing do not have a Tile
+   */
+  public int getIndex( char column, int row ) {
+    return getIndex( Coordinate.toX( column ), Coordinate.toY( row ) );
+  }
+
+  /**
+   * Get the x of the tile at the given index.
+   *
+   * @param index  the index of the tile
+   * @return the zero based column
+   */
+  public int getX( int index ) {
+    return index / rows;
+  }
+
+  /**
+   * Get the y of the tile at the given index.
+   *
+   * @param index  the index of the tile
+   * @return the zero based row
+   */
+  public int getY( int index ) {
+    return index % rows;
+  }
+
+  /**
+   * Get the column key of the tile at the given index.
+   *
+   * @param index  the index of the tile
+   * @return the column key
+   */
+  public char getColumnKey( int index ) {
+    return Coordinate.toColumnKey( getX( index ) );
+  }
+
+  /**
+   * Get the row key of the tile at the given index.
+   *
+   * @param index  the index of the tile
+   * @return the row key
+   */
+  public int getRowKey( int index ) {
+    return Coordinate.toRowKey( getY( index ) );
+  }
+
+  private int getExistingIndex( int x, int y )
+      throws TileDoesNotExistException {
+
+    int index = getIndex( x, y );
+
+    if ( index < 0 ) {
+      throw new TileDoesNotExistException( x, y );
     }
 
-    throw new TileDoesNotExistException( column, row );
+    return index;
+  }
+
+  /**
+   * Get the entity at a given x and y.
+   *
+   * @param x  the zero based column of the Board
+   * @param y  the zero based row of the Board
+   *
+   * @return the Entity, else null if empty
+   * @throws TileDoesNotExistException when there is no Tile at the given x and y
+   */
+  public Entity getEntityAt( int x, int y )
+      throws TileDoesNotExistException {
+
+    return getEntityAt( getExistingIndex( x, y ) );
+  }
+
+  public void setEntityAt( int x, int y, Entity entity )
+      throws TileDoesNotExistException {
+
+    setEntityAt( getExistingIndex( x, y ), entity );
+  }
+
+  public void moveEntity( int fromX, int fromY, int toX, int toY )
+      throws TileDoesNotExistException {
+
+    moveEntity( getExistingIndex( fromX, fromY ), getExistingIndex( toX, toY ) );
   }
 
   /**
@@ -81,20 +210,339 @@ public class Board {
   public Entity getEntityAt( char column, int row )
       throws TileDoesNotExistException {
 
-    return getTile( column, row ).getOccupyingEntity();
+    return getEntityAt( Coordinate.toX( column ), Coordinate.toY( row ) );
   }
 
   public void setEntityAt( char column, int row, Entity entity )
       throws TileDoesNotExistException {
 
-    getTile( column, row ).setOccupyingEntity( entity );
+    setEntityAt( Coordinate.toX( column ), Coordinate.toY( row ), entity );
   }
 
   public void moveEntity( char fromColumn, int fromRow, char toColumn, int toRow )
       throws TileDoesNotExistException {
 
-    setEntityAt( toColumn, toRow, getEntityAt( fromColumn, fromRow ) );
-    setEntityAt( fromColumn, fromRow, null );
+    moveEntity( Coordinate.toX( fromColumn ), Coordinate.toY( fromRow ), Coordinate.toX( toColumn ), Coordinate.toY( toRow ) );
+  }
+
+  /**
+   * Get the entity at a given tile index.  The index is not range checked beyond the array bounds,
+   * use {@link #getIndex(int, int)} to convert and validate x and y.
+   *
+   * @param index  the index of the tile
+   * @return the Entity, else null if empty
+   */
+  public Entity getEntityAt( int index ) {
+    return tiles[ index ].getOccupyingEntity();
+  }
+
+  /**
+   * Set the entity at a given tile index.
+   *
+   * @param index  the index of the tile
+   * @param entity  the entity to place, or null to clear the tile
+   */
+  public void setEntityAt( int index, Entity entity ) {
+    Tile tile = tiles[ index ];
+
+    if ( stateHash != null ) {
+      stateHash.toggle( StateHash.occupancyKey( index, tile.getOccupyingEntity() )
+          ^ StateHash.occupancyKey( index, entity ) );
+    }
+
+    occupancy.update( index, tile.getOccupyingEntity(), entity );
+    tile.setOccupyingEntity( entity );
+    distanceFields.tileChanged( index );
+  }
+
+  /**
+   * Move the entity from one tile index to another, leaving the original tile empty.
+   *
+   * @param fromIndex  the index of the tile the entity is on
+   * @param toIndex  the index of the tile the entity is moving to
+   */
+  public void moveEntity( int fromIndex, int toIndex ) {
+    Entity entity = tiles[ fromIndex ].getOccupyingEntity();
+
+    setEntityAt( toIndex, entity );
+    setEntityAt( fromIndex, null );
+  }
+
+  /**
+   * Get the bitboards of the tiles each player's characters are on, kept up to date as entities are set and moved.
+   *
+   * @return the bitboards
+   */
+  public OccupancyBitboards getOccupancy() {
+    return occupancy;
+  }
+
+  /**
+   * Set the terrain of a tile, replacing its tile with one of the given terrain.  The entity and effects on the tile
+   * stay on it.
+   *
+   * @param index  the index of the tile
+   * @param terrain  the terrain effects of the tile, none for a plain tile
+   */
+  public void setTerrain( int index, TerrainEffect... terrain ) {
+    setTile( index, terrain.length == 0 ? new PlainTile() : new TerrainTile( terrain ) );
+  }
+
+  /**
+   * Helper method to replace a tile, carrying over its entity and effects.
+   */
+  private void setTile( int index, Tile tile ) {
+    Tile oldTile = tiles[ index ];
+    tile.setOccupyingEntity( oldTile.getOccupyingEntity() );
+    tile.setEffects( oldTile.getEffects() );
+
+    tiles[ index ] = tile;
+    terrainTileCount -= moveCosts[ index ] != 1 ? 1 : 0;
+    moveCosts[ index ] = tile.getMoveCost();
+    terrainTileCount += moveCosts[ index ] != 1 ? 1 : 0;
+    distanceFields.tileChanged( index );
+  }
+
+  /**
+   * Give every tile the terrain of the same tile of another board of the same size.  Entities and effects are not
+   * copied.
+   *
+   * @param other  the board to copy the terrain of
+   */
+  public void copyTerrain( Board other ) {
+    if ( other.rows != rows || other.columns != columns ) {
+      throw new IllegalArgumentException( "Boards of " + other.rows + "x" + other.columns + " and " + rows + "x"
+          + columns + " differ in size" );
+    }
+
+    for ( int index = 0; index < tiles.length; index++ ) {
+      List< Effect > terrain = other.tiles[ index ].getTerrainEffects();
+      if ( !terrain.equals( tiles[ index ].getTerrainEffects() ) ) {
+        setTile( index, terrain.isEmpty() ? new PlainTile() : new TerrainTile( terrain ) );
+      }
+    }
+  }
+
+  /**
+   * Get the terrain effects of a tile.
+   *
+   * @param index  the index of the tile
+   * @return the terrain effects, empty for a plain tile
+   */
+  public List< Effect > getTerrainEffects( int index ) {
+    return tiles[ index ].getTerrainEffects();
+  }
+
+  /**
+   * Get the move points it costs to step onto a tile.
+   *
+   * @param index  the index of the tile
+   * @return the cost, at least 1, or TerrainEffect.IMPASSABLE if the tile can not be stepped onto
+   */
+  public int getMoveCost( int index ) {
+    return moveCosts[ index ];
+  }
+
+  /**
+   * Get whether every tile costs 1 to step onto, so moving is counted in steps.
+   */
+  public boolean hasUniformMoveCost() {
+    return terrainTileCount == 0;
+  }
+
+  /**
+   * Get the cache of the tiles each mover can reach, kept valid as entities move and terrain changes.
+   *
+   * @return the cache
+   */
+  public DistanceFieldCache getDistanceFields() {
+    return distanceFields;
+  }
+
+  /**
+   * Find the occupied tiles within a Manhattan distance of a tile, the diamond around it clipped to the board.  Only
+   * the tiles of the diamond are visited, so the cost follows the radius and not the size of the board.
+   *
+   * @param centerIndex  the index of the tile at the center of the diamond
+   * @param radius  the largest distance from the center, 0 for the center alone
+   * @param out  the buffer to write the tile indexes into, in increasing order
+   * @return the number of occupied tiles.  If this is larger than the buffer only the first out.length were written
+   */
+  public int findEntitiesInDiamond( int centerIndex, int radius, int[] out ) {
+    int centerX = getX( centerIndex );
+    int centerY = getY( centerIndex );
+    int count = 0;
+
+    for ( int x = Math.max( 0, centerX - radius ); x <= Math.min( columns - 1, centerX + radius ); x++ ) {
+      int span = radius - Math.abs( x - centerX );
+      int first = x * rows + Math.max( 0, centerY - span );
+      int last = x * rows + Math.min( rows - 1, centerY + span );
+      for ( int index = first; index <= last; index++ ) {
+        if ( tiles[ index ].getOccupyingEntity() != null ) {
+          count = addIndex( out, count, index );
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the occupied tiles on a straight line from a tile, not including the tile itself.  The line stops at the
+   * edge of the board.
+   *
+   * @param originIndex  the index of the tile the line starts from
+   * @param stepX  the x step from one tile of the line to the next
+   * @param stepY  the y step from one tile of the line to the next
+   * @param length  the number of tiles of the line
+   * @param out  the buffer to write the tile indexes into, nearest first
+   * @return the number of occupied tiles.  If this is larger than the buffer only the first out.length were written
+   */
+  public int findEntitiesInLine( int originIndex, int stepX, int stepY, int length, int[] out ) {
+    int x = getX( originIndex );
+    int y = getY( originIndex );
+    int count = 0;
+
+    for ( int step = 1; step <= length; step++ ) {
+      int index = getIndex( x + step * stepX, y + step * stepY );
+      if ( index < 0 ) {
+        break;
+      }
+      if ( tiles[ index ].getOccupyingEntity() != null ) {
+        count = addIndex( out, count, index );
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Find the occupied tiles in a cone from a tile, not including the tile itself.  The cone widens by a tile on each
+   * side with each step away from the origin: the tiles k steps away are those up to k - 1 to either side.
+   *
+   * @param originIndex  the index of the tile at the point of the cone
+   * @param stepX  the x of the direction of the cone, -1, 0 or 1
+   * @param stepY  the y of the direction of the cone, -1, 0 or 1, with exactly one of stepX and stepY not 0
+   * @param length  the number of steps of the cone
+   * @param out  the buffer to write the tile indexes into, nearest first
+   * @return the number of occupied tiles.  If this is larger than the buffer only the first out.length were written
+   * @throws IllegalArgumentException if the direction is not one of the four straight ones
+   */
+  public int findEntitiesInCone( int originIndex, int stepX, int stepY, int length, int[] out ) {
+    if ( Math.abs( stepX ) + Math.abs( stepY ) != 1 ) {
+      throw new IllegalArgumentException( "Cone direction " + stepX + "," + stepY + " is not straight" );
+    }
+
+    int x = getX( originIndex );
+    int y = getY( originIndex );
+    int count = 0;
+
+    for ( int step = 1; step <= length; step++ ) {
+      int rowX = x + step * stepX;
+      int rowY = y + step * stepY;
+      if ( getIndex( rowX, rowY ) < 0 ) {
+        break;
+      }
+
+      // The cross row of the cone runs along the other axis
+      for ( int side = 1 - step; side < step; side++ ) {
+        int index = getIndex( rowX + side * stepY, rowY + side * stepX );
+        if ( index >= 0 && tiles[ index ].getOccupyingEntity() != null ) {
+          count = addIndex( out, count, index );
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Helper method to write a tile index into a buffer if there is room left.
+   */
+  private static int addIndex( int[] out, int count, int index ) {
+    if ( count < out.length ) {
+      out[ count ] = index;
+    }
+    return count + 1;
+  }
+
+  /**
+   * Place an effect on a tile.  Effects must be placed and removed through the board, not through the tile's effect
+   * list, so the board can find them at the end of a turn.
+   *
+   * @param index  the index of the tile
+   * @param effect  the effect to place
+   */
+  public void addEffect( int index, Effect effect ) {
+    effects.add( index, effect );
+  }
+
+  /**
+   * Remove an effect from a tile.
+   *
+   * @param index  the index of the tile
+   * @param effect  the effect to remove
+   * @return true if the effect was on the tile
+   */
+  public boolean removeEffect( int index, Effect effect ) {
+    return effects.remove( index, effect );
+  }
+
+  /**
+   * Place a copy of every effect of another board of the same size on the same tiles, in the order they were placed
+   * there, see {@link Effect#copy()}.
+   *
+   * @param other  the board to copy the effects of
+   */
+  public void copyEffects( Board other ) {
+    if ( other.rows != rows || other.columns != columns ) {
+      throw new IllegalArgumentException( "Boards of " + other.rows + "x" + other.columns + " and " + rows + "x"
+          + columns + " differ in size" );
+    }
+    effects.copy( other.effects );
+  }
+
+  /**
+   * Get the effects on a tile, not including its terrain effects.  The list must not be changed, use addEffect and
+   * removeEffect.
+   *
+   * @param index  the index of the tile
+   * @return the effects, in the order they were placed
+   */
+  public List< Effect > getEffects( int index ) {
+    return tiles[ index ].getEffects();
+  }
+
+  /**
+   * Get the number of effects on the board.
+   */
+  public int getEffectCount() {
+    return effects.size();
+  }
+
+  /**
+   * Get an effect on the board by its place in the order effects were placed.
+   *
+   * @param position  the position, below {@link #getEffectCount()}
+   * @return the effect
+   */
+  public Effect getEffect( int position ) {
+    return effects.get( position );
+  }
+
+  /**
+   * Get the tile index of an effect on the board.
+   *
+   * @param position  the position of the effect, below {@link #getEffectCount()}
+   * @return the index of the tile it is on
+   */
+  public int getEffectTileIndex( int position ) {
+    return effects.getTileIndex( position );
+  }
+
+  /**
+   * Run the end of turn action of every effect on the board, in the order they were placed, moving or removing each
+   * as its action says.  Only the tiles with effects are visited.
+   */
+  public void runEndTurnEffects() {
+    effects.endTurn();
   }
 
 }
@@ -0,0 +1,132 @@
+package axk9084.ProjectCola.model.board;
+
+/**
+ * A numeric (x, y) position on the board.  x is the zero based column and y is the zero based row, so the tile with
+ * column key 'a' and row key 1 is at (0, 0).
+ *
+ * The board and engine accept plain int x and y values on their hot paths so lookups never allocate.  This class is
+ * used at the edges, such as parsing player input, and holds the conversions to and from the column/row key form.
+ *
+ * Created by antkwan on 7/2/2016.
+ */
+public final class Coordinate {
+
+  private final static int ASCII_a = (int) 'a';
+
+  // Number of alphabetical column keys that can be written as a single letter
+  private final static int LETTER_COLUMNS = 26;
+
+  private final int x;
+  private final int y;
+
+  public Coordinate( int x, int y ) {
+    this.x = x;
+    this.y = y;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  /**
+   * Convert a column key to an x value.
+   *
+   * @param column  the column key
+   * @return the x value
+   */
+  public static int toX( char column ) {
+    return column - ASCII_a;
+  }
+
+  /**
+   * Convert a row key to a y value.
+   *
+   * @param row  the row key
+   * @return the y value
+   */
+  public static int toY( int row ) {
+    return row - 1;
+  }
+
+  /**
+   * Convert an x value to a column key.
+   *
+   * @param x  the x value
+   * @return the column key
+   */
+  public static char toColumnKey( int x ) {
+    return (char) ( ASCII_a + x );
+  }
+
+  /**
+   * Convert a y value to a row key.
+   *
+   * @param y  the y value
+   * @return the row key
+   */
+  public static int toRowKey( int y ) {
+    return y + 1;
+  }
+
+  /**
+   * Format a position for display.  Positions that fit the column/row key form are written as such, for example "c2".
+   * Columns beyond 'z' are written in numeric form as "x,y".
+   *
+   * @param x  the x value
+   * @param y  the y value
+   * @return the formatted position
+   */
+  public static String format( int x, int y ) {
+    if ( x >= 0 && x < LETTER_COLUMNS ) {
+      return String.valueOf( toColumnKey( x ) ) + toRowKey( y );
+    }
+    return x + "," + y;
+  }
+
+  /**
+   * Parse a position written either in column/row key form, such as "c2" or "b12", or in numeric form "x,y".
+   *
+   * @param input  the string to parse
+   * @return the parsed coordinate, else null if the string is not a valid position
+   */
+  public static Coordinate parse( String input ) {
+    if ( input == null ) {
+      return null;
+    }
+
+    if ( input.matches( "^[a-z]\\d{1,9}$" ) ) {
+      return new Coordinate( toX( input.charAt( 0 ) ), toY( Integer.parseInt( input.substring( 1 ) ) ) );
+    }
+
+    if ( input.matches( "^\\d{1,9},\\d{1,9}$" ) ) {
+      int comma = input.indexOf( ',' );
+      return new Coordinate( Integer.parseInt( input.substring( 0, comma ) ),
+          Integer.parseInt( input.substring( comma + 1 ) ) );
+    }
+
+    return null;
+  }
+
+  public boolean equals( Object o ) {
+    if ( this == o ) {
+      return true;
+    }
+    if ( !( o instanceof Coordinate ) ) {
+      return false;
+    }
+    Coordinate other = (Coordinate) o;
+    return x == other.x && y == other.y;
+  }
+
+  public int hashCode() {
+    return 31 * x + y;
+  }
+
+  public String toString() {
+    return format( x, y );
+  }
+}
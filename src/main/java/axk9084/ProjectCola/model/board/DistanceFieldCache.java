@@ -0,0 +1,152 @@
+package axk9084.ProjectCola.model.board;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Caches the tiles each mover can reach, so asking again for a mover that has not moved costs a lookup instead of a
+ * search.  Movers are given by a small id, such as a character's id in its store.
+ *
+ * A mover's field is searched from its tile with its move points and kept until a tile it could depend on changes.
+ * Every step costs at least 1, so a search only looks at tiles within its move points of its start.  A change of the
+ * occupant or terrain of a tile further away than that cannot change the field, so the board only drops the fields of
+ * movers near the change.  A field is searched again when it has been dropped or the mover asks from another tile or
+ * with other move points.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class DistanceFieldCache {
+
+  private final Board board;
+
+  // The search, created the first time a field is computed
+  private ReachabilitySearch search = null;
+
+  // For each mover id: the tile, its x and y, and the move points its field was searched with, whether it is still
+  // valid, and the field
+  private int[] startIndexes = new int[ 0 ];
+  private int[] startXs = new int[ 0 ];
+  private int[] startYs = new int[ 0 ];
+  private int[] movePoints = new int[ 0 ];
+  private boolean[] valid = new boolean[ 0 ];
+  private BitSet[] fields = new BitSet[ 0 ];
+
+  // The ids of the movers with a valid field, so a change only looks at those
+  private int[] validIds = new int[ 8 ];
+  private int validCount = 0;
+
+  DistanceFieldCache( Board board ) {
+    this.board = board;
+  }
+
+  /**
+   * Get the tiles a mover can reach, see {@link ReachabilitySearch#search(int, int)}.
+   *
+   * The returned BitSet is owned by this cache and changes when the mover's field is searched again, copy it if it
+   * needs to be kept.
+   *
+   * @param moverId  the id of the mover, from 0
+   * @param startIndex  the index of the tile the mover is on
+   * @param points  the move points the mover can spend
+   * @return the set of reachable tile indexes
+   */
+  public BitSet getReachableTiles( int moverId, int startIndex, int points ) {
+    if ( moverId >= valid.length ) {
+      grow( moverId + 1 );
+    }
+
+    if ( valid[ moverId ] && startIndexes[ moverId ] == startIndex && movePoints[ moverId ] == points ) {
+      return fields[ moverId ];
+    }
+
+    if ( search == null ) {
+      search = new ReachabilitySearch( board );
+    }
+    BitSet field = fields[ moverId ];
+    if ( field == null ) {
+      field = new BitSet( board.getTileCount() );
+      fields[ moverId ] = field;
+    }
+    search.search( startIndex, points, field );
+
+    startIndexes[ moverId ] = startIndex;
+    startXs[ moverId ] = board.getX( startIndex );
+    startYs[ moverId ] = board.getY( startIndex );
+    movePoints[ moverId ] = points;
+    if ( !valid[ moverId ] ) {
+      valid[ moverId ] = true;
+      if ( validCount == validIds.length ) {
+        validIds = Arrays.copyOf( validIds, validCount * 2 );
+      }
+      validIds[ validCount++ ] = moverId;
+    }
+    return field;
+  }
+
+  /**
+   * Get the tiles a mover can reach on a board of up to 64 tiles, as a bitboard, see
+   * {@link ReachabilitySearch#searchMask(int, int)}.  Without terrain the search is a few shifts per move point, less
+   * work than keeping a cached field valid, so it is not cached.  With terrain the cached field is read into the
+   * bitboard.
+   *
+   * @param moverId  the id of the mover, from 0
+   * @param startIndex  the index of the tile the mover is on
+   * @param points  the move points the mover can spend
+   * @return the bitboard of the reachable tiles
+   * @throws IllegalStateException if the board has more than 64 tiles
+   */
+  public long getReachableMask( int moverId, int startIndex, int points ) {
+    if ( search == null ) {
+      search = new ReachabilitySearch( board );
+    }
+    if ( board.hasUniformMoveCost() ) {
+      return search.searchMask( startIndex, points );
+    }
+    if ( !board.getOccupancy().isSingleWord() ) {
+      throw new IllegalStateException( "A board of " + board.getTileCount() + " tiles does not fit in one word" );
+    }
+    return ReachabilitySearch.toMask( getReachableTiles( moverId, startIndex, points ) );
+  }
+
+  /**
+   * Helper method for the board to drop the fields a change to a tile's occupant or terrain could change: those of
+   * the movers within their move points of the tile.
+   *
+   * @param index  the index of the tile that changed
+   */
+  void tileChanged( int index ) {
+    if ( validCount == 0 ) {
+      return;
+    }
+
+    int x = board.getX( index );
+    int y = board.getY( index );
+    for ( int i = 0; i < validCount; i++ ) {
+      int id = validIds[ i ];
+      if ( Math.abs( startXs[ id ] - x ) + Math.abs( startYs[ id ] - y ) <= movePoints[ id ] ) {
+        valid[ id ] = false;
+        validIds[ i-- ] = validIds[ --validCount ];
+      }
+    }
+  }
+
+  /**
+   * Drop every field, so each is searched again the next time it is asked for.
+   */
+  public void invalidateAll() {
+    for ( int i = 0; i < validCount; i++ ) {
+      valid[ validIds[ i ] ] = false;
+    }
+    validCount = 0;
+  }
+
+  private void grow( int minCapacity ) {
+    int capacity = Math.max( minCapacity, valid.length * 2 );
+    startIndexes = Arrays.copyOf( startIndexes, capacity );
+    startXs = Arrays.copyOf( startXs, capacity );
+    startYs = Arrays.copyOf( startYs, capacity );
+    movePoints = Arrays.copyOf( movePoints, capacity );
+    valid = Arrays.copyOf( valid, capacity );
+    fields = Arrays.copyOf( fields, capacity );
+  }
+}
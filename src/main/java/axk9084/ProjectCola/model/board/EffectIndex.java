@@ -0,0 +1,182 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.tile.Tile;
+
+import java.util.Arrays;
+
+/**
+ * The index of the effects on a board and the tiles they are on, which runs their end of turn actions.
+ *
+ * Effects are kept in the order they were placed on the board, and that is the order they act in each turn.  Ending
+ * a turn only visits the placed effects, so it costs the same on a 512x512 board as on a 6x6 one.  An effect that
+ * moves keeps its place in the order, and is not run again that turn from the tile it moved to.  Effects placed
+ * during a turn's actions first act the turn after; effects removed during them do not act if they have not yet.
+ *
+ * The tiles' effect lists are kept in step with the index, they are what {@link Board#getEffects(int)} returns.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+class EffectIndex {
+
+  private static final Effect[] NO_EFFECTS = new Effect[ 0 ];
+  private static final int[] NO_TILES = new int[ 0 ];
+
+  private final Board board;
+  private final Tile[] tiles;
+
+  // Placed effects in order and the tile index of each, nulls are effects removed during endTurn
+  private Effect[] effects = NO_EFFECTS;
+  private int[] tileIndexes = NO_TILES;
+  private int size = 0;
+
+  // Whether endTurn is running, during which removed effects are nulled rather than shifted out
+  private boolean running = false;
+
+  EffectIndex( Board board, Tile[] tiles ) {
+    this.board = board;
+    this.tiles = tiles;
+  }
+
+  void add( int tileIndex, Effect effect ) {
+    if ( size == effects.length ) {
+      int capacity = Math.max( 16, size * 2 );
+      effects = Arrays.copyOf( effects, capacity );
+      tileIndexes = Arrays.copyOf( tileIndexes, capacity );
+    }
+    effects[ size ] = effect;
+    tileIndexes[ size ] = tileIndex;
+    size++;
+
+    tiles[ tileIndex ].getEffects().add( effect );
+  }
+
+  boolean remove( int tileIndex, Effect effect ) {
+    int position = find( tileIndex, effect );
+    if ( position < 0 ) {
+      return false;
+    }
+
+    tiles[ tileIndex ].getEffects().remove( effect );
+    if ( running ) {
+      effects[ position ] = null;
+    }
+    else {
+      System.arraycopy( effects, position + 1, effects, position, size - position - 1 );
+      System.arraycopy( tileIndexes, position + 1, tileIndexes, position, size - position - 1 );
+      effects[ --size ] = null;
+    }
+    return true;
+  }
+
+  /**
+   * Get a placed effect.  Outside endTurn the effects are kept without gaps, so every position below size is one.
+   *
+   * @param position  the position of the effect in the order they were placed
+   */
+  Effect get( int position ) {
+    return effects[ position ];
+  }
+
+  /**
+   * Get the tile index of a placed effect.
+   *
+   * @param position  the position of the effect in the order they were placed
+   */
+  int getTileIndex( int position ) {
+    return tileIndexes[ position ];
+  }
+
+  /**
+   * Place a copy of every effect of another index on the same tiles, in the same order.
+   */
+  void copy( EffectIndex other ) {
+    for ( int i = 0; i < other.size; i++ ) {
+      if ( other.effects[ i ] != null ) {
+        add( other.tileIndexes[ i ], other.effects[ i ].copy() );
+      }
+    }
+  }
+
+  /**
+   * Helper method to find the position of an effect on a tile, -1 if it is not there.
+   */
+  private int find( int tileIndex, Effect effect ) {
+    for ( int i = 0; i < size; i++ ) {
+      if ( effects[ i ] == effect && tileIndexes[ i ] == tileIndex ) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Get the number of effects on the board.
+   */
+  int size() {
+    int count = 0;
+    for ( int i = 0; i < size; i++ ) {
+      if ( effects[ i ] != null ) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Run the end of turn action of every effect, in the order they were placed, and move or remove each as its action
+   * says.
+   */
+  void endTurn() {
+    running = true;
+    try {
+      int count = size;
+      for ( int i = 0; i < count; i++ ) {
+        Effect effect = effects[ i ];
+        if ( effect == null ) {
+          continue;
+        }
+
+        int tileIndex = tileIndexes[ i ];
+        int nextIndex = effect.endTurnAction( board, tileIndex );
+
+        // The action may have removed its own effect
+        if ( effects[ i ] != effect || nextIndex == tileIndex ) {
+          continue;
+        }
+        if ( nextIndex != Effect.EXPIRED && ( nextIndex < 0 || nextIndex >= tiles.length ) ) {
+          throw new IllegalStateException( "Effect " + effect + " moved to tile " + nextIndex + " off the board" );
+        }
+
+        tiles[ tileIndex ].getEffects().remove( effect );
+        if ( nextIndex == Effect.EXPIRED ) {
+          effects[ i ] = null;
+        }
+        else {
+          tiles[ nextIndex ].getEffects().add( effect );
+          tileIndexes[ i ] = nextIndex;
+        }
+      }
+    }
+    finally {
+      running = false;
+      compact();
+    }
+  }
+
+  /**
+   * Helper method to close the gaps left by effects removed during endTurn, keeping the order of the rest.
+   */
+  private void compact() {
+    int live = 0;
+    for ( int i = 0; i < size; i++ ) {
+      if ( effects[ i ] != null ) {
+        effects[ live ] = effects[ i ];
+        tileIndexes[ live ] = tileIndexes[ i ];
+        live++;
+      }
+    }
+    Arrays.fill( effects, live, size, null );
+    size = live;
+  }
+}
@@ -0,0 +1,244 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.chara.Chara;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Bitboards of the tiles each player's characters are on, kept in step with a board's occupancy.  Bit i of a player's
+ * bitboard is set when one of their characters is on the tile with index i, see {@link Board#getIndex(int, int)}.
+ * Entities that are not characters are on the bitboard of player 0.
+ *
+ * Boards of up to 64 tiles, such as the 6x6 default and 8x8, fit each bitboard in a single long.  For those, the
+ * tiles within each distance of each tile are precomputed as masks too, so the tiles of a player within a range of a
+ * tile are {@code getOccupancy( player ) & getRangeMask( index, min, max )}, a few instructions however many
+ * characters there are.  The masks are shared by every board of the same size.
+ *
+ * Larger boards keep each bitboard as an array of longs, and a range is read column by column: the tiles of a column
+ * within range are one or two runs of consecutive indexes, read a word at a time.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class OccupancyBitboards {
+
+  // Players 0, for entities of no player, 1 and 2
+  private static final int PLAYERS = 3;
+
+  // Range masks of the single word board sizes, keyed by rows * 65 + columns
+  private static final ConcurrentMap< Integer, long[] > RANGE_MASKS = new ConcurrentHashMap< Integer, long[] >();
+
+  private final int rows;
+  private final int columns;
+
+  // Words of each bitboard, and the bitboards one after another by player
+  private final int words;
+  private final long[] occupancy;
+
+  // For single word boards, the tiles within each distance 0 to maxDistance of each tile at
+  // index * ( maxDistance + 1 ) + distance, else null
+  private final long[] rangeMasks;
+  private final int maxDistance;
+
+  public OccupancyBitboards( int rows, int columns ) {
+    this.rows = rows;
+    this.columns = columns;
+
+    int tileCount = rows * columns;
+    words = ( tileCount + 63 ) >>> 6;
+    occupancy = new long[ PLAYERS * words ];
+    maxDistance = rows + columns - 2;
+    rangeMasks = words == 1 ? getRangeMasks( rows, columns ) : null;
+  }
+
+  /**
+   * Helper method to get the range masks of a board size, computing them on first use.
+   */
+  private static long[] getRangeMasks( int rows, int columns ) {
+    Integer key = rows * 65 + columns;
+    long[] masks = RANGE_MASKS.get( key );
+    if ( masks == null ) {
+      masks = computeRangeMasks( rows, columns );
+      RANGE_MASKS.putIfAbsent( key, masks );
+    }
+    return masks;
+  }
+
+  private static long[] computeRangeMasks( int rows, int columns ) {
+    int tileCount = rows * columns;
+    int distances = rows + columns - 1;
+    long[] masks = new long[ tileCount * distances ];
+
+    // Set each tile in the ring at its exact distance, then widen the rings into every tile up to each distance
+    for ( int index = 0; index < tileCount; index++ ) {
+      for ( int other = 0; other < tileCount; other++ ) {
+        int distance = Math.abs( index / rows - other / rows ) + Math.abs( index % rows - other % rows );
+        masks[ index * distances + distance ] |= 1L << other;
+      }
+      for ( int distance = 1; distance < distances; distance++ ) {
+        masks[ index * distances + distance ] |= masks[ index * distances + distance - 1 ];
+      }
+    }
+    return masks;
+  }
+
+  /**
+   * Helper method for the board to move a tile's bit from the bitboard of its old occupant to that of its new one.
+   *
+   * @param index  the index of the tile
+   * @param oldEntity  the entity that was on the tile, or null
+   * @param newEntity  the entity now on the tile, or null
+   */
+  void update( int index, Entity oldEntity, Entity newEntity ) {
+    int word = index >>> 6;
+    long bit = 1L << index;
+    if ( oldEntity != null ) {
+      occupancy[ playerOf( oldEntity ) * words + word ] &= ~bit;
+    }
+    if ( newEntity != null ) {
+      occupancy[ playerOf( newEntity ) * words + word ] |= bit;
+    }
+  }
+
+  private static int playerOf( Entity entity ) {
+    return entity instanceof Chara ? ( (Chara) entity ).getPlayer() : 0;
+  }
+
+  /**
+   * Get whether each bitboard fits in a single long, so getOccupancy and getRangeMask can be used.
+   */
+  public boolean isSingleWord() {
+    return words == 1;
+  }
+
+  /**
+   * Get the tiles of a player's characters on a board of up to 64 tiles.
+   *
+   * @param player  the player, or 0 for entities of no player
+   * @return the bitboard
+   * @throws IllegalStateException if the board has more than 64 tiles
+   */
+  public long getOccupancy( int player ) {
+    checkSingleWord();
+    return occupancy[ player ];
+  }
+
+  /**
+   * Get the tiles of every entity, of either player or none, on a board of up to 64 tiles.
+   *
+   * @return the bitboard
+   * @throws IllegalStateException if the board has more than 64 tiles
+   */
+  public long getOccupied() {
+    checkSingleWord();
+    return occupancy[ 0 ] | occupancy[ 1 ] | occupancy[ 2 ];
+  }
+
+  /**
+   * Get the tiles within a range of Manhattan distances of a tile on a board of up to 64 tiles.
+   *
+   * @param index  the index of the tile
+   * @param minRange  the smallest distance
+   * @param maxRange  the largest distance
+   * @return the bitboard of the tiles, 0 if the range is empty
+   * @throws IllegalStateException if the board has more than 64 tiles
+   */
+  public long getRangeMask( int index, int minRange, int maxRange ) {
+    checkSingleWord();
+    if ( maxRange < 0 || maxRange < minRange || minRange > maxDistance ) {
+      return 0;
+    }
+
+    int base = index * ( maxDistance + 1 );
+    long mask = rangeMasks[ base + Math.min( maxRange, maxDistance ) ];
+    if ( minRange > 0 ) {
+      mask &= ~rangeMasks[ base + minRange - 1 ];
+    }
+    return mask;
+  }
+
+  private void checkSingleWord() {
+    if ( words != 1 ) {
+      throw new IllegalStateException( "A board of " + rows + "x" + columns + " does not fit in one word" );
+    }
+  }
+
+  /**
+   * Find the tiles of a player's characters within a range of Manhattan distances of a tile, on a board of any size.
+   * Only the tiles in range are read, a word at a time.
+   *
+   * @param player  the player, or 0 for entities of no player
+   * @param index  the index of the tile
+   * @param minRange  the smallest distance
+   * @param maxRange  the largest distance
+   * @param out  the buffer to write the tile indexes into, in increasing order
+   * @return the number of tiles found.  If this is larger than the buffer only the first out.length were written
+   */
+  public int findInRange( int player, int index, int minRange, int maxRange, int[] out ) {
+    int count = 0;
+    if ( words == 1 ) {
+      long found = occupancy[ player ] & getRangeMask( index, minRange, maxRange );
+      while ( found != 0 ) {
+        count = addIndex( out, count, Long.numberOfTrailingZeros( found ) );
+        found &= found - 1;
+      }
+      return count;
+    }
+
+    int base = player * words;
+    int centerX = index / rows;
+    int centerY = index % rows;
+    for ( int x = Math.max( 0, centerX - maxRange ); x <= Math.min( columns - 1, centerX + maxRange ); x++ ) {
+      int offset = Math.abs( x - centerX );
+      int span = maxRange - offset;
+      int gap = minRange - 1 - offset;
+      int column = x * rows;
+      int first = Math.max( 0, centerY - span );
+      int last = Math.min( rows - 1, centerY + span );
+
+      // Tiles closer than the min range split the column's run in two
+      if ( gap < 0 ) {
+        count = collect( base, column + first, column + last, out, count );
+      }
+      else {
+        count = collect( base, column + first, column + Math.min( last, centerY - gap - 1 ), out, count );
+        count = collect( base, column + Math.max( first, centerY + gap + 1 ), column + last, out, count );
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Helper method to find the set bits of a bitboard between two tile indexes inclusive.
+   */
+  private int collect( int base, int first, int last, int[] out, int count ) {
+    if ( first > last ) {
+      return count;
+    }
+
+    int firstWord = first >>> 6;
+    int lastWord = last >>> 6;
+    for ( int word = firstWord; word <= lastWord; word++ ) {
+      long bits = occupancy[ base + word ];
+      if ( word == firstWord ) {
+        bits &= -1L << first;
+      }
+      if ( word == lastWord ) {
+        bits &= -1L >>> ( 63 - ( last & 63 ) );
+      }
+      while ( bits != 0 ) {
+        count = addIndex( out, count, ( word << 6 ) | Long.numberOfTrailingZeros( bits ) );
+        bits &= bits - 1;
+      }
+    }
+    return count;
+  }
+
+  private static int addIndex( int[] out, int count, int index ) {
+    if ( count < out.length ) {
+      out[ count ] = index;
+    }
+    return count + 1;
+  }
+}
@@ -0,0 +1,338 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.board.terrain.TerrainEffect;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Finds every tile that can be walked to from a starting tile with a number of move points.
+ * A step moves one tile up, down, left or right and costs the move cost of the tile stepped onto, see
+ * {@link Board#getMoveCost(int)}.  Occupied and impassable tiles and the board edges block movement, and a step can
+ * only be taken with enough points left to pay for it.  On a board without terrain every step costs 1 and the points
+ * are the steps.
+ *
+ * The search is Dijkstra's, with the queue kept as one bucket per cost since costs are small whole numbers bounded by
+ * the move points.  On a board where every step costs 1 it is a plain breadth first fill instead.  The buckets, the
+ * costs, the visited marks and the result are kept between searches so a search does not allocate once they have
+ * grown.  Visited marks are stamped with a search generation instead of being
+ * cleared, so the cost of a search depends on the tiles reached rather than the board size.
+ *
+ * Boards of up to 64 tiles can also be searched into a bitboard, see {@link #searchMask(int, int)}.  Without terrain
+ * that is a flood fill of the open tiles a whole step at a time, with a few shifts of a single long per step.
+ *
+ * Created by antkwan on 7/3/2016.
+ */
+public class ReachabilitySearch {
+
+  // End of a bucket's list of entries
+  private static final int NONE = -1;
+
+  private final Board board;
+
+  // The least cost found to each tile this search
+  private final int[] costs;
+
+  // The generation of the search that last visited each tile
+  private final int[] visited;
+  private int generation = 0;
+
+  // The first queued entry of each cost, and each entry's tile and the next entry of the same cost
+  private int[] buckets = new int[ 2 ];
+  private int[] entryTiles = new int[ 64 ];
+  private int[] entryNext = new int[ 64 ];
+  private int entryCount = 0;
+
+  // The search's own result set, and the set the running or most recent search writes into
+  private final BitSet ownReachable;
+  private BitSet reachable;
+
+  // For boards of up to 64 tiles: every tile, and the tiles not in the first and not in the last row, else 0
+  private final long boardMask;
+  private final long notFirstRowMask;
+  private final long notLastRowMask;
+
+  public ReachabilitySearch( Board board ) {
+    this.board = board;
+
+    int tileCount = board.getTileCount();
+    costs = new int[ tileCount ];
+    visited = new int[ tileCount ];
+    ownReachable = new BitSet( tileCount );
+    reachable = ownReachable;
+
+    long notFirstRow = 0;
+    long notLastRow = 0;
+    if ( tileCount <= 64 ) {
+      int rows = board.getRows();
+      for ( int index = 0; index < tileCount; index++ ) {
+        notFirstRow |= index % rows != 0 ? 1L << index : 0;
+        notLastRow |= index % rows != rows - 1 ? 1L << index : 0;
+      }
+    }
+    boardMask = tileCount <= 64 ? -1L >>> ( 64 - tileCount ) : 0;
+    notFirstRowMask = notFirstRow;
+    notLastRowMask = notLastRow;
+  }
+
+  /**
+   * Find the tiles reachable from a tile.  The starting tile itself is never part of the result.
+   *
+   * The returned BitSet is owned by this search and is overwritten by the next call, copy it if it needs to be kept.
+   *
+   * @param startIndex  the index of the tile to start from
+   * @param movePoints  the move points that can be spent
+   * @return the set of reachable tile indexes
+   */
+  public BitSet search( int startIndex, int movePoints ) {
+    return search( startIndex, movePoints, ownReachable );
+  }
+
+  /**
+   * Find the tiles reachable from a tile, writing them into a given set instead of the search's own.
+   *
+   * @param startIndex  the index of the tile to start from
+   * @param movePoints  the move points that can be spent
+   * @param result  the set to clear and write the reachable tile indexes into
+   * @return the result set
+   */
+  BitSet search( int startIndex, int movePoints, BitSet result ) {
+    reachable = result;
+    reachable.clear();
+
+    if ( startIndex < 0 || movePoints < 1 ) {
+      return reachable;
+    }
+
+    nextGeneration();
+
+    if ( board.hasUniformMoveCost() ) {
+      searchSteps( startIndex, movePoints );
+      return reachable;
+    }
+
+    if ( buckets.length <= movePoints ) {
+      buckets = new int[ movePoints + 1 ];
+    }
+    Arrays.fill( buckets, 0, movePoints + 1, NONE );
+    entryCount = 0;
+
+    int rows = board.getRows();
+    int tileCount = board.getTileCount();
+
+    visited[ startIndex ] = generation;
+    costs[ startIndex ] = 0;
+    push( startIndex, 0 );
+
+    // Tiles reached with every point spent are not expanded
+    for ( int cost = 0; cost < movePoints; cost++ ) {
+      while ( buckets[ cost ] != NONE ) {
+        int entry = buckets[ cost ];
+        buckets[ cost ] = entryNext[ entry ];
+
+        int index = entryTiles[ entry ];
+        if ( costs[ index ] != cost ) {
+          // Queued again at a lower cost, which was expanded already
+          continue;
+        }
+
+        int y = index % rows;
+
+        // Down and up stay in the same column, left and right move a whole column
+        if ( y > 0 ) {
+          visit( index - 1, cost, movePoints );
+        }
+        if ( y < rows - 1 ) {
+          visit( index + 1, cost, movePoints );
+        }
+        if ( index - rows >= 0 ) {
+          visit( index - rows, cost, movePoints );
+        }
+        if ( index + rows < tileCount ) {
+          visit( index + rows, cost, movePoints );
+        }
+      }
+    }
+
+    return reachable;
+  }
+
+  /**
+   * Find the tiles reachable from a tile on a board of up to 64 tiles, as a bitboard: bit i is set when the tile with
+   * index i is reachable, as in {@link OccupancyBitboards}.  The tiles are those {@link #search(int, int)} finds.
+   *
+   * @param startIndex  the index of the tile to start from
+   * @param movePoints  the move points that can be spent
+   * @return the bitboard of the reachable tiles
+   * @throws IllegalStateException if the board has more than 64 tiles
+   */
+  public long searchMask( int startIndex, int movePoints ) {
+    if ( boardMask == 0 ) {
+      throw new IllegalStateException( "A board of " + board.getTileCount() + " tiles does not fit in one word" );
+    }
+    if ( startIndex < 0 || movePoints < 1 ) {
+      return 0;
+    }
+
+    if ( !board.hasUniformMoveCost() ) {
+      return toMask( search( startIndex, movePoints ) );
+    }
+
+    // Each step reaches the open neighbours of the tiles the last step reached.  Down and up shift by one within a
+    // column, left and right by a whole column.  A single column board has no columns to shift into
+    int rows = board.getRows();
+    boolean columns = board.getColumns() > 1;
+    long open = ~board.getOccupancy().getOccupied() & boardMask;
+    long start = 1L << startIndex;
+    long reached = start;
+    long frontier = start;
+    for ( int step = 0; step < movePoints && frontier != 0; step++ ) {
+      long next = ( frontier << 1 ) & notFirstRowMask | ( frontier >>> 1 ) & notLastRowMask;
+      if ( columns ) {
+        next |= frontier << rows | frontier >>> rows;
+      }
+      frontier = next & open & ~reached;
+      reached |= frontier;
+    }
+    return reached & ~start;
+  }
+
+  /**
+   * Helper method to read a set of the tiles of a board of up to 64 tiles into a bitboard.
+   */
+  static long toMask( BitSet tiles ) {
+    long mask = 0;
+    for ( int index = tiles.nextSetBit( 0 ); index >= 0; index = tiles.nextSetBit( index + 1 ) ) {
+      mask |= 1L << index;
+    }
+    return mask;
+  }
+
+  /**
+   * Helper method to search a board where every step costs 1, breadth first.  The entries are the queue, and the
+   * cost of each tile is the steps taken to reach it.
+   */
+  private void searchSteps( int startIndex, int maxSteps ) {
+    int rows = board.getRows();
+    int tileCount = board.getTileCount();
+
+    visited[ startIndex ] = generation;
+    costs[ startIndex ] = 0;
+    entryTiles[ 0 ] = startIndex;
+    entryCount = 1;
+
+    for ( int head = 0; head < entryCount; head++ ) {
+      int index = entryTiles[ head ];
+      int nextSteps = costs[ index ] + 1;
+
+      if ( nextSteps > maxSteps ) {
+        continue;
+      }
+
+      int y = index % rows;
+
+      // Down and up stay in the same column, left and right move a whole column
+      if ( y > 0 ) {
+        step( index - 1, nextSteps );
+      }
+      if ( y < rows - 1 ) {
+        step( index + 1, nextSteps );
+      }
+      if ( index - rows >= 0 ) {
+        step( index - rows, nextSteps );
+      }
+      if ( index + rows < tileCount ) {
+        step( index + rows, nextSteps );
+      }
+    }
+  }
+
+  /**
+   * Helper method to mark a neighbouring tile and queue it if it is empty and has not been visited this search.
+   */
+  private void step( int index, int stepCount ) {
+    if ( visited[ index ] == generation ) {
+      return;
+    }
+    visited[ index ] = generation;
+
+    if ( board.getEntityAt( index ) != null ) {
+      return;
+    }
+
+    costs[ index ] = stepCount;
+    reachable.set( index );
+    if ( entryCount == entryTiles.length ) {
+      entryTiles = Arrays.copyOf( entryTiles, entryCount * 2 );
+      entryNext = Arrays.copyOf( entryNext, entryCount * 2 );
+    }
+    entryTiles[ entryCount++ ] = index;
+  }
+
+  /**
+   * Helper method to step onto a neighbouring tile and queue it if it is open and this is the cheapest way there yet.
+   *
+   * @param index  the index of the neighbouring tile
+   * @param cost  the cost of reaching the tile the step is from
+   * @param movePoints  the move points that can be spent
+   */
+  private void visit( int index, int cost, int movePoints ) {
+    int moveCost = board.getMoveCost( index );
+    if ( moveCost == TerrainEffect.IMPASSABLE || board.getEntityAt( index ) != null ) {
+      return;
+    }
+
+    if ( moveCost > movePoints - cost ) {
+      return;
+    }
+
+    int nextCost = cost + moveCost;
+    if ( visited[ index ] == generation ) {
+      if ( costs[ index ] <= nextCost ) {
+        return;
+      }
+    }
+    else {
+      visited[ index ] = generation;
+      reachable.set( index );
+    }
+
+    costs[ index ] = nextCost;
+    push( index, nextCost );
+  }
+
+  /**
+   * Helper method to queue a tile in the bucket of its cost.
+   */
+  private void push( int index, int cost ) {
+    if ( entryCount == entryTiles.length ) {
+      entryTiles = Arrays.copyOf( entryTiles, entryCount * 2 );
+      entryNext = Arrays.copyOf( entryNext, entryCount * 2 );
+    }
+    entryTiles[ entryCount ] = index;
+    entryNext[ entryCount ] = buckets[ cost ];
+    buckets[ cost ] = entryCount++;
+  }
+
+  /**
+   * Get the move points it costs to reach a tile, for a tile the most recent search reached.  A bitboard search on a
+   * board without terrain records no costs.
+   *
+   * @param index  the index of the tile
+   * @return the cost, or -1 if the tile was not reached
+   */
+  public int getCost( int index ) {
+    return reachable.get( index ) ? costs[ index ] : -1;
+  }
+
+  /**
+   * Helper method to advance the search generation, resetting the visited marks when the counter wraps.
+   */
+  private void nextGeneration() {
+    generation++;
+    if ( generation == Integer.MAX_VALUE ) {
+      Arrays.fill( visited, 0 );
+      generation = 1;
+    }
+  }
+}
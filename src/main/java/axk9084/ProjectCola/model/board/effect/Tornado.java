@@ -0,0 +1,70 @@
+package axk9084.ProjectCola.model.board.effect;
+
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.Board;
+
+/**
+ * A tornado that travels across the board, one tile a turn in a straight line, turning back at the board edges.
+ * It dies down after a number of turns.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class Tornado implements Effect {
+
+  private int stepX;
+  private int stepY;
+  private int turnsRemaining;
+
+  /**
+   * @param stepX  the tiles the tornado travels along x each turn, -1, 0 or 1
+   * @param stepY  the tiles the tornado travels along y each turn, -1, 0 or 1
+   * @param turns  the number of turns it travels before dying down
+   */
+  public Tornado( int stepX, int stepY, int turns ) {
+    this.stepX = stepX;
+    this.stepY = stepY;
+    this.turnsRemaining = turns;
+  }
+
+  public int getStepX() {
+    return stepX;
+  }
+
+  public int getStepY() {
+    return stepY;
+  }
+
+  public int getTurnsRemaining() {
+    return turnsRemaining;
+  }
+
+  /**
+   * Copy the tornado as far into its travel as it is.
+   */
+  public Effect copy() {
+    return new Tornado( stepX, stepY, turnsRemaining );
+  }
+
+  /**
+   * Travel one tile, or die down if the tornado's turns are up.
+   */
+  public int endTurnAction( Board board, int tileIndex ) {
+    if ( turnsRemaining <= 0 ) {
+      return EXPIRED;
+    }
+    turnsRemaining--;
+
+    int x = board.getX( tileIndex );
+    int y = board.getY( tileIndex );
+    if ( board.getIndex( x + stepX, y ) < 0 ) {
+      stepX = -stepX;
+    }
+    if ( board.getIndex( x, y + stepY ) < 0 ) {
+      stepY = -stepY;
+    }
+
+    // A board one tile wide or tall turns the tornado back onto the edge, where it stays
+    int nextIndex = board.getIndex( x + stepX, y + stepY );
+    return nextIndex < 0 ? tileIndex : nextIndex;
+  }
+}
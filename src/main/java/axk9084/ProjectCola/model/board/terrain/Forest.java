@@ -0,0 +1,14 @@
+package axk9084.ProjectCola.model.board.terrain;
+
+/**
+ * A forest, which slows movement: stepping onto it costs 2 move points.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class Forest extends TerrainEffect {
+
+  @Override
+  public int getExtraMoveCost() {
+    return 1;
+  }
+}
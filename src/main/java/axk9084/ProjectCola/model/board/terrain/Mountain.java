@@ -0,0 +1,14 @@
+package axk9084.ProjectCola.model.board.terrain;
+
+/**
+ * A mountain, which can not be crossed.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class Mountain extends TerrainEffect {
+
+  @Override
+  public int getExtraMoveCost() {
+    return IMPASSABLE;
+  }
+}
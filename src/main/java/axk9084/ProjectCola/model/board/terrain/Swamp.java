@@ -0,0 +1,14 @@
+package axk9084.ProjectCola.model.board.terrain;
+
+/**
+ * A swamp, which slows movement more than a forest: stepping onto it costs 3 move points.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class Swamp extends TerrainEffect {
+
+  @Override
+  public int getExtraMoveCost() {
+    return 2;
+  }
+}
@@ -1,15 +1,39 @@
 package axk9084.ProjectCola.model.board.terrain;
 
 import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.Board;
 
 /**
+ * The terrain of a tile, which is permanent.  Terrain makes a tile cost more move points to step onto, or blocks it
+ * altogether, see {@link axk9084.ProjectCola.model.board.tile.Tile#getMoveCost()}.
  *
  * Created by antkwan on 6/24/2016.
  */
 public class TerrainEffect implements Effect {
 
+  // Extra move cost of terrain that can not be crossed
+  public static final int IMPASSABLE = Integer.MAX_VALUE;
+
   /**
    * Terrain effects are permanent and constant and do not have an action at the end of a turn. Immediately return.
    */
-  public void endTurnAction() {}
+  public int endTurnAction( Board board, int tileIndex ) {
+    return tileIndex;
+  }
+
+  /**
+   * Terrain effects do not change, so boards can share them.
+   */
+  public Effect copy() {
+    return this;
+  }
+
+  /**
+   * Get the move points stepping onto a tile with this terrain costs on top of the 1 every step costs.
+   *
+   * @return the extra cost, or IMPASSABLE if the tile can not be stepped onto
+   */
+  public int getExtraMoveCost() {
+    return 0;
+  }
 }
@@ -0,0 +1,63 @@
+package axk9084.ProjectCola.model.board.terrain;
+
+import axk9084.ProjectCola.model.Effect;
+
+/**
+ * Numbers the terrain classes, for storing terrain compactly and creating it back.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class TerrainKinds {
+
+  public static final int PLAIN = 0;
+  public static final int FOREST = 1;
+  public static final int SWAMP = 2;
+  public static final int MOUNTAIN = 3;
+
+  private TerrainKinds() {}
+
+  /**
+   * Get the kind of a terrain effect.
+   *
+   * @param terrain  the terrain effect
+   * @return the kind
+   * @throws IllegalArgumentException if the effect's class has no kind
+   */
+  public static int kindOf( Effect terrain ) {
+    if ( terrain instanceof Forest ) {
+      return FOREST;
+    }
+    if ( terrain instanceof Swamp ) {
+      return SWAMP;
+    }
+    if ( terrain instanceof Mountain ) {
+      return MOUNTAIN;
+    }
+    if ( terrain.getClass() == TerrainEffect.class ) {
+      return PLAIN;
+    }
+    throw new IllegalArgumentException( "No kind for " + terrain.getClass().getName() );
+  }
+
+  /**
+   * Create a new terrain effect of a kind.
+   *
+   * @param kind  the kind
+   * @return the terrain effect
+   * @throws IllegalArgumentException if the kind is not known
+   */
+  public static TerrainEffect create( int kind ) {
+    switch ( kind ) {
+      case PLAIN:
+        return new TerrainEffect();
+      case FOREST:
+        return new Forest();
+      case SWAMP:
+        return new Swamp();
+      case MOUNTAIN:
+        return new Mountain();
+      default:
+        throw new IllegalArgumentException( "Unknown terrain kind " + kind );
+    }
+  }
+}
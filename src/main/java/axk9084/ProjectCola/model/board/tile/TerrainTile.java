@@ -0,0 +1,32 @@
+package axk9084.ProjectCola.model.board.tile;
+
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.terrain.TerrainEffect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A terrain tile is a tile with terrain effects, such as a forest.  Its terrain does not change, a tile of other
+ * terrain replaces it, see {@link axk9084.ProjectCola.model.board.Board#setTerrain(int, TerrainEffect...)}.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class TerrainTile extends Tile {
+
+  private final List< Effect > terrainEffects;
+
+  public TerrainTile( TerrainEffect... terrainEffects ) {
+    this( Arrays.asList( terrainEffects ) );
+  }
+
+  public TerrainTile( List< ? extends Effect > terrainEffects ) {
+    this.terrainEffects = Collections.unmodifiableList( new ArrayList< Effect >( terrainEffects ) );
+  }
+
+  public List< Effect > getTerrainEffects() {
+    return terrainEffects;
+  }
+}
@@ -2,6 +2,7 @@ package axk9084.ProjectCola.model.board.tile;
 
 import axk9084.ProjectCola.model.Effect;
 import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.board.terrain.TerrainEffect;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,4 +36,23 @@ public abstract class Tile {
   }
 
   public abstract List< Effect > getTerrainEffects();
+
+  /**
+   * Get the move points it costs to step onto this tile: 1, plus the extra cost of each of its terrain effects.
+   *
+   * @return the cost, or TerrainEffect.IMPASSABLE if the tile can not be stepped onto
+   */
+  public int getMoveCost() {
+    int cost = 1;
+    for ( Effect effect : getTerrainEffects() ) {
+      if ( effect instanceof TerrainEffect ) {
+        int extraCost = ( (TerrainEffect) effect ).getExtraMoveCost();
+        if ( extraCost == TerrainEffect.IMPASSABLE ) {
+          return TerrainEffect.IMPASSABLE;
+        }
+        cost += extraCost;
+      }
+    }
+    return cost;
+  }
 }
@@ -0,0 +1,149 @@
+package axk9084.ProjectCola.model.chara;
+
+/**
+ * An ability a character can use in place of an attack: damage to enemies or healing of allies, on a single target
+ * or on every character in an area.  Abilities are shared by every character of a class and do not change, the
+ * cooldown of each character's abilities is kept in its {@link CharaStore} row.
+ *
+ * The target tile is chosen within the ability's range of the user.  A single target ability acts on the character
+ * on that tile.  A diamond acts on the tiles within its size of the target tile.  Lines and cones start next to the
+ * user and run its size in tiles toward the target tile, which must be straight up, down, left or right of it.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class Ability {
+
+  // Effects
+  public static final int DAMAGE = 0;
+  public static final int HEAL = 1;
+
+  // Shapes
+  public static final int SINGLE = 0;
+  public static final int DIAMOND = 1;
+  public static final int LINE = 2;
+  public static final int CONE = 3;
+
+  private final String name;
+  private final int effect;
+  private final int shape;
+  private final int size;
+  private final int power;
+  private final int minRange;
+  private final int maxRange;
+  private final int cooldown;
+  private final int castDelay;
+
+  /**
+   * Create an ability.
+   *
+   * @param name  the name of the ability
+   * @param effect  DAMAGE or HEAL
+   * @param shape  SINGLE, DIAMOND, LINE or CONE
+   * @param size  the radius of a diamond or the length of a line or cone, 0 for a single target
+   * @param power  the damage dealt or health restored to each character it acts on
+   * @param minRange  the smallest distance from the user to the target tile
+   * @param maxRange  the largest distance from the user to the target tile
+   * @param cooldown  the number of the user's turns before it can be used again, 0 to use it again the same turn
+   * @param castDelay  the number of turns until it acts, 0 to act at once.  A delayed ability acts at the end of a
+   *                   turn, on the characters in its area then
+   */
+  public Ability( String name, int effect, int shape, int size, int power, int minRange, int maxRange, int cooldown,
+                  int castDelay ) {
+    this.name = name;
+    this.effect = effect;
+    this.shape = shape;
+    this.size = size;
+    this.power = power;
+    this.minRange = minRange;
+    this.maxRange = maxRange;
+    this.cooldown = cooldown;
+    this.castDelay = castDelay;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getEffect() {
+    return effect;
+  }
+
+  public boolean isHeal() {
+    return effect == HEAL;
+  }
+
+  public int getShape() {
+    return shape;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getPower() {
+    return power;
+  }
+
+  public int getMinRange() {
+    return minRange;
+  }
+
+  public int getMaxRange() {
+    return maxRange;
+  }
+
+  public int getCooldown() {
+    return cooldown;
+  }
+
+  public int getCastDelay() {
+    return castDelay;
+  }
+
+  /**
+   * Get the most tiles the ability's area can cover, which bounds the characters it can act on.
+   */
+  public int getAreaTiles() {
+    switch ( shape ) {
+      case DIAMOND:
+        return 2 * size * ( size + 1 ) + 1;
+      case LINE:
+        return size;
+      case CONE:
+        return size * size;
+      default:
+        return 1;
+    }
+  }
+
+  /**
+   * Describe the ability for players, such as "Whirlwind: 4 damage, radius 1, range 0, cooldown 3".
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder( name ).append( ": " ).append( power )
+        .append( effect == HEAL ? " heal" : " damage" );
+    switch ( shape ) {
+      case DIAMOND:
+        builder.append( ", radius " ).append( size );
+        break;
+      case LINE:
+        builder.append( ", line " ).append( size );
+        break;
+      case CONE:
+        builder.append( ", cone " ).append( size );
+        break;
+    }
+    if ( shape == SINGLE || shape == DIAMOND ) {
+      builder.append( ", range " ).append( minRange );
+      if ( maxRange != minRange ) {
+        builder.append( '-' ).append( maxRange );
+      }
+    }
+    builder.append( ", cooldown " ).append( cooldown );
+    if ( castDelay > 0 ) {
+      builder.append( ", lands in " ).append( castDelay ).append( castDelay == 1 ? " turn" : " turns" );
+    }
+    return builder.toString();
+  }
+}
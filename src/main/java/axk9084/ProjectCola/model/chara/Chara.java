@@ -1,57 +1,93 @@
 package axk9084.ProjectCola.model.chara;
 
 import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.StateHash;
+
+import java.util.List;
 
 /**
  * A Chara represents a game piece on the board.
  * Using Chara instead of Character to avoid confusion with java.lang.Character
  *
+ * The stats and state of a character live in a row of a {@link CharaStore}, and a Chara is a view onto that row.
+ * Games create their characters as rows of their store, see {@link CharaStore#add(int, int)}.  A character created
+ * on its own gets a store of its own until it is added to a game, which copies it into the game's store.
+ *
  * Created by antkwan on 6/24/2016.
  */
 public abstract class Chara implements Entity {
 
-  // Describes which player this character belongs to
-  private final int player;
-
   // The name of the character
   private final String name;
 
-  // The max health of the character
-  private final int maxHealth;
-
-  // The current health of the character
-  private int health;
-
-  // The attack power of the character
-  private final int attackPower;
+  // The store holding this character's stats, and its row in the store
+  private CharaStore store;
+  private int id;
 
-  // The minimum attack range of the character
-  private final int minAttackRange;
-
-  // The maximum attack range of the character
-  private final int maxAttackRange;
-
-  // Describes how many spaces the character can move
-  private final int moveSpeed;
+  /**
+   * Create a character on its own, with a store of its own holding its single row.  This is for prototypes, such as
+   * those of {@link CharaKinds}, and for tests and tools that place characters by hand.  It allocates a whole store
+   * per character, so games and searches create their characters with {@link CharaStore#add(int, int)} instead.
+   */
+  public Chara( int player, String name, int maxHealth, int attackPower, int minAttackRange, int maxAttackRange, int moveSpeed, int actions ) {
+    this.name = name;
+    this.store = new CharaStore( 1 );
+    this.id = store.add( player, maxHealth, attackPower, minAttackRange, maxAttackRange, moveSpeed, actions );
+    store.setView( id, this );
+  }
 
-  // The number of actions a character can make in a single turn
-  private final int actions;
+  /**
+   * Create a view onto an existing row of a store.
+   *
+   * @param name  the name of the character
+   * @param store  the store
+   * @param id  the row of the character in the store
+   */
+  protected Chara( String name, CharaStore store, int id ) {
+    this.name = name;
+    this.store = store;
+    this.id = id;
+  }
 
-  // The number of actions a character has left on this turn
-  private int actionsRemaining;
+  /**
+   * Create a view of the same class onto a row of a store, used when a store is copied.
+   *
+   * @param store  the store
+   * @param id  the row of the character in the store
+   * @return the view
+   */
+  protected abstract Chara createView( CharaStore store, int id );
+
+  /**
+   * Get the abilities of the character, at most {@link CharaStore#MAX_ABILITIES}.  An ability is used by its index
+   * in this list, its slot.
+   *
+   * @return the abilities, which must not be changed
+   */
+  public abstract List< Ability > getAbilities();
+
+  /**
+   * Create a copy of this character with the same player, stats, health, actions and tile.
+   * The copy has a store of its own and is not attached to any state hash.
+   *
+   * @return the copy
+   */
+  public Chara copy() {
+    Chara copy = createView( store, id );
+    new CharaStore( 1 ).add( copy );
+    return copy;
+  }
 
-  public Chara( int player, String name, int maxHealth, int attackPower, int minAttackRange, int maxAttackRange, int moveSpeed, int actions ) {
-    this.player = player;
-    this.name = name;
-    this.maxHealth = maxHealth;
-    this.attackPower = attackPower;
-    this.minAttackRange = minAttackRange;
-    this.maxAttackRange = maxAttackRange;
-    this.moveSpeed = moveSpeed;
-    this.actions = actions;
+  /**
+   * Helper method for CharaStore to point this view at a new row.
+   */
+  void bind( CharaStore newStore, int newId ) {
+    store = newStore;
+    id = newId;
+  }
 
-    this.health = this.maxHealth;
-    this.actionsRemaining = this.actions;
+  CharaStore getStore() {
+    return store;
   }
 
   public String getName() {
@@ -59,54 +95,144 @@ public abstract class Chara implements Entity {
   }
 
   public int getPlayer() {
-    return player;
+    return store.getPlayer( id );
   }
 
   public int getMoveSpeed() {
-    return moveSpeed;
+    return store.getMoveSpeed( id );
   }
 
   public int getActions() {
-    return actions;
+    return store.getActions( id );
   }
 
   public int getActionsRemaining() {
-    return actionsRemaining;
+    return store.getActionsRemaining( id );
   }
 
   public int getMaxHealth() {
-    return maxHealth;
+    return store.getMaxHealth( id );
   }
 
   public int getHealth() {
-    return health;
+    return store.getHealth( id );
   }
 
   public int getAttackPower() {
-    return attackPower;
+    return store.getAttackPower( id );
   }
 
   public int getMinAttackRange() {
-    return minAttackRange;
+    return store.getMinAttackRange( id );
   }
 
   public int getMaxAttackRange() {
-    return maxAttackRange;
+    return store.getMaxAttackRange( id );
+  }
+
+  /**
+   * Get the board index of the tile the character is on, maintained by the engine.  -1 when not on a board
+   */
+  public int getTileIndex() {
+    return store.getTileIndex( id );
+  }
+
+  public void setTileIndex( int tileIndex ) {
+    store.setTileIndex( id, tileIndex );
+  }
+
+  /**
+   * Get the turn an ability is ready on, maintained by the engine.  0 if it has never been used
+   *
+   * @param slot  the ability's index in {@link #getAbilities()}
+   */
+  public int getAbilityReadyTurn( int slot ) {
+    return store.getAbilityReadyTurn( id, slot );
+  }
+
+  public void setAbilityReadyTurn( int slot, int turn ) {
+    store.setAbilityReadyTurn( id, slot, turn );
+  }
+
+  /**
+   * Get the number of this character's turns until an ability is ready, counting the given turn if it is one of
+   * them.
+   *
+   * @param slot  the ability's index in {@link #getAbilities()}
+   * @param turn  the current turn
+   * @return the number of turns, 0 if the ability is ready
+   */
+  public int getAbilityTurnsRemaining( int slot, int turn ) {
+    int turns = store.getAbilityReadyTurn( id, slot ) - turn;
+    return turns > 0 ? ( turns + 1 ) / 2 : 0;
+  }
+
+  /**
+   * Get the id of the character, which is its row in the store of its game.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Add this character's health, actions and ability ready turns to a state hash.  The hash is updated from then on
+   * whenever they change.
+   *
+   * @param stateHash  the state hash to attach to
+   */
+  public void attachStateHash( StateHash stateHash ) {
+    store.attachStateHash( id, stateHash );
+  }
+
+  /**
+   * Remove this character's health, actions and ability ready turns from the state hash it is attached to, such as
+   * when it dies.
+   */
+  public void detachStateHash() {
+    store.detachStateHash( id );
+  }
+
+  /**
+   * Get the hash keys of this character's health, actions and ability ready turns, as they are toggled into an
+   * attached state hash.
+   *
+   * @return the combined key
+   */
+  public long getStateKey() {
+    return store.getStateKey( id );
   }
 
   public void decrementActionsRemaining() {
-    actionsRemaining--;
+    store.setActionsRemaining( id, store.getActionsRemaining( id ) - 1 );
+  }
+
+  /**
+   * Set the number of actions remaining directly, used when restoring or undoing game state.
+   *
+   * @param actionsRemaining  the number of actions remaining
+   */
+  public void setActionsRemaining( int actionsRemaining ) {
+    store.setActionsRemaining( id, actionsRemaining );
   }
 
   public void resetActionsRemaining() {
-    actionsRemaining = actions;
+    store.setActionsRemaining( id, store.getActions( id ) );
   }
 
   public void takeDamage( int incomingDamage ) {
-    health = health - incomingDamage;
+    store.setHealth( id, store.getHealth( id ) - incomingDamage );
+  }
+
+  /**
+   * Set the current health directly, used when restoring or undoing game state.
+   *
+   * @param health  the current health
+   */
+  public void setHealth( int health ) {
+    store.setHealth( id, health );
   }
 
   public boolean isDead() {
-    return health < 1;
+    return store.getHealth( id ) < 1;
   }
 }
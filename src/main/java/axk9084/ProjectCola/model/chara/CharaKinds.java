@@ -0,0 +1,87 @@
+package axk9084.ProjectCola.model.chara;
+
+/**
+ * Numbers the character classes, for storing characters compactly and creating them back.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public final class CharaKinds {
+
+  public static final int KNIGHT = 1;
+  public static final int ROGUE = 2;
+  public static final int PRIEST = 3;
+  public static final int MAGE = 4;
+
+  // A character of each kind for each player, only read for their stats.  Indexed by kind, then player
+  private static final Chara[][] PROTOTYPES = new Chara[ MAGE + 1 ][];
+
+  static {
+    for ( int kind = KNIGHT; kind <= MAGE; kind++ ) {
+      PROTOTYPES[ kind ] = new Chara[] { null, create( kind, 1 ), create( kind, 2 ) };
+    }
+  }
+
+  private CharaKinds() {}
+
+  /**
+   * Get the kind of a character.
+   *
+   * @param chara  the character
+   * @return the kind
+   * @throws IllegalArgumentException if the character's class has no kind
+   */
+  public static int kindOf( Chara chara ) {
+    if ( chara instanceof Knight ) {
+      return KNIGHT;
+    }
+    if ( chara instanceof Rogue ) {
+      return ROGUE;
+    }
+    if ( chara instanceof Priest ) {
+      return PRIEST;
+    }
+    if ( chara instanceof Mage ) {
+      return MAGE;
+    }
+    throw new IllegalArgumentException( "No kind for " + chara.getClass().getName() );
+  }
+
+  /**
+   * Create a new character of a kind.
+   *
+   * @param kind  the kind
+   * @param player  the player the character belongs to
+   * @return the character, at full health and actions
+   * @throws IllegalArgumentException if the kind is not known
+   */
+  public static Chara create( int kind, int player ) {
+    switch ( kind ) {
+      case KNIGHT:
+        return new Knight( player );
+      case ROGUE:
+        return new Rogue( player );
+      case PRIEST:
+        return new Priest( player );
+      case MAGE:
+        return new Mage( player );
+      default:
+        throw new IllegalArgumentException( "Unknown character kind " + kind );
+    }
+  }
+
+  /**
+   * Helper method to get the shared character of a kind whose stats new rows are copied from.  It must not be
+   * changed.
+   *
+   * @param kind  the kind
+   * @param player  the player, 1 or 2
+   * @return the character
+   * @throws IllegalArgumentException if the kind or player is not known
+   */
+  static Chara prototype( int kind, int player ) {
+    if ( kind < KNIGHT || kind > MAGE || player < 1 || player > 2 ) {
+      throw new IllegalArgumentException( "Unknown character kind " + kind + " of player " + player );
+    }
+    return PROTOTYPES[ kind ][ player ];
+  }
+}
@@ -0,0 +1,369 @@
+package axk9084.ProjectCola.model.chara;
+
+import axk9084.ProjectCola.model.StateHash;
+
+import java.util.Arrays;
+
+/**
+ * Holds the stats and state of every character of a game in primitive columns indexed by character id.
+ *
+ * Chara objects are flyweight views onto a row of a store, so reading a stat is an array access and copying the
+ * characters of a game is one array copy per column.  Rows are never removed: a character that dies keeps its row,
+ * which lets undo bring it back and keeps ids stable.
+ *
+ * A store may be attached to a state hash, in which case the health and remaining actions of every hashed row are
+ * part of the hash and are kept up to date as they change.
+ *
+ * Created by antkwan on 7/14/2016.
+ */
+public class CharaStore {
+
+  private static final int DEFAULT_CAPACITY = 8;
+
+  // Most abilities a character can have
+  public static final int MAX_ABILITIES = 4;
+
+  // The view of each row
+  private Chara[] charas;
+
+  // Stat columns.  Stats that never change are kept as shorts
+  private byte[] player;
+  private short[] maxHealth;
+  private int[] health;
+  private short[] attackPower;
+  private short[] minAttackRange;
+  private short[] maxAttackRange;
+  private short[] moveSpeed;
+  private short[] actions;
+  private short[] actionsRemaining;
+  private int[] tileIndex;
+
+  // The turn each ability of each row is ready on, MAX_ABILITIES entries per row.  Not part of the state hash
+  private int[] abilityReadyTurns;
+
+  // Whether each row's health, actions and ability ready turns are toggled into the state hash
+  private boolean[] hashed;
+
+  private StateHash stateHash = null;
+  private int size = 0;
+
+  public CharaStore() {
+    this( DEFAULT_CAPACITY );
+  }
+
+  public CharaStore( int capacity ) {
+    capacity = Math.max( 1, capacity );
+    charas = new Chara[ capacity ];
+    player = new byte[ capacity ];
+    maxHealth = new short[ capacity ];
+    health = new int[ capacity ];
+    attackPower = new short[ capacity ];
+    minAttackRange = new short[ capacity ];
+    maxAttackRange = new short[ capacity ];
+    moveSpeed = new short[ capacity ];
+    actions = new short[ capacity ];
+    actionsRemaining = new short[ capacity ];
+    tileIndex = new int[ capacity ];
+    abilityReadyTurns = new int[ capacity * MAX_ABILITIES ];
+    hashed = new boolean[ capacity ];
+  }
+
+  /**
+   * Create a copy of another store with new views onto the copied rows.  The copy is not attached to a state hash,
+   * see {@link #setStateHash(StateHash)}.
+   *
+   * @param other  the store to copy
+   */
+  public CharaStore( CharaStore other ) {
+    size = other.size;
+    player = other.player.clone();
+    maxHealth = other.maxHealth.clone();
+    health = other.health.clone();
+    attackPower = other.attackPower.clone();
+    minAttackRange = other.minAttackRange.clone();
+    maxAttackRange = other.maxAttackRange.clone();
+    moveSpeed = other.moveSpeed.clone();
+    actions = other.actions.clone();
+    actionsRemaining = other.actionsRemaining.clone();
+    tileIndex = other.tileIndex.clone();
+    abilityReadyTurns = other.abilityReadyTurns.clone();
+    hashed = other.hashed.clone();
+
+    charas = new Chara[ other.charas.length ];
+    for ( int id = 0; id < size; id++ ) {
+      charas[ id ] = other.charas[ id ].createView( this, id );
+    }
+  }
+
+  /**
+   * Add a row with the given stats, at full health and actions and not on a board.
+   *
+   * @return the id of the new row
+   */
+  int add( int rowPlayer, int rowMaxHealth, int rowAttackPower, int rowMinAttackRange, int rowMaxAttackRange,
+           int rowMoveSpeed, int rowActions ) {
+    if ( size == charas.length ) {
+      grow();
+    }
+
+    int id = size++;
+    player[ id ] = (byte) rowPlayer;
+    maxHealth[ id ] = (short) rowMaxHealth;
+    health[ id ] = rowMaxHealth;
+    attackPower[ id ] = (short) rowAttackPower;
+    minAttackRange[ id ] = (short) rowMinAttackRange;
+    maxAttackRange[ id ] = (short) rowMaxAttackRange;
+    moveSpeed[ id ] = (short) rowMoveSpeed;
+    actions[ id ] = (short) rowActions;
+    actionsRemaining[ id ] = (short) rowActions;
+    tileIndex[ id ] = -1;
+    hashed[ id ] = false;
+    return id;
+  }
+
+  /**
+   * Move a character into this store.  Its row is copied into a new row here and the character becomes the view of
+   * the new row, so it is given a new id.  A character already in this store is left as it is.
+   *
+   * @param chara  the character to add
+   * @return the id of the character in this store
+   */
+  public int add( Chara chara ) {
+    CharaStore from = chara.getStore();
+    if ( from == this ) {
+      return chara.getId();
+    }
+
+    int fromId = chara.getId();
+    int id = add( from.player[ fromId ], from.maxHealth[ fromId ], from.attackPower[ fromId ],
+        from.minAttackRange[ fromId ], from.maxAttackRange[ fromId ], from.moveSpeed[ fromId ], from.actions[ fromId ] );
+    health[ id ] = from.health[ fromId ];
+    actionsRemaining[ id ] = from.actionsRemaining[ fromId ];
+    tileIndex[ id ] = from.tileIndex[ fromId ];
+    System.arraycopy( from.abilityReadyTurns, fromId * MAX_ABILITIES, abilityReadyTurns, id * MAX_ABILITIES,
+        MAX_ABILITIES );
+
+    charas[ id ] = chara;
+    chara.bind( this, id );
+    return id;
+  }
+
+  /**
+   * Add a row for a new character of a kind (see {@link CharaKinds}), at full health and actions and not on a
+   * board.  Unlike creating the character and adding it, this only writes the new row and creates its view.
+   *
+   * @param kind  the kind of the character
+   * @param rowPlayer  the player the character belongs to, 1 or 2
+   * @return the id of the new row
+   * @throws IllegalArgumentException if the kind or player is not known
+   */
+  public int add( int kind, int rowPlayer ) {
+    Chara prototype = CharaKinds.prototype( kind, rowPlayer );
+    CharaStore from = prototype.getStore();
+    int fromId = prototype.getId();
+    int id = add( rowPlayer, from.maxHealth[ fromId ], from.attackPower[ fromId ], from.minAttackRange[ fromId ],
+        from.maxAttackRange[ fromId ], from.moveSpeed[ fromId ], from.actions[ fromId ] );
+    charas[ id ] = prototype.createView( this, id );
+    return id;
+  }
+
+  /**
+   * Helper method to record the view created for a new row.
+   */
+  void setView( int id, Chara chara ) {
+    charas[ id ] = chara;
+  }
+
+  private void grow() {
+    int capacity = charas.length * 2;
+    charas = Arrays.copyOf( charas, capacity );
+    player = Arrays.copyOf( player, capacity );
+    maxHealth = Arrays.copyOf( maxHealth, capacity );
+    health = Arrays.copyOf( health, capacity );
+    attackPower = Arrays.copyOf( attackPower, capacity );
+    minAttackRange = Arrays.copyOf( minAttackRange, capacity );
+    maxAttackRange = Arrays.copyOf( maxAttackRange, capacity );
+    moveSpeed = Arrays.copyOf( moveSpeed, capacity );
+    actions = Arrays.copyOf( actions, capacity );
+    actionsRemaining = Arrays.copyOf( actionsRemaining, capacity );
+    tileIndex = Arrays.copyOf( tileIndex, capacity );
+    abilityReadyTurns = Arrays.copyOf( abilityReadyTurns, capacity * MAX_ABILITIES );
+    hashed = Arrays.copyOf( hashed, capacity );
+  }
+
+  /**
+   * Get the number of rows in the store, which is one more than the highest id.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get the view of a row.
+   *
+   * @param id  the id of the character
+   * @return the character
+   */
+  public Chara getChara( int id ) {
+    return charas[ id ];
+  }
+
+  /**
+   * Set the state hash the hashed rows are part of, toggling their keys into it.
+   *
+   * @param stateHash  the state hash
+   */
+  public void setStateHash( StateHash stateHash ) {
+    this.stateHash = stateHash;
+    for ( int id = 0; id < size; id++ ) {
+      if ( hashed[ id ] ) {
+        stateHash.toggle( getStateKey( id ) );
+      }
+    }
+  }
+
+  /**
+   * Add a row's health, actions and ability ready turns to the state hash.
+   *
+   * @param id  the id of the character
+   * @param hash  the state hash, which becomes the hash of the store
+   */
+  void attachStateHash( int id, StateHash hash ) {
+    if ( hashed[ id ] && stateHash != null ) {
+      stateHash.toggle( getStateKey( id ) );
+    }
+    stateHash = hash;
+    hashed[ id ] = true;
+    stateHash.toggle( getStateKey( id ) );
+  }
+
+  /**
+   * Remove a row's health, actions and ability ready turns from the state hash, such as when the character dies.
+   *
+   * @param id  the id of the character
+   */
+  void detachStateHash( int id ) {
+    if ( hashed[ id ] && stateHash != null ) {
+      stateHash.toggle( getStateKey( id ) );
+    }
+    hashed[ id ] = false;
+  }
+
+  /**
+   * Get the hash keys of a row's health, actions and ability ready turns.
+   *
+   * @param id  the id of the character
+   * @return the combined key
+   */
+  public long getStateKey( int id ) {
+    long key = StateHash.key( StateHash.HEALTH, id, health[ id ] )
+        ^ StateHash.key( StateHash.ACTIONS, id, actionsRemaining[ id ] );
+    for ( int slot = 0; slot < MAX_ABILITIES; slot++ ) {
+      key ^= abilityKey( id, slot, abilityReadyTurns[ id * MAX_ABILITIES + slot ] );
+    }
+    return key;
+  }
+
+  /**
+   * Helper method to get the hash key of the turn an ability is ready on, 0 for an ability that has never been used
+   * so unused slots cost nothing.
+   */
+  private static long abilityKey( int id, int slot, int readyTurn ) {
+    return readyTurn == 0 ? 0 : StateHash.key( StateHash.ABILITY, id * MAX_ABILITIES + slot, readyTurn );
+  }
+
+  public int getPlayer( int id ) {
+    return player[ id ];
+  }
+
+  public int getMaxHealth( int id ) {
+    return maxHealth[ id ];
+  }
+
+  public int getHealth( int id ) {
+    return health[ id ];
+  }
+
+  /**
+   * Set a row's health, keeping the state hash up to date.
+   */
+  public void setHealth( int id, int newHealth ) {
+    if ( hashed[ id ] && stateHash != null ) {
+      stateHash.toggle( StateHash.key( StateHash.HEALTH, id, health[ id ] )
+          ^ StateHash.key( StateHash.HEALTH, id, newHealth ) );
+    }
+    health[ id ] = newHealth;
+  }
+
+  public int getAttackPower( int id ) {
+    return attackPower[ id ];
+  }
+
+  public int getMinAttackRange( int id ) {
+    return minAttackRange[ id ];
+  }
+
+  public int getMaxAttackRange( int id ) {
+    return maxAttackRange[ id ];
+  }
+
+  public int getMoveSpeed( int id ) {
+    return moveSpeed[ id ];
+  }
+
+  public int getActions( int id ) {
+    return actions[ id ];
+  }
+
+  public int getActionsRemaining( int id ) {
+    return actionsRemaining[ id ];
+  }
+
+  /**
+   * Set a row's remaining actions, keeping the state hash up to date.
+   */
+  public void setActionsRemaining( int id, int newActionsRemaining ) {
+    // Ending a turn resets every chara, most of which have not changed
+    if ( newActionsRemaining == actionsRemaining[ id ] ) {
+      return;
+    }
+    if ( hashed[ id ] && stateHash != null ) {
+      stateHash.toggle( StateHash.key( StateHash.ACTIONS, id, actionsRemaining[ id ] )
+          ^ StateHash.key( StateHash.ACTIONS, id, newActionsRemaining ) );
+    }
+    actionsRemaining[ id ] = (short) newActionsRemaining;
+  }
+
+  public int getTileIndex( int id ) {
+    return tileIndex[ id ];
+  }
+
+  public void setTileIndex( int id, int index ) {
+    tileIndex[ id ] = index;
+  }
+
+  /**
+   * Get the turn an ability of a row is ready on, 0 if it has never been used.
+   *
+   * @param id  the id of the character
+   * @param slot  the ability's index in the character's abilities
+   */
+  public int getAbilityReadyTurn( int id, int slot ) {
+    return abilityReadyTurns[ id * MAX_ABILITIES + slot ];
+  }
+
+  /**
+   * Set the turn an ability of a row is ready on, keeping the state hash up to date.
+   *
+   * @param id  the id of the character
+   * @param slot  the ability's index in the character's abilities
+   * @param turn  the turn
+   */
+  public void setAbilityReadyTurn( int id, int slot, int turn ) {
+    int cell = id * MAX_ABILITIES + slot;
+    if ( hashed[ id ] && stateHash != null ) {
+      stateHash.toggle( abilityKey( id, slot, abilityReadyTurns[ cell ] ) ^ abilityKey( id, slot, turn ) );
+    }
+    abilityReadyTurns[ cell ] = turn;
+  }
+}
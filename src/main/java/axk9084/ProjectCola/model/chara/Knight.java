@@ -1,5 +1,9 @@
 package axk9084.ProjectCola.model.chara;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by antkwan on 6/25/2016.
  */
@@ -10,10 +14,25 @@ public class Knight extends Chara {
   private static final int ATTACK_POWER = 5;
   private static final int MIN_ATTACK_RANGE = 1;
   private static final int MAX_ATTACK_RANGE = 1;
-  private static final int MOVE_SPEED = 1;
+  private static final int MOVE_SPEED = 2;
   private static final int ACTIONS = 1;
+  private static final List< Ability > ABILITIES = Collections.unmodifiableList( Arrays.asList(
+      new Ability( "Shield Bash", Ability.DAMAGE, Ability.SINGLE, 0, 8, 1, 1, 2, 0 ),
+      new Ability( "Whirlwind", Ability.DAMAGE, Ability.DIAMOND, 1, 4, 0, 0, 3, 0 ) ) );
 
   public Knight( int player ) {
     super( player, NAME, MAX_HEALTH, ATTACK_POWER, MIN_ATTACK_RANGE, MAX_ATTACK_RANGE, MOVE_SPEED, ACTIONS );
   }
+
+  private Knight( CharaStore store, int id ) {
+    super( NAME, store, id );
+  }
+
+  protected Chara createView( CharaStore store, int id ) {
+    return new Knight( store, id );
+  }
+
+  public List< Ability > getAbilities() {
+    return ABILITIES;
+  }
 }
@@ -1,5 +1,9 @@
 package axk9084.ProjectCola.model.chara;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by antkwan on 6/27/2016.
  */
@@ -10,11 +14,25 @@ public class Priest extends Chara {
   private static final int ATTACK_POWER = 3;
   private static final int MIN_ATTACK_RANGE = 1;
   private static final int MAX_ATTACK_RANGE = 1;
-  private static final int MOVE_SPEED = 1;
+  private static final int MOVE_SPEED = 2;
   private static final int ACTIONS = 1;
+  private static final List< Ability > ABILITIES = Collections.unmodifiableList( Arrays.asList(
+      new Ability( "Heal", Ability.HEAL, Ability.SINGLE, 0, 10, 0, 3, 1, 0 ),
+      new Ability( "Prayer", Ability.HEAL, Ability.DIAMOND, 2, 5, 0, 0, 4, 0 ) ) );
 
   public Priest( int player ) {
     super( player, NAME, MAX_HEALTH, ATTACK_POWER, MIN_ATTACK_RANGE, MAX_ATTACK_RANGE, MOVE_SPEED, ACTIONS );
   }
 
+  private Priest( CharaStore store, int id ) {
+    super( NAME, store, id );
+  }
+
+  protected Chara createView( CharaStore store, int id ) {
+    return new Priest( store, id );
+  }
+
+  public List< Ability > getAbilities() {
+    return ABILITIES;
+  }
 }
@@ -1,5 +1,9 @@
 package axk9084.ProjectCola.model.chara;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Created by antkwan on 6/27/2016.
  */
@@ -10,11 +14,25 @@ public class Rogue extends Chara {
   private static final int ATTACK_POWER = 8;
   private static final int MIN_ATTACK_RANGE = 1;
   private static final int MAX_ATTACK_RANGE = 1;
-  private static final int MOVE_SPEED = 1;
+  private static final int MOVE_SPEED = 3;
   private static final int ACTIONS = 2;
+  private static final List< Ability > ABILITIES = Collections.unmodifiableList( Arrays.asList(
+      new Ability( "Backstab", Ability.DAMAGE, Ability.SINGLE, 0, 12, 1, 1, 3, 0 ),
+      new Ability( "Fan of Knives", Ability.DAMAGE, Ability.CONE, 2, 4, 1, 2, 3, 0 ) ) );
 
   public Rogue( int player ) {
     super( player, NAME, MAX_HEALTH, ATTACK_POWER, MIN_ATTACK_RANGE, MAX_ATTACK_RANGE, MOVE_SPEED, ACTIONS );
   }
 
+  private Rogue( CharaStore store, int id ) {
+    super( NAME, store, id );
+  }
+
+  protected Chara createView( CharaStore store, int id ) {
+    return new Rogue( store, id );
+  }
+
+  public List< Ability > getAbilities() {
+    return ABILITIES;
+  }
 }
@@ -0,0 +1,31 @@
+package axk9084.ProjectCola.replay;
+
+/**
+ * Layout of a replay log.
+ *
+ * The log starts with the magic number, the format version byte and the snapshot interval as a varint.  Records
+ * follow until the end of the file, each a tag byte and its fields:
+ *
+ * MOVE and ATTACK: the source tile index as a varint and the target tile index minus the source as a zigzag varint.
+ * END_TURN and FORFEIT: nothing.
+ * SNAPSHOT: the turn as a varint, the length of the snapshot as a varint and the snapshot itself, see
+ * {@link axk9084.ProjectCola.controller.GameSnapshot}.
+ *
+ * The first record is always a snapshot of the game the log starts from.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+final class ReplayFormat {
+
+  // "PCRL"
+  static final int MAGIC = 0x5043524C;
+  static final byte VERSION = 2;
+
+  static final byte MOVE = 1;
+  static final byte ATTACK = 2;
+  static final byte END_TURN = 3;
+  static final byte FORFEIT = 4;
+  static final byte SNAPSHOT = 5;
+
+  private ReplayFormat() {}
+}
@@ -0,0 +1,249 @@
+package axk9084.ProjectCola.replay;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.GameSnapshot;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.io.Varint;
+import axk9084.ProjectCola.view.cmdline.AsciiBoardView;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads a replay log written by {@link ReplayWriter} and rebuilds the game at any turn.
+ *
+ * The file is memory mapped and scanned once when it is opened to index its snapshots.  Seeking to a turn restores
+ * the last snapshot at or before it and replays only the commands after that snapshot, so it costs at most one
+ * snapshot interval of commands however long the game is.
+ *
+ * A log cut short by a crash is read up to its last whole record.
+ *
+ * Usage: ReplayReader file [turn]
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class ReplayReader implements Closeable {
+
+  private final FileChannel channel;
+  private final ByteBuffer log;
+  private final int snapshotInterval;
+
+  // Turn of each snapshot and the position of its snapshot data, in file order
+  private int[] snapshotTurns = new int[ 16 ];
+  private int[] snapshotPositions = new int[ 16 ];
+  private int snapshotCount = 0;
+
+  // Position after the last whole record, and the turn the game was on there
+  private int end;
+  private int lastTurn;
+
+  /**
+   * Open a replay log.
+   *
+   * @param file  the log to read
+   * @throws IOException if the file can not be read or is not a replay log
+   */
+  public ReplayReader( File file ) throws IOException {
+    channel = new RandomAccessFile( file, "r" ).getChannel();
+    try {
+      log = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+      if ( log.remaining() < 5 || log.getInt() != ReplayFormat.MAGIC ) {
+        throw new IOException( file + " is not a replay log" );
+      }
+      byte version = log.get();
+      if ( version != ReplayFormat.VERSION ) {
+        throw new IOException( "Unsupported replay log version " + version );
+      }
+      snapshotInterval = Varint.readUnsigned( log );
+      index();
+    }
+    catch ( RuntimeException e ) {
+      channel.close();
+      throw new IOException( "Malformed replay log " + file + ": " + e );
+    }
+    catch ( IOException e ) {
+      channel.close();
+      throw e;
+    }
+
+    if ( snapshotCount == 0 ) {
+      channel.close();
+      throw new IOException( "Replay log " + file + " has no snapshot" );
+    }
+  }
+
+  /**
+   * Helper method to walk every record once, recording where the snapshots are and where the log ends.
+   */
+  private void index() throws IOException {
+    ByteBuffer in = log.duplicate();
+    int turn = 0;
+    end = in.position();
+
+    try {
+      while ( in.hasRemaining() ) {
+        byte tag = in.get();
+        switch ( tag ) {
+          case ReplayFormat.MOVE:
+          case ReplayFormat.ATTACK:
+            Varint.readUnsigned( in );
+            Varint.readSigned( in );
+            break;
+          case ReplayFormat.END_TURN:
+            turn++;
+            break;
+          case ReplayFormat.FORFEIT:
+            break;
+          case ReplayFormat.SNAPSHOT:
+            turn = Varint.readUnsigned( in );
+            int length = Varint.readUnsigned( in );
+            if ( length > in.remaining() ) {
+              throw new BufferUnderflowException();
+            }
+            addSnapshot( turn, in.position() );
+            in.position( in.position() + length );
+            break;
+          default:
+            throw new IOException( "Unknown replay record " + tag + " at " + ( in.position() - 1 ) );
+        }
+        end = in.position();
+        lastTurn = turn;
+      }
+    }
+    catch ( BufferUnderflowException e ) {
+      // The last record was cut short, the log ends before it
+    }
+  }
+
+  private void addSnapshot( int turn, int position ) {
+    if ( snapshotCount == snapshotTurns.length ) {
+      snapshotTurns = Arrays.copyOf( snapshotTurns, snapshotCount * 2 );
+      snapshotPositions = Arrays.copyOf( snapshotPositions, snapshotCount * 2 );
+    }
+    snapshotTurns[ snapshotCount ] = turn;
+    snapshotPositions[ snapshotCount ] = position;
+    snapshotCount++;
+  }
+
+  /**
+   * Get the turn the log starts at.
+   */
+  public int getFirstTurn() {
+    return snapshotTurns[ 0 ];
+  }
+
+  /**
+   * Get the turn the game was on when the log ends.
+   */
+  public int getLastTurn() {
+    return lastTurn;
+  }
+
+  public int getSnapshotInterval() {
+    return snapshotInterval;
+  }
+
+  public int getSnapshotCount() {
+    return snapshotCount;
+  }
+
+  /**
+   * Rebuild the game as it was at the start of a turn, before any of the turn's commands.
+   *
+   * @param turn  the turn, from {@link #getFirstTurn()} to {@link #getLastTurn()}
+   * @return a new engine with the game at that turn
+   * @throws IllegalArgumentException if the log does not cover the turn
+   */
+  public ProjectColaEngine seek( int turn ) {
+    if ( turn < getFirstTurn() || turn > lastTurn ) {
+      throw new IllegalArgumentException( "Turn " + turn + " is not in the log, which covers turns "
+          + getFirstTurn() + " to " + lastTurn );
+    }
+    return replay( turn );
+  }
+
+  /**
+   * Rebuild the game as it was at the end of the log, after every recorded command.
+   *
+   * @return a new engine with the final game
+   */
+  public ProjectColaEngine seekEnd() {
+    return replay( Integer.MAX_VALUE );
+  }
+
+  /**
+   * Helper method to restore the last snapshot at or before a turn and replay the commands after it up to the turn.
+   */
+  private ProjectColaEngine replay( int turn ) {
+    int snapshot = Arrays.binarySearch( snapshotTurns, 0, snapshotCount, turn );
+    if ( snapshot < 0 ) {
+      snapshot = -snapshot - 2;
+    }
+
+    ByteBuffer in = log.duplicate();
+    in.position( snapshotPositions[ snapshot ] );
+    ProjectColaEngine engine = GameSnapshot.read( in );
+
+    while ( in.position() < end && engine.getTurn() < turn ) {
+      byte tag = in.get();
+      switch ( tag ) {
+        case ReplayFormat.MOVE: {
+          int fromIndex = Varint.readUnsigned( in );
+          engine.play( Action.move( fromIndex, fromIndex + Varint.readSigned( in ) ) );
+          break;
+        }
+        case ReplayFormat.ATTACK: {
+          int fromIndex = Varint.readUnsigned( in );
+          engine.play( Action.attack( fromIndex, fromIndex + Varint.readSigned( in ) ) );
+          break;
+        }
+        case ReplayFormat.END_TURN:
+          engine.play( Action.END_TURN_ACTION );
+          break;
+        case ReplayFormat.FORFEIT:
+          engine.playerForfeit();
+          break;
+        case ReplayFormat.SNAPSHOT:
+          Varint.readUnsigned( in );
+          int length = Varint.readUnsigned( in );
+          in.position( in.position() + length );
+          break;
+      }
+    }
+
+    return engine;
+  }
+
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  public static void main( String[] args ) throws IOException {
+    if ( args.length < 1 ) {
+      System.err.println( "Usage: ReplayReader file [turn]" );
+      System.exit( 1 );
+    }
+
+    ReplayReader reader = new ReplayReader( new File( args[ 0 ] ) );
+    try {
+      System.out.println( "Turns " + reader.getFirstTurn() + " to " + reader.getLastTurn() + ", "
+          + reader.getSnapshotCount() + " snapshots every " + reader.getSnapshotInterval() + " turns" );
+
+      ProjectColaEngine engine = args.length > 1
+          ? reader.seek( Integer.parseInt( args[ 1 ] ) )
+          : reader.seekEnd();
+      System.out.println( "Turn " + engine.getTurn() + ", player " + engine.getTurnPlayer() + " to play"
+          + ( engine.getGameWinner() != null ? ", player " + engine.getGameWinner() + " won" : "" ) );
+      new AsciiBoardView( engine ).printBoardView();
+    }
+    finally {
+      reader.close();
+    }
+  }
+}
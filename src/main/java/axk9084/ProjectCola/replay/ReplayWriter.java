@@ -0,0 +1,234 @@
+package axk9084.ProjectCola.replay;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.GameSnapshot;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.io.Varint;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes the replay log of a game: an append-only file of every accepted command, with a snapshot of the whole game
+ * at the start and every few turns after, so {@link ReplayReader} can rebuild any turn without replaying the game
+ * from the start.
+ *
+ * The writer follows an engine.  Each command is recorded after the engine has performed it, and the snapshots are
+ * taken from the engine.  Records are gathered in a buffer and written to the file when it fills, on
+ * {@link #flush()} and on {@link #close()}, so a crash loses at most the unflushed tail.  See {@link ReplayFormat}
+ * for the layout.
+ *
+ * A writer is used from one thread, the one that runs the engine's commands.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class ReplayWriter implements Closeable {
+
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 20;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  // Most bytes a command record takes: tag and two varints
+  private static final int MAX_COMMAND_BYTES = 1 + 2 * Varint.MAX_BYTES;
+
+  private final ProjectColaEngine engine;
+  private final int snapshotInterval;
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+
+  private ByteBuffer snapshotBuffer = ByteBuffer.allocate( 256 );
+  private boolean closed = false;
+
+  /**
+   * Create a replay log with the default snapshot interval, replacing any file already there, and write the
+   * current game of the engine as its first snapshot.
+   *
+   * @param file  the file to write
+   * @param engine  the engine whose commands will be recorded
+   * @throws IOException if the file can not be written
+   */
+  public ReplayWriter( File file, ProjectColaEngine engine ) throws IOException {
+    this( file, engine, DEFAULT_SNAPSHOT_INTERVAL );
+  }
+
+  /**
+   * Create a replay log, replacing any file already there, and write the current game of the engine as its first
+   * snapshot.
+   *
+   * @param file  the file to write
+   * @param engine  the engine whose commands will be recorded
+   * @param snapshotInterval  the number of turns between snapshots.  Seeking replays at most this many turns
+   * @throws IOException if the file can not be written
+   */
+  public ReplayWriter( File file, ProjectColaEngine engine, int snapshotInterval ) throws IOException {
+    if ( snapshotInterval < 1 ) {
+      throw new IllegalArgumentException( "Snapshot interval must be at least 1, got " + snapshotInterval );
+    }
+    this.engine = engine;
+    this.snapshotInterval = snapshotInterval;
+    this.channel = new FileOutputStream( file ).getChannel();
+
+    buffer.putInt( ReplayFormat.MAGIC );
+    buffer.put( ReplayFormat.VERSION );
+    Varint.writeUnsigned( buffer, snapshotInterval );
+    writeSnapshot();
+  }
+
+  /**
+   * Record a move the engine has performed.
+   *
+   * @param fromIndex  the tile index the character moved from
+   * @param toIndex  the tile index the character moved to
+   */
+  public void recordMove( int fromIndex, int toIndex ) throws IOException {
+    writeCommand( ReplayFormat.MOVE, fromIndex, toIndex );
+  }
+
+  /**
+   * Record an attack the engine has performed.
+   *
+   * @param fromIndex  the tile index of the attacking character
+   * @param toIndex  the tile index of the attacked character
+   */
+  public void recordAttack( int fromIndex, int toIndex ) throws IOException {
+    writeCommand( ReplayFormat.ATTACK, fromIndex, toIndex );
+  }
+
+  /**
+   * Record the end of a turn the engine has performed, followed by a snapshot if the new turn is due one.
+   */
+  public void recordEndTurn() throws IOException {
+    ensureOpen();
+    ensureRemaining( 1 );
+    buffer.put( ReplayFormat.END_TURN );
+    if ( ( engine.getTurn() - 1 ) % snapshotInterval == 0 ) {
+      writeSnapshot();
+    }
+  }
+
+  /**
+   * Record a forfeit the engine has performed.
+   */
+  public void recordForfeit() throws IOException {
+    ensureOpen();
+    ensureRemaining( 1 );
+    buffer.put( ReplayFormat.FORFEIT );
+  }
+
+  /**
+   * Record an encoded action (see {@link Action}) the engine has performed.
+   *
+   * @param action  the encoded action
+   */
+  public void record( long action ) throws IOException {
+    switch ( Action.getType( action ) ) {
+      case Action.MOVE:
+        recordMove( Action.getFromIndex( action ), Action.getToIndex( action ) );
+        break;
+      case Action.ATTACK:
+        recordAttack( Action.getFromIndex( action ), Action.getToIndex( action ) );
+        break;
+      case Action.END_TURN:
+        recordEndTurn();
+        break;
+      default:
+        throw new IllegalArgumentException( "Unknown action " + action );
+    }
+  }
+
+  /**
+   * Helper method to write a move or attack.  The target tile is stored relative to the source tile, which is
+   * close by for any legal command and so takes a single byte.
+   */
+  private void writeCommand( byte tag, int fromIndex, int toIndex ) throws IOException {
+    ensureOpen();
+    ensureRemaining( MAX_COMMAND_BYTES );
+    buffer.put( tag );
+    Varint.writeUnsigned( buffer, fromIndex );
+    Varint.writeSigned( buffer, toIndex - fromIndex );
+  }
+
+  /**
+   * Helper method to write a snapshot record of the engine's game.
+   */
+  private void writeSnapshot() throws IOException {
+    int maxSize = GameSnapshot.maxSize( engine );
+    if ( snapshotBuffer.capacity() < maxSize ) {
+      snapshotBuffer = ByteBuffer.allocate( Math.max( maxSize, snapshotBuffer.capacity() * 2 ) );
+    }
+    snapshotBuffer.clear();
+    GameSnapshot.write( engine, snapshotBuffer );
+    snapshotBuffer.flip();
+
+    ensureRemaining( 1 + 2 * Varint.MAX_BYTES );
+    buffer.put( ReplayFormat.SNAPSHOT );
+    Varint.writeUnsigned( buffer, engine.getTurn() );
+    Varint.writeUnsigned( buffer, snapshotBuffer.remaining() );
+
+    // Snapshots of huge games skip the buffer
+    if ( snapshotBuffer.remaining() > buffer.capacity() ) {
+      writeBuffer();
+      while ( snapshotBuffer.hasRemaining() ) {
+        channel.write( snapshotBuffer );
+      }
+    }
+    else {
+      ensureRemaining( snapshotBuffer.remaining() );
+      buffer.put( snapshotBuffer );
+    }
+  }
+
+  /**
+   * Helper method to make room in the buffer by writing it out.
+   */
+  private void ensureRemaining( int bytes ) throws IOException {
+    if ( buffer.remaining() < bytes ) {
+      writeBuffer();
+    }
+  }
+
+  /**
+   * Helper method to write the buffered records to the file.
+   */
+  private void writeBuffer() throws IOException {
+    buffer.flip();
+    while ( buffer.hasRemaining() ) {
+      channel.write( buffer );
+    }
+    buffer.clear();
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Replay log is closed" );
+    }
+  }
+
+  /**
+   * Write the buffered records to the file.
+   */
+  public void flush() throws IOException {
+    ensureOpen();
+    writeBuffer();
+  }
+
+  /**
+   * Write the buffered records and close the file.  Closing a closed writer does nothing.
+   */
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    try {
+      writeBuffer();
+    }
+    finally {
+      closed = true;
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package axk9084.ProjectCola.server;
+
+/**
+ * A command sent by a player to a match.  Commands are immutable so they can be handed between threads freely.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public final class Command {
+
+  // Command types
+  public static final int MOVE = 1;
+  public static final int ATTACK = 2;
+  public static final int END_TURN = 3;
+  public static final int FORFEIT = 4;
+  public static final int QUERY = 5;
+
+  private final int type;
+  private final int player;
+  private final int fromX;
+  private final int fromY;
+  private final int toX;
+  private final int toY;
+
+  private Command( int type, int player, int fromX, int fromY, int toX, int toY ) {
+    this.type = type;
+    this.player = player;
+    this.fromX = fromX;
+    this.fromY = fromY;
+    this.toX = toX;
+    this.toY = toY;
+  }
+
+  public static Command move( int player, int fromX, int fromY, int toX, int toY ) {
+    return new Command( MOVE, player, fromX, fromY, toX, toY );
+  }
+
+  public static Command attack( int player, int fromX, int fromY, int toX, int toY ) {
+    return new Command( ATTACK, player, fromX, fromY, toX, toY );
+  }
+
+  public static Command endTurn( int player ) {
+    return new Command( END_TURN, player, 0, 0, 0, 0 );
+  }
+
+  public static Command forfeit( int player ) {
+    return new Command( FORFEIT, player, 0, 0, 0, 0 );
+  }
+
+  /**
+   * A command that changes nothing, used to read the turn player, winner and state hash of a match.
+   */
+  public static Command query( int player ) {
+    return new Command( QUERY, player, 0, 0, 0, 0 );
+  }
+
+  public int getType() {
+    return type;
+  }
+
+  public int getPlayer() {
+    return player;
+  }
+
+  public int getFromX() {
+    return fromX;
+  }
+
+  public int getFromY() {
+    return fromY;
+  }
+
+  public int getToX() {
+    return toX;
+  }
+
+  public int getToY() {
+    return toY;
+  }
+
+  @Override
+  public String toString() {
+    switch ( type ) {
+      case MOVE:
+        return "player " + player + " move " + fromX + "," + fromY + " -> " + toX + "," + toY;
+      case ATTACK:
+        return "player " + player + " attack " + fromX + "," + fromY + " -> " + toX + "," + toY;
+      case END_TURN:
+        return "player " + player + " end turn";
+      case FORFEIT:
+        return "player " + player + " forfeit";
+      case QUERY:
+        return "player " + player + " query";
+      default:
+        return "player " + player + " unknown command " + type;
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package axk9084.ProjectCola.server;
+
+/**
+ * Receives the result of a command submitted to a match.  Called on the thread that ran the command, so it should
+ * return quickly and must not wait on other commands of the same match.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public interface CommandCallback {
+
+  void completed( CommandResult result );
+}
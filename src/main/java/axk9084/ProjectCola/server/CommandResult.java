@@ -0,0 +1,80 @@
+package axk9084.ProjectCola.server;
+
+/**
+ * The outcome of a command run by a match, along with the parts of the match state a player needs to continue.
+ * Results are immutable and hold no reference to the match's engine.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public final class CommandResult {
+
+  // Rejection reasons that do not come from an engine exception
+  public static final String GAME_OVER = "GameOver";
+  public static final String NOT_YOUR_TURN = "NotYourTurn";
+  public static final String UNKNOWN_COMMAND = "UnknownCommand";
+  public static final String NO_SUCH_MATCH = "NoSuchMatch";
+
+  private final long matchId;
+  private final Command command;
+  private final String rejection;
+  private final int turnPlayer;
+  private final int winner;
+  private final long stateHash;
+
+  CommandResult( long matchId, Command command, String rejection, int turnPlayer, int winner, long stateHash ) {
+    this.matchId = matchId;
+    this.command = command;
+    this.rejection = rejection;
+    this.turnPlayer = turnPlayer;
+    this.winner = winner;
+    this.stateHash = stateHash;
+  }
+
+  public long getMatchId() {
+    return matchId;
+  }
+
+  public Command getCommand() {
+    return command;
+  }
+
+  /**
+   * Check if the command was carried out.
+   */
+  public boolean isAccepted() {
+    return rejection == null;
+  }
+
+  /**
+   * Get why the command was rejected: the simple name of the engine exception it caused, or one of the reasons
+   * defined here.
+   *
+   * @return the reason, null if the command was accepted
+   */
+  public String getRejection() {
+    return rejection;
+  }
+
+  /**
+   * Get the player whose turn it is after the command.
+   */
+  public int getTurnPlayer() {
+    return turnPlayer;
+  }
+
+  /**
+   * Get the winner after the command.
+   *
+   * @return the winning player, 0 while the game is in progress
+   */
+  public int getWinner() {
+    return winner;
+  }
+
+  /**
+   * Get the state hash of the match after the command, see ProjectColaEngine.stateHash.
+   */
+  public long getStateHash() {
+    return stateHash;
+  }
+}
@@ -0,0 +1,234 @@
+package axk9084.ProjectCola.server;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.replay.ReplayWriter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A single game hosted by the server.  The match owns its engine and is the only thing that touches it.
+ *
+ * Commands may be submitted from any thread.  They are queued and run in order by a drain task on the server's
+ * executor, and at most one drain task of a match is scheduled at a time, so the engine only ever has a single
+ * writer and needs no locking.  A drain task runs a bounded batch of commands and then reschedules itself behind
+ * the other matches' tasks, so a busy match can not hold a pool thread for long.
+ *
+ * A match may record its accepted commands to a replay log, which it closes when the game ends or the match is
+ * closed.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public class Match {
+
+  // Most commands a drain task runs before giving its thread to another match
+  private static final int DRAIN_BATCH = 16;
+
+  private final long id;
+  private final ProjectColaEngine engine;
+  private final Executor executor;
+
+  // Replay log of the accepted commands, null if the match is not recorded or the log is closed
+  private ReplayWriter replay;
+
+  private final ConcurrentLinkedQueue< PendingCommand > queue = new ConcurrentLinkedQueue< PendingCommand >();
+
+  // True while a drain task is scheduled or running
+  private final AtomicBoolean scheduled = new AtomicBoolean( false );
+
+  private final Runnable drainTask = new Runnable() {
+    public void run() {
+      drain();
+    }
+  };
+
+  Match( long id, ProjectColaEngine engine, Executor executor ) {
+    this( id, engine, executor, null );
+  }
+
+  /**
+   * @param replay  the replay log to record accepted commands to, may be null
+   */
+  Match( long id, ProjectColaEngine engine, Executor executor, ReplayWriter replay ) {
+    this.id = id;
+    this.engine = engine;
+    this.executor = executor;
+    this.replay = replay;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Queue a command to be run after the commands already submitted to this match.
+   *
+   * @param command  the command to run
+   * @param callback  receives the result, may be null
+   */
+  public void submit( Command command, CommandCallback callback ) {
+    queue.offer( new PendingCommand( command, callback ) );
+    if ( scheduled.compareAndSet( false, true ) ) {
+      executor.execute( drainTask );
+    }
+  }
+
+  /**
+   * Queue the closing of the match's replay log behind the commands already submitted.
+   */
+  void close() {
+    submit( null, null );
+  }
+
+  /**
+   * Helper method to run queued commands.  Runs on one pool thread at a time.
+   */
+  private void drain() {
+    for ( int i = 0; i < DRAIN_BATCH; i++ ) {
+      PendingCommand pending = queue.poll();
+      if ( pending == null ) {
+        break;
+      }
+      if ( pending.command == null ) {
+        closeReplay();
+        continue;
+      }
+
+      CommandResult result = execute( pending.command );
+      if ( pending.callback != null ) {
+        try {
+          pending.callback.completed( result );
+        }
+        catch ( RuntimeException e ) {
+          System.err.println( "Command callback of match " + id + " failed: " + e );
+        }
+      }
+    }
+
+    // Commands queued after the last poll either see the flag cleared and schedule a drain themselves, or are seen
+    // here
+    scheduled.set( false );
+    if ( !queue.isEmpty() && scheduled.compareAndSet( false, true ) ) {
+      executor.execute( drainTask );
+    }
+  }
+
+  /**
+   * Helper method to run a command on the engine.
+   */
+  private CommandResult execute( Command command ) {
+    if ( command.getType() == Command.QUERY ) {
+      return result( command, null );
+    }
+    if ( engine.getGameWinner() != null ) {
+      return result( command, CommandResult.GAME_OVER );
+    }
+    if ( command.getPlayer() != engine.getTurnPlayer() ) {
+      return result( command, CommandResult.NOT_YOUR_TURN );
+    }
+
+    String rejection = null;
+    switch ( command.getType() ) {
+      case Command.MOVE:
+        rejection = engine.tryMove( command.getFromX(), command.getFromY(), command.getToX(), command.getToY() )
+            .getRejection();
+        break;
+      case Command.ATTACK:
+        rejection = engine.tryAttack( command.getFromX(), command.getFromY(), command.getToX(), command.getToY() )
+            .getRejection();
+        break;
+      case Command.END_TURN:
+        engine.endPlayerTurn();
+        break;
+      case Command.FORFEIT:
+        engine.playerForfeit();
+        break;
+      default:
+        return result( command, CommandResult.UNKNOWN_COMMAND );
+    }
+
+    if ( rejection != null ) {
+      return result( command, rejection );
+    }
+    record( command );
+    return result( command, null );
+  }
+
+  /**
+   * Helper method to record an accepted command to the replay log, closing the log once the game is over.  A log
+   * that fails to write is dropped, the match goes on without it.
+   */
+  private void record( Command command ) {
+    if ( replay == null ) {
+      return;
+    }
+
+    Board board = engine.getBoard();
+    try {
+      switch ( command.getType() ) {
+        case Command.MOVE:
+          replay.recordMove( board.getIndex( command.getFromX(), command.getFromY() ),
+              board.getIndex( command.getToX(), command.getToY() ) );
+          break;
+        case Command.ATTACK:
+          replay.recordAttack( board.getIndex( command.getFromX(), command.getFromY() ),
+              board.getIndex( command.getToX(), command.getToY() ) );
+          break;
+        case Command.END_TURN:
+          replay.recordEndTurn();
+          break;
+        case Command.FORFEIT:
+          replay.recordForfeit();
+          break;
+      }
+    }
+    catch ( IOException e ) {
+      System.err.println( "Replay log of match " + id + " failed: " + e );
+      closeReplay();
+      return;
+    }
+
+    if ( engine.getGameWinner() != null ) {
+      closeReplay();
+    }
+  }
+
+  /**
+   * Helper method to close the replay log, if there is one.
+   */
+  private void closeReplay() {
+    if ( replay == null ) {
+      return;
+    }
+    try {
+      replay.close();
+    }
+    catch ( IOException e ) {
+      System.err.println( "Replay log of match " + id + " failed to close: " + e );
+    }
+    replay = null;
+  }
+
+  private CommandResult result( Command command, String rejection ) {
+    Integer winner = engine.getGameWinner();
+    return new CommandResult( id, command, rejection, engine.getTurnPlayer(), winner == null ? 0 : winner,
+        engine.stateHash() );
+  }
+
+  /**
+   * A command waiting in the queue with its callback.  A null command closes the replay log.
+   */
+  private static class PendingCommand {
+
+    final Command command;
+    final CommandCallback callback;
+
+    PendingCommand( Command command, CommandCallback callback ) {
+      this.command = command;
+      this.callback = callback;
+    }
+  }
+}
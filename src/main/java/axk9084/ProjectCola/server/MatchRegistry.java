@@ -0,0 +1,50 @@
+package axk9084.ProjectCola.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The matches hosted by a server, by id.  Safe to use from any thread.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public class MatchRegistry {
+
+  private final ConcurrentHashMap< Long, Match > matches = new ConcurrentHashMap< Long, Match >();
+  private final AtomicLong nextId = new AtomicLong( 1 );
+
+  /**
+   * Reserve a new match id.
+   */
+  long nextId() {
+    return nextId.getAndIncrement();
+  }
+
+  void add( Match match ) {
+    matches.put( match.getId(), match );
+  }
+
+  /**
+   * Get a match.
+   *
+   * @param id  the match id
+   * @return the match, null if there is no match with the id
+   */
+  public Match get( long id ) {
+    return matches.get( id );
+  }
+
+  /**
+   * Remove a match.  Commands already queued on it still run.
+   *
+   * @param id  the match id
+   * @return the removed match, null if there was no match with the id
+   */
+  public Match remove( long id ) {
+    return matches.remove( id );
+  }
+
+  public int size() {
+    return matches.size();
+  }
+}
@@ -0,0 +1,187 @@
+package axk9084.ProjectCola.server;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.controller.metrics.EngineMetrics;
+import axk9084.ProjectCola.replay.ReplayWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many matches in one JVM.
+ *
+ * Each match has its own engine and command queue, and matches share nothing mutable but the registry and the
+ * thread pool.  The pool is small, one thread per core by default: a match only holds a thread while it has
+ * commands to run, so thousands of matches are served by a handful of threads.
+ *
+ * With a replay directory set, every match created afterwards records its accepted commands to a replay log named
+ * match-ID.replay in it, see {@link ReplayWriter}.  Each log holds an open file until its game ends or its match is
+ * closed.
+ *
+ * With metrics set, the engines of matches created afterwards record their commands into them, see
+ * {@link EngineMetrics}.
+ *
+ * Created by antkwan on 7/15/2016.
+ */
+public class MatchServer {
+
+  private final MatchRegistry registry = new MatchRegistry();
+  private final ExecutorService pool;
+
+  // Directory replay logs are written to, null to not record matches
+  private volatile File replayDirectory = null;
+
+  // Metrics the engines of new matches record into, null to not collect them
+  private volatile EngineMetrics metrics = null;
+
+  public MatchServer() {
+    this( Runtime.getRuntime().availableProcessors() );
+  }
+
+  /**
+   * @param threads  the number of threads running match commands
+   */
+  public MatchServer( int threads ) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    pool = Executors.newFixedThreadPool( Math.max( 1, threads ), new ThreadFactory() {
+      public Thread newThread( Runnable runnable ) {
+        Thread thread = new Thread( runnable, "ProjectCola-match-" + threadCount.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      }
+    } );
+  }
+
+  /**
+   * Start a match on the default board.
+   *
+   * @return the id of the match
+   */
+  public long createMatch() {
+    return createMatch( new ProjectColaEngine() );
+  }
+
+  /**
+   * Start a match with the default placings on a board of the given size.
+   *
+   * @param rows  number of rows of the board
+   * @param columns  number of columns of the board
+   * @return the id of the match
+   */
+  public long createMatch( int rows, int columns ) {
+    return createMatch( new ProjectColaEngine( rows, columns ) );
+  }
+
+  private long createMatch( ProjectColaEngine engine ) {
+    long id = registry.nextId();
+    engine.setMetrics( metrics );
+    Match match = new Match( id, engine, pool, createReplay( id, engine ) );
+    registry.add( match );
+    return match.getId();
+  }
+
+  /**
+   * Helper method to start the replay log of a new match.  A match whose log can not be created is not recorded.
+   */
+  private ReplayWriter createReplay( long id, ProjectColaEngine engine ) {
+    File directory = replayDirectory;
+    if ( directory == null ) {
+      return null;
+    }
+    try {
+      return new ReplayWriter( new File( directory, "match-" + id + ".replay" ), engine );
+    }
+    catch ( IOException e ) {
+      System.err.println( "Replay log of match " + id + " could not be created: " + e );
+      return null;
+    }
+  }
+
+  /**
+   * Set the directory the replay logs of new matches are written to.
+   *
+   * @param directory  an existing directory, or null to stop recording new matches
+   */
+  public void setReplayDirectory( File directory ) {
+    replayDirectory = directory;
+  }
+
+  public File getReplayDirectory() {
+    return replayDirectory;
+  }
+
+  /**
+   * Set the metrics the engines of new matches record their commands into.
+   *
+   * @param metrics  the metrics, or null to stop collecting them for new matches
+   */
+  public void setMetrics( EngineMetrics metrics ) {
+    this.metrics = metrics;
+  }
+
+  public EngineMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Submit a command to a match.  The callback is called once the command has run, on a pool thread, or right away
+   * on this thread if there is no such match.
+   *
+   * @param matchId  the match to run the command in
+   * @param command  the command
+   * @param callback  receives the result, may be null
+   * @return true if the command was queued, false if there is no such match
+   */
+  public boolean submit( long matchId, Command command, CommandCallback callback ) {
+    Match match = registry.get( matchId );
+    if ( match == null ) {
+      if ( callback != null ) {
+        callback.completed( new CommandResult( matchId, command, CommandResult.NO_SUCH_MATCH, 0, 0, 0 ) );
+      }
+      return false;
+    }
+
+    match.submit( command, callback );
+    return true;
+  }
+
+  /**
+   * Remove a finished or abandoned match.
+   *
+   * @param matchId  the match id
+   * @return true if the match was removed
+   */
+  public boolean closeMatch( long matchId ) {
+    Match match = registry.remove( matchId );
+    if ( match == null ) {
+      return false;
+    }
+    match.close();
+    return true;
+  }
+
+  public MatchRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Stop the pool, letting queued commands finish for up to the given time.
+   *
+   * @param timeoutMillis  how long to wait for queued commands
+   */
+  public void shutdown( long timeoutMillis ) {
+    pool.shutdown();
+    try {
+      pool.awaitTermination( timeoutMillis, TimeUnit.MILLISECONDS );
+    }
+    catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    pool.shutdownNow();
+  }
+}
@@ -0,0 +1,564 @@
+package axk9084.ProjectCola.server;
+
+import axk9084.ProjectCola.controller.metrics.EngineMetrics;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A TCP front end for a MatchServer.  All connections are served by one selector thread; commands run on the match
+ * server's pool and their results are written back by the selector thread, so no thread is tied to a connection.
+ *
+ * The protocol is line based ASCII, one message per line, fields separated by single spaces.  Tiles are given as x
+ * and y, counted from 0 at the bottom left.
+ *
+ * Client to server:
+ *   NEW [rows columns]          start a match and play it as player 1, on a board of MIN_ROWS to MAX_BOARD_SIDE
+ *                               rows and MIN_COLUMNS to MAX_BOARD_SIDE columns
+ *   JOIN matchId                join a match as player 2
+ *   MOVE fromX fromY toX toY    ProjectColaEngine.moveCharacter
+ *   ATTACK fromX fromY toX toY  ProjectColaEngine.attackCharacter
+ *   END                         ProjectColaEngine.endPlayerTurn
+ *   FORFEIT                     ProjectColaEngine.playerForfeit
+ *
+ * Server to client:
+ *   MATCH matchId player                             reply to NEW and JOIN
+ *   UPDATE turnPlayer winner hash player command...  pushed to both players after a command was carried out, or the
+ *                                                    second player joined.  winner is 0 while the game is on and
+ *                                                    hash is the state hash in hex
+ *   ERR reason                                       reply to a command that was rejected, see CommandResult
+ *   LEFT player                                      pushed when the other player disconnects
+ *
+ * A player only sees the UPDATE of their own command, not a separate reply, so a client can send its next command
+ * as soon as the UPDATE or ERR of the last one arrives.
+ *
+ * Usage: NetworkServer [--port P] [--threads T] [--metrics true]
+ *
+ * With --metrics true the engines' metrics are registered over JMX as
+ * axk9084.ProjectCola:type=EngineMetrics,name=port-P and dumped as text when the server exits.
+ *
+ * Created by antkwan on 7/16/2016.
+ */
+public class NetworkServer implements Runnable {
+
+  public static final int DEFAULT_PORT = 7070;
+
+  // Longest line accepted from a client
+  private static final int MAX_LINE = 256;
+
+  // Board sizes a client can ask for.  The default placings need 4 rows and 2 columns
+  public static final int MIN_ROWS = 4;
+  public static final int MIN_COLUMNS = 2;
+  public static final int MAX_BOARD_SIDE = 128;
+
+  private static final Charset ASCII = Charset.forName( "US-ASCII" );
+
+  // Rejection reasons of the network layer
+  static final String BAD_COMMAND = "BadCommand";
+  static final String NOT_IN_MATCH = "NotInMatch";
+  static final String ALREADY_IN_MATCH = "AlreadyInMatch";
+  static final String MATCH_FULL = "MatchFull";
+  static final String WAITING_FOR_OPPONENT = "WaitingForOpponent";
+  static final String BAD_BOARD_SIZE = "BadBoardSize";
+
+  private final MatchServer matchServer;
+  private final Selector selector;
+  private final ServerSocketChannel serverChannel;
+
+  // Connections with output waiting to be written, queued by any thread for the selector thread
+  private final ConcurrentLinkedQueue< Connection > pendingWrites = new ConcurrentLinkedQueue< Connection >();
+
+  private final ConcurrentHashMap< Long, NetworkMatch > matches = new ConcurrentHashMap< Long, NetworkMatch >();
+
+  private volatile boolean running = false;
+  private Thread thread;
+
+  /**
+   * Open the server socket.  Call {@link #start()} to begin accepting connections.
+   *
+   * @param matchServer  the server running the matches
+   * @param port  the port to listen on, 0 for any free port
+   * @throws IOException if the socket can not be opened
+   */
+  public NetworkServer( MatchServer matchServer, int port ) throws IOException {
+    this.matchServer = matchServer;
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.configureBlocking( false );
+    serverChannel.socket().setReuseAddress( true );
+    serverChannel.socket().bind( new InetSocketAddress( port ), 1024 );
+    serverChannel.register( selector, SelectionKey.OP_ACCEPT );
+  }
+
+  /**
+   * Get the port the server is listening on.
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Start the selector thread.
+   */
+  public void start() {
+    running = true;
+    thread = new Thread( this, "ProjectCola-network" );
+    thread.start();
+  }
+
+  /**
+   * Stop the selector thread and close every connection.
+   */
+  public void close() {
+    running = false;
+    selector.wakeup();
+    if ( thread != null ) {
+      try {
+        thread.join();
+      }
+      catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * The selector loop.
+   */
+  public void run() {
+    try {
+      while ( running ) {
+        selector.select();
+        flushPendingWrites();
+
+        Iterator< SelectionKey > keys = selector.selectedKeys().iterator();
+        while ( keys.hasNext() ) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if ( !key.isValid() ) {
+            continue;
+          }
+
+          if ( key.isAcceptable() ) {
+            accept();
+            continue;
+          }
+
+          Connection connection = (Connection) key.attachment();
+          try {
+            if ( key.isReadable() ) {
+              read( connection );
+            }
+            if ( key.isValid() && key.isWritable() ) {
+              write( connection );
+            }
+          }
+          catch ( IOException e ) {
+            disconnect( connection );
+          }
+        }
+      }
+    }
+    catch ( IOException e ) {
+      System.err.println( "Network server stopped: " + e );
+    }
+    finally {
+      closeAll();
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if ( channel == null ) {
+      return;
+    }
+    channel.configureBlocking( false );
+    channel.socket().setTcpNoDelay( true );
+    Connection connection = new Connection( channel );
+    connection.key = channel.register( selector, SelectionKey.OP_READ, connection );
+  }
+
+  /**
+   * Helper method to read what a connection sent and handle each complete line.
+   */
+  private void read( Connection connection ) throws IOException {
+    ByteBuffer in = connection.in;
+    if ( connection.channel.read( in ) < 0 ) {
+      disconnect( connection );
+      return;
+    }
+
+    in.flip();
+    byte[] bytes = in.array();
+    int lineStart = 0;
+    for ( int i = 0; i < in.limit(); i++ ) {
+      if ( bytes[ i ] == '\n' ) {
+        int lineEnd = i > lineStart && bytes[ i - 1 ] == '\r' ? i - 1 : i;
+        String line = new String( bytes, lineStart, lineEnd - lineStart, ASCII );
+        try {
+          handleLine( connection, line );
+        }
+        catch ( RuntimeException e ) {
+          // A line that breaks the server closes only the connection that sent it, the selector thread goes on
+          System.err.println( "Closing connection after failing to handle \"" + line + "\": " + e );
+          disconnect( connection );
+          return;
+        }
+        lineStart = i + 1;
+      }
+    }
+    in.position( lineStart );
+    in.compact();
+
+    if ( !in.hasRemaining() ) {
+      connection.send( "ERR " + BAD_COMMAND );
+      write( connection );
+      disconnect( connection );
+    }
+  }
+
+  /**
+   * Helper method to carry out one line sent by a client.
+   */
+  private void handleLine( Connection connection, String line ) {
+    String[] fields = line.split( " " );
+    String verb = fields[ 0 ];
+
+    try {
+      if ( verb.equals( "NEW" ) ) {
+        newMatch( connection, fields );
+      }
+      else if ( verb.equals( "JOIN" ) ) {
+        joinMatch( connection, fields );
+      }
+      else if ( verb.equals( "MOVE" ) && fields.length == 5 ) {
+        submit( connection, Command.move( connection.player, Integer.parseInt( fields[ 1 ] ),
+            Integer.parseInt( fields[ 2 ] ), Integer.parseInt( fields[ 3 ] ), Integer.parseInt( fields[ 4 ] ) ), line );
+      }
+      else if ( verb.equals( "ATTACK" ) && fields.length == 5 ) {
+        submit( connection, Command.attack( connection.player, Integer.parseInt( fields[ 1 ] ),
+            Integer.parseInt( fields[ 2 ] ), Integer.parseInt( fields[ 3 ] ), Integer.parseInt( fields[ 4 ] ) ), line );
+      }
+      else if ( verb.equals( "END" ) && fields.length == 1 ) {
+        submit( connection, Command.endTurn( connection.player ), line );
+      }
+      else if ( verb.equals( "FORFEIT" ) && fields.length == 1 ) {
+        submit( connection, Command.forfeit( connection.player ), line );
+      }
+      else {
+        connection.send( "ERR " + BAD_COMMAND );
+      }
+    }
+    catch ( NumberFormatException e ) {
+      connection.send( "ERR " + BAD_COMMAND );
+    }
+  }
+
+  private void newMatch( Connection connection, String[] fields ) {
+    if ( connection.match != null ) {
+      connection.send( "ERR " + ALREADY_IN_MATCH );
+      return;
+    }
+
+    long matchId;
+    if ( fields.length == 3 ) {
+      int rows = Integer.parseInt( fields[ 1 ] );
+      int columns = Integer.parseInt( fields[ 2 ] );
+      if ( rows < MIN_ROWS || rows > MAX_BOARD_SIDE || columns < MIN_COLUMNS || columns > MAX_BOARD_SIDE ) {
+        connection.send( "ERR " + BAD_BOARD_SIZE );
+        return;
+      }
+      matchId = matchServer.createMatch( rows, columns );
+    }
+    else if ( fields.length == 1 ) {
+      matchId = matchServer.createMatch();
+    }
+    else {
+      connection.send( "ERR " + BAD_COMMAND );
+      return;
+    }
+
+    NetworkMatch match = new NetworkMatch( matchId );
+    match.setConnection( 1, connection );
+    matches.put( matchId, match );
+    connection.match = match;
+    connection.player = 1;
+    connection.send( "MATCH " + matchId + " 1" );
+  }
+
+  private void joinMatch( Connection connection, String[] fields ) {
+    if ( fields.length != 2 ) {
+      connection.send( "ERR " + BAD_COMMAND );
+      return;
+    }
+    if ( connection.match != null ) {
+      connection.send( "ERR " + ALREADY_IN_MATCH );
+      return;
+    }
+
+    final NetworkMatch match = matches.get( Long.parseLong( fields[ 1 ] ) );
+    if ( match == null ) {
+      connection.send( "ERR " + CommandResult.NO_SUCH_MATCH );
+      return;
+    }
+    if ( match.getConnection( 2 ) != null ) {
+      connection.send( "ERR " + MATCH_FULL );
+      return;
+    }
+
+    match.setConnection( 2, connection );
+    connection.match = match;
+    connection.player = 2;
+    connection.send( "MATCH " + match.id + " 2" );
+
+    // Tell both players the game is on, with the state it starts from
+    matchServer.submit( match.id, Command.query( 2 ), new CommandCallback() {
+      public void completed( CommandResult result ) {
+        match.broadcast( result, "JOIN" );
+      }
+    } );
+  }
+
+  private void submit( final Connection connection, Command command, final String commandLine ) {
+    final NetworkMatch match = connection.match;
+    if ( match == null ) {
+      connection.send( "ERR " + NOT_IN_MATCH );
+      return;
+    }
+    if ( match.getConnection( 1 ) == null || match.getConnection( 2 ) == null ) {
+      connection.send( "ERR " + WAITING_FOR_OPPONENT );
+      return;
+    }
+
+    matchServer.submit( match.id, command, new CommandCallback() {
+      public void completed( CommandResult result ) {
+        if ( result.isAccepted() ) {
+          match.broadcast( result, commandLine );
+        }
+        else {
+          connection.send( "ERR " + result.getRejection() );
+        }
+      }
+    } );
+  }
+
+  /**
+   * Helper method to write the output of every connection that asked for it since the last pass.
+   */
+  private void flushPendingWrites() {
+    Connection connection;
+    while ( ( connection = pendingWrites.poll() ) != null ) {
+      connection.flushRequested.set( false );
+      try {
+        write( connection );
+      }
+      catch ( IOException e ) {
+        disconnect( connection );
+      }
+    }
+  }
+
+  /**
+   * Helper method to write as much queued output of a connection as the socket takes, and watch for the socket
+   * becoming writable again if it did not take it all.
+   */
+  private void write( Connection connection ) throws IOException {
+    if ( !connection.key.isValid() ) {
+      return;
+    }
+
+    while ( true ) {
+      if ( connection.writing == null ) {
+        connection.writing = connection.outbox.poll();
+        if ( connection.writing == null ) {
+          connection.key.interestOps( SelectionKey.OP_READ );
+          return;
+        }
+      }
+
+      connection.channel.write( connection.writing );
+      if ( connection.writing.hasRemaining() ) {
+        connection.key.interestOps( SelectionKey.OP_READ | SelectionKey.OP_WRITE );
+        return;
+      }
+      connection.writing = null;
+    }
+  }
+
+  private void disconnect( Connection connection ) {
+    connection.key.cancel();
+    try {
+      connection.channel.close();
+    }
+    catch ( IOException e ) {
+      // Already closed
+    }
+
+    NetworkMatch match = connection.match;
+    if ( match != null ) {
+      match.setConnection( connection.player, null );
+      Connection other = match.getConnection( connection.player == 1 ? 2 : 1 );
+      if ( other != null ) {
+        other.send( "LEFT " + connection.player );
+      }
+      else {
+        matches.remove( match.id );
+        matchServer.closeMatch( match.id );
+      }
+      connection.match = null;
+    }
+  }
+
+  private void closeAll() {
+    List< SelectionKey > keys = new ArrayList< SelectionKey >( selector.keys() );
+    for ( SelectionKey key : keys ) {
+      try {
+        key.channel().close();
+      }
+      catch ( IOException e ) {
+        // Closing anyway
+      }
+    }
+    try {
+      selector.close();
+    }
+    catch ( IOException e ) {
+      // Closing anyway
+    }
+  }
+
+  /**
+   * One client connection.  Its input and match membership are only used by the selector thread, its output may be
+   * queued from any thread.
+   */
+  private class Connection {
+
+    final SocketChannel channel;
+    SelectionKey key;
+
+    final ByteBuffer in = ByteBuffer.allocate( MAX_LINE );
+
+    final ConcurrentLinkedQueue< ByteBuffer > outbox = new ConcurrentLinkedQueue< ByteBuffer >();
+    final AtomicBoolean flushRequested = new AtomicBoolean( false );
+
+    // Output partly written to the socket
+    ByteBuffer writing;
+
+    NetworkMatch match;
+    int player;
+
+    Connection( SocketChannel channel ) {
+      this.channel = channel;
+    }
+
+    /**
+     * Queue a line to be written, waking the selector thread if this connection is not already waiting for it.
+     */
+    void send( String line ) {
+      outbox.offer( ByteBuffer.wrap( ( line + "\n" ).getBytes( ASCII ) ) );
+      if ( flushRequested.compareAndSet( false, true ) ) {
+        pendingWrites.offer( this );
+        selector.wakeup();
+      }
+    }
+  }
+
+  /**
+   * The connections of the two players of a match.
+   */
+  private static class NetworkMatch {
+
+    final long id;
+    private volatile Connection player1;
+    private volatile Connection player2;
+
+    NetworkMatch( long id ) {
+      this.id = id;
+    }
+
+    Connection getConnection( int player ) {
+      return player == 1 ? player1 : player2;
+    }
+
+    void setConnection( int player, Connection connection ) {
+      if ( player == 1 ) {
+        player1 = connection;
+      }
+      else {
+        player2 = connection;
+      }
+    }
+
+    /**
+     * Push an update to both players.
+     */
+    void broadcast( CommandResult result, String commandLine ) {
+      String line = "UPDATE " + result.getTurnPlayer() + " " + result.getWinner() + " "
+          + Long.toHexString( result.getStateHash() ) + " " + result.getCommand().getPlayer() + " " + commandLine;
+      Connection first = player1;
+      Connection second = player2;
+      if ( first != null ) {
+        first.send( line );
+      }
+      if ( second != null ) {
+        second.send( line );
+      }
+    }
+  }
+
+  public static void main( String[] args ) throws IOException {
+    int port = DEFAULT_PORT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean metrics = false;
+
+    for ( int i = 0; i + 1 < args.length; i += 2 ) {
+      if ( args[ i ].equals( "--port" ) ) {
+        port = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--threads" ) ) {
+        threads = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--metrics" ) ) {
+        metrics = Boolean.parseBoolean( args[ i + 1 ] );
+      }
+      else {
+        System.err.println( "Unknown option " + args[ i ] );
+        System.exit( 1 );
+      }
+    }
+
+    MatchServer matchServer = new MatchServer( threads );
+    NetworkServer server = new NetworkServer( matchServer, port );
+    if ( metrics ) {
+      final EngineMetrics engineMetrics = new EngineMetrics();
+      try {
+        engineMetrics.registerMBeans( "port-" + server.getPort() );
+      }
+      catch ( JMException e ) {
+        System.err.println( "Metrics could not be registered over JMX: " + e );
+      }
+      Runtime.getRuntime().addShutdownHook( new Thread( new Runnable() {
+        public void run() {
+          System.out.print( engineMetrics.dump() );
+        }
+      } ) );
+      matchServer.setMetrics( engineMetrics );
+    }
+
+    server.start();
+    System.out.println( "Listening on port " + server.getPort() );
+  }
+}
@@ -0,0 +1,24 @@
+package axk9084.ProjectCola.simulation;
+
+/**
+ * A computer player in a simulated game.  A bot is created for one player of one game and is only used by the thread
+ * running that game.
+ *
+ * Created by antkwan on 7/13/2016.
+ */
+public interface Bot {
+
+  /**
+   * Pick the next action of the bot's player.  It is the bot's player's turn when this is called.
+   *
+   * @return the encoded action, see Action
+   */
+  long chooseAction();
+
+  /**
+   * Told about every action played in the game, by either player, after it has been applied to the engine.
+   *
+   * @param action  the encoded action that was played
+   */
+  void actionPlayed( long action );
+}
@@ -0,0 +1,194 @@
+package axk9084.ProjectCola.simulation;
+
+import axk9084.ProjectCola.ai.AlphaBetaSearch;
+import axk9084.ProjectCola.ai.MaterialEvaluator;
+import axk9084.ProjectCola.ai.MonteCarloTreeSearch;
+import axk9084.ProjectCola.ai.TranspositionTable;
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.chara.Chara;
+
+import java.util.Random;
+
+/**
+ * The playing policies available to the simulator, looked up by name.
+ *
+ * Policies are named with an optional strength parameter after a colon:
+ *   random            picks any legal action
+ *   greedy            attacks the weakest enemy in range when it can, else acts at random
+ *   alphabeta:depth   AlphaBetaSearch to a fixed depth, 4 by default
+ *   mcts:iterations   MonteCarloTreeSearch with a fixed number of iterations, 1000 by default
+ *
+ * The searching policies are limited by depth and iterations rather than time so that a seed always replays the same
+ * game, however busy the machine is.
+ *
+ * Created by antkwan on 7/13/2016.
+ */
+public final class BotPolicies {
+
+  private static final int DEFAULT_DEPTH = 4;
+  private static final int DEFAULT_ITERATIONS = 1000;
+
+  // Searches are ended by their depth or iteration limit, this only guards against a runaway search
+  private static final long SEARCH_TIME_LIMIT_MILLIS = 60000;
+
+  private static final int TABLE_ENTRIES = 1 << 16;
+
+  private BotPolicies() {}
+
+  /**
+   * Get a policy by name.
+   *
+   * @param spec  the policy name and optional parameter, for example "mcts:500"
+   * @return the policy
+   * @throws IllegalArgumentException if the name or parameter is not valid
+   */
+  public static BotPolicy forName( String spec ) {
+    int colon = spec.indexOf( ':' );
+    String name = colon < 0 ? spec : spec.substring( 0, colon );
+    String parameter = colon < 0 ? null : spec.substring( colon + 1 );
+
+    if ( name.equals( "random" ) ) {
+      return random();
+    }
+    if ( name.equals( "greedy" ) ) {
+      return greedy();
+    }
+    if ( name.equals( "alphabeta" ) ) {
+      return alphaBeta( parseParameter( spec, parameter, DEFAULT_DEPTH ) );
+    }
+    if ( name.equals( "mcts" ) ) {
+      return monteCarlo( parseParameter( spec, parameter, DEFAULT_ITERATIONS ) );
+    }
+    throw new IllegalArgumentException( "Unknown policy: " + spec );
+  }
+
+  private static int parseParameter( String spec, String parameter, int defaultValue ) {
+    if ( parameter == null ) {
+      return defaultValue;
+    }
+    try {
+      int value = Integer.parseInt( parameter );
+      if ( value > 0 ) {
+        return value;
+      }
+    }
+    catch ( NumberFormatException e ) {
+      // Reported below
+    }
+    throw new IllegalArgumentException( "Policy parameter must be a positive number: " + spec );
+  }
+
+  /**
+   * A policy that picks any legal action with equal chance.
+   */
+  public static BotPolicy random() {
+    return new BotPolicy() {
+      public Bot createBot( ProjectColaEngine engine, int player, long seed ) {
+        return new RandomBot( engine, player, seed, false );
+      }
+    };
+  }
+
+  /**
+   * A policy that attacks the weakest enemy in range when it can, and otherwise picks any legal action.
+   */
+  public static BotPolicy greedy() {
+    return new BotPolicy() {
+      public Bot createBot( ProjectColaEngine engine, int player, long seed ) {
+        return new RandomBot( engine, player, seed, true );
+      }
+    };
+  }
+
+  /**
+   * A policy that searches each action with AlphaBetaSearch.
+   *
+   * @param depth  the depth to search to, in actions
+   */
+  public static BotPolicy alphaBeta( final int depth ) {
+    return new BotPolicy() {
+      public Bot createBot( ProjectColaEngine engine, int player, long seed ) {
+        final AlphaBetaSearch search =
+            new AlphaBetaSearch( engine, new MaterialEvaluator(), new TranspositionTable( TABLE_ENTRIES ) );
+        return new Bot() {
+          public long chooseAction() {
+            return search.findBestAction( SEARCH_TIME_LIMIT_MILLIS, depth );
+          }
+
+          public void actionPlayed( long action ) {}
+        };
+      }
+    };
+  }
+
+  /**
+   * A policy that searches each action with MonteCarloTreeSearch, reusing the tree between actions.
+   *
+   * @param iterations  the number of iterations to run per action
+   */
+  public static BotPolicy monteCarlo( final int iterations ) {
+    return new BotPolicy() {
+      public Bot createBot( ProjectColaEngine engine, int player, long seed ) {
+        final MonteCarloTreeSearch search = new MonteCarloTreeSearch( engine, iterations * 64, seed );
+        return new Bot() {
+          public long chooseAction() {
+            return search.findBestAction( SEARCH_TIME_LIMIT_MILLIS, iterations );
+          }
+
+          public void actionPlayed( long action ) {
+            search.advance( action );
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Bot behind the random and greedy policies.
+   */
+  private static class RandomBot implements Bot {
+
+    private final ProjectColaEngine engine;
+    private final int player;
+    private final Random random;
+    private final boolean greedy;
+    private long[] actions = new long[ 256 ];
+
+    RandomBot( ProjectColaEngine engine, int player, long seed, boolean greedy ) {
+      this.engine = engine;
+      this.player = player;
+      this.random = new Random( seed );
+      this.greedy = greedy;
+    }
+
+    public long chooseAction() {
+      int count = engine.generateLegalActions( player, actions );
+      if ( count > actions.length ) {
+        actions = new long[ count * 2 ];
+        count = engine.generateLegalActions( player, actions );
+      }
+
+      if ( greedy ) {
+        long best = 0;
+        int bestHealth = Integer.MAX_VALUE;
+        for ( int i = 0; i < count; i++ ) {
+          if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+            Chara target = (Chara) engine.getBoard().getEntityAt( Action.getToIndex( actions[ i ] ) );
+            if ( target.getHealth() < bestHealth ) {
+              bestHealth = target.getHealth();
+              best = actions[ i ];
+            }
+          }
+        }
+        if ( best != 0 ) {
+          return best;
+        }
+      }
+
+      return actions[ random.nextInt( count ) ];
+    }
+
+    public void actionPlayed( long action ) {}
+  }
+}
@@ -0,0 +1,21 @@
+package axk9084.ProjectCola.simulation;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+
+/**
+ * Creates the bots of a playing policy, a fresh one for each player of each game.
+ *
+ * Created by antkwan on 7/13/2016.
+ */
+public interface BotPolicy {
+
+  /**
+   * Create a bot for a player.
+   *
+   * @param engine  the engine of the game the bot plays in
+   * @param player  the player the bot plays as
+   * @param seed  seed for any randomness of the bot, so games can be reproduced
+   * @return the bot
+   */
+  Bot createBot( ProjectColaEngine engine, int player, long seed );
+}
@@ -0,0 +1,306 @@
+package axk9084.ProjectCola.simulation;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.model.chara.Chara;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays batches of games between two bot policies without any user interface, for balance testing.
+ *
+ * Games are spread over a pool of threads, one per core by default, which take game numbers from a shared counter.
+ * Every game gets its own seed derived from the batch seed and the game number, so a batch gives the same results
+ * whatever the number of threads.  Totals are written as one CSV row per batch, appended to the output file so runs
+ * with different policies or stats can be compared.
+ *
+ * Usage: SelfPlaySimulator [--games N] [--p1 policy] [--p2 policy] [--seed S] [--threads T] [--max-turns M]
+ *                          [--rows R] [--columns C] [--out file.csv]
+ *
+ * See BotPolicies for the policy names.
+ *
+ * Created by antkwan on 7/13/2016.
+ */
+public class SelfPlaySimulator {
+
+  private static final String CSV_HEADER;
+
+  static {
+    StringBuilder header = new StringBuilder(
+        "p1,p2,rows,columns,games,p1_wins,p2_wins,draws,p1_win_rate,p2_win_rate,avg_turns,avg_actions" );
+    for ( String chara : SimulationStats.CHARA_CLASSES ) {
+      header.append( ',' ).append( chara.toLowerCase( Locale.ROOT ) ).append( "_damage_per_game" );
+    }
+    CSV_HEADER = header.append( ",games_per_second" ).toString();
+  }
+
+  private final String p1Spec;
+  private final String p2Spec;
+  private final BotPolicy p1Policy;
+  private final BotPolicy p2Policy;
+  private final int rows;
+  private final int columns;
+  private final int maxTurns;
+
+  /**
+   * @param p1Spec  the policy of player 1, see BotPolicies
+   * @param p2Spec  the policy of player 2, see BotPolicies
+   * @param rows  number of rows of the board
+   * @param columns  number of columns of the board
+   * @param maxTurns  the number of turns after which a game counts as a draw
+   */
+  public SelfPlaySimulator( String p1Spec, String p2Spec, int rows, int columns, int maxTurns ) {
+    this.p1Spec = p1Spec;
+    this.p2Spec = p2Spec;
+    this.p1Policy = BotPolicies.forName( p1Spec );
+    this.p2Policy = BotPolicies.forName( p2Spec );
+    this.rows = rows;
+    this.columns = columns;
+    this.maxTurns = maxTurns;
+  }
+
+  /**
+   * Play a batch of games.
+   *
+   * @param games  the number of games to play
+   * @param seed  the seed of the batch
+   * @param threads  the number of threads to play on
+   * @return the totals of all games
+   */
+  public SimulationStats run( final int games, final long seed, int threads ) {
+    final AtomicInteger nextGame = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool( threads );
+
+    try {
+      List< Future< SimulationStats > > futures = new ArrayList< Future< SimulationStats > >( threads );
+      for ( int i = 0; i < threads; i++ ) {
+        futures.add( pool.submit( new Callable< SimulationStats >() {
+          public SimulationStats call() {
+            SimulationStats stats = new SimulationStats();
+            for ( int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement() ) {
+              playGame( gameSeed( seed, game ), stats );
+            }
+            return stats;
+          }
+        } ) );
+      }
+
+      SimulationStats total = new SimulationStats();
+      for ( Future< SimulationStats > future : futures ) {
+        total.merge( future.get() );
+      }
+      return total;
+    }
+    catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException( "Simulation was interrupted", e );
+    }
+    catch ( ExecutionException e ) {
+      throw new IllegalStateException( "Simulated game failed", e.getCause() );
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Play a single game and add its results to the stats.
+   *
+   * @param seed  the seed of the game
+   * @param stats  the stats to add to
+   */
+  public void playGame( long seed, SimulationStats stats ) {
+    ProjectColaEngine engine = new ProjectColaEngine( rows, columns );
+    Bot[] bots = {
+        null,
+        p1Policy.createBot( engine, 1, seed ),
+        p2Policy.createBot( engine, 2, mix( seed ) )
+    };
+
+    int turns = 0;
+    int actions = 0;
+
+    while ( engine.getGameWinner() == null && turns < maxTurns ) {
+      long action = bots[ engine.getTurnPlayer() ].chooseAction();
+
+      // Measure the damage of an attack from the target's health
+      Chara attacker = null;
+      Chara target = null;
+      int healthBefore = 0;
+      if ( Action.getType( action ) == Action.ATTACK ) {
+        attacker = (Chara) engine.getBoard().getEntityAt( Action.getFromIndex( action ) );
+        target = (Chara) engine.getBoard().getEntityAt( Action.getToIndex( action ) );
+        healthBefore = target.getHealth();
+      }
+
+      engine.play( action );
+      actions++;
+
+      if ( attacker != null ) {
+        stats.addDamage( attacker.getName(), healthBefore - Math.max( 0, target.getHealth() ) );
+      }
+      else if ( Action.getType( action ) == Action.END_TURN ) {
+        turns++;
+      }
+
+      bots[ 1 ].actionPlayed( action );
+      bots[ 2 ].actionPlayed( action );
+    }
+
+    Integer winner = engine.getGameWinner();
+    stats.addGame( winner == null ? 0 : winner, turns, actions );
+  }
+
+  /**
+   * Helper method to derive the seed of a game from the seed of the batch.
+   */
+  private static long gameSeed( long seed, int game ) {
+    return mix( seed + game * 0x9E3779B97F4A7C15L );
+  }
+
+  /**
+   * The splitmix64 finalizer.
+   */
+  private static long mix( long z ) {
+    z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+    z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+    return z ^ ( z >>> 31 );
+  }
+
+  /**
+   * Append a CSV row with the totals of a batch to a file, writing the header first if the file is new.
+   *
+   * @param file  the file to append to
+   * @param stats  the totals of the batch
+   * @param gamesPerSecond  the rate the batch was played at
+   * @throws IOException on write failure
+   */
+  public void writeCsv( File file, SimulationStats stats, double gamesPerSecond ) throws IOException {
+    boolean newFile = !file.exists() || file.length() == 0;
+    PrintWriter writer = new PrintWriter( new FileWriter( file, true ) );
+    try {
+      if ( newFile ) {
+        writer.println( CSV_HEADER );
+      }
+
+      StringBuilder row = new StringBuilder();
+      row.append( p1Spec ).append( ',' ).append( p2Spec ).append( ',' )
+          .append( rows ).append( ',' ).append( columns ).append( ',' )
+          .append( stats.getGames() ).append( ',' )
+          .append( stats.getWins( 1 ) ).append( ',' ).append( stats.getWins( 2 ) ).append( ',' )
+          .append( stats.getWins( 0 ) ).append( ',' )
+          .append( format( stats.getWinRate( 1 ) ) ).append( ',' ).append( format( stats.getWinRate( 2 ) ) ).append( ',' )
+          .append( format( stats.getAverageTurns() ) ).append( ',' ).append( format( stats.getAverageActions() ) );
+      for ( int i = 0; i < SimulationStats.CHARA_CLASSES.length; i++ ) {
+        row.append( ',' ).append( format( stats.getAverageDamage( i ) ) );
+      }
+      row.append( ',' ).append( format( gamesPerSecond ) );
+      writer.println( row );
+
+      if ( writer.checkError() ) {
+        throw new IOException( "Error writing " + file );
+      }
+    }
+    finally {
+      writer.close();
+    }
+  }
+
+  private static String format( double value ) {
+    return String.format( Locale.ROOT, "%.4f", value );
+  }
+
+  public static void main( String[] args ) {
+    int games = 1000;
+    String p1 = "greedy";
+    String p2 = "greedy";
+    long seed = 1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int maxTurns = 200;
+    int rows = 6;
+    int columns = 6;
+    File out = new File( "simulation.csv" );
+
+    try {
+      for ( int i = 0; i < args.length; i++ ) {
+        String flag = args[ i ];
+        if ( i + 1 >= args.length ) {
+          throw new IllegalArgumentException( "Missing value for " + flag );
+        }
+        String value = args[ ++i ];
+
+        if ( flag.equals( "--games" ) ) {
+          games = Integer.parseInt( value );
+        }
+        else if ( flag.equals( "--p1" ) ) {
+          p1 = value;
+        }
+        else if ( flag.equals( "--p2" ) ) {
+          p2 = value;
+        }
+        else if ( flag.equals( "--seed" ) ) {
+          seed = Long.parseLong( value );
+        }
+        else if ( flag.equals( "--threads" ) ) {
+          threads = Math.max( 1, Integer.parseInt( value ) );
+        }
+        else if ( flag.equals( "--max-turns" ) ) {
+          maxTurns = Integer.parseInt( value );
+        }
+        else if ( flag.equals( "--rows" ) ) {
+          rows = Integer.parseInt( value );
+        }
+        else if ( flag.equals( "--columns" ) ) {
+          columns = Integer.parseInt( value );
+        }
+        else if ( flag.equals( "--out" ) ) {
+          out = new File( value );
+        }
+        else {
+          throw new IllegalArgumentException( "Unknown option " + flag );
+        }
+      }
+
+      SelfPlaySimulator simulator = new SelfPlaySimulator( p1, p2, rows, columns, maxTurns );
+
+      System.out.println( "Playing " + games + " games of " + p1 + " vs " + p2 + " on " + threads + " threads..." );
+      long start = System.nanoTime();
+      SimulationStats stats = simulator.run( games, seed, threads );
+      double seconds = ( System.nanoTime() - start ) / 1e9;
+      double gamesPerSecond = stats.getGames() / seconds;
+
+      System.out.println( String.format( Locale.ROOT, "Player 1 wins %.1f%%, player 2 wins %.1f%%, draws %.1f%%",
+          stats.getWinRate( 1 ) * 100, stats.getWinRate( 2 ) * 100, stats.getWinRate( 0 ) * 100 ) );
+      System.out.println( String.format( Locale.ROOT, "Average length %.1f turns, %.1f actions",
+          stats.getAverageTurns(), stats.getAverageActions() ) );
+      for ( int i = 0; i < SimulationStats.CHARA_CLASSES.length; i++ ) {
+        System.out.println( String.format( Locale.ROOT, "%s damage per game %.1f",
+            SimulationStats.CHARA_CLASSES[ i ], stats.getAverageDamage( i ) ) );
+      }
+      System.out.println( String.format( Locale.ROOT, "%.1f games per second", gamesPerSecond ) );
+
+      simulator.writeCsv( out, stats, gamesPerSecond );
+      System.out.println( "Results appended to " + out.getPath() );
+    }
+    catch ( IllegalArgumentException e ) {
+      System.err.println( e.getMessage() );
+      System.exit( 1 );
+    }
+    catch ( IOException e ) {
+      System.err.println( "Error writing results: " + e.getMessage() );
+      System.exit( 1 );
+    }
+  }
+}
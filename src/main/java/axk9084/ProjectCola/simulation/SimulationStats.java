@@ -0,0 +1,109 @@
+package axk9084.ProjectCola.simulation;
+
+/**
+ * Totals collected over a batch of simulated games.  Each simulator thread fills its own instance, and they are
+ * merged once all games are done.
+ *
+ * Created by antkwan on 7/13/2016.
+ */
+public class SimulationStats {
+
+  // The character classes damage is counted for, by name
+  public static final String[] CHARA_CLASSES = { "Knight", "Rogue", "Priest", "Mage" };
+
+  private long games;
+
+  // Games won by player 1 and 2, index 0 counts games that reached the turn limit
+  private final long[] wins = new long[ 3 ];
+
+  private long turns;
+  private long actions;
+
+  // Damage dealt by each class in CHARA_CLASSES
+  private final long[] damage = new long[ CHARA_CLASSES.length ];
+
+  /**
+   * Record a finished game.
+   *
+   * @param winner  the winning player, 0 if the game reached the turn limit
+   * @param gameTurns  the number of turns the game lasted
+   * @param gameActions  the number of actions played in the game
+   */
+  public void addGame( int winner, int gameTurns, int gameActions ) {
+    games++;
+    wins[ winner ]++;
+    turns += gameTurns;
+    actions += gameActions;
+  }
+
+  /**
+   * Record damage dealt by a character.
+   *
+   * @param charaName  the name of the attacking character's class
+   * @param amount  the health the attack took off its target
+   */
+  public void addDamage( String charaName, int amount ) {
+    for ( int i = 0; i < CHARA_CLASSES.length; i++ ) {
+      if ( CHARA_CLASSES[ i ].equals( charaName ) ) {
+        damage[ i ] += amount;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Add the totals of another instance to this one.
+   *
+   * @param other  the stats to add
+   */
+  public void merge( SimulationStats other ) {
+    games += other.games;
+    for ( int i = 0; i < wins.length; i++ ) {
+      wins[ i ] += other.wins[ i ];
+    }
+    turns += other.turns;
+    actions += other.actions;
+    for ( int i = 0; i < damage.length; i++ ) {
+      damage[ i ] += other.damage[ i ];
+    }
+  }
+
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Get the number of games a player won.
+   *
+   * @param player  the player, or 0 for the games that reached the turn limit
+   */
+  public long getWins( int player ) {
+    return wins[ player ];
+  }
+
+  /**
+   * Get the fraction of games a player won.
+   *
+   * @param player  the player, or 0 for the games that reached the turn limit
+   */
+  public double getWinRate( int player ) {
+    return games == 0 ? 0 : (double) wins[ player ] / games;
+  }
+
+  public double getAverageTurns() {
+    return games == 0 ? 0 : (double) turns / games;
+  }
+
+  public double getAverageActions() {
+    return games == 0 ? 0 : (double) actions / games;
+  }
+
+  /**
+   * Get the average damage dealt per game by a class.
+   *
+   * @param classIndex  the index of the class in CHARA_CLASSES
+   */
+  public double getAverageDamage( int classIndex ) {
+    return games == 0 ? 0 : (double) damage[ classIndex ] / games;
+  }
+}
@@ -0,0 +1,310 @@
+package axk9084.ProjectCola.view.cmdline;
+
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.controller.event.GameEventAdapter;
+import axk9084.ProjectCola.controller.event.GameEventBuffer;
+import axk9084.ProjectCola.model.board.Board;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The cached frame of an incremental {@link AsciiBoardView}, in the same layout as the plain view: player 1's
+ * status panel, the board and player 2's status panel side by side.
+ *
+ * The first render draws the whole frame.  After that the frame follows the engine's event buffer from where it
+ * last read: only the tiles of characters that moved or died are looked at, and the status panels, which are a few
+ * lines whatever the board size, are rebuilt and compared line by line.  Every character that differs from the
+ * cached frame is sent as an ANSI cursor move and the new text, gathered in a buffer and written to the stream in
+ * one write per frame.  If the events have been overwritten since the last render, every tile is compared instead.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+class AnsiFrame {
+
+  // Decimal ASCII value for the character 'a'
+  private static final int ASCII_a = 97;
+
+  private static final byte ESCAPE = 0x1B;
+
+  // Width of a status panel, and the gap between the board and the panels
+  private static final int PANEL_WIDTH = 31;
+  private static final int GAP = 3;
+
+  private final ProjectColaEngine engine;
+  private final Board board;
+  private final OutputStream out;
+
+  // Layout of the frame: where the board and the second panel start
+  private final int boardLeft;
+  private final int rightPanelLeft;
+  private final int width;
+  private final int height;
+
+  // The characters on screen, by line
+  private final char[][] screen;
+
+  // Output of the current frame, written in one go
+  private byte[] pending = new byte[ 4096 ];
+  private int pendingLength = 0;
+
+  // Sequence number of the next event to read, and whether the whole frame must be drawn
+  private long sequence = 0;
+  private boolean drawn = false;
+  private boolean allTilesDirty = false;
+
+  private final TileEventReader tileEventReader = new TileEventReader();
+
+  AnsiFrame( ProjectColaEngine engine, OutputStream out ) {
+    this.engine = engine;
+    this.board = engine.getBoard();
+    this.out = out;
+
+    // The row labels are right aligned in a gutter at least as wide as the plain view's
+    int gutter = Integer.toString( board.getRows() ).length() + 3;
+    boardLeft = PANEL_WIDTH + gutter;
+    rightPanelLeft = boardLeft + 4 * board.getColumns() + 1 + GAP;
+    width = rightPanelLeft + PANEL_WIDTH;
+    height = 2 * board.getRows() + 2;
+
+    screen = new char[ height ][ width ];
+  }
+
+  /**
+   * Redraw every tile on the next render, for when the game was changed without events.
+   */
+  void invalidate() {
+    allTilesDirty = true;
+  }
+
+  /**
+   * Send the changes since the last render, or the whole frame on the first one.
+   */
+  void render() {
+    if ( !drawn ) {
+      drawFull();
+    }
+    else {
+      drawChanges();
+    }
+
+    // Park the cursor under the frame
+    moveCursor( height, 0 );
+    flushPending();
+  }
+
+  /**
+   * Helper method to draw the whole frame and clear the screen around it.
+   */
+  private void drawFull() {
+    GameEventBuffer events = engine.getEvents();
+    sequence = events.getSequence();
+
+    for ( char[] line : screen ) {
+      Arrays.fill( line, ' ' );
+    }
+
+    // Dividers, row labels and the column labels
+    int rows = board.getRows();
+    for ( int row = rows; row > 0; row-- ) {
+      int line = 2 * ( rows - row );
+      drawDivider( screen[ line ] );
+
+      String label = Integer.toString( row );
+      label.getChars( 0, label.length(), screen[ line + 1 ], boardLeft - 1 - label.length() );
+      for ( int column = 0; column <= board.getColumns(); column++ ) {
+        screen[ line + 1 ][ boardLeft + 4 * column ] = '|';
+      }
+    }
+    drawDivider( screen[ height - 2 ] );
+    for ( int column = 0; column < board.getColumns(); column++ ) {
+      screen[ height - 1 ][ boardLeft + 4 * column + 2 ] = (char) ( ASCII_a + column );
+    }
+
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      screen[ tileLine( index ) ][ tileColumn( index ) ] =
+          AsciiBoardView.getEntityRepresentation( board.getEntityAt( index ) );
+    }
+    copyPanel( 1, 0 );
+    copyPanel( 2, rightPanelLeft );
+
+    // Clear the screen and send every line
+    appendEscape( "[2J" );
+    for ( int line = 0; line < height; line++ ) {
+      moveCursor( line, 0 );
+      appendChars( screen[ line ], 0, width );
+    }
+
+    drawn = true;
+    allTilesDirty = false;
+  }
+
+  private void drawDivider( char[] line ) {
+    for ( int column = 0; column < board.getColumns(); column++ ) {
+      int left = boardLeft + 4 * column;
+      line[ left ] = '+';
+      line[ left + 1 ] = '-';
+      line[ left + 2 ] = '-';
+      line[ left + 3 ] = '-';
+    }
+    line[ boardLeft + 4 * board.getColumns() ] = '+';
+  }
+
+  /**
+   * Helper method to write a player's status panel into the cached frame without sending it.
+   */
+  private void copyPanel( int player, int left ) {
+    List< String > status = AsciiBoardView.generateCharacterStatus( player, engine.getCharacters( player ),
+        engine.getTurn() );
+    for ( int line = 0; line < height && line < status.size(); line++ ) {
+      String text = status.get( line );
+      text.getChars( 0, Math.min( text.length(), PANEL_WIDTH ), screen[ line ], left );
+    }
+  }
+
+  /**
+   * Helper method to send the tiles and status lines that changed since the last render.
+   */
+  private void drawChanges() {
+    GameEventBuffer events = engine.getEvents();
+    if ( allTilesDirty || sequence < events.getSequence() - events.getCapacity() ) {
+      for ( int index = 0; index < board.getTileCount(); index++ ) {
+        drawTile( index );
+      }
+      sequence = events.getSequence();
+      allTilesDirty = false;
+    }
+    else {
+      sequence = events.read( sequence, tileEventReader );
+    }
+
+    drawPanel( 1, 0 );
+    drawPanel( 2, rightPanelLeft );
+  }
+
+  /**
+   * Helper method to send a tile if the entity on it is not the one on screen.
+   */
+  private void drawTile( int index ) {
+    char glyph = AsciiBoardView.getEntityRepresentation( board.getEntityAt( index ) );
+    int line = tileLine( index );
+    int column = tileColumn( index );
+    if ( screen[ line ][ column ] != glyph ) {
+      screen[ line ][ column ] = glyph;
+      moveCursor( line, column );
+      appendByte( (byte) glyph );
+    }
+  }
+
+  /**
+   * Helper method to rebuild a player's status panel and send each line that differs from the screen.  Lines left
+   * over from a longer panel, such as after a character died, are blanked.
+   */
+  private void drawPanel( int player, int left ) {
+    List< String > status = AsciiBoardView.generateCharacterStatus( player, engine.getCharacters( player ),
+        engine.getTurn() );
+    for ( int line = 0; line < height; line++ ) {
+      char[] screenLine = screen[ line ];
+      String text = line < status.size() ? status.get( line ) : "";
+
+      // Find the first and last characters that changed
+      int first = -1;
+      int last = -1;
+      for ( int i = 0; i < PANEL_WIDTH; i++ ) {
+        char c = i < text.length() ? text.charAt( i ) : ' ';
+        if ( screenLine[ left + i ] != c ) {
+          screenLine[ left + i ] = c;
+          if ( first < 0 ) {
+            first = i;
+          }
+          last = i;
+        }
+      }
+
+      if ( first >= 0 ) {
+        moveCursor( line, left + first );
+        appendChars( screenLine, left + first, last - first + 1 );
+      }
+    }
+  }
+
+  private int tileLine( int index ) {
+    return 2 * ( board.getRows() - 1 - board.getY( index ) ) + 1;
+  }
+
+  private int tileColumn( int index ) {
+    return boardLeft + 4 * board.getX( index ) + 2;
+  }
+
+  /**
+   * Helper method to add an ANSI cursor move to a zero based line and column.
+   */
+  private void moveCursor( int line, int column ) {
+    appendByte( ESCAPE );
+    appendByte( (byte) '[' );
+    appendNumber( line + 1 );
+    appendByte( (byte) ';' );
+    appendNumber( column + 1 );
+    appendByte( (byte) 'H' );
+  }
+
+  private void appendEscape( String sequence ) {
+    appendByte( ESCAPE );
+    for ( int i = 0; i < sequence.length(); i++ ) {
+      appendByte( (byte) sequence.charAt( i ) );
+    }
+  }
+
+  private void appendNumber( int number ) {
+    if ( number >= 10 ) {
+      appendNumber( number / 10 );
+    }
+    appendByte( (byte) ( '0' + number % 10 ) );
+  }
+
+  private void appendChars( char[] chars, int offset, int length ) {
+    for ( int i = offset; i < offset + length; i++ ) {
+      appendByte( (byte) chars[ i ] );
+    }
+  }
+
+  private void appendByte( byte b ) {
+    if ( pendingLength == pending.length ) {
+      pending = Arrays.copyOf( pending, pending.length * 2 );
+    }
+    pending[ pendingLength++ ] = b;
+  }
+
+  /**
+   * Helper method to send the pending output in one write.
+   */
+  private void flushPending() {
+    try {
+      out.write( pending, 0, pendingLength );
+      out.flush();
+    }
+    catch ( IOException e ) {
+      System.err.println( "Could not draw the board: " + e );
+    }
+    pendingLength = 0;
+  }
+
+  /**
+   * Redraws the tiles that events say changed.
+   */
+  private class TileEventReader extends GameEventAdapter {
+
+    @Override
+    public void charaMoved( int charaId, int fromIndex, int toIndex ) {
+      drawTile( fromIndex );
+      drawTile( toIndex );
+    }
+
+    @Override
+    public void charaDied( int charaId, int tileIndex ) {
+      drawTile( tileIndex );
+    }
+  }
+}
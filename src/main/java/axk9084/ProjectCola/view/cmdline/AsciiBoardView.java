@@ -1,11 +1,12 @@
 package axk9084.ProjectCola.view.cmdline;
 
 import axk9084.ProjectCola.controller.ProjectColaEngine;
-import axk9084.ProjectCola.exceptions.TileDoesNotExistException;
 import axk9084.ProjectCola.model.Entity;
 import axk9084.ProjectCola.model.board.Board;
 import axk9084.ProjectCola.model.chara.*;
 
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -18,20 +19,27 @@ import java.util.List;
  * # Player 1                    #    +---+---+---+---+---+---+   # Player 2                    #
  * ###############################  6 |   |   | P | M |   |   |   ###############################
  * # Knight (K)         HP 50/50 #    +---+---+---+---+---+---+   # Knight (K)         HP 50/50 #
- * # ABILITIES x x x x   ACT 1/1 #  5 |   |   | K | R |   |   |   # ABILITIES x x x x   ACT 1/1 #
+ * # ABILITIES * * - -   ACT 1/1 #  5 |   |   | K | R |   |   |   # ABILITIES * * - -   ACT 1/1 #
  * ###############################    +---+---+---+---+---+---+   ###############################
  * # Rogue (R)          HP 35/35 #  4 |   |   |   |   |   |   |   # Rogue (R)          HP 35/35 #
- * # ABILITIES x x x x   ACT 2/2 #    +---+---+---+---+---+---+   # ABILITIES x x x x   ACT 2/2 #
+ * # ABILITIES * * - -   ACT 2/2 #    +---+---+---+---+---+---+   # ABILITIES * * - -   ACT 2/2 #
  * ###############################  3 |   |   |   |   |   |   |   ###############################
  * # Priest (P)         HP 25/25 #    +---+---+---+---+---+---+   # Priest (P)         HP 25/25 #
- * # ABILITIES x x x x   ACT 1/1 #  2 |   |   | K | R |   |   |   # ABILITIES x x x x   ACT 1/1 #
+ * # ABILITIES * * - -   ACT 1/1 #  2 |   |   | K | R |   |   |   # ABILITIES * * - -   ACT 1/1 #
  * ###############################    +---+---+---+---+---+---+   ###############################
  * # Mage (M)           HP 20/20 #  1 |   |   | P | M |   |   |   # Mage (M)           HP 20/20 #
- * # ABILITIES x x x x   ACT 1/1 #    +---+---+---+---+---+---+   # ABILITIES x x x x   ACT 1/1 #
+ * # ABILITIES * * - -   ACT 1/1 #    +---+---+---+---+---+---+   # ABILITIES * * - -   ACT 1/1 #
  * ###############################      a   b   c   d   e   f     ###############################
  *
+ * Each character's abilities are listed in slot order as * when ready, the number of the player's turns until ready
+ * when on cooldown (9 for 9 or more), and - for an empty slot.
+ *
  * The major drawback with this approach is that the font used MUST be fixed width to draw correctly.
  *
+ * A view created with an output stream draws incrementally instead, for terminals that understand ANSI escape
+ * codes: the first print draws the whole frame and later prints only redraw the tiles and status lines that changed,
+ * see {@link AnsiFrame}.
+ *
  * Created by antkwan on 6/24/2016.
  */
 public class AsciiBoardView {
@@ -39,12 +47,31 @@ public class AsciiBoardView {
   // Decimal ASCII value for the character 'a'
   private static final int ASCII_a = 97;
 
+  private static final String LINE_SEPARATOR = System.getProperty( "line.separator" );
+
   private final ProjectColaEngine engine;
   private Board board;
 
+  // The cached frame drawn to in incremental mode, else null
+  private final AnsiFrame frame;
+
   public AsciiBoardView( ProjectColaEngine engine ) {
     this.engine = engine;
     this.board = engine.getBoard();
+    this.frame = null;
+  }
+
+  /**
+   * Create a view that draws incrementally with ANSI escape codes.  Each print only sends the changes since the last
+   * one to the stream, so nothing else should be printed to the same terminal in between.
+   *
+   * @param engine  the engine to view
+   * @param out  the stream to draw to
+   */
+  public AsciiBoardView( ProjectColaEngine engine, OutputStream out ) {
+    this.engine = engine;
+    this.board = engine.getBoard();
+    this.frame = new AnsiFrame( engine, out );
   }
 
   /**
@@ -54,19 +81,36 @@ public class AsciiBoardView {
    * complete character status chart.  The order of printing thus follows the pattern of printing the 1st player's
    * character status line, printing the first line of the board and then printing the line of the 2nd player's
    * character status.  This is then repeated till the end of the board.
+   *
+   * In incremental mode only the changes since the last print are drawn.
    */
   public void printBoardView() {
+    printBoardView( System.out );
+  }
+
+  /**
+   * Print the board view to the given stream.  In incremental mode the stream the view was created with is used
+   * instead.
+   *
+   * @param out  the stream to print to
+   */
+  public void printBoardView( PrintStream out ) {
     if ( board == null ) {
       System.err.println( "Board is null" );
     }
 
+    if ( frame != null ) {
+      frame.render();
+      return;
+    }
+
     int rows = board.getRows();
     int columns = board.getColumns();
 
     // Generate the character statuses for each player beforehand, this is needed to print the
     // character statuses alongside the board
-    List<String> player1Status = generateCharacterStatus( 1, engine.getPlayerCharacters().get( 1 ) );
-    List<String> player2Status = generateCharacterStatus( 2, engine.getPlayerCharacters().get( 2 ) );
+    List<String> player1Status = generateCharacterStatus( 1, engine.getCharacters( 1 ), engine.getTurn() );
+    List<String> player2Status = generateCharacterStatus( 2, engine.getCharacters( 2 ), engine.getTurn() );
     Iterator<String> player1StatusIter = player1Status.iterator();
     Iterator<String> player2StatusIter = player2Status.iterator();
 
@@ -83,14 +127,14 @@ public class AsciiBoardView {
       builder.append( "    " );
       for ( int column = 0; column < columns; column++ ) {
         builder.append( '+' );
-        builder.append( '-' ).append( '-' ).append( '-' );;
+        builder.append( '-' ).append( '-' ).append( '-' );
       }
       builder.append( "+   " );
 
       // Append the player 2 status line at the end
       appendCharacterStatusLine( builder, player2StatusIter );
 
-      builder.append( System.getProperty( "line.separator" ) );
+      builder.append( LINE_SEPARATOR );
 
       // Append the player 1 status line at the front
       appendCharacterStatusLine( builder, player1StatusIter );
@@ -100,12 +144,7 @@ public class AsciiBoardView {
       for ( int column = 0; column < columns; column++ ) {
         builder.append( '|' );
         builder.append( ' ' );
-        try {
-          builder.append( getEntityRepresentation( board.getEntityAt( (char) ( ASCII_a + column ), row ) ) );
-        } catch ( TileDoesNotExistException e ) {
-          System.err.println( "Could not find tile " + (char) ( ASCII_a + column ) + row );
-          builder.append( '?' );
-        }
+        builder.append( getEntityRepresentation( board.getEntityAt( board.getIndex( column, row - 1 ) ) ) );
         builder.append( ' ' );
       }
       builder.append( "|   " );
@@ -113,7 +152,7 @@ public class AsciiBoardView {
       // Append the player 2 status line at the end
       appendCharacterStatusLine( builder, player2StatusIter );
 
-      builder.append( System.getProperty( "line.separator" ) );
+      builder.append( LINE_SEPARATOR );
     }
 
     // Append the player 1 status line at the front
@@ -130,7 +169,7 @@ public class AsciiBoardView {
     // Append the player 2 status line at the end
     appendCharacterStatusLine( builder, player2StatusIter );
 
-    builder.append( System.getProperty( "line.separator" ) );
+    builder.append( LINE_SEPARATOR );
 
     // Append the player 1 status line at the front
     appendCharacterStatusLine( builder, player1StatusIter );
@@ -147,9 +186,19 @@ public class AsciiBoardView {
     // Append the player 2 status line at the end
     appendCharacterStatusLine( builder, player2StatusIter );
 
-    builder.append( System.getProperty( "line.separator" ) );
+    builder.append( LINE_SEPARATOR );
+
+    out.println( builder.toString() );
+  }
 
-    System.out.println( builder.toString() );
+  /**
+   * In incremental mode, redraw every tile on the next print.  Needed when the game was changed without game events,
+   * such as through ProjectColaEngine.apply.
+   */
+  public void invalidate() {
+    if ( frame != null ) {
+      frame.invalidate();
+    }
   }
 
   /**
@@ -175,7 +224,7 @@ public class AsciiBoardView {
    * @param entity  the entity to get the ASCII representation of
    * @return char representing the entity
    */
-  private char getEntityRepresentation( Entity entity ) {
+  static char getEntityRepresentation( Entity entity ) {
     if ( entity == null ) {
       return ' ';
     }
@@ -196,15 +245,39 @@ public class AsciiBoardView {
     }
   }
 
+  /**
+   * Helper method to build the ability indicators of a character's status, such as "ABILITIES * 2 - -".
+   *
+   * @param chara  the character
+   * @param turn  the current turn
+   * @return the indicators
+   */
+  private static String generateAbilityIndicators( Chara chara, int turn ) {
+    StringBuilder builder = new StringBuilder( "ABILITIES" );
+    int abilities = chara.getAbilities().size();
+    for ( int slot = 0; slot < CharaStore.MAX_ABILITIES; slot++ ) {
+      builder.append( ' ' );
+      if ( slot >= abilities ) {
+        builder.append( '-' );
+        continue;
+      }
+
+      int turnsRemaining = chara.getAbilityTurnsRemaining( slot, turn );
+      builder.append( turnsRemaining == 0 ? '*' : (char) ( '0' + Math.min( 9, turnsRemaining ) ) );
+    }
+    return builder.toString();
+  }
+
   /**
    * Takes a list of Characters and builds a character status chart.  It is packaged in a list of strings
    * such that it can be printed out line by line without needing to print the entire chart at once.
    *
    * @param player  the player that owns the characters
    * @param characters  the list of characters to generate the status chart for
+   * @param turn  the current turn, to show the abilities' cooldowns from
    * @return  List of Strings of the character status chart
    */
-  private List<String> generateCharacterStatus( int player, List< Chara > characters ) {
+  static List<String> generateCharacterStatus( int player, List< Chara > characters, int turn ) {
     List<String> characterStatus = new ArrayList<String>();
 
     // The top Player label
@@ -224,7 +297,7 @@ public class AsciiBoardView {
       // Generate value strings
       String name = chara.getName() + " (" + getEntityRepresentation( chara ) + ")";
       String hp = "HP " + chara.getHealth() + "/" + chara.getMaxHealth();
-      String abilities = "ABILITIES x x x x"; //// TODO: 6/27/2016 Add ability ready/on cooldown indicators
+      String abilities = generateAbilityIndicators( chara, turn );
       String actions = "ACT " + chara.getActionsRemaining() + "/" + chara.getActions();
       
       // Add divider
@@ -1,9 +1,19 @@
 package axk9084.ProjectCola.view.cmdline;
 
+import axk9084.ProjectCola.ai.AlphaBetaSearch;
+import axk9084.ProjectCola.ai.MaterialEvaluator;
+import axk9084.ProjectCola.ai.TranspositionTable;
+import axk9084.ProjectCola.controller.Action;
 import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.controller.event.GameEventAdapter;
 import axk9084.ProjectCola.exceptions.*;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.Coordinate;
+import axk9084.ProjectCola.model.chara.Ability;
+import axk9084.ProjectCola.model.chara.Chara;
 
 import java.io.*;
+import java.util.List;
 
 /**
  * The command line entry point of ProjectCola.  This class is responsible for the parsing of input as
@@ -20,6 +30,12 @@ public class CmdLineMain {
   private static ProjectColaEngine engine;
   private static AsciiBoardView boardView;
 
+  // The computer opponent plays as player 2 and gets this long to pick each action
+  private static final int COMPUTER_PLAYER = 2;
+  private static final long COMPUTER_TIME_BUDGET_MILLIS = 50;
+  private static final int COMPUTER_MAX_DEPTH = 32;
+  private static final int COMPUTER_TABLE_ENTRIES = 1 << 18;
+
   public static void main( String[] args ) {
     reader = new BufferedReader( new InputStreamReader( System.in ) );
     try {
@@ -60,6 +76,7 @@ public class CmdLineMain {
       while ( input == null ) {
         System.out.println( "== Main Menu ==" );
         System.out.println( "1) Start Game" );
+        System.out.println( "2) Start Game vs Computer" );
         System.out.println( "9) Exit" );
         System.out.print( ">" );
         String inputLine = reader.readLine();
@@ -70,7 +87,11 @@ public class CmdLineMain {
       switch ( input ) {
         case '1':
           System.out.println( "Initializing engine..." );
-          startGame();
+          startGame( false );
+          break;
+        case '2':
+          System.out.println( "Initializing engine..." );
+          startGame( true );
           break;
         case '9':
           System.out.println( "Goodbye!" );
@@ -84,16 +105,35 @@ public class CmdLineMain {
 
   /**
    * startGame generates a new engine and board view as well as start the state machine for the game.
+   *
+   * @param vsComputer  true to have the computer play as player 2
    * @throws IOException
    */
-  private static void startGame() throws IOException {
+  private static void startGame( boolean vsComputer ) throws IOException {
     engine = new ProjectColaEngine();
     boardView = new AsciiBoardView( engine );
+    engine.addEventListener( new AttackReporter() );
+
+    AlphaBetaSearch computer = vsComputer
+        ? new AlphaBetaSearch( engine, new MaterialEvaluator(), new TranspositionTable( COMPUTER_TABLE_ENTRIES ) )
+        : null;
 
     // Flag to keep running the game until the game is over
     boolean gameRunning = true;
 
     while ( gameRunning ) {
+
+      // Let the computer take its whole turn
+      if ( computer != null && engine.getTurnPlayer() == COMPUTER_PLAYER ) {
+        computerTurn( computer );
+        if ( engine.getGameWinner() != null ) {
+          System.out.println( "Player " + engine.getGameWinner() + " has won the game!" );
+          System.out.println();
+          gameRunning = false;
+        }
+        continue;
+      }
+
       Character input = null;
 
       // Keep reading until we get a single character input
@@ -153,17 +193,15 @@ public class CmdLineMain {
     boolean validMoveMade = false;
     while ( !validMoveMade ) {
 
-      // From column and row represents the current tile position of the character that is going to move
-      Character fromColumn = null;
-      Integer fromRow = null;
+      // From represents the current tile position of the character that is going to move
+      Coordinate from = null;
 
-      // To column and row represents the tile position the character will move to
-      Character toColumn = null;
-      Integer toRow = null;
+      // To represents the tile position the character will move to
+      Coordinate to = null;
 
-      // Loop until we get a tile column-row key pair for the current tile that has valid syntax
-      while ( fromColumn == null ) {
-        System.out.println( "Move what? (ex. b2, type c to cancel)" );
+      // Loop until we get a tile position for the current tile that has valid syntax
+      while ( from == null ) {
+        System.out.println( "Move what? (ex. b2 or 1,1, type c to cancel)" );
         System.out.print( ">" );
         String inputLine = reader.readLine();
 
@@ -173,16 +211,13 @@ public class CmdLineMain {
           return;
         }
 
-        if ( isValidTileInput( inputLine ) ) {
-          fromColumn = inputLine.charAt( 0 );
-          fromRow = Character.getNumericValue( inputLine.charAt( 1 ) );
-        }
+        from = parseTileInput( inputLine );
 
       }
 
-      // Loop until we get a tile column-row key pair for the target tile that has valid syntax
-      while ( toColumn == null ) {
-        System.out.println( "Move " + fromColumn + fromRow + " to where? (type c to cancel)" );
+      // Loop until we get a tile position for the target tile that has valid syntax
+      while ( to == null ) {
+        System.out.println( "Move " + from + " to where? (type c to cancel)" );
         System.out.print( ">" );
         String inputLine = reader.readLine();
 
@@ -192,32 +227,29 @@ public class CmdLineMain {
           return;
         }
 
-        if ( isValidTileInput( inputLine ) ) {
-          toColumn = inputLine.charAt( 0 );
-          toRow = Character.getNumericValue( inputLine.charAt( 1 ) );
-        }
+        to = parseTileInput( inputLine );
 
       }
 
       // Attempt to move the character.  If any known errors occur, print respective message
       try {
-        engine.moveCharacter( fromColumn, fromRow, toColumn, toRow );
-        System.out.println( "Move: " + fromColumn + fromRow + " to " + toColumn + toRow );
+        engine.moveCharacter( from.getX(), from.getY(), to.getX(), to.getY() );
+        System.out.println( "Move: " + from + " to " + to );
         validMoveMade = true;  // Set valid move flag if no errors occurred
       } catch ( NoActionsRemainingException e ) {
         System.out.println( e.getCharacterName() + " has no actions remaining." );
       } catch ( TileDoesNotExistException e ) {
-        System.out.println( "Tile " + e.getColumnKey() + e.getRowkey() + " does not exist." );
+        System.out.println( "Tile " + Coordinate.format( e.getX(), e.getY() ) + " does not exist." );
       } catch ( MissingCharacterException e ) {
-        System.out.println( "There is no character on tile " + e.getColumn() + e.getRow() + "." );
+        System.out.println( "There is no character on tile " + Coordinate.format( e.getX(), e.getY() ) + "." );
       } catch ( SameTileException e ) {
-        System.out.println( "Can not move to the same tile " + e.getColumnKey() + e.getRowkey() + "." );
+        System.out.println( "Can not move to the same tile " + Coordinate.format( e.getX(), e.getY() ) + "." );
       } catch ( TileOccupiedException e ) {
-        System.out.println( "Tile " + e.getColumn() + e.getRow() + " is already occupied by " + e.getCharacterName() + "." );
+        System.out.println( "Tile " + Coordinate.format( e.getX(), e.getY() ) + " is already occupied by " + e.getCharacterName() + "." );
       } catch ( CharacterNotOwnedException e ) {
         System.out.println( "Character " + e.getCharacterName() + " is owned by Player " + e.getOwnedByPlayer() + "." );
       } catch ( OutOfMoveRangeException e ) {
-        System.out.println( e.getCharacterName() + " can not move to "  + e.getColumnKey() + e.getRowKey()
+        System.out.println( e.getCharacterName() + " can not move to "  + Coordinate.format( e.getX(), e.getY() )
             + " with a move range of " + e.getMoveRange() + ".");
       }
 
@@ -240,17 +272,15 @@ public class CmdLineMain {
 
     while ( !validAttackMade ) {
 
-      // From column and row represents the current tile position of the character that is going to attack
-      Character fromColumn = null;
-      Integer fromRow = null;
+      // From represents the current tile position of the character that is going to attack
+      Coordinate from = null;
 
-      // To column and row represents the tile position the character will attack
-      Character toColumn = null;
-      Integer toRow = null;
+      // To represents the tile position the character will attack
+      Coordinate to = null;
 
-      // Loop until we get a tile column-row key pair for the current tile that has valid syntax
-      while ( fromColumn == null ) {
-        System.out.println( "Attack with who? (ex. b2, type c to cancel)" );
+      // Loop until we get a tile position for the current tile that has valid syntax
+      while ( from == null ) {
+        System.out.println( "Attack with who? (ex. b2 or 1,1, type c to cancel)" );
         System.out.print( ">" );
         String inputLine = reader.readLine();
 
@@ -260,16 +290,13 @@ public class CmdLineMain {
         }
 
         // Cancel and return out of move call if 'c' is entered
-        if ( isValidTileInput( inputLine ) ) {
-          fromColumn = inputLine.charAt( 0 );
-          fromRow = Character.getNumericValue( inputLine.charAt( 1 ) );
-        }
+        from = parseTileInput( inputLine );
 
       }
 
-      // Loop until we get a tile column-row key pair for the current tile that has valid syntax
-      while ( toColumn == null ) {
-        System.out.println( "Attack from " + fromColumn + fromRow + " to where? (type c to cancel)" );
+      // Loop until we get a tile position for the target tile that has valid syntax
+      while ( to == null ) {
+        System.out.println( "Attack from " + from + " to where? (type c to cancel)" );
         System.out.print( ">" );
         String inputLine = reader.readLine();
 
@@ -279,33 +306,30 @@ public class CmdLineMain {
           return;
         }
 
-        if ( isValidTileInput( inputLine ) ) {
-          toColumn = inputLine.charAt( 0 );
-          toRow = Character.getNumericValue( inputLine.charAt( 1 ) );
-        }
+        to = parseTileInput( inputLine );
 
       }
 
       // Attempt to attack with the character.  If any known errors occur, print respective message
       try {
-        engine.attackCharacter( fromColumn, fromRow, toColumn, toRow );
-        System.out.println( "Attack: " + fromColumn + fromRow + " to " + toColumn + toRow );
+        engine.attackCharacter( from.getX(), from.getY(), to.getX(), to.getY() );
+        System.out.println( "Attack: " + from + " to " + to );
         validAttackMade = true;
       } catch ( NoActionsRemainingException e ) {
         System.out.println( e.getCharacterName() + " has no actions remaining." );
       } catch ( TileDoesNotExistException e ) {
-        System.out.println( "Tile " + e.getColumnKey() + e.getRowkey() + " does not exist." );
+        System.out.println( "Tile " + Coordinate.format( e.getX(), e.getY() ) + " does not exist." );
       } catch ( MissingCharacterException e ) {
-        System.out.println( "There is no character on tile " + e.getColumn() + e.getRow() + "." );
+        System.out.println( "There is no character on tile " + Coordinate.format( e.getX(), e.getY() ) + "." );
       } catch ( SameTileException e ) {
-        System.out.println( "Can not attack the same tile " + e.getColumnKey() + e.getRowkey() + "." );
+        System.out.println( "Can not attack the same tile " + Coordinate.format( e.getX(), e.getY() ) + "." );
       } catch ( CharacterNotOwnedException e ) {
         System.out.println( "Character " + e.getCharacterName() + " is owned by Player " + e.getOwnedByPlayer() + "." );
       } catch ( OutOfAttackRangeException e ) {
         System.out.println( "Character " + e.getCharacterName() + " with attack range " + e.getMinAttackRange() + "-"
-            + e.getMaxAttackRange() + " is out of range of " + e.getColumnKey() + e.getRowKey() + "." );
+            + e.getMaxAttackRange() + " is out of range of " + Coordinate.format( e.getX(), e.getY() ) + "." );
       } catch ( NoEnemyException e ) {
-        System.out.println( "There is no enemy on tile " + e.getColumnKey() + e.getRowKey() );
+        System.out.println( "There is no enemy on tile " + Coordinate.format( e.getX(), e.getY() ) );
       }
 
       // Re-print board if a valid attack was not made
@@ -316,20 +340,203 @@ public class CmdLineMain {
   }
 
   /**
-   * Tests that a string has valid syntax that can represent a tile
+   * Parses a string that represents a tile, either as a column/row key such as b2 or b12, or as a numeric x,y
+   * position for boards larger than the alphabet.
    *
-   * @param input  the string to be tested
-   * @return  true if valid, false if not
+   * @param input  the string to be parsed
+   * @return  the tile position if valid, null if not
    */
-  private static boolean isValidTileInput( String input ) {
-    return input.matches( "^[a-z]\\d$" );
+  private static Coordinate parseTileInput( String input ) {
+    return Coordinate.parse( input );
   }
 
   /**
    * Begins the prompts to use a character ability
+   *
+   * @throws IOException On reader failure
    */
-  private static void ability() {
-    //// TODO: 6/27/2016 Implement ability usage
+  private static void ability() throws IOException {
+
+    // Continue retrying until a valid ability use is made
+    boolean validAbilityMade = false;
+
+    while ( !validAbilityMade ) {
+
+      // From represents the current tile position of the character that is going to use an ability
+      Coordinate from = null;
+
+      // The character on the from tile, whose abilities are listed
+      Chara chara = null;
+
+      // Slot is the index of the ability in the character's abilities, -1 until chosen
+      int slot = -1;
+
+      // To represents the tile position the ability targets
+      Coordinate to = null;
+
+      // Loop until we get a tile position of a character
+      while ( chara == null ) {
+        System.out.println( "Use an ability of who? (ex. b2 or 1,1, type c to cancel)" );
+        System.out.print( ">" );
+        String inputLine = reader.readLine();
+
+        // Cancel and return out of ability call if 'c' is entered
+        if ( inputLine.equals( "c" ) ) {
+          System.out.println( "Cancelling ability." );
+          return;
+        }
+
+        from = parseTileInput( inputLine );
+        if ( from != null ) {
+          int index = engine.getBoard().getIndex( from.getX(), from.getY() );
+          if ( index >= 0 && engine.getBoard().getEntityAt( index ) instanceof Chara ) {
+            chara = (Chara) engine.getBoard().getEntityAt( index );
+          }
+          else {
+            System.out.println( "There is no character on tile " + from + "." );
+          }
+        }
+
+      }
+
+      // Loop until we get the number of one of the character's abilities
+      List< Ability > abilities = chara.getAbilities();
+      while ( slot < 0 ) {
+        System.out.println( chara.getName() + " abilities:" );
+        for ( int i = 0; i < abilities.size(); i++ ) {
+          int turnsRemaining = chara.getAbilityTurnsRemaining( i, engine.getTurn() );
+          System.out.println( ( i + 1 ) + ") " + abilities.get( i )
+              + ( turnsRemaining > 0 ? " (ready in " + turnsRemaining + ")" : "" ) );
+        }
+        System.out.println( "Use which ability? (type c to cancel)" );
+        System.out.print( ">" );
+        String inputLine = reader.readLine();
+
+        // Cancel and return out of ability call if 'c' is entered
+        if ( inputLine.equals( "c" ) ) {
+          System.out.println( "Cancelling ability." );
+          return;
+        }
+
+        try {
+          int choice = Integer.parseInt( inputLine.trim() );
+          if ( choice >= 1 && choice <= abilities.size() ) {
+            slot = choice - 1;
+          }
+        }
+        catch ( NumberFormatException e ) {
+          // Ask again
+        }
+
+      }
+
+      // Loop until we get a tile position for the target tile that has valid syntax
+      while ( to == null ) {
+        System.out.println( abilities.get( slot ).getName() + " from " + from + " at where? (type c to cancel)" );
+        System.out.print( ">" );
+        String inputLine = reader.readLine();
+
+        // Cancel and return out of ability call if 'c' is entered
+        if ( inputLine.equals( "c" ) ) {
+          System.out.println( "Cancelling ability." );
+          return;
+        }
+
+        to = parseTileInput( inputLine );
+
+      }
+
+      // Attempt to use the ability.  If any known errors occur, print respective message
+      try {
+        engine.useCharacterAbility( from.getX(), from.getY(), slot, to.getX(), to.getY() );
+        System.out.println( "Ability: " + abilities.get( slot ).getName() + " from " + from + " at " + to );
+        validAbilityMade = true;
+      } catch ( NoActionsRemainingException e ) {
+        System.out.println( e.getCharacterName() + " has no actions remaining." );
+      } catch ( TileDoesNotExistException e ) {
+        System.out.println( "Tile " + Coordinate.format( e.getX(), e.getY() ) + " does not exist." );
+      } catch ( MissingCharacterException e ) {
+        System.out.println( "There is no character on tile " + Coordinate.format( e.getX(), e.getY() ) + "." );
+      } catch ( CharacterNotOwnedException e ) {
+        System.out.println( "Character " + e.getCharacterName() + " is owned by Player " + e.getOwnedByPlayer() + "." );
+      } catch ( NoSuchAbilityException e ) {
+        System.out.println( e.getCharacterName() + " has no ability " + ( e.getSlot() + 1 ) + "." );
+      } catch ( AbilityNotReadyException e ) {
+        System.out.println( e.getAbilityName() + " of " + e.getCharacterName() + " is ready in "
+            + e.getTurnsRemaining() + ( e.getTurnsRemaining() == 1 ? " turn." : " turns." ) );
+      } catch ( OutOfAbilityRangeException e ) {
+        System.out.println( "Character " + e.getCharacterName() + " with ability range " + e.getMinRange() + "-"
+            + e.getMaxRange() + " is out of range of " + Coordinate.format( e.getX(), e.getY() ) + "." );
+      } catch ( InvalidTargetException e ) {
+        System.out.println( "Tile " + Coordinate.format( e.getX(), e.getY() ) + " is not a valid target." );
+      } catch ( NoEnemyException e ) {
+        System.out.println( "There is no enemy on tile " + Coordinate.format( e.getX(), e.getY() ) );
+      }
+
+      // Re-print board if a valid ability use was not made
+      if ( !validAbilityMade ) {
+        boardView.printBoardView();
+      }
+    }
+  }
+
+  /**
+   * Play the computer's actions until it ends its turn or wins the game
+   *
+   * @param computer  the search that picks the computer's actions
+   */
+  private static void computerTurn( AlphaBetaSearch computer ) {
+    int player = engine.getTurnPlayer();
+
+    while ( engine.getTurnPlayer() == player && engine.getGameWinner() == null ) {
+      long action = computer.findBestAction( COMPUTER_TIME_BUDGET_MILLIS, COMPUTER_MAX_DEPTH );
+
+      Board board = engine.getBoard();
+      int fromIndex = Action.getFromIndex( action );
+      int toIndex = Action.getToIndex( action );
+      String from = Coordinate.format( board.getX( fromIndex ), board.getY( fromIndex ) );
+      String to = Coordinate.format( board.getX( toIndex ), board.getY( toIndex ) );
+
+      switch ( Action.getType( action ) ) {
+        case Action.MOVE:
+          System.out.println( "Computer Move: " + from + " to " + to );
+          break;
+        case Action.ATTACK:
+          System.out.println( "Computer Attack: " + from + " to " + to );
+          break;
+        default:
+          System.out.println( "Computer ends its turn." );
+          break;
+      }
+
+      engine.play( action );
+    }
+  }
+
+  /**
+   * Prints the outcome of attacks, abilities and heals as they happen
+   */
+  private static class AttackReporter extends GameEventAdapter {
+
+    @Override
+    public void charaDamaged( int charaId, int attackerId, int damage, int health ) {
+      Chara chara = engine.getCharaStore().getChara( charaId );
+
+      // Heals are reported as negative damage
+      if ( damage < 0 ) {
+        System.out.println( chara.getName() + " of Player " + chara.getPlayer() + " is healed for " + -damage
+            + ", " + health + " health left." );
+        return;
+      }
+      System.out.println( chara.getName() + " of Player " + chara.getPlayer() + " takes " + damage + " damage, "
+          + Math.max( 0, health ) + " health left." );
+    }
+
+    @Override
+    public void charaDied( int charaId, int tileIndex ) {
+      Chara chara = engine.getCharaStore().getChara( charaId );
+      System.out.println( chara.getName() + " of Player " + chara.getPlayer() + " has died." );
+    }
   }
 
   /**
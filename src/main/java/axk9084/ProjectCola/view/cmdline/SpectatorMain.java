@@ -0,0 +1,82 @@
+package axk9084.ProjectCola.view.cmdline;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import axk9084.ProjectCola.simulation.Bot;
+import axk9084.ProjectCola.simulation.BotPolicies;
+
+/**
+ * Watch two bots play on a terminal.  The board is drawn incrementally with ANSI escape codes, so each action only
+ * redraws what it changed, which keeps large boards watchable.
+ *
+ * Usage: SpectatorMain [--rows R] [--columns C] [--p1 POLICY] [--p2 POLICY] [--seed S] [--delay-millis D]
+ *                      [--max-turns M]
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class SpectatorMain {
+
+  public static void main( String[] args ) throws InterruptedException {
+    int rows = 6;
+    int columns = 6;
+    String p1 = "greedy";
+    String p2 = "greedy";
+    long seed = 1;
+    long delayMillis = 200;
+    int maxTurns = 200;
+
+    for ( int i = 0; i + 1 < args.length; i += 2 ) {
+      if ( args[ i ].equals( "--rows" ) ) {
+        rows = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--columns" ) ) {
+        columns = Integer.parseInt( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--p1" ) ) {
+        p1 = args[ i + 1 ];
+      }
+      else if ( args[ i ].equals( "--p2" ) ) {
+        p2 = args[ i + 1 ];
+      }
+      else if ( args[ i ].equals( "--seed" ) ) {
+        seed = Long.parseLong( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--delay-millis" ) ) {
+        delayMillis = Long.parseLong( args[ i + 1 ] );
+      }
+      else if ( args[ i ].equals( "--max-turns" ) ) {
+        maxTurns = Integer.parseInt( args[ i + 1 ] );
+      }
+      else {
+        System.err.println( "Unknown option " + args[ i ] );
+        System.exit( 1 );
+      }
+    }
+
+    ProjectColaEngine engine = new ProjectColaEngine( rows, columns );
+    Bot[] bots = new Bot[] {
+        null,
+        BotPolicies.forName( p1 ).createBot( engine, 1, seed ),
+        BotPolicies.forName( p2 ).createBot( engine, 2, seed + 1 )
+    };
+    AsciiBoardView view = new AsciiBoardView( engine, System.out );
+
+    view.printBoardView();
+    while ( engine.getGameWinner() == null && engine.getTurn() <= maxTurns ) {
+      long action = bots[ engine.getTurnPlayer() ].chooseAction();
+      engine.play( action );
+      bots[ 1 ].actionPlayed( action );
+      bots[ 2 ].actionPlayed( action );
+
+      if ( Action.getType( action ) != Action.END_TURN ) {
+        view.printBoardView();
+        Thread.sleep( delayMillis );
+      }
+    }
+    view.printBoardView();
+
+    System.out.println( engine.getGameWinner() != null
+        ? "Player " + engine.getGameWinner() + " has won the game!"
+        : "No winner after " + maxTurns + " turns" );
+  }
+}
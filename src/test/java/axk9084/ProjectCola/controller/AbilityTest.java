@@ -0,0 +1,209 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.chara.Ability;
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.CharaKinds;
+import axk9084.ProjectCola.model.chara.CharaStore;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that each ability shape acts on exactly the enemies in its area, worked out tile by tile from the shape's
+ * definition, and that cooldowns run out on the turn they are due and are part of the state hash.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class AbilityTest {
+
+  private static final int SIZE = 9;
+  private static final int TRIALS = 60;
+
+  @Test
+  public void singleTargetActsOnTheTargetAlone() {
+    // Shield Bash
+    assertShape( CharaKinds.KNIGHT, 0, new Random( 23 ) );
+  }
+
+  @Test
+  public void diamondActsAroundTheTarget() {
+    // Whirlwind, around the user's own tile, and Meteor, which lands the turn after next
+    assertShape( CharaKinds.KNIGHT, 1, new Random( 24 ) );
+    assertShape( CharaKinds.MAGE, 1, new Random( 25 ) );
+  }
+
+  @Test
+  public void lineRunsFromTheUser() {
+    // Lightning
+    assertShape( CharaKinds.MAGE, 0, new Random( 26 ) );
+  }
+
+  @Test
+  public void coneWidensAwayFromTheUser() {
+    // Fan of Knives
+    assertShape( CharaKinds.ROGUE, 1, new Random( 27 ) );
+  }
+
+  @Test
+  public void cooldownRunsOutOnTheTurnItIsDue() {
+    // A knight with enemy knights, which outlast its bashes, on either side
+    ProjectColaEngine engine = game( new int[][] {
+        { CharaKinds.KNIGHT, 1, 4, 4 }, { CharaKinds.KNIGHT, 2, 4, 5 }, { CharaKinds.KNIGHT, 2, 4, 3 } } );
+    Chara knight = engine.getCharaStore().getChara( 0 );
+    int cooldown = knight.getAbilities().get( 0 ).getCooldown();
+
+    assertTrue( engine.tryAbility( 4, 4, 0, 4, 5 ).isAccepted() );
+    assertEquals( 1 + 2 * cooldown, knight.getAbilityReadyTurn( 0 ) );
+
+    // Cooldowns count the knight's own turns, every other turn
+    for ( int turn = 3; turn < 1 + 2 * cooldown; turn += 2 ) {
+      engine.play( Action.END_TURN_ACTION );
+      engine.play( Action.END_TURN_ACTION );
+      assertEquals( turn, engine.getTurn() );
+      assertEquals( ActionResult.ABILITY_NOT_READY, engine.tryAbility( 4, 4, 0, 4, 3 ).getCode() );
+    }
+    engine.play( Action.END_TURN_ACTION );
+    engine.play( Action.END_TURN_ACTION );
+    assertEquals( 1 + 2 * cooldown, engine.getTurn() );
+    assertTrue( engine.tryAbility( 4, 4, 0, 4, 3 ).isAccepted() );
+    assertEquals( engine.recomputeStateHash(), engine.stateHash() );
+  }
+
+  @Test
+  public void cooldownIsPartOfTheStateHash() {
+    // Whirlwind with no enemy in reach only spends the action and starts the cooldown
+    int[][] charas = { { CharaKinds.KNIGHT, 1, 1, 1 }, { CharaKinds.KNIGHT, 2, 7, 7 } };
+    ProjectColaEngine engine = game( charas );
+    ProjectColaEngine spent = game( charas );
+    assertTrue( engine.tryAbility( 1, 1, 1, 1, 1 ).isAccepted() );
+    assertEquals( engine.recomputeStateHash(), engine.stateHash() );
+
+    // A game with the action spent but the ability ready is another state
+    Chara knight = spent.getCharaStore().getChara( 0 );
+    knight.setActionsRemaining( knight.getActionsRemaining() - 1 );
+    assertFalse( engine.stateHash() == spent.stateHash() );
+
+    knight.setAbilityReadyTurn( 1, engine.getCharaStore().getAbilityReadyTurn( 0, 1 ) );
+    assertEquals( engine.stateHash(), spent.stateHash() );
+    assertEquals( spent.recomputeStateHash(), spent.stateHash() );
+  }
+
+  /**
+   * Helper method to use an ability of a kind of character from random tiles on random targets, on a board full of
+   * enemies with a few allies, and check it damages exactly the enemies the shape covers.
+   */
+  private static void assertShape( int kind, int slot, Random random ) {
+    int used = 0;
+    for ( int trial = 0; trial < TRIALS; trial++ ) {
+      int userX = random.nextInt( SIZE );
+      int userY = random.nextInt( SIZE );
+      int[][] charas = new int[ SIZE * SIZE ][];
+      charas[ 0 ] = new int[] { kind, 1, userX, userY };
+      int count = 1;
+      for ( int x = 0; x < SIZE; x++ ) {
+        for ( int y = 0; y < SIZE; y++ ) {
+          if ( x != userX || y != userY ) {
+            charas[ count++ ] = new int[] { CharaKinds.KNIGHT, random.nextInt( 5 ) == 0 ? 1 : 2, x, y };
+          }
+        }
+      }
+
+      ProjectColaEngine engine = game( charas );
+      Board board = engine.getBoard();
+      CharaStore store = engine.getCharaStore();
+      Ability ability = store.getChara( 0 ).getAbilities().get( slot );
+
+      int range = ability.getMinRange() + random.nextInt( ability.getMaxRange() - ability.getMinRange() + 1 );
+      int offsetX = range == 0 ? 0 : random.nextInt( 2 * range + 1 ) - range;
+      int offsetY = ( range - Math.abs( offsetX ) ) * ( random.nextBoolean() ? 1 : -1 );
+      int toX = userX + offsetX;
+      int toY = userY + offsetY;
+
+      int[] health = new int[ store.size() ];
+      for ( int id = 0; id < store.size(); id++ ) {
+        health[ id ] = store.getHealth( id );
+      }
+      if ( !engine.tryAbility( userX, userY, slot, toX, toY ).isAccepted() ) {
+        // Targets off the board, or off the straight directions a line or cone needs
+        continue;
+      }
+      used++;
+      for ( int turn = 0; turn < ability.getCastDelay(); turn++ ) {
+        engine.play( Action.END_TURN_ACTION );
+        engine.play( Action.END_TURN_ACTION );
+      }
+
+      Set< Integer > expected = new TreeSet< Integer >();
+      for ( int id = 1; id < store.size(); id++ ) {
+        int x = board.getX( store.getTileIndex( id ) );
+        int y = board.getY( store.getTileIndex( id ) );
+        if ( store.getPlayer( id ) == 2 && covers( ability, userX, userY, toX, toY, x, y ) ) {
+          expected.add( id );
+        }
+      }
+      Set< Integer > damaged = new TreeSet< Integer >();
+      for ( int id = 0; id < store.size(); id++ ) {
+        if ( store.getHealth( id ) != health[ id ] ) {
+          assertEquals( health[ id ] - ability.getPower(), store.getHealth( id ) );
+          damaged.add( id );
+        }
+      }
+
+      assertEquals( ability.getName() + " from " + userX + "," + userY + " on " + toX + "," + toY, expected,
+          damaged );
+      assertEquals( engine.recomputeStateHash(), engine.stateHash() );
+    }
+    assertTrue( "ability never used", used > 0 );
+  }
+
+  /**
+   * Helper method to tell whether an ability used from one tile on another covers a third, from the shape's
+   * definition.
+   */
+  private static boolean covers( Ability ability, int userX, int userY, int toX, int toY, int x, int y ) {
+    int stepX = Integer.signum( toX - userX );
+    int stepY = Integer.signum( toY - userY );
+
+    // Steps away from the user along the direction, and tiles to the side of it
+    int ahead = ( x - userX ) * stepX + ( y - userY ) * stepY;
+    int side = Math.abs( ( x - userX ) * stepY + ( y - userY ) * stepX );
+
+    switch ( ability.getShape() ) {
+      case Ability.SINGLE:
+        return x == toX && y == toY;
+      case Ability.DIAMOND:
+        return Math.abs( x - toX ) + Math.abs( y - toY ) <= ability.getSize();
+      case Ability.LINE:
+        return ahead >= 1 && ahead <= ability.getSize() && side == 0;
+      case Ability.CONE:
+        return ahead >= 1 && ahead <= ability.getSize() && side <= ahead - 1;
+      default:
+        throw new AssertionError( "Unknown shape " + ability.getShape() );
+    }
+  }
+
+  /**
+   * Helper method to set up a game on turn 1 with the given characters, each as its kind, player, x and y.
+   */
+  private static ProjectColaEngine game( int[][] charas ) {
+    int count = 0;
+    while ( count < charas.length && charas[ count ] != null ) {
+      count++;
+    }
+
+    ProjectColaEngine engine = new ProjectColaEngine( SIZE, SIZE, 1, count );
+    CharaStore store = engine.getCharaStore();
+    for ( int i = 0; i < count; i++ ) {
+      int id = store.add( charas[ i ][ 0 ], charas[ i ][ 1 ] );
+      engine.restoreCharacter( store.getChara( id ), engine.getBoard().getIndex( charas[ i ][ 2 ], charas[ i ][ 3 ] ) );
+    }
+    return engine;
+  }
+}
@@ -0,0 +1,92 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.effect.Tornado;
+import axk9084.ProjectCola.model.chara.Chara;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a copied engine carries over everything that acts at the end of a turn, and shares none of it with the
+ * original.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class EngineCopyTest {
+
+  @Test
+  public void effectsAreCopiedInTheirCurrentState() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+    Board board = engine.getBoard();
+    int start = board.getIndex( 0, 2 );
+    board.addEffect( start, new Tornado( 1, 0, 3 ) );
+    engine.play( Action.END_TURN_ACTION );
+
+    ProjectColaEngine copy = new ProjectColaEngine( engine );
+    int tile = board.getIndex( 1, 2 );
+    assertEquals( 1, copy.getBoard().getEffectCount() );
+    Effect copied = copy.getBoard().getEffects( tile ).get( 0 );
+    assertNotSame( board.getEffects( tile ).get( 0 ), copied );
+    assertEquals( 2, ( (Tornado) copied ).getTurnsRemaining() );
+
+    // The copy's tornado travels on and dies down on its own, the original stays where it is
+    copy.play( Action.END_TURN_ACTION );
+    copy.play( Action.END_TURN_ACTION );
+    assertEquals( 1, copy.getBoard().getEffects( board.getIndex( 3, 2 ) ).size() );
+    copy.play( Action.END_TURN_ACTION );
+    assertEquals( 0, copy.getBoard().getEffectCount() );
+    assertEquals( 2, ( (Tornado) board.getEffects( tile ).get( 0 ) ).getTurnsRemaining() );
+  }
+
+  @Test
+  public void pendingCastsAreCopied() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+    Chara caster = engine.getCharacters( 1 ).get( 0 );
+    CountingCast cast = new CountingCast();
+    engine.scheduleCast( caster, 0, cast );
+    long cancelled = engine.scheduleCast( caster, 2, new CountingCast() );
+
+    ProjectColaEngine copy = new ProjectColaEngine( engine );
+    assertEquals( 2, copy.getPendingCastCount() );
+
+    // The original's handle cancels the copy's cast, and leaves the original's pending
+    assertTrue( copy.cancelCast( cancelled ) );
+    assertEquals( 2, engine.getPendingCastCount() );
+
+    // The copy resolves a cast of its own, not the original's
+    copy.play( Action.END_TURN_ACTION );
+    assertEquals( 0, copy.getPendingCastCount() );
+    assertEquals( 0, cast.resolved );
+    assertEquals( 1, cast.copies );
+    assertNotNull( cast.copied );
+    assertEquals( 1, cast.copied.resolved );
+    assertEquals( copy.getCharaStore().getChara( caster.getId() ), cast.copied.caster );
+  }
+
+  /**
+   * A cast that counts how often it and its copy resolve.
+   */
+  private static class CountingCast implements Cast {
+
+    private int resolved = 0;
+    private int copies = 0;
+    private Chara caster;
+    private CountingCast copied;
+
+    public void resolve( ProjectColaEngine engine, Chara caster ) {
+      resolved++;
+      this.caster = caster;
+    }
+
+    public Cast copy() {
+      copies++;
+      copied = new CountingCast();
+      return copied;
+    }
+  }
+}
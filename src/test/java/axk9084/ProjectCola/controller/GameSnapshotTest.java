@@ -0,0 +1,270 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.io.Varint;
+import axk9084.ProjectCola.model.Effect;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.effect.Tornado;
+import axk9084.ProjectCola.model.board.terrain.Forest;
+import axk9084.ProjectCola.model.board.terrain.Mountain;
+import axk9084.ProjectCola.model.board.terrain.Swamp;
+import axk9084.ProjectCola.model.board.terrain.TerrainKinds;
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.CharaKinds;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that a game restored from a snapshot is the game that was saved, that older versions still restore and that
+ * games that can not be saved are rejected.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class GameSnapshotTest {
+
+  private static final int GAMES = 100;
+  private static final int STEPS = 200;
+
+  // Turn ends both games are played on after a restore, so pending casts and effects get to act
+  private static final int TURNS_AFTER = 4;
+
+  private final long[] actions = new long[ 1024 ];
+
+  @Test
+  public void randomGamesRoundTrip() {
+    Random random = new Random( 16 );
+    int castsSaved = 0;
+    int effectsSaved = 0;
+
+    for ( int game = 0; game < GAMES; game++ ) {
+      int size = 6 + random.nextInt( 3 );
+      ProjectColaEngine engine = new ProjectColaEngine( size, size );
+      Board board = engine.getBoard();
+      for ( int index = 0; index < board.getTileCount(); index++ ) {
+        if ( board.getEntityAt( index ) == null && random.nextInt( 8 ) == 0 ) {
+          board.setTerrain( index, random.nextBoolean() ? new Forest() : new Swamp() );
+        }
+      }
+      for ( int i = random.nextInt( 3 ); i > 0; i-- ) {
+        board.addEffect( random.nextInt( board.getTileCount() ),
+            new Tornado( random.nextInt( 3 ) - 1, random.nextInt( 3 ) - 1, 1 + random.nextInt( 10 ) ) );
+      }
+
+      int steps = random.nextInt( STEPS );
+      for ( int step = 0; step < steps && engine.getGameWinner() == null; step++ ) {
+        if ( random.nextInt( 4 ) != 0 || !castRandomAbility( engine, random ) ) {
+          int count = engine.generateLegalActions( engine.getTurnPlayer(), actions );
+          engine.play( actions[ random.nextInt( count ) ] );
+        }
+      }
+
+      if ( engine.getGameWinner() == null && random.nextBoolean() ) {
+        castDelayedAbility( engine );
+      }
+
+      byte[] bytes = GameSnapshot.toBytes( engine );
+      ProjectColaEngine restored = GameSnapshot.fromBytes( bytes );
+      castsSaved += engine.getPendingCastCount();
+      effectsSaved += board.getEffectCount();
+
+      assertEquals( "game " + game, engine.stateHash(), restored.stateHash() );
+      assertEquals( "game " + game, engine.getGameWinner(), restored.getGameWinner() );
+      assertEquals( "game " + game, engine.getPendingCastCount(), restored.getPendingCastCount() );
+      assertArrayEquals( "game " + game, bytes, GameSnapshot.toBytes( restored ) );
+
+      // The casts and effects act the same in both games
+      for ( int turn = 0; turn < TURNS_AFTER && engine.getGameWinner() == null; turn++ ) {
+        engine.play( Action.END_TURN_ACTION );
+        restored.play( Action.END_TURN_ACTION );
+        assertEquals( "game " + game + " turn " + turn, engine.stateHash(), restored.stateHash() );
+        assertArrayEquals( "game " + game + " turn " + turn, GameSnapshot.toBytes( engine ),
+            GameSnapshot.toBytes( restored ) );
+      }
+    }
+
+    assertTrue( "no casts saved", castsSaved > 0 );
+    assertTrue( "no effects saved", effectsSaved > 0 );
+  }
+
+  @Test
+  public void terrainIsRestored() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+    Board board = engine.getBoard();
+    board.setTerrain( board.getIndex( 0, 0 ), new Forest() );
+    board.setTerrain( board.getIndex( 2, 3 ), new Swamp() );
+    board.setTerrain( board.getIndex( 3, 3 ), new Mountain(), new Forest() );
+    board.setTerrain( board.getTileCount() - 1, new Mountain() );
+
+    Board restored = GameSnapshot.fromBytes( GameSnapshot.toBytes( engine ) ).getBoard();
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      assertEquals( "tile " + index, kinds( board.getTerrainEffects( index ) ),
+          kinds( restored.getTerrainEffects( index ) ) );
+      assertEquals( "tile " + index, board.getMoveCost( index ), restored.getMoveCost( index ) );
+    }
+  }
+
+  @Test
+  public void versionOneRestoresWithAbilitiesReady() {
+    ByteBuffer out = ByteBuffer.allocate( 64 );
+    out.put( (byte) 1 );
+    Varint.writeUnsigned( out, 6 );
+    Varint.writeUnsigned( out, 6 );
+    Varint.writeUnsigned( out, 5 );
+    Varint.writeUnsigned( out, 0 );
+    Varint.writeUnsigned( out, 3 );
+    writeVersionOneRow( out, CharaKinds.KNIGHT, 1, 7, 1, 8 );
+    writeVersionOneRow( out, CharaKinds.MAGE, 2, 0, 0, -1 );
+    writeVersionOneRow( out, CharaKinds.PRIEST, 2, 12, 2, 30 );
+    out.flip();
+
+    ProjectColaEngine engine = GameSnapshot.read( out );
+    assertEquals( 5, engine.getTurn() );
+    assertEquals( null, engine.getGameWinner() );
+    assertEquals( 1, engine.getCharacters( 1 ).size() );
+    assertEquals( 1, engine.getCharacters( 2 ).size() );
+    assertEquals( 0, engine.getPendingCastCount() );
+    assertEquals( 0, engine.getBoard().getEffectCount() );
+    assertTrue( engine.getBoard().hasUniformMoveCost() );
+    assertEquals( engine.recomputeStateHash(), engine.stateHash() );
+
+    Chara knight = engine.getCharacters( 1 ).get( 0 );
+    assertEquals( 8, knight.getTileIndex() );
+    assertEquals( 7, knight.getHealth() );
+    assertEquals( 1, knight.getActionsRemaining() );
+    Chara priest = engine.getCharacters( 2 ).get( 0 );
+    assertEquals( 2, priest.getId() );
+    assertEquals( 30, priest.getTileIndex() );
+    for ( int slot = 0; slot < priest.getAbilities().size(); slot++ ) {
+      assertEquals( 0, priest.getAbilityTurnsRemaining( slot, engine.getTurn() ) );
+    }
+    assertEquals( -1, engine.getCharaStore().getTileIndex( 1 ) );
+  }
+
+  @Test
+  public void versionTwoRestoresOnPlainTiles() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+    engine.play( Action.END_TURN_ACTION );
+
+    // A version 2 snapshot is a version 4 one without the terrain, effect and cast counts, which are the last three
+    // bytes of a game with none of them
+    byte[] bytes = GameSnapshot.toBytes( engine );
+    byte[] versionTwo = Arrays.copyOf( bytes, bytes.length - 3 );
+    versionTwo[ 0 ] = 2;
+
+    ProjectColaEngine restored = GameSnapshot.fromBytes( versionTwo );
+    assertEquals( engine.stateHash(), restored.stateHash() );
+    assertTrue( restored.getBoard().hasUniformMoveCost() );
+  }
+
+  @Test
+  public void gamesThatCanNotBeSavedAreRejected() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+    engine.getBoard().addEffect( 0, new Effect() {
+      public int endTurnAction( Board board, int tileIndex ) {
+        return tileIndex;
+      }
+
+      public Effect copy() {
+        return this;
+      }
+    } );
+    assertRejected( engine );
+
+    engine = new ProjectColaEngine();
+    engine.scheduleCast( engine.getCharacters( 1 ).get( 0 ), 1, new Cast() {
+      public void resolve( ProjectColaEngine engine, Chara caster ) {
+      }
+
+      public Cast copy() {
+        return this;
+      }
+    } );
+    assertRejected( engine );
+  }
+
+  private static void assertRejected( ProjectColaEngine engine ) {
+    ByteBuffer out = ByteBuffer.allocate( GameSnapshot.maxSize( engine ) );
+    try {
+      GameSnapshot.write( engine, out );
+      fail( "saved a game that can not be restored" );
+    }
+    catch ( IllegalStateException e ) {
+      assertEquals( 0, out.position() );
+    }
+  }
+
+  /**
+   * Helper method to write a character row of a version 1 snapshot, which has no ability cooldowns.
+   */
+  private static void writeVersionOneRow( ByteBuffer out, int kind, int player, int health, int actionsRemaining,
+                                          int tileIndex ) {
+    Varint.writeUnsigned( out, kind );
+    Varint.writeUnsigned( out, player );
+    Varint.writeSigned( out, health );
+    Varint.writeUnsigned( out, actionsRemaining );
+    Varint.writeUnsigned( out, tileIndex + 1 );
+  }
+
+  /**
+   * Helper method to use a random ability of a random character of the turn player on a random tile in its range.
+   *
+   * @return true if the ability was used
+   */
+  private static boolean castRandomAbility( ProjectColaEngine engine, Random random ) {
+    List< Chara > charas = engine.getCharacters( engine.getTurnPlayer() );
+    Chara caster = charas.get( random.nextInt( charas.size() ) );
+    int slot = random.nextInt( caster.getAbilities().size() );
+    int range = caster.getAbilities().get( slot ).getMaxRange();
+
+    Board board = engine.getBoard();
+    int fromX = board.getX( caster.getTileIndex() );
+    int fromY = board.getY( caster.getTileIndex() );
+    int offsetX = random.nextInt( 2 * range + 1 ) - range;
+    int spanY = range - Math.abs( offsetX );
+    int offsetY = random.nextInt( 2 * spanY + 1 ) - spanY;
+    return engine.tryAbility( fromX, fromY, slot, fromX + offsetX, fromY + offsetY ).isAccepted();
+  }
+
+  /**
+   * Helper method to use the first ability with a casting time that some character of the turn player can use, so
+   * the game has a cast pending.
+   */
+  private static void castDelayedAbility( ProjectColaEngine engine ) {
+    Board board = engine.getBoard();
+    List< Chara > charas = engine.getCharacters( engine.getTurnPlayer() );
+    for ( int i = 0; i < charas.size(); i++ ) {
+      Chara caster = charas.get( i );
+      for ( int slot = 0; slot < caster.getAbilities().size(); slot++ ) {
+        if ( caster.getAbilities().get( slot ).getCastDelay() == 0 ) {
+          continue;
+        }
+        int fromX = board.getX( caster.getTileIndex() );
+        int fromY = board.getY( caster.getTileIndex() );
+        for ( int toIndex = 0; toIndex < board.getTileCount(); toIndex++ ) {
+          if ( engine.tryAbility( fromX, fromY, slot, board.getX( toIndex ), board.getY( toIndex ) ).isAccepted() ) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper method to list the kinds of a tile's terrain effects, so tiles of two boards can be compared.
+   */
+  private static String kinds( List< Effect > terrain ) {
+    StringBuilder kinds = new StringBuilder();
+    for ( int i = 0; i < terrain.size(); i++ ) {
+      kinds.append( TerrainKinds.kindOf( terrain.get( i ) ) ).append( ' ' );
+    }
+    return kinds.toString();
+  }
+}
@@ -0,0 +1,106 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.board.terrain.Forest;
+import axk9084.ProjectCola.model.board.terrain.Mountain;
+import axk9084.ProjectCola.model.board.terrain.Swamp;
+import axk9084.ProjectCola.model.chara.Chara;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the moves generateLegalActions lists are exactly the moves tryMove accepts, over random games on boards
+ * with random terrain.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class MoveRulesTest {
+
+  private static final int GAMES = 40;
+  private static final int STEPS = 60;
+
+  private final long[] actions = new long[ 1024 ];
+
+  @Test
+  public void generatedMovesMatchAcceptedMoves() {
+    Random random = new Random( 3 );
+    int moves = 0;
+
+    for ( int game = 0; game < GAMES; game++ ) {
+      int size = 6 + random.nextInt( 3 );
+      ProjectColaEngine engine = new ProjectColaEngine( size, size );
+      addRandomTerrain( engine.getBoard(), random );
+
+      for ( int step = 0; step < STEPS && engine.getGameWinner() == null; step++ ) {
+        int count = engine.generateLegalActions( engine.getTurnPlayer(), actions );
+        Set< Long > generated = new HashSet< Long >();
+        for ( int i = 0; i < count; i++ ) {
+          if ( Action.getType( actions[ i ] ) == Action.MOVE ) {
+            generated.add( actions[ i ] );
+          }
+        }
+
+        moves += assertMovesMatch( engine, generated );
+        engine.play( actions[ random.nextInt( count ) ] );
+      }
+    }
+
+    assertTrue( "no moves", moves > 0 );
+  }
+
+  /**
+   * Helper method to try every move of every character of the turn player on a copy of the game, and check each is
+   * accepted exactly when it was generated.
+   *
+   * @return the number of accepted moves
+   */
+  private static int assertMovesMatch( ProjectColaEngine engine, Set< Long > generated ) {
+    Board board = engine.getBoard();
+    List< Chara > charas = engine.getCharacters( engine.getTurnPlayer() );
+    int accepted = 0;
+
+    for ( int i = 0; i < charas.size(); i++ ) {
+      int fromIndex = charas.get( i ).getTileIndex();
+      for ( int toIndex = 0; toIndex < board.getTileCount(); toIndex++ ) {
+        ProjectColaEngine copy = new ProjectColaEngine( engine );
+        boolean isAccepted = copy.tryMove( board.getX( fromIndex ), board.getY( fromIndex ),
+            board.getX( toIndex ), board.getY( toIndex ) ).isAccepted();
+
+        long move = Action.move( fromIndex, toIndex );
+        assertEquals( Action.toString( move ), generated.contains( move ), isAccepted );
+        accepted += isAccepted ? 1 : 0;
+      }
+    }
+
+    assertEquals( "generated moves that were not tried", generated.size(), accepted );
+    return accepted;
+  }
+
+  /**
+   * Helper method to give about a third of the empty tiles of a board a random terrain.
+   */
+  private static void addRandomTerrain( Board board, Random random ) {
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      if ( board.getEntityAt( index ) != null || random.nextInt( 3 ) != 0 ) {
+        continue;
+      }
+      switch ( random.nextInt( 3 ) ) {
+        case 0:
+          board.setTerrain( index, new Forest() );
+          break;
+        case 1:
+          board.setTerrain( index, new Swamp() );
+          break;
+        default:
+          board.setTerrain( index, new Mountain() );
+      }
+    }
+  }
+}
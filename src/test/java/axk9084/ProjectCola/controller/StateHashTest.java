@@ -0,0 +1,128 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.chara.Chara;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the incrementally updated state hash always matches a full recompute, over random games that mix
+ * applied and undone actions with played actions, attacks that kill, ability casts and turn ends.
+ *
+ * Created by antkwan on 7/6/2016.
+ */
+public class StateHashTest {
+
+  private static final int GAMES = 200;
+  private static final int STEPS = 400;
+
+  private final long[] actions = new long[ 1024 ];
+
+  private int kills = 0;
+  private int casts = 0;
+  private int undos = 0;
+  private int turnEnds = 0;
+
+  @Test
+  public void incrementalHashMatchesRecompute() {
+    Random random = new Random( 6 );
+
+    for ( int game = 0; game < GAMES; game++ ) {
+      int size = 6 + random.nextInt( 3 );
+      ProjectColaEngine engine = new ProjectColaEngine( size, size );
+      assertHash( engine, "new game" );
+
+      for ( int step = 0; step < STEPS; step++ ) {
+        int roll = random.nextInt( 10 );
+        if ( engine.getUndoDepth() > 0 && ( roll < 3 || engine.getGameWinner() != null ) ) {
+          engine.undo();
+          undos++;
+          assertHash( engine, "undo" );
+          continue;
+        }
+        if ( engine.getGameWinner() != null ) {
+          break;
+        }
+
+        // Played actions and casts are not recorded for undo, so they only happen with nothing left to undo
+        boolean played = engine.getUndoDepth() == 0 && roll < 6;
+        if ( played && roll < 2 ) {
+          castRandomAbility( engine, random );
+          assertHash( engine, "ability" );
+          continue;
+        }
+
+        long action = pickAction( engine, random );
+        int before = countCharacters( engine );
+        if ( played ) {
+          engine.play( action );
+        }
+        else {
+          engine.apply( action );
+        }
+        kills += before - countCharacters( engine );
+        if ( Action.getType( action ) == Action.END_TURN ) {
+          turnEnds++;
+        }
+        assertHash( engine, ( played ? "play " : "apply " ) + Action.toString( action ) );
+      }
+    }
+
+    // The random games must have reached every kind of change the hash tracks
+    assertTrue( "no kills", kills > 0 );
+    assertTrue( "no ability casts", casts > 0 );
+    assertTrue( "no undos", undos > 0 );
+    assertTrue( "no turn ends", turnEnds > 0 );
+  }
+
+  private static void assertHash( ProjectColaEngine engine, String after ) {
+    assertEquals( "hash after " + after, engine.recomputeStateHash(), engine.stateHash() );
+  }
+
+  /**
+   * Helper method to pick a random legal action, favouring attacks so games see kills.
+   */
+  private long pickAction( ProjectColaEngine engine, Random random ) {
+    int count = engine.generateLegalActions( engine.getTurnPlayer(), actions );
+    if ( random.nextBoolean() ) {
+      for ( int i = 0; i < count; i++ ) {
+        if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+          return actions[ i ];
+        }
+      }
+    }
+    return actions[ random.nextInt( count ) ];
+  }
+
+  /**
+   * Helper method to use a random ability of a random character of the turn player on a random tile in its range.
+   */
+  private void castRandomAbility( ProjectColaEngine engine, Random random ) {
+    List< Chara > charas = engine.getCharacters( engine.getTurnPlayer() );
+    Chara caster = charas.get( random.nextInt( charas.size() ) );
+    int slot = random.nextInt( caster.getAbilities().size() );
+    int range = caster.getAbilities().get( slot ).getMaxRange();
+
+    Board board = engine.getBoard();
+    int fromX = board.getX( caster.getTileIndex() );
+    int fromY = board.getY( caster.getTileIndex() );
+    int offsetX = random.nextInt( 2 * range + 1 ) - range;
+    int spanY = range - Math.abs( offsetX );
+    int offsetY = random.nextInt( 2 * spanY + 1 ) - spanY;
+
+    int before = countCharacters( engine );
+    if ( engine.tryAbility( fromX, fromY, slot, fromX + offsetX, fromY + offsetY ).isAccepted() ) {
+      casts++;
+    }
+    kills += before - countCharacters( engine );
+  }
+
+  private static int countCharacters( ProjectColaEngine engine ) {
+    return engine.getCharacters( 1 ).size() + engine.getCharacters( 2 ).size();
+  }
+}
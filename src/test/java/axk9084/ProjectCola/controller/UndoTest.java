@@ -0,0 +1,166 @@
+package axk9084.ProjectCola.controller;
+
+import axk9084.ProjectCola.model.Entity;
+import axk9084.ProjectCola.model.board.Board;
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.CharaStore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that undo restores exactly the state before the action it reverts: the board, every chara's health,
+ * remaining actions and tile, the order of the players' character lists, the turn and the winner.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class UndoTest {
+
+  private static final int GAMES = 200;
+  private static final int DEPTH = 300;
+
+  private final long[] actions = new long[ 1024 ];
+
+  private int killsUndone = 0;
+  private int winsUndone = 0;
+  private int turnEndsUndone = 0;
+
+  @Test
+  public void undoRestoresTheStateBeforeEachAction() {
+    Random random = new Random( 5 );
+
+    for ( int game = 0; game < GAMES; game++ ) {
+      int size = 6 + random.nextInt( 3 );
+      ProjectColaEngine engine = new ProjectColaEngine( size, size );
+
+      // Apply a line of random actions, remembering the state before each, then undo back to the start
+      List< String > before = new ArrayList< String >();
+      List< Long > applied = new ArrayList< Long >();
+      for ( int step = 0; step < DEPTH && engine.getGameWinner() == null; step++ ) {
+        long action = pickAction( engine, random );
+        before.add( describe( engine ) );
+        applied.add( action );
+        countUndone( engine, action );
+        engine.apply( action );
+      }
+
+      for ( int i = applied.size() - 1; i >= 0; i-- ) {
+        engine.undo();
+        assertEquals( "state after undoing " + Action.toString( applied.get( i ) ), before.get( i ),
+            describe( engine ) );
+      }
+      assertEquals( 0, engine.getUndoDepth() );
+    }
+
+    // The random games must have undone kills, wins and turn ends with actions to restore
+    assertTrue( "no kills undone", killsUndone > 0 );
+    assertTrue( "no wins undone", winsUndone > 0 );
+    assertTrue( "no turn ends undone", turnEndsUndone > 0 );
+  }
+
+  @Test
+  public void undoRestoresTheActionsOfTheEndedTurn() {
+    ProjectColaEngine engine = new ProjectColaEngine();
+
+    // Spend one chara's action with a move, so ending the turn resets a spent and an unspent chara
+    int count = engine.generateLegalActions( 1, actions );
+    long move = firstOfType( Action.MOVE, count );
+    engine.apply( move );
+    String afterMove = describe( engine );
+
+    engine.apply( Action.END_TURN_ACTION );
+    assertEquals( 2, engine.getTurn() );
+
+    engine.undo();
+    assertEquals( afterMove, describe( engine ) );
+    Chara mover = (Chara) engine.getBoard().getEntityAt( Action.getToIndex( move ) );
+    assertEquals( mover.getActions() - 1, mover.getActionsRemaining() );
+  }
+
+  /**
+   * Helper method to count, before an action is applied, the kills, wins and spent actions its undo will restore.
+   */
+  private void countUndone( ProjectColaEngine engine, long action ) {
+    switch ( Action.getType( action ) ) {
+      case Action.ATTACK:
+        Chara enemy = (Chara) engine.getBoard().getEntityAt( Action.getToIndex( action ) );
+        Chara chara = (Chara) engine.getBoard().getEntityAt( Action.getFromIndex( action ) );
+        if ( enemy.getHealth() <= chara.getAttackPower() ) {
+          killsUndone++;
+          winsUndone += engine.getCharacters( enemy.getPlayer() ).size() == 1 ? 1 : 0;
+        }
+        break;
+      case Action.END_TURN:
+        // Ending the turn resets the actions the turn player's characters spent
+        List< Chara > charas = engine.getCharacters( engine.getTurnPlayer() );
+        for ( int i = 0; i < charas.size(); i++ ) {
+          if ( charas.get( i ).getActionsRemaining() < charas.get( i ).getActions() ) {
+            turnEndsUndone++;
+            break;
+          }
+        }
+        break;
+    }
+  }
+
+  /**
+   * Helper method to pick a random legal action, favouring attacks so lines reach kills and wins.
+   */
+  private long pickAction( ProjectColaEngine engine, Random random ) {
+    int count = engine.generateLegalActions( engine.getTurnPlayer(), actions );
+    if ( random.nextInt( 4 ) != 0 ) {
+      for ( int i = 0; i < count; i++ ) {
+        if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+          return actions[ i ];
+        }
+      }
+    }
+    return actions[ random.nextInt( count ) ];
+  }
+
+  private long firstOfType( int type, int count ) {
+    for ( int i = 0; i < count; i++ ) {
+      if ( Action.getType( actions[ i ] ) == type ) {
+        return actions[ i ];
+      }
+    }
+    throw new AssertionError( "no action of type " + type );
+  }
+
+  /**
+   * Helper method to describe everything undo restores, so two states can be compared and the difference shown.
+   */
+  private static String describe( ProjectColaEngine engine ) {
+    StringBuilder description = new StringBuilder();
+    description.append( "turn " ).append( engine.getTurn() ).append( " winner " ).append( engine.getGameWinner() );
+
+    Board board = engine.getBoard();
+    description.append( "\nboard" );
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      Entity entity = board.getEntityAt( index );
+      description.append( ' ' ).append( entity == null ? "-" : String.valueOf( ( (Chara) entity ).getId() ) );
+    }
+
+    for ( int player = 1; player <= 2; player++ ) {
+      description.append( "\nplayer " ).append( player );
+      List< Chara > charas = engine.getCharacters( player );
+      for ( int i = 0; i < charas.size(); i++ ) {
+        description.append( ' ' ).append( charas.get( i ).getId() );
+      }
+    }
+
+    CharaStore store = engine.getCharaStore();
+    for ( int id = 0; id < store.size(); id++ ) {
+      description.append( "\nchara " ).append( id )
+          .append( " tile " ).append( store.getTileIndex( id ) )
+          .append( " health " ).append( store.getHealth( id ) )
+          .append( " actions " ).append( store.getActionsRemaining( id ) );
+    }
+    return description.toString();
+  }
+}
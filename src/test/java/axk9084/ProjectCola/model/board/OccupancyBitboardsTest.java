@@ -0,0 +1,114 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.chara.Chara;
+import axk9084.ProjectCola.model.chara.Knight;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that findInRange finds exactly the tiles a scan of every tile by Manhattan distance finds, on boards of one
+ * word and on boards whose columns run across several words, where the min range splits a column's run in two.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class OccupancyBitboardsTest {
+
+  private static final int TRIALS = 300;
+
+  private final int[] found = new int[ 20000 ];
+
+  @Test
+  public void findInRangeMatchesScan() {
+    Random random = new Random( 18 );
+    int[][] sizes = { { 8, 8 }, { 6, 6 }, { 9, 9 }, { 100, 3 }, { 200, 1 }, { 70, 70 }, { 3, 100 } };
+    int splits = 0;
+
+    for ( int[] size : sizes ) {
+      Board board = new Board( size[ 0 ], size[ 1 ] );
+      for ( int index = 0; index < board.getTileCount(); index++ ) {
+        if ( random.nextInt( 3 ) == 0 ) {
+          board.setEntityAt( index, new Knight( 1 + random.nextInt( 2 ) ) );
+        }
+      }
+
+      OccupancyBitboards occupancy = board.getOccupancy();
+      int maxDistance = size[ 0 ] + size[ 1 ] - 2;
+      for ( int trial = 0; trial < TRIALS; trial++ ) {
+        int player = 1 + random.nextInt( 2 );
+        int index = random.nextInt( board.getTileCount() );
+        int minRange = random.nextInt( 4 ) == 0 ? 0 : random.nextInt( maxDistance + 2 );
+        int maxRange = minRange + random.nextInt( 80 ) - 5;
+
+        int[] expected = scan( board, player, index, minRange, maxRange );
+        int count = occupancy.findInRange( player, index, minRange, maxRange, found );
+        assertEquals( describe( size, player, index, minRange, maxRange ), expected.length, count );
+        assertArrayEquals( describe( size, player, index, minRange, maxRange ), expected,
+            Arrays.copyOf( found, count ) );
+
+        // A min range splits the run of the tile's own column, count the splits with tiles found on both sides
+        if ( !occupancy.isSingleWord() && minRange > 0 && splitsColumn( board, index, expected ) ) {
+          splits++;
+        }
+      }
+    }
+
+    assertTrue( "no split runs on boards of several words", splits > 0 );
+  }
+
+  @Test
+  public void findInRangeCountsPastTheBuffer() {
+    Board board = new Board( 100, 3 );
+    for ( int index = 0; index < board.getTileCount(); index++ ) {
+      board.setEntityAt( index, new Knight( 2 ) );
+    }
+
+    int[] small = new int[ 4 ];
+    int count = board.getOccupancy().findInRange( 2, board.getIndex( 1, 50 ), 1, 10, small );
+    int[] expected = scan( board, 2, board.getIndex( 1, 50 ), 1, 10 );
+    assertEquals( expected.length, count );
+    assertArrayEquals( Arrays.copyOf( expected, 4 ), small );
+  }
+
+  /**
+   * Helper method to find the tiles of a player's characters within a range of a tile by looking at every tile.
+   */
+  private static int[] scan( Board board, int player, int index, int minRange, int maxRange ) {
+    int[] tiles = new int[ board.getTileCount() ];
+    int count = 0;
+    for ( int other = 0; other < board.getTileCount(); other++ ) {
+      int distance = Math.abs( board.getX( index ) - board.getX( other ) )
+          + Math.abs( board.getY( index ) - board.getY( other ) );
+      Chara chara = (Chara) board.getEntityAt( other );
+      if ( chara != null && chara.getPlayer() == player && distance >= minRange && distance <= maxRange ) {
+        tiles[ count++ ] = other;
+      }
+    }
+    return Arrays.copyOf( tiles, count );
+  }
+
+  /**
+   * Helper method to tell whether tiles were found in a tile's column both above and below it.
+   */
+  private static boolean splitsColumn( Board board, int index, int[] tiles ) {
+    boolean above = false;
+    boolean below = false;
+    for ( int i = 0; i < tiles.length; i++ ) {
+      if ( board.getX( tiles[ i ] ) == board.getX( index ) ) {
+        above |= tiles[ i ] < index;
+        below |= tiles[ i ] > index;
+      }
+    }
+    return above && below;
+  }
+
+  private static String describe( int[] size, int player, int index, int minRange, int maxRange ) {
+    return size[ 0 ] + "x" + size[ 1 ] + " player " + player + " from " + index + " in " + minRange + " to "
+        + maxRange;
+  }
+}
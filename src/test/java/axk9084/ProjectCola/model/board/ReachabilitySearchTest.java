@@ -0,0 +1,122 @@
+package axk9084.ProjectCola.model.board;
+
+import axk9084.ProjectCola.model.board.terrain.Forest;
+import axk9084.ProjectCola.model.board.terrain.Mountain;
+import axk9084.ProjectCola.model.board.terrain.Swamp;
+import axk9084.ProjectCola.model.chara.Knight;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a step is only taken with enough move points left to pay for the terrain of the tile it steps onto.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class ReachabilitySearchTest {
+
+  private Board board;
+  private ReachabilitySearch search;
+  private int center;
+
+  @Before
+  public void setUp() {
+    board = new Board( 7, 7 );
+    search = new ReachabilitySearch( board );
+    center = board.getIndex( 3, 3 );
+  }
+
+  @Test
+  public void swampIsOutOfReachWherePlainTileIsNot() {
+    int swamp = board.getIndex( 3, 2 );
+    int plain = board.getIndex( 3, 4 );
+    board.setTerrain( swamp, new Swamp() );
+
+    // A swamp costs 3, more than the 2 points, while the plain tile at the same distance costs 1
+    BitSet reachable = search.search( center, 2 );
+    assertFalse( reachable.get( swamp ) );
+    assertTrue( reachable.get( plain ) );
+    assertEquals( 1, search.getCost( plain ) );
+
+    // With the points to pay for it the swamp is reached, and nothing past it
+    reachable = search.search( center, 3 );
+    assertTrue( reachable.get( swamp ) );
+    assertEquals( 3, search.getCost( swamp ) );
+    assertFalse( reachable.get( board.getIndex( 3, 1 ) ) );
+  }
+
+  @Test
+  public void forestSpendsTheStepsItCosts() {
+    int forest = board.getIndex( 4, 3 );
+    board.setTerrain( forest, new Forest() );
+
+    BitSet reachable = search.search( center, 2 );
+    assertTrue( reachable.get( forest ) );
+    assertEquals( 2, search.getCost( forest ) );
+
+    // The tile past the forest costs 3 through it, cheaper than the 4 steps around it
+    int past = board.getIndex( 5, 3 );
+    assertFalse( reachable.get( past ) );
+    assertTrue( search.search( center, 3 ).get( past ) );
+    assertEquals( 3, search.getCost( past ) );
+  }
+
+  @Test
+  public void mountainIsNeverReached() {
+    int mountain = board.getIndex( 2, 3 );
+    board.setTerrain( mountain, new Mountain() );
+
+    BitSet reachable = search.search( center, 10 );
+    assertFalse( reachable.get( mountain ) );
+    assertTrue( reachable.get( board.getIndex( 1, 3 ) ) );
+  }
+
+  @Test
+  public void plainBoardIsCountedInSteps() {
+    BitSet reachable = search.search( center, 2 );
+
+    // Every tile within 2 steps of the center, which is not part of the result
+    assertEquals( 12, reachable.cardinality() );
+    assertFalse( reachable.get( center ) );
+    assertEquals( 2, search.getCost( board.getIndex( 1, 3 ) ) );
+  }
+
+  @Test
+  public void bitboardSearchFindsTheSameTiles() {
+    Random random = new Random( 25 );
+    int[][] sizes = { { 8, 8 }, { 6, 6 }, { 4, 16 }, { 16, 4 }, { 64, 1 }, { 1, 64 }, { 5, 3 } };
+
+    for ( int[] size : sizes ) {
+      for ( int trial = 0; trial < 50; trial++ ) {
+        Board trialBoard = new Board( size[ 0 ], size[ 1 ] );
+        ReachabilitySearch trialSearch = new ReachabilitySearch( trialBoard );
+        boolean terrain = trial % 2 == 1;
+        for ( int index = 0; index < trialBoard.getTileCount(); index++ ) {
+          int roll = random.nextInt( 10 );
+          if ( roll < 2 ) {
+            trialBoard.setEntityAt( index, new Knight( 1 + roll ) );
+          }
+          else if ( terrain && roll == 2 ) {
+            trialBoard.setTerrain( index, random.nextBoolean() ? new Forest() : new Swamp() );
+          }
+        }
+
+        int start = random.nextInt( trialBoard.getTileCount() );
+        int points = random.nextInt( 6 );
+        long expected = 0;
+        BitSet reachable = trialSearch.search( start, points );
+        for ( int index = reachable.nextSetBit( 0 ); index >= 0; index = reachable.nextSetBit( index + 1 ) ) {
+          expected |= 1L << index;
+        }
+        assertEquals( size[ 0 ] + "x" + size[ 1 ] + " from " + start + " with " + points, expected,
+            trialSearch.searchMask( start, points ) );
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package axk9084.ProjectCola.replay;
+
+import axk9084.ProjectCola.controller.Action;
+import axk9084.ProjectCola.controller.ProjectColaEngine;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that replaying a recorded log rebuilds the live game: the end of the log and the start of every turn have
+ * the state hash and winner the live game had there.
+ *
+ * Created by antkwan on 7/18/2016.
+ */
+public class ReplayTest {
+
+  private static final int GAMES = 30;
+  private static final int STEPS = 400;
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final long[] actions = new long[ 1024 ];
+
+  @Test
+  public void replayRebuildsTheLiveGame() throws IOException {
+    Random random = new Random( 15 );
+    int wins = 0;
+
+    for ( int game = 0; game < GAMES; game++ ) {
+      int size = 6 + random.nextInt( 3 );
+      ProjectColaEngine engine = new ProjectColaEngine( size, size );
+      File file = folder.newFile();
+      Map< Integer, Long > turnHashes = new HashMap< Integer, Long >();
+      turnHashes.put( engine.getTurn(), engine.stateHash() );
+
+      // Record a game of random commands, favouring attacks so most games are won, and forfeit some of the rest
+      ReplayWriter writer = new ReplayWriter( file, engine, 1 + random.nextInt( 5 ) );
+      try {
+        for ( int step = 0; step < STEPS && engine.getGameWinner() == null; step++ ) {
+          long action = pickAction( engine, random );
+          engine.play( action );
+          writer.record( action );
+          if ( Action.getType( action ) == Action.END_TURN ) {
+            turnHashes.put( engine.getTurn(), engine.stateHash() );
+          }
+        }
+        if ( engine.getGameWinner() == null && random.nextBoolean() ) {
+          engine.playerForfeit();
+          writer.recordForfeit();
+        }
+      }
+      finally {
+        writer.close();
+      }
+      wins += engine.getGameWinner() != null ? 1 : 0;
+
+      ReplayReader reader = new ReplayReader( file );
+      try {
+        ProjectColaEngine replayed = reader.seekEnd();
+        assertEquals( "game " + game, engine.stateHash(), replayed.stateHash() );
+        assertEquals( "game " + game, engine.getGameWinner(), replayed.getGameWinner() );
+        assertEquals( "game " + game, engine.getTurn(), replayed.getTurn() );
+
+        for ( int turn = reader.getFirstTurn(); turn <= reader.getLastTurn(); turn++ ) {
+          assertEquals( "game " + game + " turn " + turn, turnHashes.get( turn ).longValue(),
+              reader.seek( turn ).stateHash() );
+        }
+      }
+      finally {
+        reader.close();
+      }
+    }
+
+    assertTrue( "no games won", wins > 0 );
+  }
+
+  /**
+   * Helper method to pick a random legal action, favouring attacks.
+   */
+  private long pickAction( ProjectColaEngine engine, Random random ) {
+    int count = engine.generateLegalActions( engine.getTurnPlayer(), actions );
+    if ( random.nextBoolean() ) {
+      for ( int i = 0; i < count; i++ ) {
+        if ( Action.getType( actions[ i ] ) == Action.ATTACK ) {
+          return actions[ i ];
+        }
+      }
+    }
+    return actions[ random.nextInt( count ) ];
+  }
+}